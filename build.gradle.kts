@@ -1,5 +1,6 @@
 plugins {
     java
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "com.github.lukesky19"
@@ -19,12 +20,38 @@ dependencies {
     compileOnly("com.sk89q.worldguard:worldguard-bukkit:7.0.14-SNAPSHOT")
     compileOnly("com.github.MilkBowl:VaultAPI:1.7.1")
     compileOnly("com.github.lukesky19:SkyLib:1.3.0.0")
+
+    // The benchmarks run outside a server, so the compile only dependencies are needed on the benchmark classpath
+    jmhImplementation("io.papermc.paper:paper-api:1.21.8-R0.1-SNAPSHOT")
+    jmhImplementation("com.sk89q.worldguard:worldguard-bukkit:7.0.14-SNAPSHOT")
+    jmhImplementation("com.github.lukesky19:SkyLib:1.3.0.0")
+    jmhImplementation("org.xerial:sqlite-jdbc:3.49.1.0")
+
+    // The dialect tests run each backend's statements against H2 in MySQL mode, an embedded PostgreSQL server and SQLite
+    testImplementation("io.papermc.paper:paper-api:1.21.8-R0.1-SNAPSHOT")
+    testImplementation("com.github.lukesky19:SkyLib:1.3.0.0")
+    testImplementation(platform("org.junit:junit-bom:5.11.4"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+    testImplementation("org.mockito:mockito-core:5.14.2")
+    testImplementation("com.h2database:h2:2.3.232")
+    testImplementation("io.zonky.test:embedded-postgres:2.1.0")
+    testImplementation("org.xerial:sqlite-jdbc:3.49.1.0")
 }
 
 java {
     toolchain.languageVersion.set(JavaLanguageVersion.of(21))
 }
 
+// Run with ./gradlew jmh, results are written to build/results/jmh/results.json
+jmh {
+    jmhVersion.set("1.37")
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    resultFormat.set("JSON")
+}
+
 tasks {
     processResources {
         val props = mapOf("version" to version)
@@ -47,6 +74,10 @@ tasks {
         archiveClassifier.set("")
     }
 
+    test {
+        useJUnitPlatform()
+    }
+
     build {
         dependsOn(javadoc)
     }
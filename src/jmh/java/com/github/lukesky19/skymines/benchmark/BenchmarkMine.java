@@ -0,0 +1,186 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.benchmark;
+
+import com.github.lukesky19.skymines.data.config.MineConfig;
+import com.github.lukesky19.skymines.mine.AbstractMine;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import io.papermc.paper.event.packet.PlayerChunkLoadEvent;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.BlockType;
+import org.bukkit.entity.Player;
+import org.bukkit.event.block.*;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.player.*;
+import org.bukkit.event.world.StructureGrowEvent;
+import org.bukkit.util.BoundingBox;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+
+/**
+ * A mine used by the benchmarks that only implements the location checks.
+ * {@link #isLocationInMine(Location)} does the same checks as a {@link com.github.lukesky19.skymines.mine.PacketMine}.
+ * Every event handler does nothing.
+ */
+public class BenchmarkMine extends AbstractMine {
+    private final @NotNull String mineId;
+    private final @NotNull World mineWorld;
+    private final @NotNull ProtectedRegion mineRegion;
+
+    /**
+     * Default Constructor.
+     * You should use {@link #BenchmarkMine(String, World, ProtectedRegion)} instead.
+     * @deprecated You should use {@link #BenchmarkMine(String, World, ProtectedRegion)} instead.
+     * @throws RuntimeException if used.
+     */
+    @Deprecated
+    public BenchmarkMine() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param mineId The id of the mine.
+     * @param mineWorld The {@link World} the mine is in.
+     * @param mineRegion The {@link ProtectedRegion} of the mine.
+     */
+    public BenchmarkMine(@NotNull String mineId, @NotNull World mineWorld, @NotNull ProtectedRegion mineRegion) {
+        this.mineId = mineId;
+        this.mineWorld = mineWorld;
+        this.mineRegion = mineRegion;
+    }
+
+    @Override
+    public @NotNull MineConfig getMineConfig() {
+        return new BenchmarkMineConfig(mineId, mineWorld.getName());
+    }
+
+    @Override
+    public boolean isUnchanged(@NotNull MineConfig mineConfig) {
+        return getMineConfig().equals(mineConfig);
+    }
+
+    @Override
+    public @NotNull String getMineId() {
+        return mineId;
+    }
+
+    @Override
+    public @NotNull World getMineWorld() {
+        return mineWorld;
+    }
+
+    @Override
+    public @NotNull BoundingBox getMineBounds() {
+        return new BoundingBox(
+                mineRegion.getMinimumPoint().x(), mineRegion.getMinimumPoint().y(), mineRegion.getMinimumPoint().z(),
+                mineRegion.getMaximumPoint().x(), mineRegion.getMaximumPoint().y(), mineRegion.getMaximumPoint().z());
+    }
+
+    @Override
+    public boolean isLocationInMine(@NotNull Location location) {
+        return mineWorld.equals(location.getWorld())
+                && mineRegion.contains(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    @Override
+    public boolean isBlockMineable(@NotNull UUID uuid, @NotNull Location location, @NotNull BlockType blockType) {
+        return false;
+    }
+
+    @Override
+    public boolean isLocationOnCooldown(@NotNull UUID uuid, @NotNull Location location) {
+        return false;
+    }
+
+    @Override
+    public void handleBlockBreak(@NotNull BlockBreakEvent blockBreakEvent) {}
+
+    @Override
+    public void handleBlockDropItem(@NotNull BlockDropItemEvent blockDropItemEvent) {}
+
+    @Override
+    public void handleBucketFilled(@NotNull PlayerBucketFillEvent playerBucketFillEvent) {}
+
+    @Override
+    public void handleBucketEmptied(@NotNull PlayerBucketEmptyEvent playerBucketEmptyEvent) {}
+
+    @Override
+    public void handlePlayerInteract(@NotNull PlayerInteractEvent playerInteractEvent) {}
+
+    @Override
+    public void handlePlayerHarvestBlockEvent(@NotNull PlayerHarvestBlockEvent playerHarvestBlockEvent) {}
+
+    @Override
+    public void handleBlockFertilizeEvent(@NotNull BlockFertilizeEvent blockFertilizeEvent) {}
+
+    @Override
+    public void handleStructureGrowEvent(@NotNull StructureGrowEvent structureGrowEvent) {}
+
+    @Override
+    public void handleEntityChangeBlockEvent(@NotNull EntityChangeBlockEvent entityChangeBlockEvent) {}
+
+    @Override
+    public void handleBlockExplodeEvent(@Nullable Player player, @NotNull BlockExplodeEvent blockExplodeEvent) {}
+
+    @Override
+    public void handleEntityExplodeEvent(@Nullable Player player, @NotNull EntityExplodeEvent entityExplodeEvent) {}
+
+    @Override
+    public void handleBlockFromToEvent(@NotNull BlockFromToEvent blockFromToEvent) {}
+
+    @Override
+    public void handleBlockPlace(@NotNull BlockPlaceEvent blockPlaceEvent) {}
+
+    @Override
+    public void handlePlayerMoveEvent(@NotNull PlayerMoveEvent playerMoveEvent) {}
+
+    @Override
+    public void handlePlayerTeleportEvent(@NotNull PlayerTeleportEvent playerTeleportEvent) {}
+
+    @Override
+    public void handlePlayerChunkLoad(@NotNull PlayerChunkLoadEvent playerChunkLoadEvent) {}
+
+    @Override
+    public void createAndShowBossBar(@NotNull Player player, @NotNull UUID uuid) {}
+
+    @Override
+    public void updateBossBar(@NotNull UUID uuid) {}
+
+    @Override
+    public void handlePlayerExit(@NotNull UUID uuid) {}
+
+    @Override
+    public void cleanUp(boolean onDisable) {}
+
+    @Override
+    public boolean isSetup() {
+        return true;
+    }
+
+    /**
+     * The config of a {@link BenchmarkMine}.
+     * @param mineId The mine id.
+     * @param worldName The world name the mine is in.
+     */
+    private record BenchmarkMineConfig(@NotNull String mineId, @NotNull String worldName) implements MineConfig {}
+}
@@ -0,0 +1,133 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.benchmark;
+
+import com.github.lukesky19.skymines.data.packet.BlockCooldownMap;
+import com.github.lukesky19.skymines.data.packet.MineCooldownStore;
+import com.github.lukesky19.skymines.data.player.PlayerData;
+import org.bukkit.Material;
+import org.bukkit.block.BlockType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks adding, checking and expiring block cooldowns.
+ * The {@link com.github.lukesky19.skymines.manager.mine.packet.CooldownManager} needs a running server to be created,
+ * so this benchmark runs the same operations against the per-player {@link PlayerData} and the shared {@link MineCooldownStore} it delegates to.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class CooldownBenchmark {
+    private static final int MINE_SIZE = 64;
+    private static final long COOLDOWN_TICKS = 200L;
+
+    /**
+     * The number of blocks on cooldown before the benchmark starts.
+     */
+    @Param({"256", "4096", "65536"})
+    public int cooldownCount;
+
+    private final UUID uuid = UUID.randomUUID();
+    private final UUID worldId = UUID.randomUUID();
+    private BlockType replacementType;
+    private PlayerData playerData;
+    private MineCooldownStore cooldownStore;
+    private long[] packedPositions;
+    private long currentTick;
+    private int index;
+
+    /**
+     * Default Constructor.
+     */
+    public CooldownBenchmark() {}
+
+    /**
+     * Fills the player's data and the mine's store with cooldowns.
+     */
+    @Setup
+    public void setup() {
+        replacementType = StandIns.getBlockType(Material.BEDROCK);
+        playerData = new PlayerData(new HashMap<>(), new HashMap<>());
+        cooldownStore = new MineCooldownStore(worldId, 0, 0, 0, MINE_SIZE - 1, MINE_SIZE - 1, MINE_SIZE - 1);
+        packedPositions = new long[MINE_SIZE * MINE_SIZE * MINE_SIZE];
+
+        for(int i = 0; i < packedPositions.length; i++) {
+            packedPositions[i] = BlockCooldownMap.packPosition(i % MINE_SIZE, (i / MINE_SIZE) % MINE_SIZE, i / (MINE_SIZE * MINE_SIZE));
+        }
+
+        currentTick = 0L;
+        for(int i = 0; i < cooldownCount; i++) {
+            long expiryTick = currentTick + COOLDOWN_TICKS + (i % COOLDOWN_TICKS);
+            playerData.addLocationCooldown(worldId, packedPositions[i], replacementType, expiryTick);
+            cooldownStore.addCooldown(uuid, packedPositions[i], Material.BEDROCK.ordinal(), expiryTick);
+        }
+    }
+
+    /**
+     * Checks if a block is on cooldown in the player's data.
+     * @return true if on cooldown, otherwise false.
+     */
+    @Benchmark
+    public boolean isLocationOnCooldown() {
+        index = (index + 1) % packedPositions.length;
+        return playerData.isLocationOnCooldown(worldId, packedPositions[index], currentTick);
+    }
+
+    /**
+     * Adds a cooldown to the player's data and removes it once expired, one tick later.
+     * @return true if the expired cooldown was removed.
+     */
+    @Benchmark
+    public boolean addAndExpireLocationCooldown() {
+        index = (index + 1) % packedPositions.length;
+        long packedPosition = packedPositions[index];
+
+        playerData.addLocationCooldown(worldId, packedPosition, replacementType, currentTick + 1);
+        return playerData.removeExpiredLocationCooldown(worldId, packedPosition, currentTick + 1);
+    }
+
+    /**
+     * Checks if a block is on cooldown in the mine's shared store.
+     * @return true if on cooldown, otherwise false.
+     */
+    @Benchmark
+    public boolean isOnCooldownShared() {
+        index = (index + 1) % packedPositions.length;
+        long packedPosition = packedPositions[index];
+
+        return cooldownStore.isOnCooldown(uuid, BlockCooldownMap.getX(packedPosition), BlockCooldownMap.getY(packedPosition), BlockCooldownMap.getZ(packedPosition));
+    }
+
+    /**
+     * Adds a cooldown to the mine's shared store and expires the cooldowns due on the next tick.
+     * @param blackhole A {@link Blackhole} that consumes the expired positions.
+     */
+    @Benchmark
+    public void addAndExpireSharedCooldown(Blackhole blackhole) {
+        index = (index + 1) % packedPositions.length;
+        currentTick++;
+
+        cooldownStore.addCooldown(uuid, packedPositions[index], Material.BEDROCK.ordinal(), currentTick + COOLDOWN_TICKS);
+        cooldownStore.expireCooldowns(currentTick, (expiredUuid, packedPosition) -> blackhole.consume(packedPosition));
+    }
+}
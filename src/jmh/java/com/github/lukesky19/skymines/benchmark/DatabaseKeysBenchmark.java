@@ -0,0 +1,358 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.benchmark;
+
+import com.github.lukesky19.skymines.database.KeyCache;
+import com.github.lukesky19.skymines.database.QueueManager;
+import com.github.lukesky19.skymines.database.dialect.SqlDialect;
+import com.github.lukesky19.skymines.database.dialect.SqliteDialect;
+import com.github.lukesky19.skymines.database.tables.MineIdsTable;
+import com.github.lukesky19.skymines.database.tables.PlayerIdsTable;
+import com.github.lukesky19.skymines.database.tables.SessionsTable;
+import com.github.lukesky19.skymines.database.tables.TimesTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks loading and saving a player's mine times when rows are keyed on text ids and when they are keyed on integer keys.
+ * Like {@link PlayerDataSaveBenchmark}, this runs the statements the tables queue against a database file with plain JDBC.
+ * The integer keys database is created from the tables' own creation statements, so it includes the player and mine id tables and their unique indexes,
+ * and its saves use the {@link TimesTable}'s fenced upsert. The text ids database is the older schema with the same session fence.
+ * The size of each database file after a VACUUM is printed when the benchmark is torn down.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class DatabaseKeysBenchmark {
+    private static final int MINE_COUNT = 10;
+    private static final String SERVER_ID = "benchmark";
+    private static final long SESSION_VERSION = 1L;
+    private static final String SESSIONS_SQL = "INSERT INTO skymines_sessions (player_id, server_id, version, lease_expires) VALUES (?, ?, ?, ?)";
+    private static final String TEXT_LOAD_SQL = "SELECT mine_id, time FROM skymines_times WHERE player_id = ?";
+    private static final String TEXT_SAVE_SQL = "INSERT INTO skymines_times (mine_id, player_id, time, last_updated) " +
+            "SELECT ?, ?, ?, ? " + SessionsTable.FENCE_SQL + " " +
+            "ON CONFLICT (mine_id, player_id) DO UPDATE SET " +
+            "time = excluded.time, last_updated = excluded.last_updated";
+    private static final String PLAYER_KEY_SQL = "SELECT id FROM skymines_player_ids WHERE player_id = ?";
+    private static final String KEY_LOAD_SQL = "SELECT player_key, mine_key, time FROM skymines_times WHERE player_key IN (?)";
+
+    /**
+     * The number of players with saved mine times.
+     */
+    @Param({"20000"})
+    public int playerCount;
+
+    private File textDatabaseFile;
+    private File keyDatabaseFile;
+    private Connection textConnection;
+    private Connection keyConnection;
+    private String keySaveSql;
+    private UUID[] uuids;
+    private long lastUpdated;
+
+    /**
+     * Default Constructor.
+     */
+    public DatabaseKeysBenchmark() {}
+
+    /**
+     * Creates a database file for each key format and saves the ids, session and mine times of every player.
+     * @throws IOException if a database file could not be created.
+     * @throws SQLException if a table could not be created or filled.
+     */
+    @Setup
+    public void setup() throws IOException, SQLException {
+        textDatabaseFile = Files.createTempFile("skymines-benchmark-text-keys", ".db").toFile();
+        keyDatabaseFile = Files.createTempFile("skymines-benchmark-integer-keys", ".db").toFile();
+        textConnection = DriverManager.getConnection("jdbc:sqlite:" + textDatabaseFile.getAbsolutePath());
+        keyConnection = DriverManager.getConnection("jdbc:sqlite:" + keyDatabaseFile.getAbsolutePath());
+
+        try(Statement statement = textConnection.createStatement()) {
+            statement.execute("CREATE TABLE skymines_sessions (player_id TEXT NOT NULL UNIQUE, server_id TEXT NOT NULL DEFAULT '', " +
+                    "version LONG NOT NULL DEFAULT 0, lease_expires LONG NOT NULL DEFAULT 0)");
+            statement.execute("CREATE TABLE skymines_times (id INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, mine_id TEXT NOT NULL, player_id TEXT NOT NULL, " +
+                    "time LONG NOT NULL DEFAULT 0, last_updated LONG NOT NULL DEFAULT 0, UNIQUE (mine_id, player_id))");
+            statement.execute("CREATE INDEX idx_skymines_times_player_ids ON skymines_times (player_id)");
+        }
+
+        SqlDialect sqlDialect = new SqliteDialect();
+        QueueManager queueManager = StandIns.createQueueManager();
+        KeyCache keyCache = new KeyCache();
+        TimesTable timesTable = new TimesTable(queueManager, sqlDialect, keyCache);
+        keySaveSql = timesTable.getUpsertSql();
+
+        List<String> creationStatements = new ArrayList<>();
+        creationStatements.addAll(new PlayerIdsTable(queueManager, sqlDialect, keyCache).getCreationStatements());
+        creationStatements.addAll(new MineIdsTable(queueManager, sqlDialect, keyCache).getCreationStatements());
+        creationStatements.addAll(new SessionsTable(queueManager, sqlDialect).getCreationStatements());
+        creationStatements.addAll(timesTable.getCreationStatements());
+        try(Statement statement = keyConnection.createStatement()) {
+            for(String sql : creationStatements) {
+                statement.execute(sql);
+            }
+        }
+
+        uuids = new UUID[playerCount];
+        for(int i = 0; i < playerCount; i++) {
+            uuids[i] = UUID.randomUUID();
+        }
+
+        textConnection.setAutoCommit(false);
+        keyConnection.setAutoCommit(false);
+        try(PreparedStatement mineIds = keyConnection.prepareStatement("INSERT INTO skymines_mine_ids (mine_id) VALUES (?)")) {
+            for(int mine = 0; mine < MINE_COUNT; mine++) {
+                mineIds.setString(1, "mine_" + mine);
+                mineIds.addBatch();
+            }
+
+            mineIds.executeBatch();
+        }
+
+        try(PreparedStatement playerIds = keyConnection.prepareStatement("INSERT INTO skymines_player_ids (player_id) VALUES (?)")) {
+            for(UUID uuid : uuids) {
+                playerIds.setString(1, uuid.toString());
+                playerIds.addBatch();
+            }
+
+            playerIds.executeBatch();
+        }
+
+        insertSessions(textConnection);
+        insertSessions(keyConnection);
+        for(int i = 0; i < playerCount; i++) {
+            saveText(i);
+            saveKeys(i);
+        }
+
+        textConnection.commit();
+        keyConnection.commit();
+        textConnection.setAutoCommit(true);
+        keyConnection.setAutoCommit(true);
+    }
+
+    /**
+     * Prints the size of each database file after a VACUUM, then closes the connections and deletes the database files.
+     * @throws SQLException if the database could not be vacuumed or closed.
+     */
+    @TearDown
+    public void tearDown() throws SQLException {
+        try(Statement statement = textConnection.createStatement()) {
+            statement.execute("VACUUM");
+        }
+        try(Statement statement = keyConnection.createStatement()) {
+            statement.execute("VACUUM");
+        }
+
+        System.out.println("Text keys database size: " + textDatabaseFile.length() + " bytes");
+        System.out.println("Integer keys database size: " + keyDatabaseFile.length() + " bytes");
+
+        textConnection.close();
+        keyConnection.close();
+        //noinspection ResultOfMethodCallIgnored
+        textDatabaseFile.delete();
+        //noinspection ResultOfMethodCallIgnored
+        keyDatabaseFile.delete();
+    }
+
+    /**
+     * Loads the mine times of a random player by their {@link UUID}.
+     * @return The sum of the loaded times.
+     * @throws SQLException if the read failed.
+     */
+    @Benchmark
+    public long loadTextKeys() throws SQLException {
+        int player = ThreadLocalRandom.current().nextInt(playerCount);
+
+        try(PreparedStatement statement = textConnection.prepareStatement(TEXT_LOAD_SQL)) {
+            statement.setString(1, uuids[player].toString());
+            return sumTimes(statement, 2);
+        }
+    }
+
+    /**
+     * Loads the key of a random player by their {@link UUID}, as is done once when they join, then loads their mine times by the key.
+     * @return The sum of the loaded times.
+     * @throws SQLException if the read failed.
+     */
+    @Benchmark
+    public long loadIntegerKeys() throws SQLException {
+        int player = ThreadLocalRandom.current().nextInt(playerCount);
+
+        long playerKey;
+        try(PreparedStatement statement = keyConnection.prepareStatement(PLAYER_KEY_SQL)) {
+            statement.setString(1, uuids[player].toString());
+            try(ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                playerKey = resultSet.getLong(1);
+            }
+        }
+
+        try(PreparedStatement statement = keyConnection.prepareStatement(KEY_LOAD_SQL)) {
+            statement.setLong(1, playerKey);
+            return sumTimes(statement, 3);
+        }
+    }
+
+    /**
+     * Loads the mine times of a random player by their integer key, when the key is already cached.
+     * @return The sum of the loaded times.
+     * @throws SQLException if the read failed.
+     */
+    @Benchmark
+    public long loadIntegerKeysCached() throws SQLException {
+        int player = ThreadLocalRandom.current().nextInt(playerCount);
+
+        try(PreparedStatement statement = keyConnection.prepareStatement(KEY_LOAD_SQL)) {
+            statement.setLong(1, player + 1L);
+            return sumTimes(statement, 3);
+        }
+    }
+
+    /**
+     * Saves the mine times of a random player keyed on text ids in a single transaction.
+     * @throws SQLException if the write failed.
+     */
+    @Benchmark
+    public void saveTextKeys() throws SQLException {
+        textConnection.setAutoCommit(false);
+        saveText(ThreadLocalRandom.current().nextInt(playerCount));
+        textConnection.commit();
+        textConnection.setAutoCommit(true);
+    }
+
+    /**
+     * Saves the mine times of a random player keyed on integer keys in a single transaction.
+     * @throws SQLException if the write failed.
+     */
+    @Benchmark
+    public void saveIntegerKeys() throws SQLException {
+        keyConnection.setAutoCommit(false);
+        saveKeys(ThreadLocalRandom.current().nextInt(playerCount));
+        keyConnection.commit();
+        keyConnection.setAutoCommit(true);
+    }
+
+    /**
+     * Inserts a session held by this server for every player.
+     * @param connection The {@link Connection} of the database.
+     * @throws SQLException if the write failed.
+     */
+    private void insertSessions(Connection connection) throws SQLException {
+        try(PreparedStatement statement = connection.prepareStatement(SESSIONS_SQL)) {
+            for(UUID uuid : uuids) {
+                statement.setString(1, uuid.toString());
+                statement.setString(2, SERVER_ID);
+                statement.setLong(3, SESSION_VERSION);
+                statement.setLong(4, Long.MAX_VALUE);
+                statement.addBatch();
+            }
+
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Saves the mine times of a player keyed on the mine ids and the player's {@link UUID}.
+     * @param player The index of the player.
+     * @throws SQLException if the write failed.
+     */
+    private void saveText(int player) throws SQLException {
+        lastUpdated++;
+
+        try(PreparedStatement statement = textConnection.prepareStatement(TEXT_SAVE_SQL)) {
+            for(int mine = 0; mine < MINE_COUNT; mine++) {
+                statement.setString(1, "mine_" + mine);
+                statement.setString(2, uuids[player].toString());
+                statement.setLong(3, lastUpdated);
+                statement.setLong(4, lastUpdated);
+                setFence(statement, 5, player);
+                statement.addBatch();
+            }
+
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Saves the mine times of a player keyed on the integer keys of the player and the mines, with the {@link TimesTable}'s fenced upsert.
+     * @param player The index of the player.
+     * @throws SQLException if the write failed.
+     */
+    private void saveKeys(int player) throws SQLException {
+        lastUpdated++;
+
+        try(PreparedStatement statement = keyConnection.prepareStatement(keySaveSql)) {
+            for(int mine = 0; mine < MINE_COUNT; mine++) {
+                statement.setLong(1, player + 1L);
+                statement.setLong(2, mine + 1L);
+                statement.setLong(3, lastUpdated);
+                statement.setLong(4, lastUpdated);
+                setFence(statement, 5, player);
+                statement.addBatch();
+            }
+
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Sets the parameters of the session fence.
+     * @param statement The prepared save statement.
+     * @param firstIndex The index of the fence's first parameter.
+     * @param player The index of the player.
+     * @throws SQLException if a parameter could not be set.
+     */
+    private void setFence(PreparedStatement statement, int firstIndex, int player) throws SQLException {
+        statement.setString(firstIndex, uuids[player].toString());
+        statement.setString(firstIndex + 1, SERVER_ID);
+        statement.setLong(firstIndex + 2, SESSION_VERSION);
+    }
+
+    /**
+     * Runs the load statement and sums the loaded times.
+     * @param statement The prepared load statement.
+     * @param timeColumn The index of the time column.
+     * @return The sum of the loaded times.
+     * @throws SQLException if the read failed.
+     */
+    private long sumTimes(PreparedStatement statement, int timeColumn) throws SQLException {
+        long sum = 0;
+
+        try(ResultSet resultSet = statement.executeQuery()) {
+            while(resultSet.next()) {
+                sum += resultSet.getLong(timeColumn);
+            }
+        }
+
+        return sum;
+    }
+}
@@ -0,0 +1,154 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.benchmark;
+
+import com.github.lukesky19.skylib.libs.hikaricp.HikariConfig;
+import com.github.lukesky19.skylib.libs.hikaricp.HikariDataSource;
+import com.github.lukesky19.skymines.database.SqliteWriter;
+import net.kyori.adventure.text.logger.slf4j.ComponentLogger;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmarks the write throughput and latency of many threads saving mine times to SQLite.
+ * {@link #queueWrite()} is the queue path, where each write takes a pooled connection and commits on its own.
+ * {@link #singleWriterWrite()} queues the write to a {@link SqliteWriter}, which groups writes into shared commits.
+ * Sample time mode reports the p99 latency of each write.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Threads(8)
+public class DatabaseWriteBenchmark {
+    private static final String TIMES_SQL = "INSERT INTO skymines_times (mine_id, player_id, time, last_updated) " +
+            "VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (mine_id, player_id) DO UPDATE SET " +
+            "time = ?, last_updated = ? WHERE last_updated < ?";
+
+    private final AtomicLong counter = new AtomicLong();
+    private File queueDatabaseFile;
+    private File writerDatabaseFile;
+    private HikariDataSource queueDataSource;
+    private SqliteWriter sqliteWriter;
+
+    /**
+     * Default Constructor.
+     */
+    public DatabaseWriteBenchmark() {}
+
+    /**
+     * Creates a database file for each path.
+     * @throws IOException if a database file could not be created.
+     * @throws SQLException if a table could not be created.
+     */
+    @Setup
+    public void setup() throws IOException, SQLException {
+        queueDatabaseFile = Files.createTempFile("skymines-benchmark-queue", ".db").toFile();
+        writerDatabaseFile = Files.createTempFile("skymines-benchmark-writer", ".db").toFile();
+
+        queueDataSource = createDataSource(queueDatabaseFile, 8);
+        createTable(queueDataSource);
+
+        HikariDataSource writeDataSource = createDataSource(writerDatabaseFile, 1);
+        createTable(writeDataSource);
+        sqliteWriter = new SqliteWriter(ComponentLogger.logger("DatabaseWriteBenchmark"), writeDataSource, 10, 512);
+    }
+
+    /**
+     * Closes the connections and deletes the database files.
+     */
+    @TearDown
+    public void tearDown() {
+        queueDataSource.close();
+        sqliteWriter.close();
+        //noinspection ResultOfMethodCallIgnored
+        queueDatabaseFile.delete();
+        //noinspection ResultOfMethodCallIgnored
+        writerDatabaseFile.delete();
+    }
+
+    /**
+     * Saves a mine time on a pooled connection, committed on its own.
+     * @return The rows changed.
+     * @throws SQLException if the write failed.
+     */
+    @Benchmark
+    public int queueWrite() throws SQLException {
+        long value = counter.incrementAndGet();
+
+        try(Connection connection = queueDataSource.getConnection();
+            PreparedStatement statement = connection.prepareStatement(TIMES_SQL)) {
+            statement.setString(1, "mine");
+            statement.setString(2, new UUID(0L, value).toString());
+            statement.setLong(3, value);
+            statement.setLong(4, value);
+            statement.setLong(5, value);
+            statement.setLong(6, value);
+            statement.setLong(7, value);
+            return statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Saves a mine time through the {@link SqliteWriter} and waits for its commit.
+     * @return The rows changed.
+     */
+    @Benchmark
+    public int singleWriterWrite() {
+        long value = counter.incrementAndGet();
+
+        List<Object> row = List.of("mine", new UUID(0L, value), value, value, value, value, value);
+        return sqliteWriter.queueWrite(TIMES_SQL, List.of(row)).join().getFirst();
+    }
+
+    /**
+     * Creates a {@link HikariDataSource} for the database file.
+     * @param databaseFile The database file.
+     * @param poolSize The maximum number of connections.
+     * @return A {@link HikariDataSource}.
+     */
+    private HikariDataSource createDataSource(File databaseFile, int poolSize) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+        config.setMaximumPoolSize(poolSize);
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * Creates the times table.
+     * @param dataSource The {@link HikariDataSource} of the database.
+     * @throws SQLException if the table could not be created.
+     */
+    private void createTable(HikariDataSource dataSource) throws SQLException {
+        try(Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS skymines_times (id INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, mine_id TEXT NOT NULL, player_id LONG NOT NULL DEFAULT 0, " +
+                    "time LONG NOT NULL DEFAULT 0, last_updated LONG NOT NULL DEFAULT 0, UNIQUE (mine_id, player_id))");
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.benchmark;
+
+import com.github.lukesky19.skymines.SkyMines;
+import com.github.lukesky19.skymines.manager.config.LocaleManager;
+import net.kyori.adventure.text.Component;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link LocaleManager#getTimeMessage(long)} and {@link LocaleManager#getTimeComponent(long)}.
+ * The time message is rendered every time a boss bar is updated.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class LocaleManagerBenchmark {
+    /**
+     * The time in seconds to format.
+     */
+    @Param({"59", "3725", "2678400"})
+    public long timeSeconds;
+
+    private LocaleManager localeManager;
+
+    /**
+     * Default Constructor.
+     */
+    public LocaleManagerBenchmark() {}
+
+    /**
+     * Creates the {@link LocaleManager} with a stand-in plugin and settings.
+     * No locale is loaded, so the default locale is used.
+     */
+    @Setup
+    public void setup() {
+        SkyMines skyMines = StandIns.createPlugin();
+        localeManager = new LocaleManager(skyMines, StandIns.createSettingsManager(skyMines));
+    }
+
+    /**
+     * Formats the time message.
+     * @return The time message.
+     */
+    @Benchmark
+    public String getTimeMessage() {
+        return localeManager.getTimeMessage(timeSeconds);
+    }
+
+    /**
+     * Renders the time message to a {@link Component}.
+     * @return The time message.
+     */
+    @Benchmark
+    public Component getTimeComponent() {
+        return localeManager.getTimeComponent(timeSeconds);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.benchmark;
+
+import com.github.lukesky19.skymines.manager.mine.MineDataManager;
+import com.github.lukesky19.skymines.mine.AbstractMine;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.jetbrains.annotations.Nullable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link MineDataManager#getMineByLocation(Location)}, which is called for every block and player event.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class MineDataManagerBenchmark {
+    /**
+     * The number of mines, placed in a grid 128 blocks apart.
+     */
+    @Param({"1", "16", "64"})
+    public int mineCount;
+
+    private MineDataManager mineDataManager;
+    private Location[] insideLocations;
+    private Location[] outsideLocations;
+    private int index;
+
+    /**
+     * Default Constructor.
+     */
+    public MineDataManagerBenchmark() {}
+
+    /**
+     * Creates the mines and the locations to look up.
+     */
+    @Setup
+    public void setup() {
+        World world = StandIns.createWorld("world");
+        World otherWorld = StandIns.createWorld("world_nether");
+        mineDataManager = new MineDataManager();
+        insideLocations = new Location[mineCount];
+        outsideLocations = new Location[mineCount];
+
+        for(int i = 0; i < mineCount; i++) {
+            int x = (i % 8) * 128;
+            int z = (i / 8) * 128;
+            ProtectedCuboidRegion region = new ProtectedCuboidRegion("mine_" + i, BlockVector3.at(x, 0, z), BlockVector3.at(x + 63, 127, z + 63));
+
+            mineDataManager.addMine("mine_" + i, new BenchmarkMine("mine_" + i, world, region));
+            insideLocations[i] = new Location(world, x + 32, 64, z + 32);
+            outsideLocations[i] = (i % 2 == 0) ? new Location(world, x + 96, 64, z + 96) : new Location(otherWorld, x + 32, 64, z + 32);
+        }
+    }
+
+    /**
+     * Looks up a location inside a mine.
+     * @return The {@link AbstractMine} found.
+     */
+    @Benchmark
+    public @Nullable AbstractMine getMineByLocationInside() {
+        index = (index + 1) % mineCount;
+        return mineDataManager.getMineByLocation(insideLocations[index]);
+    }
+
+    /**
+     * Looks up a location outside every mine.
+     * @return null, as no mine is found.
+     */
+    @Benchmark
+    public @Nullable AbstractMine getMineByLocationOutside() {
+        index = (index + 1) % mineCount;
+        return mineDataManager.getMineByLocation(outsideLocations[index]);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.benchmark;
+
+import com.github.lukesky19.skymines.manager.mine.world.PDCManager;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link PDCManager#isBlockPlayerPlaced(Location)}, which is called for every block broken in a world mine.
+ * The stand-in chunk's {@link org.bukkit.persistence.PersistentDataContainer} does not serialize values,
+ * so the server's NBT conversion is not included in the results.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class PDCManagerBenchmark {
+    /**
+     * The number of player-placed blocks in the chunk.
+     */
+    @Param({"0", "64", "1024"})
+    public int placedCount;
+
+    private PDCManager pdcManager;
+    private Location[] locations;
+    private int index;
+
+    /**
+     * Default Constructor.
+     */
+    public PDCManagerBenchmark() {}
+
+    /**
+     * Marks the blocks as player-placed. Half of the locations that are checked are player-placed.
+     */
+    @Setup
+    public void setup() {
+        World world = StandIns.createWorld("world");
+        pdcManager = new PDCManager();
+        locations = new Location[Math.max(2, placedCount * 2)];
+
+        for(int i = 0; i < locations.length; i++) {
+            Location location = new Location(world, i % 16, 64 + (i / 256), (i / 16) % 16);
+            if(i % 2 == 0 && i / 2 < placedCount) pdcManager.markLocationAsPlayerPlaced(location);
+            locations[i] = location;
+        }
+    }
+
+    /**
+     * Checks if a block is player-placed.
+     * @return true if player-placed, otherwise false.
+     */
+    @Benchmark
+    public boolean isBlockPlayerPlaced() {
+        index = (index + 1) % locations.length;
+        return pdcManager.isBlockPlayerPlaced(locations[index]);
+    }
+}
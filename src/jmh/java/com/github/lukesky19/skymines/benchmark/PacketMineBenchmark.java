@@ -0,0 +1,111 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.benchmark;
+
+import com.github.lukesky19.skymines.data.packet.PacketBlock;
+import com.github.lukesky19.skymines.data.packet.PacketRegion;
+import com.github.lukesky19.skymines.data.packet.PacketRegionLookup;
+import com.github.lukesky19.skymines.data.player.PlayerData;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
+import org.bukkit.Material;
+import org.bukkit.block.BlockType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the checks done by {@link com.github.lukesky19.skymines.mine.PacketMine#isBlockMineable}.
+ * A {@link com.github.lukesky19.skymines.mine.PacketMine} needs a running server to be created,
+ * so this benchmark runs the same checks against the {@link PlayerData} and {@link PacketRegionLookup} it uses.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class PacketMineBenchmark {
+    private static final String MINE_ID = "mine";
+    private static final Material[] WORLD_MATERIALS = {Material.STONE, Material.COAL_ORE, Material.IRON_ORE, Material.GOLD_ORE};
+
+    /**
+     * The number of child regions, placed in a grid of 16x16 columns.
+     */
+    @Param({"4", "16", "64"})
+    public int regionCount;
+
+    private PlayerData playerData;
+    private PacketRegionLookup packetRegionLookup;
+    private int[][] positions;
+    private BlockType[] blockTypes;
+    private int index;
+
+    /**
+     * Default Constructor.
+     */
+    public PacketMineBenchmark() {}
+
+    /**
+     * Creates the regions and the positions to check.
+     */
+    @Setup
+    public void setup() {
+        BlockType replacementType = StandIns.getBlockType(Material.BEDROCK);
+        List<PacketBlock> packetBlocks = new ArrayList<>();
+        for(Material material : WORLD_MATERIALS) {
+            packetBlocks.add(new PacketBlock(StandIns.getBlockType(material), replacementType, null, 10));
+        }
+
+        List<PacketRegion> packetRegions = new ArrayList<>();
+        positions = new int[regionCount * 2][];
+        blockTypes = new BlockType[regionCount * 2];
+        for(int i = 0; i < regionCount; i++) {
+            int x = (i % 8) * 16;
+            int z = (i / 8) * 16;
+            ProtectedCuboidRegion region = new ProtectedCuboidRegion("region_" + i, BlockVector3.at(x, 0, z), BlockVector3.at(x + 15, 63, z + 15));
+            packetRegions.add(new PacketRegion(region, packetBlocks));
+
+            // A mineable block and a block that can't be mined
+            positions[i * 2] = new int[]{x + 8, 32, z + 8};
+            blockTypes[i * 2] = StandIns.getBlockType(WORLD_MATERIALS[i % WORLD_MATERIALS.length]);
+            positions[i * 2 + 1] = new int[]{x + 8, 32, z + 8};
+            blockTypes[i * 2 + 1] = StandIns.getBlockType(Material.DIRT);
+        }
+        packetRegionLookup = new PacketRegionLookup(packetRegions);
+
+        Map<String, Long> mineTimeByMineId = new HashMap<>();
+        mineTimeByMineId.put(MINE_ID, 3600L);
+        playerData = new PlayerData(mineTimeByMineId, new HashMap<>());
+    }
+
+    /**
+     * Checks if a block is mineable.
+     * @return true if mineable, otherwise false.
+     */
+    @Benchmark
+    public boolean isBlockMineable() {
+        index = (index + 1) % positions.length;
+        int[] position = positions[index];
+
+        if(!playerData.hasMineTime(MINE_ID)) return false;
+
+        return packetRegionLookup.getPacketBlock(position[0], position[1], position[2], blockTypes[index]) != null;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.benchmark;
+
+import com.github.lukesky19.skymines.data.player.PlayerData;
+import com.github.lukesky19.skymines.data.world.BlockOrdinalMap;
+import org.bukkit.Material;
+import org.bukkit.block.BlockType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks checking if a player unlocked a block, which is done for every block broken in a world mine.
+ * This mirrors {@link com.github.lukesky19.skymines.manager.mine.world.BlocksManager#isBlockTypeUnlocked(java.util.UUID, String, BlockType)},
+ * which looks up the block's ordinal in the mine's {@link BlockOrdinalMap} and then calls {@link PlayerData#isBlockUnlocked(String, int)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class PlayerDataBenchmark {
+    private static final String MINE_ID = "mine";
+
+    /**
+     * The number of block types the player has unlocked.
+     */
+    @Param({"8", "64", "256"})
+    public int unlockedCount;
+
+    private PlayerData playerData;
+    private BlockOrdinalMap blockOrdinalMap;
+    private BlockType[] blockTypes;
+    private int index;
+
+    /**
+     * Default Constructor.
+     */
+    public PlayerDataBenchmark() {}
+
+    /**
+     * Assigns ordinals to the block types and unlocks them for the player. Half of the block types that are checked are unlocked.
+     */
+    @Setup
+    public void setup() {
+        Material[] materials = Material.values();
+        BitSet unlockedBlocks = new BitSet();
+        blockOrdinalMap = new BlockOrdinalMap();
+        blockTypes = new BlockType[unlockedCount * 2];
+
+        for(int i = 0; i < unlockedCount * 2; i++) {
+            BlockType blockType = StandIns.getBlockType(materials[i + 1]);
+            int ordinal = blockOrdinalMap.assignOrdinal(blockType);
+            if(i % 2 == 0) unlockedBlocks.set(ordinal);
+            blockTypes[i] = blockType;
+        }
+
+        Map<String, BitSet> unlockedBlocksByMineId = new HashMap<>();
+        unlockedBlocksByMineId.put(MINE_ID, unlockedBlocks);
+        playerData = new PlayerData(new HashMap<>(), unlockedBlocksByMineId);
+    }
+
+    /**
+     * Checks if a block type is unlocked.
+     * @return true if unlocked, otherwise false.
+     */
+    @Benchmark
+    public boolean isBlockTypeUnlocked() {
+        index = (index + 1) % blockTypes.length;
+        int ordinal = blockOrdinalMap.getOrdinal(blockTypes[index]);
+        return ordinal != -1 && playerData.isBlockUnlocked(MINE_ID, ordinal);
+    }
+}
@@ -0,0 +1,168 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks loading the mine times and unlocked blocks of many joining players from SQLite.
+ * The {@link com.github.lukesky19.skymines.database.QueueManager} needs a running server to be created, so this runs the statements the tables queue against a database file with plain JDBC.
+ * {@link #loadPerPlayer()} is the old path of one query per table for each player and {@link #loadBatch()} is one query per table for all players.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class PlayerDataLoadBenchmark {
+    private static final int MINE_COUNT = 10;
+
+    /**
+     * The number of players joining at once.
+     */
+    @Param({"50", "250"})
+    public int playerCount;
+
+    private File databaseFile;
+    private Connection connection;
+
+    /**
+     * Default Constructor.
+     */
+    public PlayerDataLoadBenchmark() {}
+
+    /**
+     * Creates the database file and saves the data of every player.
+     * @throws IOException if the database file could not be created.
+     * @throws SQLException if the tables could not be created or filled.
+     */
+    @Setup
+    public void setup() throws IOException, SQLException {
+        databaseFile = Files.createTempFile("skymines-benchmark-load", ".db").toFile();
+        connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+
+        try(Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE skymines_times (id INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, player_key LONG NOT NULL, mine_key LONG NOT NULL, " +
+                    "time LONG NOT NULL DEFAULT 0, last_updated LONG NOT NULL DEFAULT 0, UNIQUE (player_key, mine_key))");
+            statement.execute("CREATE TABLE skymines_unlocked_blocks (id INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, player_key LONG NOT NULL, mine_key LONG NOT NULL, " +
+                    "unlocked_blocks TEXT, last_updated LONG NOT NULL DEFAULT 0, UNIQUE (player_key, mine_key))");
+        }
+
+        connection.setAutoCommit(false);
+        try(PreparedStatement times = connection.prepareStatement("INSERT INTO skymines_times (player_key, mine_key, time, last_updated) VALUES (?, ?, ?, 0)");
+            PreparedStatement blocks = connection.prepareStatement("INSERT INTO skymines_unlocked_blocks (player_key, mine_key, unlocked_blocks, last_updated) VALUES (?, ?, 'Bw==', 0)")) {
+            for(long player = 1; player <= playerCount; player++) {
+                for(long mine = 1; mine <= MINE_COUNT; mine++) {
+                    times.setLong(1, player);
+                    times.setLong(2, mine);
+                    times.setLong(3, 60L);
+                    times.addBatch();
+                    blocks.setLong(1, player);
+                    blocks.setLong(2, mine);
+                    blocks.addBatch();
+                }
+            }
+
+            times.executeBatch();
+            blocks.executeBatch();
+        }
+
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    /**
+     * Closes the connection and deletes the database file.
+     * @throws SQLException if the connection could not be closed.
+     */
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+        //noinspection ResultOfMethodCallIgnored
+        databaseFile.delete();
+    }
+
+    /**
+     * Loads the data of every player with one query per table for each player.
+     * @return The number of rows loaded.
+     * @throws SQLException if a read failed.
+     */
+    @Benchmark
+    public int loadPerPlayer() throws SQLException {
+        int rows = 0;
+
+        for(long player = 1; player <= playerCount; player++) {
+            try(PreparedStatement times = connection.prepareStatement("SELECT mine_key, time FROM skymines_times WHERE player_key = ?");
+                PreparedStatement blocks = connection.prepareStatement("SELECT mine_key, unlocked_blocks FROM skymines_unlocked_blocks WHERE player_key = ?")) {
+                times.setLong(1, player);
+                blocks.setLong(1, player);
+                rows += countRows(times) + countRows(blocks);
+            }
+        }
+
+        return rows;
+    }
+
+    /**
+     * Loads the data of every player with one query per table.
+     * @return The number of rows loaded.
+     * @throws SQLException if a read failed.
+     */
+    @Benchmark
+    public int loadBatch() throws SQLException {
+        String placeholders = String.join(", ", Collections.nCopies(playerCount, "?"));
+
+        try(PreparedStatement times = connection.prepareStatement("SELECT player_key, mine_key, time FROM skymines_times WHERE player_key IN (" + placeholders + ")");
+            PreparedStatement blocks = connection.prepareStatement("SELECT player_key, mine_key, unlocked_blocks FROM skymines_unlocked_blocks WHERE player_key IN (" + placeholders + ")")) {
+            for(int i = 1; i <= playerCount; i++) {
+                times.setLong(i, i);
+                blocks.setLong(i, i);
+            }
+
+            return countRows(times) + countRows(blocks);
+        }
+    }
+
+    /**
+     * Runs the query and counts the rows it returned.
+     * @param statement The prepared query.
+     * @return The number of rows.
+     * @throws SQLException if the read failed.
+     */
+    private int countRows(PreparedStatement statement) throws SQLException {
+        int rows = 0;
+
+        try(ResultSet resultSet = statement.executeQuery()) {
+            while(resultSet.next()) {
+                rows++;
+            }
+        }
+
+        return rows;
+    }
+}
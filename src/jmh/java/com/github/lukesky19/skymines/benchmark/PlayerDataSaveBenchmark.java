@@ -0,0 +1,207 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.benchmark;
+
+import com.github.lukesky19.skylib.libs.hikaricp.HikariConfig;
+import com.github.lukesky19.skylib.libs.hikaricp.HikariDataSource;
+import com.github.lukesky19.skymines.database.KeyCache;
+import com.github.lukesky19.skymines.database.QueueManager;
+import com.github.lukesky19.skymines.database.SqliteWriter;
+import com.github.lukesky19.skymines.database.dialect.SqlDialect;
+import com.github.lukesky19.skymines.database.dialect.SqliteDialect;
+import com.github.lukesky19.skymines.database.tables.MineIdsTable;
+import com.github.lukesky19.skymines.database.tables.PlayerIdsTable;
+import com.github.lukesky19.skymines.database.tables.SessionsTable;
+import com.github.lukesky19.skymines.database.tables.TimesTable;
+import com.github.lukesky19.skymines.database.tables.UnlockedBlocksTable;
+import net.kyori.adventure.text.logger.slf4j.ComponentLogger;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks saving the mine times and unlocked blocks of every online player to SQLite.
+ * The {@link QueueManager} needs a running server to be created, so the tables' schema and fenced upsert statements
+ * are queued to a {@link SqliteWriter} directly, with the same parameter rows the tables queue.
+ * {@link #savePerPlayer()} is the old path of one write per table for each player and {@link #saveBatch()} is one write per table for all players.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class PlayerDataSaveBenchmark {
+    private static final String SERVER_ID = "benchmark";
+    private static final long SESSION_VERSION = 1L;
+    private static final String UNLOCKED_BLOCKS = "Bw==";
+
+    /**
+     * The number of online players with changes to save.
+     */
+    @Param({"50", "300"})
+    public int playerCount;
+
+    private File databaseFile;
+    private SqliteWriter sqliteWriter;
+    private String timesSql;
+    private String unlockedBlocksSql;
+    private UUID[] uuids;
+    private long lastUpdated;
+
+    /**
+     * Default Constructor.
+     */
+    public PlayerDataSaveBenchmark() {}
+
+    /**
+     * Creates the database file, the tables and a session held by this server for every player.
+     * @throws IOException if the database file could not be created.
+     * @throws SQLException if the tables could not be created or filled.
+     */
+    @Setup
+    public void setup() throws IOException, SQLException {
+        databaseFile = Files.createTempFile("skymines-benchmark", ".db").toFile();
+
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+        config.setMaximumPoolSize(1);
+        HikariDataSource dataSource = new HikariDataSource(config);
+
+        SqlDialect sqlDialect = new SqliteDialect();
+        QueueManager queueManager = StandIns.createQueueManager();
+        KeyCache keyCache = new KeyCache();
+        TimesTable timesTable = new TimesTable(queueManager, sqlDialect, keyCache);
+        UnlockedBlocksTable unlockedBlocksTable = new UnlockedBlocksTable(queueManager, sqlDialect, keyCache);
+        timesSql = timesTable.getUpsertSql();
+        unlockedBlocksSql = unlockedBlocksTable.getUpsertSql();
+
+        List<String> creationStatements = new ArrayList<>();
+        creationStatements.addAll(new PlayerIdsTable(queueManager, sqlDialect, keyCache).getCreationStatements());
+        creationStatements.addAll(new MineIdsTable(queueManager, sqlDialect, keyCache).getCreationStatements());
+        creationStatements.addAll(new SessionsTable(queueManager, sqlDialect).getCreationStatements());
+        creationStatements.addAll(timesTable.getCreationStatements());
+        creationStatements.addAll(unlockedBlocksTable.getCreationStatements());
+
+        uuids = new UUID[playerCount];
+        for(int i = 0; i < playerCount; i++) {
+            uuids[i] = UUID.randomUUID();
+        }
+
+        try(Connection connection = dataSource.getConnection()) {
+            try(Statement statement = connection.createStatement()) {
+                for(String sql : creationStatements) {
+                    statement.execute(sql);
+                }
+
+                statement.execute("INSERT INTO skymines_mine_ids (mine_id) VALUES ('mine')");
+            }
+
+            connection.setAutoCommit(false);
+            try(PreparedStatement playerIds = connection.prepareStatement("INSERT INTO skymines_player_ids (player_id) VALUES (?)");
+                PreparedStatement sessions = connection.prepareStatement("INSERT INTO skymines_sessions (player_id, server_id, version, lease_expires) VALUES (?, ?, ?, ?)")) {
+                for(UUID uuid : uuids) {
+                    playerIds.setString(1, uuid.toString());
+                    playerIds.addBatch();
+                    sessions.setString(1, uuid.toString());
+                    sessions.setString(2, SERVER_ID);
+                    sessions.setLong(3, SESSION_VERSION);
+                    sessions.setLong(4, Long.MAX_VALUE);
+                    sessions.addBatch();
+                }
+
+                playerIds.executeBatch();
+                sessions.executeBatch();
+            }
+
+            connection.commit();
+            connection.setAutoCommit(true);
+        }
+
+        sqliteWriter = new SqliteWriter(ComponentLogger.logger("PlayerDataSaveBenchmark"), dataSource, 10, 512);
+    }
+
+    /**
+     * Closes the writer and deletes the database file.
+     */
+    @TearDown
+    public void tearDown() {
+        sqliteWriter.close();
+        //noinspection ResultOfMethodCallIgnored
+        databaseFile.delete();
+    }
+
+    /**
+     * Saves each player's mine time and unlocked blocks with one write per table for each player, like the per-player save.
+     */
+    @Benchmark
+    public void savePerPlayer() {
+        lastUpdated++;
+
+        List<CompletableFuture<List<Integer>>> futures = new ArrayList<>(uuids.length * 2);
+        for(int i = 0; i < uuids.length; i++) {
+            futures.add(sqliteWriter.queueWrite(timesSql, List.of(getTimesRow(i))));
+            futures.add(sqliteWriter.queueWrite(unlockedBlocksSql, List.of(getUnlockedBlocksRow(i))));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    }
+
+    /**
+     * Saves every player's mine time and unlocked blocks with one write per table, like the batch save.
+     */
+    @Benchmark
+    public void saveBatch() {
+        lastUpdated++;
+
+        List<List<Object>> timesRows = new ArrayList<>(uuids.length);
+        List<List<Object>> unlockedBlocksRows = new ArrayList<>(uuids.length);
+        for(int i = 0; i < uuids.length; i++) {
+            timesRows.add(getTimesRow(i));
+            unlockedBlocksRows.add(getUnlockedBlocksRow(i));
+        }
+
+        CompletableFuture.allOf(sqliteWriter.queueWrite(timesSql, timesRows), sqliteWriter.queueWrite(unlockedBlocksSql, unlockedBlocksRows)).join();
+    }
+
+    /**
+     * Get the parameters the times table queues for a player's mine time.
+     * @param index The index of the player, whose player key is the index plus 1.
+     * @return A {@link List} of parameters.
+     */
+    private List<Object> getTimesRow(int index) {
+        return List.of(index + 1L, 1L, lastUpdated, lastUpdated, uuids[index], SERVER_ID, SESSION_VERSION);
+    }
+
+    /**
+     * Get the parameters the unlocked blocks table queues for a player's unlocked blocks.
+     * @param index The index of the player, whose player key is the index plus 1.
+     * @return A {@link List} of parameters.
+     */
+    private List<Object> getUnlockedBlocksRow(int index) {
+        return List.of(index + 1L, 1L, UNLOCKED_BLOCKS, lastUpdated, uuids[index], SERVER_ID, SESSION_VERSION);
+    }
+}
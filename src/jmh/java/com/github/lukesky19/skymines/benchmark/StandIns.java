@@ -0,0 +1,223 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.benchmark;
+
+import com.github.lukesky19.skymines.SkyMines;
+import com.github.lukesky19.skymines.database.QueueManager;
+import com.github.lukesky19.skymines.manager.config.SettingsManager;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.block.BlockType;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Creates lightweight local stand-ins for the Bukkit types the benchmarks need.
+ * The benchmarks run without a server, so {@link World}, {@link Chunk}, {@link PersistentDataContainer} and {@link BlockType}
+ * are implemented with proxies that only support the methods the benchmarked code calls.
+ * {@link Location} is used as is since it only needs a {@link World} instance.
+ * {@link SkyMines} can only be constructed by the server's plugin class loader, so its stand-in is allocated without running a constructor.
+ * {@link QueueManager} needs a running server to be constructed, so its stand-in is allocated the same way.
+ */
+public class StandIns {
+    private static final @NotNull Map<Material, BlockType> BLOCK_TYPES = new EnumMap<>(Material.class);
+
+    /**
+     * Default Constructor. All methods in this class are static.
+     * @deprecated All methods in this class are static.
+     * @throws RuntimeException if this method is used.
+     */
+    @Deprecated
+    public StandIns() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Creates a stand-in {@link World}.
+     * It supports {@link World#getUID()}, {@link World#getName()} and getting chunks, which are created once per chunk key.
+     * @param name The name of the world.
+     * @return A {@link World}.
+     */
+    public static @NotNull World createWorld(@NotNull String name) {
+        UUID uuid = UUID.nameUUIDFromBytes(name.getBytes());
+        Map<Long, Chunk> chunksByKey = new HashMap<>();
+        World[] world = new World[1];
+
+        Function<Object[], Object> getChunkAt = args -> {
+            int chunkX;
+            int chunkZ;
+            if(args[0] instanceof Location location) {
+                chunkX = location.getBlockX() >> 4;
+                chunkZ = location.getBlockZ() >> 4;
+            } else {
+                chunkX = (int) args[0];
+                chunkZ = (int) args[1];
+            }
+
+            return chunksByKey.computeIfAbsent(Chunk.getChunkKey(chunkX, chunkZ), key -> createChunk(world[0], chunkX, chunkZ));
+        };
+
+        world[0] = createProxy(World.class, Map.of(
+                "getUID", args -> uuid,
+                "getName", args -> name,
+                "getChunkAt", getChunkAt));
+
+        return world[0];
+    }
+
+    /**
+     * Creates a stand-in {@link SkyMines} plugin.
+     * It is allocated without running a constructor, so it is never enabled and has no data folder or logger.
+     * It can be passed to managers whose benchmarked methods don't use the plugin.
+     * @return A {@link SkyMines} instance.
+     */
+    public static @NotNull SkyMines createPlugin() {
+        return allocate(SkyMines.class);
+    }
+
+    /**
+     * Creates a stand-in {@link QueueManager} for tables whose statements are run by the benchmark instead of queued.
+     * It is allocated without running a constructor, so queuing anything through it fails.
+     * @return A {@link QueueManager}.
+     */
+    public static @NotNull QueueManager createQueueManager() {
+        return allocate(QueueManager.class);
+    }
+
+    /**
+     * Creates a stand-in {@link SettingsManager} for the stand-in plugin.
+     * The settings are never loaded, so {@link SettingsManager#getSettings()} returns null and the managers use their defaults.
+     * @param skyMines The stand-in {@link SkyMines} plugin from {@link #createPlugin()}.
+     * @return A {@link SettingsManager}.
+     */
+    public static @NotNull SettingsManager createSettingsManager(@NotNull SkyMines skyMines) {
+        return new SettingsManager(skyMines);
+    }
+
+    /**
+     * Allocates an instance of a class without running any of its constructors.
+     * @param type The class to allocate.
+     * @return The allocated instance.
+     * @param <T> The type of the class.
+     */
+    private static <T> @NotNull T allocate(@NotNull Class<T> type) {
+        try {
+            Field field = Class.forName("sun.misc.Unsafe").getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            Object unsafe = field.get(null);
+
+            return type.cast(unsafe.getClass().getMethod("allocateInstance", Class.class).invoke(unsafe, type));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to allocate the stand-in " + type.getSimpleName() + ".", e);
+        }
+    }
+
+    /**
+     * Gets the stand-in {@link BlockType} for a {@link Material}.
+     * Like the server's block types, there is a single instance per {@link Material}, so they can be compared by identity.
+     * @param material The {@link Material}.
+     * @return A {@link BlockType}.
+     */
+    public static @NotNull BlockType getBlockType(@NotNull Material material) {
+        return BLOCK_TYPES.computeIfAbsent(material, type -> createProxy(BlockType.class, Map.of(
+                "asMaterial", args -> type,
+                "getKey", args -> type.getKey(),
+                "key", args -> type.getKey())));
+    }
+
+    /**
+     * Creates a stand-in {@link Chunk} with its own {@link PersistentDataContainer}.
+     * @param world The {@link World} the chunk is in.
+     * @param chunkX The chunk x coordinate.
+     * @param chunkZ The chunk z coordinate.
+     * @return A {@link Chunk}.
+     */
+    private static @NotNull Chunk createChunk(@NotNull World world, int chunkX, int chunkZ) {
+        PersistentDataContainer pdc = createPersistentDataContainer();
+
+        return createProxy(Chunk.class, Map.of(
+                "getWorld", args -> world,
+                "getX", args -> chunkX,
+                "getZ", args -> chunkZ,
+                "getChunkKey", args -> Chunk.getChunkKey(chunkX, chunkZ),
+                "getPersistentDataContainer", args -> pdc));
+    }
+
+    /**
+     * Creates a stand-in {@link PersistentDataContainer}.
+     * Values are stored as the complex type instead of being converted to their NBT primitive,
+     * so the benchmarks measure the work done by the plugin and not the server's serialization.
+     * @return A {@link PersistentDataContainer}.
+     */
+    private static @NotNull PersistentDataContainer createPersistentDataContainer() {
+        Map<NamespacedKey, Object> values = new HashMap<>();
+
+        return createProxy(PersistentDataContainer.class, Map.of(
+                "get", args -> values.get((NamespacedKey) args[0]),
+                "getOrDefault", args -> values.getOrDefault((NamespacedKey) args[0], args[2]),
+                "set", args -> values.put((NamespacedKey) args[0], args[2]),
+                "has", args -> values.containsKey((NamespacedKey) args[0]),
+                "remove", args -> values.remove((NamespacedKey) args[0]),
+                "isEmpty", args -> values.isEmpty()));
+    }
+
+    /**
+     * Creates a proxy that implements an interface using the provided methods.
+     * Object methods use the proxy's identity. Default methods that are not provided call the interface's implementation.
+     * Any other method throws an {@link UnsupportedOperationException}.
+     * @param type The interface to implement.
+     * @param methods A {@link Map} mapping method names to the functions that implement them. Overloads share a function.
+     * @return The proxy.
+     * @param <T> The type of the interface.
+     */
+    private static <T> @NotNull T createProxy(@NotNull Class<T> type, @NotNull Map<String, Function<Object[], Object>> methods) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch(method.getName()) {
+                case "equals" -> {
+                    if(method.getParameterCount() == 1) return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    if(method.getParameterCount() == 0) return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    if(method.getParameterCount() == 0) return type.getSimpleName() + "StandIn";
+                }
+            }
+
+            Function<Object[], Object> function = methods.get(method.getName());
+            if(function != null) return function.apply(args == null ? new Object[0] : args);
+            if(method.isDefault()) return InvocationHandler.invokeDefault(proxy, method, args);
+
+            throw new UnsupportedOperationException(type.getSimpleName() + "#" + method.getName() + " is not supported by the stand-in.");
+        };
+
+        return type.cast(Proxy.newProxyInstance(StandIns.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+}
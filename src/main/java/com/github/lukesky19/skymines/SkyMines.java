@@ -32,10 +32,13 @@ import com.github.lukesky19.skymines.manager.config.SettingsManager;
 import com.github.lukesky19.skymines.manager.gui.GUIManager;
 import com.github.lukesky19.skymines.manager.mine.MineDataManager;
 import com.github.lukesky19.skymines.manager.mine.MineManager;
+import com.github.lukesky19.skymines.manager.mine.packet.BlockChangeManager;
 import com.github.lukesky19.skymines.manager.mine.packet.CooldownManager;
 import com.github.lukesky19.skymines.manager.mine.packet.MineTimeManager;
+import com.github.lukesky19.skymines.manager.mine.world.BlockOrdinalManager;
 import com.github.lukesky19.skymines.manager.mine.world.BlocksManager;
 import com.github.lukesky19.skymines.manager.player.PlayerDataManager;
+import com.github.lukesky19.skymines.manager.player.SessionManager;
 import com.github.lukesky19.skymines.manager.task.TaskManager;
 import com.github.lukesky19.skymines.mine.AbstractMine;
 import com.google.common.collect.ImmutableList;
@@ -51,6 +54,9 @@ import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The main plugin class
@@ -79,6 +85,14 @@ public class SkyMines extends JavaPlugin {
         return this.economy;
     }
 
+    /**
+     * Get the {@link SettingsManager}.
+     * @return The plugin's {@link SettingsManager}.
+     */
+    public @NotNull SettingsManager getSettingsManager() {
+        return this.settingsManager;
+    }
+
     /**
      * Default Constructor
      */
@@ -89,6 +103,7 @@ public class SkyMines extends JavaPlugin {
      */
     @Override
     public void onEnable() {
+        long enableStartNanos = System.nanoTime();
         if(!checkSkyLibVersion()) return;
         // Check for and set up Vault/Economy.
         if(!setupEconomy()) return;
@@ -96,36 +111,47 @@ public class SkyMines extends JavaPlugin {
         // Setup bstats
         int pluginId = 22278;
         new Metrics(this, pluginId);
+        long phaseStartNanos = logPhaseTime("Dependency checks", enableStartNanos);
 
         // Config Classes
         settingsManager = new SettingsManager(this);
         localeManager = new LocaleManager(this, settingsManager);
         mineConfigManager = new MineConfigManager(this);
         guiConfigManager = new GUIConfigManager(this);
+        phaseStartNanos = logPhaseTime("Config manager setup", phaseStartNanos);
 
         // Database Classes
+        // The database settings are needed before the rest of the settings are reloaded
+        settingsManager.reload();
         ConnectionManager connectionManager = new ConnectionManager(this);
         QueueManager queueManager = new QueueManager(connectionManager);
         databaseManager = new DatabaseManager(this, connectionManager, queueManager);
+        BlockOrdinalManager blockOrdinalManager = new BlockOrdinalManager(this, databaseManager);
+        // Mines assign ordinals to their unlockable blocks when created, so the saved ordinals are needed first
+        long databaseStartNanos = phaseStartNanos;
+        CompletableFuture<Void> ordinalsFuture = blockOrdinalManager.loadOrdinals();
 
         // Mine Data Classes
         mineDataManager = new MineDataManager();
 
         // PlayerData classes
-        playerDataManager = new PlayerDataManager(this, databaseManager);
+        SessionManager sessionManager = new SessionManager(this, settingsManager, databaseManager);
+        playerDataManager = new PlayerDataManager(this, databaseManager, mineDataManager, sessionManager);
         bossBarManager = new BossBarManager(playerDataManager, mineDataManager);
         MineTimeManager mineTimeManager = new MineTimeManager(playerDataManager, bossBarManager);
-        CooldownManager cooldownManager = new CooldownManager(this, playerDataManager);
-        BlocksManager blocksManager = new BlocksManager(playerDataManager);
+        BlockChangeManager blockChangeManager = new BlockChangeManager(this);
+        CooldownManager cooldownManager = new CooldownManager(this, playerDataManager, blockChangeManager);
+        BlocksManager blocksManager = new BlocksManager(playerDataManager, blockOrdinalManager);
 
         // Mine Classes
-        mineManager = new MineManager(this, localeManager, mineConfigManager, mineDataManager, cooldownManager, mineTimeManager, bossBarManager, blocksManager);
+        mineManager = new MineManager(this, localeManager, mineConfigManager, mineDataManager, cooldownManager, blockChangeManager, mineTimeManager, bossBarManager, blocksManager, databaseManager);
 
         // GUI Classes
         guiManager = new GUIManager(this);
 
         // Task Classes
-        taskManager = new TaskManager(this, mineDataManager, playerDataManager, mineTimeManager, cooldownManager);
+        taskManager = new TaskManager(this, settingsManager, mineDataManager, playerDataManager, mineTimeManager, cooldownManager, blockChangeManager, bossBarManager, sessionManager);
+        phaseStartNanos = logPhaseTime("Manager setup", phaseStartNanos);
 
         // Register plugin command
         SkyMinesCommand skyMinesCommand = new SkyMinesCommand(this, localeManager, guiConfigManager, mineConfigManager, guiManager, mineDataManager, mineTimeManager, blocksManager);
@@ -150,21 +176,43 @@ public class SkyMines extends JavaPlugin {
         pm.registerEvents(new InventoryListener(guiManager), this);
         pm.registerEvents(new PlayerHarvestBlockListener(mineDataManager), this);
         pm.registerEvents(new PlayerInteractListener(mineDataManager), this);
-        pm.registerEvents(new PlayerJoinListener(mineDataManager, playerDataManager), this);
+        pm.registerEvents(new PlayerJoinListener(mineDataManager, playerDataManager, cooldownManager), this);
         pm.registerEvents(new PlayerMoveListener(mineDataManager), this);
+        pm.registerEvents(new PlayerPreLoginListener(playerDataManager), this);
         pm.registerEvents(new PlayerQuitListener(playerDataManager, bossBarManager), this);
         pm.registerEvents(new PlayerTeleportListener(mineDataManager), this);
         pm.registerEvents(new StructureGrowListener(mineDataManager), this);
+        logPhaseTime("Command and listener registration", phaseStartNanos);
+
+        // The mines are created on the main thread once the database is setup and the ordinals are loaded, without blocking the main thread until then
+        ordinalsFuture.whenComplete((v, e) -> this.getServer().getScheduler().runTask(this, () -> {
+            if(e != null) {
+                this.getComponentLogger().error(AdventureUtil.serialize("SkyMines has been disabled as the database could not be setup or the block ordinals could not be loaded due to: " + e.getMessage()));
+                this.getServer().getPluginManager().disablePlugin(this);
+                return;
+            }
 
-        reload(true);
+            long reloadStartNanos = logPhaseTime("Database setup", databaseStartNanos);
+            reload(true).whenComplete((result, reloadException) -> {
+                if(reloadException != null) {
+                    this.getComponentLogger().error(AdventureUtil.serialize("SkyMines has been disabled as the mines could not be created."));
+                    this.getServer().getPluginManager().disablePlugin(this);
+                    return;
+                }
 
-        List<Player> onlinePlayers = ImmutableList.copyOf(this.getServer().getOnlinePlayers().stream().filter(player -> player.isOnline() && player.isConnected()).toList());
-        onlinePlayers.forEach(player ->
-                playerDataManager.loadPlayerData(player.getUniqueId()).thenAccept(v -> {
-                    AbstractMine mine = mineDataManager.getMineByLocation(player.getLocation());
-                    if(mine != null) {
-                        mine.createAndShowBossBar(player, player.getUniqueId());
-                    }
+                logPhaseTime("Reload", reloadStartNanos);
+
+                List<Player> onlinePlayers = ImmutableList.copyOf(this.getServer().getOnlinePlayers().stream().filter(player -> player.isOnline() && player.isConnected()).toList());
+                onlinePlayers.forEach(player ->
+                        playerDataManager.loadPlayerData(player.getUniqueId()).thenAccept(loaded -> {
+                            cooldownManager.restoreCooldowns(player);
+
+                            AbstractMine mine = mineDataManager.getMineByLocation(player.getLocation());
+                            if(mine != null) {
+                                mine.createAndShowBossBar(player, player.getUniqueId());
+                            }
+                }));
+            });
         }));
     }
 
@@ -177,42 +225,81 @@ public class SkyMines extends JavaPlugin {
 
         if(taskManager != null) {
             taskManager.stopMineTask();
+            taskManager.stopCooldownTask();
             taskManager.stopSaveTask();
+            taskManager.stopLeaseTask();
         }
 
+        // Save before the mines are cleared as saved cooldowns are grouped by the mine they are in
+        // The leases are released after saving, so other servers can load the players' data right away
+        CompletableFuture<Boolean> saveFuture = playerDataManager.saveAndReleasePlayerData();
+
         if(mineManager != null) {
             mineManager.clearMines(true);
         }
 
-        playerDataManager.savePlayerData().thenAccept(result -> {
+        saveFuture.thenAccept(result -> {
             if(playerDataManager != null) {
                 List<Player> onlinePlayers = ImmutableList.copyOf(this.getServer().getOnlinePlayers().stream().filter(player -> player.isOnline() && player.isConnected()).toList());
                 onlinePlayers.forEach(player -> bossBarManager.removeBossBar(player, player.getUniqueId()));
             }
 
-            if(databaseManager != null) databaseManager.handlePluginDisable();
+            if(databaseManager != null) databaseManager.close();
         });
     }
 
     /**
      * Reloads all plugin data.
+     * The configs are reloaded right away, then the mine ids are saved off the main thread and the mines are re-created on the main thread once they are.
+     * If the keys of the mine ids can't be loaded, the current mines are kept, as saved data can't be loaded or saved for mines without a key.
      * @param onEnable Is the reload occurring during plugin enable?
+     * @return A {@link CompletableFuture} of type {@link Void} that completes on the main thread once the mines are re-created,
+     * or completes exceptionally if the mine keys could not be loaded.
      */
-    public void reload(boolean onEnable) {
+    public @NotNull CompletableFuture<Void> reload(boolean onEnable) {
         guiManager.closeOpenGUIs(false);
 
+        long phaseStartNanos = System.nanoTime();
         settingsManager.reload();
+        if(onEnable) phaseStartNanos = logPhaseTime("Settings loading", phaseStartNanos);
         localeManager.reload();
+        if(onEnable) phaseStartNanos = logPhaseTime("Locale loading", phaseStartNanos);
         guiConfigManager.reload();
+        if(onEnable) phaseStartNanos = logPhaseTime("GUI config loading", phaseStartNanos);
         mineConfigManager.reload();
+        if(onEnable) phaseStartNanos = logPhaseTime("Mine config loading", phaseStartNanos);
+
+        long mineIdsStartNanos = phaseStartNanos;
+        return mineManager.saveMineIds().handleAsync((result, e) -> {
+            if(e != null) {
+                this.getComponentLogger().error(AdventureUtil.serialize("The mines were not reloaded as their ids could not be saved due to: " + e.getMessage()));
+                throw new CompletionException(e);
+            }
+
+            recreateMines(onEnable, onEnable ? logPhaseTime("Mine id saving", mineIdsStartNanos) : mineIdsStartNanos);
+            return null;
+        }, task -> this.getServer().getScheduler().runTask(this, task));
+    }
+
+    /**
+     * Re-creates the mines once their ids are saved and restarts the tasks.
+     * @param onEnable Is the reload occurring during plugin enable?
+     * @param phaseStartNanos The {@link System#nanoTime()} the mine creation phase started at.
+     */
+    private void recreateMines(boolean onEnable, long phaseStartNanos) {
         mineManager.reload();
+        if(onEnable) logPhaseTime("Mine creation", phaseStartNanos);
 
         if(!onEnable) {
             taskManager.stopMineTask();
+            taskManager.stopCooldownTask();
             taskManager.stopSaveTask();
+            taskManager.stopLeaseTask();
 
-            // Show boss bars to players in mines
+            // Show boss bars to players in mines that were re-created
             for(Player onlinePlayer : this.getServer().getOnlinePlayers()) {
+                if(bossBarManager.getBossBar(onlinePlayer.getUniqueId()) != null) continue;
+
                 AbstractMine mine = mineDataManager.getMineByLocation(onlinePlayer.getLocation());
                 if(mine == null) continue;
                 if(mine.getMineId() == null) continue;
@@ -222,7 +309,21 @@ public class SkyMines extends JavaPlugin {
         }
 
         taskManager.startMineTask();
+        taskManager.startCooldownTask();
         taskManager.startSaveTask();
+        taskManager.startLeaseTask();
+    }
+
+    /**
+     * Logs how long a startup phase took.
+     * @param phase The name of the phase.
+     * @param startNanos The {@link System#nanoTime()} the phase started at.
+     * @return The {@link System#nanoTime()} the phase ended at, to use as the start of the next phase.
+     */
+    private long logPhaseTime(@NotNull String phase, long startNanos) {
+        long endNanos = System.nanoTime();
+        this.getComponentLogger().info(AdventureUtil.serialize(phase + " took " + TimeUnit.NANOSECONDS.toMillis(endNanos - startNanos) + " ms."));
+        return endNanos;
     }
 
     /**
@@ -17,10 +17,9 @@
 */
 package com.github.lukesky19.skymines.commands.arguments;
 
-import com.github.lukesky19.skylib.api.adventure.AdventureUtil;
 import com.github.lukesky19.skylib.api.registry.RegistryUtil;
 import com.github.lukesky19.skymines.SkyMines;
-import com.github.lukesky19.skymines.data.config.Locale;
+import com.github.lukesky19.skymines.data.config.LocaleMessage;
 import com.github.lukesky19.skymines.data.config.world.WorldMineConfig;
 import com.github.lukesky19.skymines.manager.config.LocaleManager;
 import com.github.lukesky19.skymines.manager.config.MineConfigManager;
@@ -34,15 +33,13 @@ import io.papermc.paper.command.brigadier.CommandSourceStack;
 import io.papermc.paper.command.brigadier.Commands;
 import io.papermc.paper.command.brigadier.argument.ArgumentTypes;
 import io.papermc.paper.command.brigadier.argument.resolvers.selector.PlayerSelectorArgumentResolver;
+import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.logger.slf4j.ComponentLogger;
-import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
-import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
 import org.bukkit.block.BlockType;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -127,7 +124,6 @@ public class BlocksCommand {
 
                                         .executes(ctx -> {
                                             ComponentLogger logger = skyMines.getComponentLogger();
-                                            Locale locale = localeManager.getLocale();
 
                                             CommandSender sender = ctx.getSource().getSender();
 
@@ -142,35 +138,36 @@ public class BlocksCommand {
                                             String blockTypeName = ctx.getArgument("block_type", String.class);
                                             @NotNull Optional<BlockType> optionalBlockType = RegistryUtil.getBlockType(logger, blockTypeName);
                                             if(optionalBlockType.isEmpty()) {
-                                                List<TagResolver.Single> placeholders = List.of(Placeholder.parsed("block_type", blockTypeName));
-
-                                                sender.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().invalidBlockType(), placeholders));
+                                                sender.sendMessage(localeManager.getMessage(LocaleMessage.INVALID_BLOCK_TYPE, Component.text(blockTypeName)));
                                                 return 0;
                                             }
                                             BlockType blockType = optionalBlockType.get();
 
                                             AbstractMine mine = mineDataManager.getMineById(mineId);
                                             if(mine == null) {
-                                                List<TagResolver.Single> placeholders = List.of(Placeholder.parsed("mine_id", mineId));
-
-                                                sender.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.noMineWithId(), placeholders));
+                                                sender.sendMessage(localeManager.getMessage(LocaleMessage.NO_MINE_WITH_ID, Component.text(mineId)));
                                                 return 0;
                                             }
 
-                                            List<TagResolver.Single> placeholders = List.of(
-                                                    Placeholder.parsed("block_type", blockTypeName),
-                                                    Placeholder.parsed("mine_id", mineId),
-                                                    Placeholder.parsed("player", targetPlayer.getName()));
+                                            Component[] placeholders = {Component.text(blockTypeName), Component.text(mineId), Component.text(targetPlayer.getName())};
+
+                                            if(!blocksManager.isPlayerDataLoaded(targetPlayerId)) {
+                                                sender.sendMessage(localeManager.getMessage(LocaleMessage.PLAYER_DATA_NOT_LOADED, Component.text(targetPlayer.getName())));
+                                                return 0;
+                                            }
 
                                             if(blocksManager.isBlockTypeUnlocked(targetPlayerId, mineId, blockType)) {
-                                                sender.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().blockAlreadyUnlocked(), placeholders));
+                                                sender.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_ALREADY_UNLOCKED, placeholders));
                                                 return 1;
                                             }
 
-                                            blocksManager.addUnlockedBlock(targetPlayerId, mineId, blockType);
+                                            if(!blocksManager.addUnlockedBlock(targetPlayerId, mineId, blockType)) {
+                                                sender.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_UNLOCK_NOT_READY, placeholders));
+                                                return 0;
+                                            }
 
-                                            sender.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().playerBlockUnlocked(), placeholders));
-                                            targetPlayer.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().blockUnlocked(), placeholders));
+                                            sender.sendMessage(localeManager.getMessage(LocaleMessage.PLAYER_BLOCK_UNLOCKED, placeholders));
+                                            targetPlayer.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_UNLOCKED, placeholders));
                                             return 1;
                                         })
                                 )
@@ -210,7 +207,6 @@ public class BlocksCommand {
 
                                         .executes(ctx -> {
                                             ComponentLogger logger = skyMines.getComponentLogger();
-                                            Locale locale = localeManager.getLocale();
 
                                             CommandSender sender = ctx.getSource().getSender();
 
@@ -225,35 +221,33 @@ public class BlocksCommand {
                                             String blockTypeName = ctx.getArgument("block_type", String.class);
                                             @NotNull Optional<BlockType> optionalBlockType = RegistryUtil.getBlockType(logger, blockTypeName);
                                             if(optionalBlockType.isEmpty()) {
-                                                List<TagResolver.Single> placeholders = List.of(Placeholder.parsed("block_type", blockTypeName));
-
-                                                sender.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().invalidBlockType(), placeholders));
+                                                sender.sendMessage(localeManager.getMessage(LocaleMessage.INVALID_BLOCK_TYPE, Component.text(blockTypeName)));
                                                 return 0;
                                             }
                                             BlockType blockType = optionalBlockType.get();
 
                                             AbstractMine mine = mineDataManager.getMineById(mineId);
                                             if(mine == null) {
-                                                List<TagResolver.Single> placeholders = List.of(Placeholder.parsed("mine_id", mineId));
-
-                                                sender.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.noMineWithId(), placeholders));
+                                                sender.sendMessage(localeManager.getMessage(LocaleMessage.NO_MINE_WITH_ID, Component.text(mineId)));
                                                 return 0;
                                             }
 
-                                            List<TagResolver.Single> placeholders = List.of(
-                                                    Placeholder.parsed("block_type", blockTypeName),
-                                                    Placeholder.parsed("mine_id", mineId),
-                                                    Placeholder.parsed("player", targetPlayer.getName()));
+                                            Component[] placeholders = {Component.text(blockTypeName), Component.text(mineId), Component.text(targetPlayer.getName())};
+
+                                            if(!blocksManager.isPlayerDataLoaded(targetPlayerId)) {
+                                                sender.sendMessage(localeManager.getMessage(LocaleMessage.PLAYER_DATA_NOT_LOADED, Component.text(targetPlayer.getName())));
+                                                return 0;
+                                            }
 
                                             if(!blocksManager.isBlockTypeUnlocked(targetPlayerId, mineId, blockType)) {
-                                                sender.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().blockAlreadyLocked(), placeholders));
+                                                sender.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_ALREADY_LOCKED, placeholders));
                                                 return 1;
                                             }
 
                                             blocksManager.removeUnlockedBlock(targetPlayerId, mineId, blockType);
 
-                                            sender.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().playerBlockLocked(), placeholders));
-                                            targetPlayer.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().blockLocked(), placeholders));
+                                            sender.sendMessage(localeManager.getMessage(LocaleMessage.PLAYER_BLOCK_LOCKED, placeholders));
+                                            targetPlayer.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_LOCKED, placeholders));
                                             return 1;
                                         })
                                 )
@@ -17,13 +17,12 @@
 */
 package com.github.lukesky19.skymines.commands.arguments;
 
-import com.github.lukesky19.skylib.api.adventure.AdventureUtil;
-import com.github.lukesky19.skymines.data.config.Locale;
 import com.github.lukesky19.skymines.manager.config.LocaleManager;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
 import com.mojang.brigadier.tree.LiteralCommandNode;
 import io.papermc.paper.command.brigadier.CommandSourceStack;
 import io.papermc.paper.command.brigadier.Commands;
+import net.kyori.adventure.text.Component;
 import org.bukkit.command.CommandSender;
 import org.jetbrains.annotations.NotNull;
 
@@ -61,10 +60,9 @@ public class HelpCommand {
                 .requires(ctx -> ctx.getSender().hasPermission("skymines.commands.skymines.help"))
                 .executes(ctx -> {
                     CommandSender sender = ctx.getSource().getSender();
-                    Locale locale = localeManager.getLocale();
 
-                    for (String msg : locale.help()) {
-                        sender.sendMessage(AdventureUtil.serialize(msg));
+                    for(Component line : localeManager.getHelpMessage()) {
+                        sender.sendMessage(line);
                     }
 
                     return 1;
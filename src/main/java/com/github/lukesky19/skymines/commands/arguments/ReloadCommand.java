@@ -17,14 +17,14 @@
 */
 package com.github.lukesky19.skymines.commands.arguments;
 
-import com.github.lukesky19.skylib.api.adventure.AdventureUtil;
 import com.github.lukesky19.skymines.SkyMines;
-import com.github.lukesky19.skymines.data.config.Locale;
+import com.github.lukesky19.skymines.data.config.LocaleMessage;
 import com.github.lukesky19.skymines.manager.config.LocaleManager;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
 import com.mojang.brigadier.tree.LiteralCommandNode;
 import io.papermc.paper.command.brigadier.CommandSourceStack;
 import io.papermc.paper.command.brigadier.Commands;
+import org.bukkit.command.CommandSender;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -63,11 +63,8 @@ public class ReloadCommand {
         LiteralArgumentBuilder<CommandSourceStack> builder = Commands.literal("reload")
                 .requires(ctx -> ctx.getSender().hasPermission("skymines.commands.skymines.reload"))
                 .executes(ctx -> {
-                    Locale locale = localeManager.getLocale();
-
-                    skyMines.reload(false);
-
-                    ctx.getSource().getSender().sendMessage(AdventureUtil.serialize(locale.prefix() + locale.reload()));
+                    CommandSender sender = ctx.getSource().getSender();
+                    skyMines.reload(false).thenRun(() -> sender.sendMessage(localeManager.getMessage(LocaleMessage.RELOAD)));
 
                     return 1;
                 });
@@ -17,9 +17,8 @@
 */
 package com.github.lukesky19.skymines.commands.arguments;
 
-import com.github.lukesky19.skylib.api.adventure.AdventureUtil;
 import com.github.lukesky19.skylib.api.time.TimeUtil;
-import com.github.lukesky19.skymines.data.config.Locale;
+import com.github.lukesky19.skymines.data.config.LocaleMessage;
 import com.github.lukesky19.skymines.manager.config.LocaleManager;
 import com.github.lukesky19.skymines.manager.mine.MineDataManager;
 import com.github.lukesky19.skymines.manager.mine.packet.MineTimeManager;
@@ -32,13 +31,11 @@ import io.papermc.paper.command.brigadier.CommandSourceStack;
 import io.papermc.paper.command.brigadier.Commands;
 import io.papermc.paper.command.brigadier.argument.ArgumentTypes;
 import io.papermc.paper.command.brigadier.argument.resolvers.selector.PlayerSelectorArgumentResolver;
-import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
-import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+import net.kyori.adventure.text.Component;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.List;
 import java.util.UUID;
 
 /**
@@ -101,53 +98,45 @@ public class TimeCommand {
                     PlayerSelectorArgumentResolver targetResolver = ctx.getArgument("player", PlayerSelectorArgumentResolver.class);
                     Player targetPlayer = targetResolver.resolve(ctx.getSource()).getFirst();
                     UUID targetPlayerId = targetPlayer.getUniqueId();
-                    Locale locale = localeManager.getLocale();
 
                     AbstractMine mine = mineDataManager.getMineById(mineId);
                     if(mine == null) {
-                        List<TagResolver.Single> placeholders = List.of(Placeholder.parsed("mine_id", mineId));
-
-                        sender.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.noMineWithId(), placeholders));
+                        sender.sendMessage(localeManager.getMessage(LocaleMessage.NO_MINE_WITH_ID, Component.text(mineId)));
                         return 0;
                     }
 
                     long time = mineTimeManager.getMineTime(targetPlayerId, mineId);
-                    List<TagResolver.Single> placeholders = List.of(
-                            Placeholder.parsed("mine_id", mineId),
-                            Placeholder.parsed("time", localeManager.getTimeMessage(time)));
+                    Component mineIdComponent = Component.text(mineId);
+                    Component timeComponent = localeManager.getTimeComponent(time);
 
                     if(time <= 0) {
-                        sender.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.packetMineMessages().noMineTime(), placeholders));
+                        sender.sendMessage(localeManager.getMessage(LocaleMessage.NO_MINE_TIME, mineIdComponent, timeComponent));
                     } else {
-                        sender.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.packetMineMessages().mineTime(), placeholders));
+                        sender.sendMessage(localeManager.getMessage(LocaleMessage.MINE_TIME, mineIdComponent, timeComponent));
                     }
 
                     return 1;
                 }))
 
                 .executes(ctx -> {
-                    Locale locale = localeManager.getLocale();
                     Player player = (Player) ctx.getSource().getSender();
                     UUID uuid = player.getUniqueId();
                     String mineId = ctx.getArgument("mine_id", String.class);
 
                     AbstractMine mine = mineDataManager.getMineById(mineId);
                     if(mine == null) {
-                        List<TagResolver.Single> placeholders = List.of(Placeholder.parsed("mine_id", mineId));
-
-                        player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.noMineWithId(), placeholders));
+                        player.sendMessage(localeManager.getMessage(LocaleMessage.NO_MINE_WITH_ID, Component.text(mineId)));
                         return 0;
                     }
 
                     long time = mineTimeManager.getMineTime(uuid, mineId);
-                    List<TagResolver.Single> placeholders = List.of(
-                            Placeholder.parsed("mine_id", mineId),
-                            Placeholder.parsed("time", localeManager.getTimeMessage(time)));
+                    Component mineIdComponent = Component.text(mineId);
+                    Component timeComponent = localeManager.getTimeComponent(time);
 
                     if(time <= 0) {
-                        player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.packetMineMessages().noMineTime(), placeholders));
+                        player.sendMessage(localeManager.getMessage(LocaleMessage.NO_MINE_TIME, mineIdComponent, timeComponent));
                     } else {
-                        player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.packetMineMessages().mineTime(), placeholders));
+                        player.sendMessage(localeManager.getMessage(LocaleMessage.MINE_TIME, mineIdComponent, timeComponent));
                     }
 
                     return 1;
@@ -165,7 +154,6 @@ public class TimeCommand {
                     })
                     .then(Commands.argument("time", StringArgumentType.string())
                         .executes(ctx -> {
-                            Locale locale = localeManager.getLocale();
                             CommandSender sender = ctx.getSource().getSender();
                             PlayerSelectorArgumentResolver targetResolver = ctx.getArgument("player", PlayerSelectorArgumentResolver.class);
                             Player targetPlayer = targetResolver.resolve(ctx.getSource()).getFirst();
@@ -176,28 +164,26 @@ public class TimeCommand {
 
                             AbstractMine mine = mineDataManager.getMineById(mineId);
                             if(mine == null) {
-                                List<TagResolver.Single> placeholders = List.of(Placeholder.parsed("mine_id", mineId));
-
-                                sender.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.noMineWithId(), placeholders));
+                                sender.sendMessage(localeManager.getMessage(LocaleMessage.NO_MINE_WITH_ID, Component.text(mineId)));
                                 return 0;
                             }
 
                             if(timeSeconds >= 1) {
-                                mineTimeManager.incrementMineTime(targetUUID, mineId, timeSeconds);
+                                if(!mineTimeManager.incrementMineTime(targetUUID, mineId, timeSeconds)) {
+                                    sender.sendMessage(localeManager.getMessage(LocaleMessage.PLAYER_DATA_NOT_LOADED, Component.text(targetPlayer.getName())));
+                                    return 0;
+                                }
 
                                 long mineTimeSeconds = mineTimeManager.getMineTime(targetUUID, mineId);
 
-                                List<TagResolver.Single> placeholders = List.of(
-                                        Placeholder.parsed("player_name", targetPlayer.getName()),
-                                        Placeholder.parsed("mine_id", mineId),
-                                        Placeholder.parsed("time", localeManager.getTimeMessage(mineTimeSeconds)));
+                                Component[] placeholders = {Component.text(targetPlayer.getName()), Component.text(mineId), localeManager.getTimeComponent(mineTimeSeconds)};
 
-                                targetPlayer.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.packetMineMessages().mineTimeChanged(), placeholders));
-                                sender.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.packetMineMessages().mineTimeChangedTo(), placeholders));
+                                targetPlayer.sendMessage(localeManager.getMessage(LocaleMessage.MINE_TIME_CHANGED, placeholders));
+                                sender.sendMessage(localeManager.getMessage(LocaleMessage.MINE_TIME_CHANGED_TO, placeholders));
 
                                 return 1;
                             } else {
-                                sender.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.packetMineMessages().timeInvalidLessThenOne()));
+                                sender.sendMessage(localeManager.getMessage(LocaleMessage.TIME_INVALID_LESS_THEN_ONE));
                                 return 0;
                             }
                         })
@@ -219,7 +205,6 @@ public class TimeCommand {
                     })
                     .then(Commands.argument("time", StringArgumentType.string())
                         .executes(ctx -> {
-                            Locale locale = localeManager.getLocale();
                             CommandSender sender = ctx.getSource().getSender();
                             PlayerSelectorArgumentResolver targetResolver = ctx.getArgument("player", PlayerSelectorArgumentResolver.class);
                             Player targetPlayer = targetResolver.resolve(ctx.getSource()).getFirst();
@@ -230,28 +215,26 @@ public class TimeCommand {
 
                             AbstractMine mine = mineDataManager.getMineById(mineId);
                             if(mine == null) {
-                                List<TagResolver.Single> placeholders = List.of(Placeholder.parsed("mine_id", mineId));
-
-                                sender.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.noMineWithId(), placeholders));
+                                sender.sendMessage(localeManager.getMessage(LocaleMessage.NO_MINE_WITH_ID, Component.text(mineId)));
                                 return 0;
                             }
 
                             if(timeSeconds >= 1) {
-                                mineTimeManager.decrementMineTime(targetUUID, mineId, timeSeconds);
+                                if(!mineTimeManager.decrementMineTime(targetUUID, mineId, timeSeconds)) {
+                                    sender.sendMessage(localeManager.getMessage(LocaleMessage.PLAYER_DATA_NOT_LOADED, Component.text(targetPlayer.getName())));
+                                    return 0;
+                                }
 
                                 long mineTimeSeconds = mineTimeManager.getMineTime(targetUUID, mineId);
 
-                                List<TagResolver.Single> placeholders = List.of(
-                                        Placeholder.parsed("player_name", targetPlayer.getName()),
-                                        Placeholder.parsed("mine_id", mineId),
-                                        Placeholder.parsed("time", localeManager.getTimeMessage(mineTimeSeconds)));
+                                Component[] placeholders = {Component.text(targetPlayer.getName()), Component.text(mineId), localeManager.getTimeComponent(mineTimeSeconds)};
 
-                                targetPlayer.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.packetMineMessages().mineTimeChanged(), placeholders));
-                                sender.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.packetMineMessages().mineTimeChangedTo(), placeholders));
+                                targetPlayer.sendMessage(localeManager.getMessage(LocaleMessage.MINE_TIME_CHANGED, placeholders));
+                                sender.sendMessage(localeManager.getMessage(LocaleMessage.MINE_TIME_CHANGED_TO, placeholders));
 
                                 return 1;
                             } else {
-                                sender.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.packetMineMessages().timeInvalidLessThenOne()));
+                                sender.sendMessage(localeManager.getMessage(LocaleMessage.TIME_INVALID_LESS_THEN_ONE));
                                 return 0;
                             }
                         })
@@ -273,7 +256,6 @@ public class TimeCommand {
                     })
                     .then(Commands.argument("time", IntegerArgumentType.integer())
                         .executes(ctx -> {
-                            Locale locale = localeManager.getLocale();
                             CommandSender sender = ctx.getSource().getSender();
                             PlayerSelectorArgumentResolver targetResolver = ctx.getArgument("player", PlayerSelectorArgumentResolver.class);
                             Player targetPlayer = targetResolver.resolve(ctx.getSource()).getFirst();
@@ -284,28 +266,26 @@ public class TimeCommand {
 
                             AbstractMine mine = mineDataManager.getMineById(mineId);
                             if(mine == null) {
-                                List<TagResolver.Single> placeholders = List.of(Placeholder.parsed("mine_id", mineId));
-
-                                sender.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.noMineWithId(), placeholders));
+                                sender.sendMessage(localeManager.getMessage(LocaleMessage.NO_MINE_WITH_ID, Component.text(mineId)));
                                 return 0;
                             }
 
                             if(timeSeconds < 0) {
-                                sender.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.packetMineMessages().timeInvalidLessThenZero()));
+                                sender.sendMessage(localeManager.getMessage(LocaleMessage.TIME_INVALID_LESS_THEN_ZERO));
                                 return 0;
                             }
 
-                            mineTimeManager.setMineTime(targetUUID, mineId, timeSeconds);
+                            if(!mineTimeManager.setMineTime(targetUUID, mineId, timeSeconds)) {
+                                sender.sendMessage(localeManager.getMessage(LocaleMessage.PLAYER_DATA_NOT_LOADED, Component.text(targetPlayer.getName())));
+                                return 0;
+                            }
 
                             long mineTimeSeconds = mineTimeManager.getMineTime(targetUUID, mineId);
 
-                            List<TagResolver.Single> placeholders = List.of(
-                                    Placeholder.parsed("player_name", targetPlayer.getName()),
-                                    Placeholder.parsed("mine_id", mineId),
-                                    Placeholder.parsed("time", localeManager.getTimeMessage(mineTimeSeconds)));
+                            Component[] placeholders = {Component.text(targetPlayer.getName()), Component.text(mineId), localeManager.getTimeComponent(mineTimeSeconds)};
 
-                            targetPlayer.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.packetMineMessages().mineTimeChanged(), placeholders));
-                            sender.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.packetMineMessages().mineTimeChangedTo(), placeholders));
+                            targetPlayer.sendMessage(localeManager.getMessage(LocaleMessage.MINE_TIME_CHANGED, placeholders));
+                            sender.sendMessage(localeManager.getMessage(LocaleMessage.MINE_TIME_CHANGED_TO, placeholders));
 
                             return 1;
                         })
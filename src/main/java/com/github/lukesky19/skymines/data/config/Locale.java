@@ -32,6 +32,7 @@ import java.util.List;
  * @param reload The plugin's reload message.
  * @param noMineWithId The message sent when a mine was not found for a particular mine id.
  * @param guiOpenError The message sent to a player when a GUI fails to open.
+ * @param playerDataNotLoaded The message sent when a player's data is used before it has finished loading.
  * @param packetMineMessages The messages specific to {@link PacketMine}s.
  * @param worldMineMessages The messages specific to {@link WorldMine}s
  * @param timeMessage The message used in the boss bar and when a player views their mine time using a command.
@@ -44,6 +45,7 @@ public record Locale(
         String reload,
         String noMineWithId,
         String guiOpenError,
+        String playerDataNotLoaded,
         @NotNull PacketMineMessages packetMineMessages,
         @NotNull WorldMineMessages worldMineMessages,
         TimeMessage timeMessage) {
@@ -98,6 +100,7 @@ public record Locale(
      * @param blockInteractionNotAllowed The message sent to the player when attempting a block interaction, but is not allowed for said block.
      * @param notEnoughMoney The message sent to the player when trying to unlock a block through purchase, but lacks the funds to do so.
      * @param guiErrorNotInMine The message sent to the player attempting to open a shop GUI while not inside a mine.
+     * @param blockUnlockNotReady The message sent when a block is unlocked before its ordinal has been saved.
      */
     @ConfigSerializable
     public record WorldMineMessages(
@@ -117,7 +120,8 @@ public record Locale(
             String blockInteractionNotUnlocked,
             String blockInteractionNotAllowed,
             String notEnoughMoney,
-            String guiErrorNotInMine
+            String guiErrorNotInMine,
+            String blockUnlockNotReady
     ) {}
 
     /**
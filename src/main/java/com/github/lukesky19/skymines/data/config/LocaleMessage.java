@@ -0,0 +1,201 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.data.config;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Function;
+
+/**
+ * The {@link Locale} messages that are sent with the plugin's prefix.
+ * Each message is parsed once when the locale is loaded, see {@link com.github.lukesky19.skymines.manager.config.LocaleManager#getMessage(LocaleMessage, net.kyori.adventure.text.Component...)}.
+ */
+public enum LocaleMessage {
+    /**
+     * {@link Locale#reload()}
+     */
+    RELOAD(Locale::reload),
+    /**
+     * {@link Locale#noMineWithId()}
+     */
+    NO_MINE_WITH_ID(Locale::noMineWithId, "mine_id"),
+    /**
+     * {@link Locale#guiOpenError()}
+     */
+    GUI_OPEN_ERROR(Locale::guiOpenError),
+    /**
+     * {@link Locale#playerDataNotLoaded()}
+     */
+    PLAYER_DATA_NOT_LOADED(Locale::playerDataNotLoaded, "player_name"),
+
+    // Packet Mines
+    /**
+     * {@link Locale.PacketMineMessages#mineTimeChanged()}
+     */
+    MINE_TIME_CHANGED(locale -> locale.packetMineMessages().mineTimeChanged(), "player_name", "mine_id", "time"),
+    /**
+     * {@link Locale.PacketMineMessages#mineTimeChangedTo()}
+     */
+    MINE_TIME_CHANGED_TO(locale -> locale.packetMineMessages().mineTimeChangedTo(), "player_name", "mine_id", "time"),
+    /**
+     * {@link Locale.PacketMineMessages#mineTime()}
+     */
+    MINE_TIME(locale -> locale.packetMineMessages().mineTime(), "mine_id", "time"),
+    /**
+     * {@link Locale.PacketMineMessages#noMineTime()}
+     */
+    NO_MINE_TIME(locale -> locale.packetMineMessages().noMineTime(), "mine_id", "time"),
+    /**
+     * {@link Locale.PacketMineMessages#playerMineTime()}
+     */
+    PLAYER_MINE_TIME(locale -> locale.packetMineMessages().playerMineTime(), "player_name", "mine_id", "time"),
+    /**
+     * {@link Locale.PacketMineMessages#playerNoMineTime()}
+     */
+    PLAYER_NO_MINE_TIME(locale -> locale.packetMineMessages().playerNoMineTime(), "player_name", "mine_id", "time"),
+    /**
+     * {@link Locale.PacketMineMessages#mineAccessNoTime()}
+     */
+    MINE_ACCESS_NO_TIME(locale -> locale.packetMineMessages().mineAccessNoTime()),
+    /**
+     * {@link Locale.PacketMineMessages#canNotBreakBlock()}
+     */
+    CAN_NOT_BREAK_BLOCK(locale -> locale.packetMineMessages().canNotBreakBlock()),
+    /**
+     * {@link Locale.PacketMineMessages#canNotPlaceBlock()}
+     */
+    CAN_NOT_PLACE_BLOCK(locale -> locale.packetMineMessages().canNotPlaceBlock()),
+    /**
+     * {@link Locale.PacketMineMessages#cooldown()}
+     */
+    COOLDOWN(locale -> locale.packetMineMessages().cooldown()),
+    /**
+     * {@link Locale.PacketMineMessages#timeInvalidLessThenOne()}
+     */
+    TIME_INVALID_LESS_THEN_ONE(locale -> locale.packetMineMessages().timeInvalidLessThenOne()),
+    /**
+     * {@link Locale.PacketMineMessages#timeInvalidLessThenZero()}
+     */
+    TIME_INVALID_LESS_THEN_ZERO(locale -> locale.packetMineMessages().timeInvalidLessThenZero()),
+
+    // World Mines
+    /**
+     * {@link Locale.WorldMineMessages#invalidBlockType()}
+     */
+    INVALID_BLOCK_TYPE(locale -> locale.worldMineMessages().invalidBlockType(), "block_type"),
+    /**
+     * {@link Locale.WorldMineMessages#blockAlreadyUnlocked()}
+     */
+    BLOCK_ALREADY_UNLOCKED(locale -> locale.worldMineMessages().blockAlreadyUnlocked(), "block_type", "mine_id", "player"),
+    /**
+     * {@link Locale.WorldMineMessages#blockAlreadyLocked()}
+     */
+    BLOCK_ALREADY_LOCKED(locale -> locale.worldMineMessages().blockAlreadyLocked(), "block_type", "mine_id", "player"),
+    /**
+     * {@link Locale.WorldMineMessages#blockUnlocked()}
+     */
+    BLOCK_UNLOCKED(locale -> locale.worldMineMessages().blockUnlocked(), "block_type", "mine_id", "player"),
+    /**
+     * {@link Locale.WorldMineMessages#blockLocked()}
+     */
+    BLOCK_LOCKED(locale -> locale.worldMineMessages().blockLocked(), "block_type", "mine_id", "player"),
+    /**
+     * {@link Locale.WorldMineMessages#playerBlockUnlocked()}
+     */
+    PLAYER_BLOCK_UNLOCKED(locale -> locale.worldMineMessages().playerBlockUnlocked(), "block_type", "mine_id", "player"),
+    /**
+     * {@link Locale.WorldMineMessages#playerBlockLocked()}
+     */
+    PLAYER_BLOCK_LOCKED(locale -> locale.worldMineMessages().playerBlockLocked(), "block_type", "mine_id", "player"),
+    /**
+     * {@link Locale.WorldMineMessages#blockBreakNotUnlocked()}
+     */
+    BLOCK_BREAK_NOT_UNLOCKED(locale -> locale.worldMineMessages().blockBreakNotUnlocked()),
+    /**
+     * {@link Locale.WorldMineMessages#blockBreakNotAllowed()}
+     */
+    BLOCK_BREAK_NOT_ALLOWED(locale -> locale.worldMineMessages().blockBreakNotAllowed()),
+    /**
+     * {@link Locale.WorldMineMessages#blockBreakNotPlayerPlaced()}
+     */
+    BLOCK_BREAK_NOT_PLAYER_PLACED(locale -> locale.worldMineMessages().blockBreakNotPlayerPlaced()),
+    /**
+     * {@link Locale.WorldMineMessages#blockBreakNotPlayerWaterLogged()}
+     */
+    BLOCK_BREAK_NOT_PLAYER_WATER_LOGGED(locale -> locale.worldMineMessages().blockBreakNotPlayerWaterLogged()),
+    /**
+     * {@link Locale.WorldMineMessages#blockPlaceNotUnlocked()}
+     */
+    BLOCK_PLACE_NOT_UNLOCKED(locale -> locale.worldMineMessages().blockPlaceNotUnlocked()),
+    /**
+     * {@link Locale.WorldMineMessages#blockPlaceNotAllowed()}
+     */
+    BLOCK_PLACE_NOT_ALLOWED(locale -> locale.worldMineMessages().blockPlaceNotAllowed()),
+    /**
+     * {@link Locale.WorldMineMessages#blockInteractionNotUnlocked()}
+     */
+    BLOCK_INTERACTION_NOT_UNLOCKED(locale -> locale.worldMineMessages().blockInteractionNotUnlocked()),
+    /**
+     * {@link Locale.WorldMineMessages#blockInteractionNotAllowed()}
+     */
+    BLOCK_INTERACTION_NOT_ALLOWED(locale -> locale.worldMineMessages().blockInteractionNotAllowed()),
+    /**
+     * {@link Locale.WorldMineMessages#notEnoughMoney()}
+     */
+    NOT_ENOUGH_MONEY(locale -> locale.worldMineMessages().notEnoughMoney()),
+    /**
+     * {@link Locale.WorldMineMessages#guiErrorNotInMine()}
+     */
+    GUI_ERROR_NOT_IN_MINE(locale -> locale.worldMineMessages().guiErrorNotInMine()),
+    /**
+     * {@link Locale.WorldMineMessages#blockUnlockNotReady()}
+     */
+    BLOCK_UNLOCK_NOT_READY(locale -> locale.worldMineMessages().blockUnlockNotReady(), "block_type", "mine_id", "player");
+
+    private final @NotNull Function<Locale, String> messageGetter;
+    private final @NotNull String @NotNull [] placeholderNames;
+
+    /**
+     * Constructor
+     * @param messageGetter A {@link Function} that gets the message from a {@link Locale}.
+     * @param placeholderNames The names of the placeholders the message supports.
+     */
+    LocaleMessage(@NotNull Function<Locale, String> messageGetter, @NotNull String... placeholderNames) {
+        this.messageGetter = messageGetter;
+        this.placeholderNames = placeholderNames;
+    }
+
+    /**
+     * Get the message from the provided {@link Locale}.
+     * @param locale The {@link Locale}.
+     * @return The message or null if not configured.
+     */
+    public @Nullable String getMessage(@NotNull Locale locale) {
+        return messageGetter.apply(locale);
+    }
+
+    /**
+     * Get the names of the placeholders the message supports.
+     * Values for the placeholders are passed in the same order.
+     * @return An array of placeholder names.
+     */
+    public @NotNull String @NotNull [] getPlaceholderNames() {
+        return placeholderNames.clone();
+    }
+}
@@ -24,6 +24,43 @@ import org.jetbrains.annotations.Nullable;
  * The plugin's settings configuration.
  * @param configVersion The config version of the file.
  * @param locale The locale file name (without .yml) to use.
+ * @param saveIntervalSeconds How often in seconds player data that changed is saved to the database. Defaults to 30 if not set.
+ * @param database The database settings.
  */
 @ConfigSerializable
-public record Settings(@Nullable String configVersion, @Nullable String locale) {}
+public record Settings(@Nullable String configVersion, @Nullable String locale, @Nullable Long saveIntervalSeconds, @Nullable Database database) {
+    /**
+     * The database settings. Changes require a restart.
+     * The write mode, commit and read pool settings only apply to SQLite.
+     * @param writeMode How writes are made. "single-writer" groups writes into shared commits on one thread, "queue" commits each write on its own. Defaults to "single-writer" if not set.
+     * @param commitIntervalMillis The longest time in milliseconds a write waits for other writes to share its commit. Defaults to 10 if not set.
+     * @param commitBatchSize The most statements that share one commit. Defaults to 512 if not set.
+     * @param readPoolSize The number of read-only connections used with the single writer. Defaults to 4 if not set.
+     * @param type The database backend. One of "sqlite", "mysql", "mariadb" or "postgresql". Defaults to "sqlite" if not set.
+     * @param host The host of the database server. Defaults to "localhost" if not set.
+     * @param port The port of the database server. Defaults to the backend's default port if not set.
+     * @param databaseName The name of the database on the server. Defaults to "skymines" if not set.
+     * @param username The username to connect to the database server with.
+     * @param password The password to connect to the database server with.
+     * @param poolSize The number of connections to the database server. Defaults to 10 if not set.
+     * @param jdbcUrl A JDBC url that replaces the url built from the host, port and database name, such as an embedded H2 database in compatibility mode.
+     * @param sessionLeaseSeconds How long in seconds a server holds the lease on a player's data without renewing it. Defaults to 60 if not set.
+     * @param sessionWaitMillis The longest time in milliseconds to wait for another server to release a player's lease before taking it over. Defaults to 5000 if not set.
+     */
+    @ConfigSerializable
+    public record Database(
+            @Nullable String writeMode,
+            @Nullable Long commitIntervalMillis,
+            @Nullable Integer commitBatchSize,
+            @Nullable Integer readPoolSize,
+            @Nullable String type,
+            @Nullable String host,
+            @Nullable Integer port,
+            @Nullable String databaseName,
+            @Nullable String username,
+            @Nullable String password,
+            @Nullable Integer poolSize,
+            @Nullable String jdbcUrl,
+            @Nullable Long sessionLeaseSeconds,
+            @Nullable Long sessionWaitMillis) {}
+}
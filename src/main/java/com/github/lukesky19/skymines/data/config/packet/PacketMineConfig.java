@@ -18,6 +18,7 @@
 package com.github.lukesky19.skymines.data.config.packet;
 
 import com.github.lukesky19.skylib.libs.configurate.objectmapping.ConfigSerializable;
+import com.github.lukesky19.skymines.data.config.MineConfig;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -31,6 +32,10 @@ import java.util.List;
  * @param worldName The world name the mines is in.
  * @param parentRegion The parent region of the mine.
  * @param childRegions The child regions that players can actually mine in.
+ * @param sharedCooldownStore Should cooldowns be stored once for the mine with a per-player bitset instead of per player? Defaults to false if not set.
+ *                            This uses less memory when many players mine in the same mine.
+ * @param resolveBreaksOnEvent Should block breaks be resolved when the block is broken, without the block changing server-side? Defaults to false if not set.
+ * @param cooldownHitWindowTicks The number of ticks the cooldown message is not resent for after a player hits a block on cooldown. Defaults to 20 if not set.
  */
 @ConfigSerializable
 public record PacketMineConfig(
@@ -39,7 +44,10 @@ public record PacketMineConfig(
         @NotNull BossBarData bossBar,
         @Nullable String worldName,
         @Nullable String parentRegion,
-        @NotNull List<ChildRegionData> childRegions) {
+        @NotNull List<ChildRegionData> childRegions,
+        @Nullable Boolean sharedCooldownStore,
+        @Nullable Boolean resolveBreaksOnEvent,
+        @Nullable Integer cooldownHitWindowTicks) implements MineConfig {
 
     /**
      * Data for an individual child region that a player can mine in.
@@ -72,11 +80,14 @@ public record PacketMineConfig(
      * @param noTimeText The text to show when the player doesn't have time for the mine.
      * @param color The color of the boss bar.
      * @param overlay The overlay of the boss bar.
+     * @param skipUnchangedName Should the boss bar's name only be set when the rendered text changed? Defaults to false if not set.
+     *                          This is useful for time messages that don't show seconds.
      */
     @ConfigSerializable
     public record BossBarData(
             @Nullable String timeText,
             @Nullable String noTimeText,
             @Nullable String color,
-            @Nullable String overlay) {}
+            @Nullable String overlay,
+            @Nullable Boolean skipUnchangedName) {}
 }
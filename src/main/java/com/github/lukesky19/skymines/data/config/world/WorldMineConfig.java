@@ -19,6 +19,7 @@ package com.github.lukesky19.skymines.data.config.world;
 
 import com.github.lukesky19.skylib.api.itemstack.ItemStackConfig;
 import com.github.lukesky19.skylib.libs.configurate.objectmapping.ConfigSerializable;
+import com.github.lukesky19.skymines.data.config.MineConfig;
 import com.github.lukesky19.skymines.gui.FreePreviewGUI;
 import org.bukkit.block.BlockType;
 import org.jetbrains.annotations.NotNull;
@@ -52,7 +53,7 @@ public record WorldMineConfig(
         @NotNull BossBarData bossBar,
         @NotNull List<UnlockBlockData> unlockableBreakable,
         @NotNull List<FreeBlockData> freeBreakable,
-        @NotNull List<String> restrictedPlaceable) {
+        @NotNull List<String> restrictedPlaceable) implements MineConfig {
 
     /**
      * This record contains data to populate the shop to purchase access to blocks.
@@ -0,0 +1,292 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.data.packet;
+
+import org.bukkit.Material;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * A primitive open-addressing hash map of block cooldowns for a single world.
+ * Keys are block positions packed with {@link #packPosition(int, int, int)}.
+ * Values are a replacement {@link Material} ordinal and an expiry tick packed with {@link #packCooldown(int, long)}.
+ * Entries are stored in two parallel long arrays so no objects are created per cooldown.
+ */
+public class BlockCooldownMap {
+    /**
+     * The value returned by {@link #get(long)} when no cooldown is stored for a position.
+     */
+    public static final long NO_COOLDOWN = -1L;
+    /**
+     * Marks an empty slot. This packs to an x coordinate outside the world border, so it is never a valid position.
+     */
+    private static final long EMPTY_KEY = Long.MIN_VALUE;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final long EXPIRY_MASK = (1L << 48) - 1L;
+    private static final @NotNull Material[] MATERIALS = Material.values();
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+    private int resizeThreshold;
+
+    /**
+     * Default Constructor.
+     */
+    public BlockCooldownMap() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Packs block coordinates into a long. This uses the same layout as the game's block positions (26 bits x, 26 bits z, 12 bits y).
+     * @param x The block x coordinate.
+     * @param y The block y coordinate.
+     * @param z The block z coordinate.
+     * @return The packed position.
+     */
+    public static long packPosition(int x, int y, int z) {
+        return ((x & 0x3FFFFFFL) << 38) | ((z & 0x3FFFFFFL) << 12) | (y & 0xFFFL);
+    }
+
+    /**
+     * Get the block x coordinate from a packed position.
+     * @param packedPosition A position packed with {@link #packPosition(int, int, int)}.
+     * @return The block x coordinate.
+     */
+    public static int getX(long packedPosition) {
+        return (int) (packedPosition >> 38);
+    }
+
+    /**
+     * Get the block y coordinate from a packed position.
+     * @param packedPosition A position packed with {@link #packPosition(int, int, int)}.
+     * @return The block y coordinate.
+     */
+    public static int getY(long packedPosition) {
+        return (int) (packedPosition << 52 >> 52);
+    }
+
+    /**
+     * Get the block z coordinate from a packed position.
+     * @param packedPosition A position packed with {@link #packPosition(int, int, int)}.
+     * @return The block z coordinate.
+     */
+    public static int getZ(long packedPosition) {
+        return (int) (packedPosition << 26 >> 38);
+    }
+
+    /**
+     * Packs a replacement {@link Material} ordinal and an expiry tick into a long.
+     * @param replacementOrdinal The ordinal of the replacement {@link Material}. Must be between 0 and 32767.
+     * @param expiryTick The server tick the cooldown ends at. Must be between 0 and 2^48 - 1.
+     * @return The packed cooldown.
+     */
+    public static long packCooldown(int replacementOrdinal, long expiryTick) {
+        return ((long) replacementOrdinal << 48) | (expiryTick & EXPIRY_MASK);
+    }
+
+    /**
+     * Get the replacement {@link Material} ordinal from a packed cooldown.
+     * @param packedCooldown A cooldown packed with {@link #packCooldown(int, long)}.
+     * @return The replacement {@link Material} ordinal.
+     */
+    public static int getReplacementOrdinal(long packedCooldown) {
+        return (int) (packedCooldown >>> 48);
+    }
+
+    /**
+     * Get the replacement {@link Material} from a packed cooldown.
+     * @param packedCooldown A cooldown packed with {@link #packCooldown(int, long)}.
+     * @return The replacement {@link Material}.
+     */
+    public static @NotNull Material getReplacementMaterial(long packedCooldown) {
+        return MATERIALS[getReplacementOrdinal(packedCooldown)];
+    }
+
+    /**
+     * Get the expiry tick from a packed cooldown.
+     * @param packedCooldown A cooldown packed with {@link #packCooldown(int, long)}.
+     * @return The server tick the cooldown ends at.
+     */
+    public static long getExpiryTick(long packedCooldown) {
+        return packedCooldown & EXPIRY_MASK;
+    }
+
+    /**
+     * Get the packed cooldown for a packed position.
+     * @param packedPosition A position packed with {@link #packPosition(int, int, int)}.
+     * @return The packed cooldown or {@link #NO_COOLDOWN} if none is stored.
+     */
+    public long get(long packedPosition) {
+        int mask = keys.length - 1;
+        for(int slot = hash(packedPosition) & mask; ; slot = (slot + 1) & mask) {
+            long key = keys[slot];
+            if(key == EMPTY_KEY) return NO_COOLDOWN;
+            if(key == packedPosition) return values[slot];
+        }
+    }
+
+    /**
+     * Stores a packed cooldown for a packed position, replacing any existing cooldown.
+     * @param packedPosition A position packed with {@link #packPosition(int, int, int)}.
+     * @param packedCooldown A cooldown packed with {@link #packCooldown(int, long)}.
+     */
+    public void put(long packedPosition, long packedCooldown) {
+        int mask = keys.length - 1;
+        for(int slot = hash(packedPosition) & mask; ; slot = (slot + 1) & mask) {
+            long key = keys[slot];
+            if(key == packedPosition) {
+                values[slot] = packedCooldown;
+                return;
+            }
+
+            if(key == EMPTY_KEY) {
+                keys[slot] = packedPosition;
+                values[slot] = packedCooldown;
+                if(++size > resizeThreshold) resize();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes the cooldown for a packed position.
+     * @param packedPosition A position packed with {@link #packPosition(int, int, int)}.
+     * @return The packed cooldown that was removed or {@link #NO_COOLDOWN} if none was stored.
+     */
+    public long remove(long packedPosition) {
+        int mask = keys.length - 1;
+        for(int slot = hash(packedPosition) & mask; ; slot = (slot + 1) & mask) {
+            long key = keys[slot];
+            if(key == EMPTY_KEY) return NO_COOLDOWN;
+            if(key == packedPosition) {
+                long removed = values[slot];
+                shiftBack(slot);
+                size--;
+                return removed;
+            }
+        }
+    }
+
+    /**
+     * Get the number of cooldowns stored.
+     * @return The number of cooldowns.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Is the map empty?
+     * @return true if no cooldowns are stored, otherwise false.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all cooldowns.
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY_KEY);
+        size = 0;
+    }
+
+    /**
+     * Calls the {@link EntryConsumer} for every cooldown stored. The map must not be modified while iterating.
+     * @param consumer The {@link EntryConsumer} to call.
+     */
+    public void forEach(@NotNull EntryConsumer consumer) {
+        for(int slot = 0; slot < keys.length; slot++) {
+            long key = keys[slot];
+            if(key != EMPTY_KEY) consumer.accept(key, values[slot]);
+        }
+    }
+
+    /**
+     * Consumes a packed position and packed cooldown.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        /**
+         * Consumes a cooldown entry.
+         * @param packedPosition The position packed with {@link #packPosition(int, int, int)}.
+         * @param packedCooldown The cooldown packed with {@link #packCooldown(int, long)}.
+         */
+        void accept(long packedPosition, long packedCooldown);
+    }
+
+    /**
+     * Closes the gap left by a removed entry by moving later entries in the same probe sequence back.
+     * @param slot The slot that was removed.
+     */
+    private void shiftBack(int slot) {
+        int mask = keys.length - 1;
+        int gap = slot;
+
+        for(int next = (gap + 1) & mask; keys[next] != EMPTY_KEY; next = (next + 1) & mask) {
+            int home = hash(keys[next]) & mask;
+
+            // Move the entry into the gap if its home slot is not between the gap and its current slot
+            if(((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+
+        keys[gap] = EMPTY_KEY;
+    }
+
+    /**
+     * Doubles the capacity and re-inserts every entry.
+     */
+    private void resize() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+
+        allocate(oldKeys.length * 2);
+        size = 0;
+
+        for(int slot = 0; slot < oldKeys.length; slot++) {
+            if(oldKeys[slot] != EMPTY_KEY) put(oldKeys[slot], oldValues[slot]);
+        }
+    }
+
+    /**
+     * Allocates empty key and value arrays.
+     * @param capacity The capacity, must be a power of two.
+     */
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        Arrays.fill(keys, EMPTY_KEY);
+        resizeThreshold = (capacity * 3) / 4;
+    }
+
+    /**
+     * Mixes the bits of a packed position so nearby blocks spread across the table.
+     * @param packedPosition The packed position.
+     * @return The hash.
+     */
+    private static int hash(long packedPosition) {
+        long h = packedPosition * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
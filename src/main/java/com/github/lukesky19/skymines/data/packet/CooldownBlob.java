@@ -0,0 +1,142 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.data.packet;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * This class encodes and decodes the block cooldowns a player has inside a single mine as a compact binary blob.
+ * The blob starts with a format version, the server's data version and the number of entries.
+ * Each entry is a packed block position, the replacement {@link org.bukkit.Material} ordinal and the ticks left on the cooldown (14 bytes).
+ * Remaining ticks are stored instead of expiry ticks because the server tick resets on restart.
+ */
+public class CooldownBlob {
+    private static final byte FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = Byte.BYTES + Integer.BYTES + Integer.BYTES;
+    private static final int ENTRY_BYTES = Long.BYTES + Short.BYTES + Integer.BYTES;
+
+    private final int dataVersion;
+    private final long currentTick;
+    private long[] packedPositions = new long[16];
+    private long[] packedCooldowns = new long[16];
+    private int size;
+
+    /**
+     * Default Constructor.
+     * You should use {@link #CooldownBlob(int, long)} instead.
+     * @deprecated You should use {@link #CooldownBlob(int, long)} instead.
+     * @throws RuntimeException if used.
+     */
+    @Deprecated
+    public CooldownBlob() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param dataVersion The server's data version. {@link org.bukkit.Material} ordinals are only valid for the same data version.
+     * @param currentTick The current server tick, used to convert expiry ticks to remaining ticks.
+     */
+    public CooldownBlob(int dataVersion, long currentTick) {
+        this.dataVersion = dataVersion;
+        this.currentTick = currentTick;
+    }
+
+    /**
+     * Adds a cooldown to the blob. Cooldowns that have already expired are skipped.
+     * @param packedPosition The block position packed with {@link BlockCooldownMap#packPosition(int, int, int)}.
+     * @param packedCooldown The cooldown packed with {@link BlockCooldownMap#packCooldown(int, long)}.
+     */
+    public void add(long packedPosition, long packedCooldown) {
+        if(BlockCooldownMap.getExpiryTick(packedCooldown) <= currentTick) return;
+
+        if(size == packedPositions.length) {
+            packedPositions = Arrays.copyOf(packedPositions, size * 2);
+            packedCooldowns = Arrays.copyOf(packedCooldowns, size * 2);
+        }
+
+        packedPositions[size] = packedPosition;
+        packedCooldowns[size] = packedCooldown;
+        size++;
+    }
+
+    /**
+     * Does the blob contain no cooldowns?
+     * @return true if empty, otherwise false.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Encodes the cooldowns added to this blob.
+     * @return The encoded bytes.
+     */
+    public byte @NotNull [] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + (size * ENTRY_BYTES));
+        buffer.put(FORMAT_VERSION);
+        buffer.putInt(dataVersion);
+        buffer.putInt(size);
+
+        for(int i = 0; i < size; i++) {
+            long remainingTicks = Math.min(BlockCooldownMap.getExpiryTick(packedCooldowns[i]) - currentTick, Integer.MAX_VALUE);
+
+            buffer.putLong(packedPositions[i]);
+            buffer.putShort((short) BlockCooldownMap.getReplacementOrdinal(packedCooldowns[i]));
+            buffer.putInt((int) remainingTicks);
+        }
+
+        return buffer.array();
+    }
+
+    /**
+     * Decodes a blob and passes each cooldown to the {@link BlockCooldownMap.EntryConsumer} with its expiry tick relative to the current tick.
+     * @param bytes The encoded bytes.
+     * @param dataVersion The server's data version.
+     * @param currentTick The current server tick.
+     * @param consumer The {@link BlockCooldownMap.EntryConsumer} to pass each packed position and packed cooldown to.
+     * @return true if the blob was decoded, false if it is malformed or was written for a different format or data version.
+     */
+    public static boolean decode(byte @NotNull [] bytes, int dataVersion, long currentTick, @NotNull BlockCooldownMap.EntryConsumer consumer) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+        try {
+            if(buffer.get() != FORMAT_VERSION) return false;
+            if(buffer.getInt() != dataVersion) return false;
+
+            int size = buffer.getInt();
+            if(size < 0 || buffer.remaining() != size * ENTRY_BYTES) return false;
+
+            for(int i = 0; i < size; i++) {
+                long packedPosition = buffer.getLong();
+                int replacementOrdinal = Short.toUnsignedInt(buffer.getShort());
+                int remainingTicks = buffer.getInt();
+
+                consumer.accept(packedPosition, BlockCooldownMap.packCooldown(replacementOrdinal, currentTick + remainingTicks));
+            }
+
+            return true;
+        } catch (BufferUnderflowException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,501 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.data.packet;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * A columnar block cooldown store shared by every player in a single packet mine.
+ * Blocks are addressed by their index relative to the mine's bounds and grouped into 16x16x16 sections.
+ * The replacement {@link org.bukkit.Material} of each block is kept once for the mine in lazily allocated section arrays.
+ * Each player only owns a bitset per section they have mined in, so a cooldown costs one bit for the lookup.
+ * Expiry ticks are kept in a single heap of parallel primitive arrays instead of one object per cooldown.
+ * Each player's slot also lists the heap indexes of its entries, so a player's cooldowns are found without scanning the heap (28 bytes per cooldown in total).
+ */
+public class MineCooldownStore {
+    private static final int SECTION_BLOCKS = 16 * 16 * 16;
+    private static final int SECTION_WORDS = SECTION_BLOCKS / Long.SIZE;
+    private static final int INITIAL_HEAP_INDEXES = 8;
+
+    private final @NotNull UUID worldId;
+    private final int minX;
+    private final int minY;
+    private final int minZ;
+    private final int maxX;
+    private final int maxY;
+    private final int maxZ;
+    private final int minSectionX;
+    private final int minSectionY;
+    private final int minSectionZ;
+    private final int sectionsX;
+    private final int sectionsZ;
+    /**
+     * The replacement {@link org.bukkit.Material} ordinal plus one for each block, by section index. 0 means no replacement is stored.
+     */
+    private final short @NotNull [][] replacementsBySection;
+
+    private final @NotNull Map<UUID, Integer> slotsByPlayer = new HashMap<>();
+    private final @NotNull List<UUID> playersBySlot = new ArrayList<>();
+    private final @NotNull List<Map<Integer, long[]>> bitsBySectionBySlot = new ArrayList<>();
+    /**
+     * The slots freed by {@link #removePlayer(UUID)}, which are re-used before new slots are added.
+     */
+    private final @NotNull Deque<Integer> freeSlots = new ArrayDeque<>();
+
+    // Expiry heap
+    private long[] heapExpiryTicks = new long[64];
+    private int[] heapSlots = new int[64];
+    private long[] heapPackedPositions = new long[64];
+    /**
+     * The index of each heap entry in its slot's {@link #heapIndexesBySlot} list.
+     */
+    private int[] heapSlotIndexes = new int[64];
+    private int heapSize;
+    /**
+     * The heap indexes of each slot's entries, kept up to date as entries move in the heap. Only the first {@link #heapIndexCounts} of each are used.
+     */
+    private int[][] heapIndexesBySlot = new int[8][];
+    private int[] heapIndexCounts = new int[8];
+
+    /**
+     * Default Constructor.
+     * You should use {@link #MineCooldownStore(UUID, int, int, int, int, int, int)} instead.
+     * @deprecated You should use {@link #MineCooldownStore(UUID, int, int, int, int, int, int)} instead.
+     * @throws RuntimeException if used.
+     */
+    @Deprecated
+    public MineCooldownStore() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param worldId The {@link UUID} of the world the mine is in.
+     * @param minX The minimum block x coordinate of the mine, inclusive.
+     * @param minY The minimum block y coordinate of the mine, inclusive.
+     * @param minZ The minimum block z coordinate of the mine, inclusive.
+     * @param maxX The maximum block x coordinate of the mine, inclusive.
+     * @param maxY The maximum block y coordinate of the mine, inclusive.
+     * @param maxZ The maximum block z coordinate of the mine, inclusive.
+     */
+    public MineCooldownStore(@NotNull UUID worldId, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        this.worldId = worldId;
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+
+        this.minSectionX = minX >> 4;
+        this.minSectionY = minY >> 4;
+        this.minSectionZ = minZ >> 4;
+        this.sectionsX = (maxX >> 4) - minSectionX + 1;
+        int sectionsY = (maxY >> 4) - minSectionY + 1;
+        this.sectionsZ = (maxZ >> 4) - minSectionZ + 1;
+
+        this.replacementsBySection = new short[sectionsX * sectionsY * sectionsZ][];
+    }
+
+    /**
+     * Get the {@link UUID} of the world the mine is in.
+     * @return The {@link UUID} of the world.
+     */
+    public @NotNull UUID getWorldId() {
+        return worldId;
+    }
+
+    /**
+     * Checks if a block position is inside the store's bounds.
+     * @param x The block x coordinate.
+     * @param y The block y coordinate.
+     * @param z The block z coordinate.
+     * @return true if inside the bounds, otherwise false.
+     */
+    public boolean contains(int x, int y, int z) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+    }
+
+    /**
+     * Check if a block position is on cooldown for the player.
+     * @param uuid The {@link UUID} of the player.
+     * @param x The block x coordinate.
+     * @param y The block y coordinate.
+     * @param z The block z coordinate.
+     * @return true if on cooldown, otherwise false.
+     */
+    public boolean isOnCooldown(@NotNull UUID uuid, int x, int y, int z) {
+        if(!contains(x, y, z)) return false;
+
+        Integer slot = slotsByPlayer.get(uuid);
+        if(slot == null) return false;
+
+        long[] bits = bitsBySectionBySlot.get(slot).get(getSectionIndex(x, y, z));
+        if(bits == null) return false;
+
+        int blockIndex = getBlockIndex(x, y, z);
+        return (bits[blockIndex >>> 6] & (1L << blockIndex)) != 0;
+    }
+
+    /**
+     * Add a cooldown for the player at a block position. Positions outside the store's bounds are ignored.
+     * A position that is already on cooldown for the player keeps its current expiry.
+     * @param uuid The {@link UUID} of the player.
+     * @param packedPosition The block position packed with {@link BlockCooldownMap#packPosition(int, int, int)}.
+     * @param replacementOrdinal The ordinal of the replacement {@link org.bukkit.Material}.
+     * @param expiryTick The server tick the cooldown ends at.
+     */
+    public void addCooldown(@NotNull UUID uuid, long packedPosition, int replacementOrdinal, long expiryTick) {
+        int x = BlockCooldownMap.getX(packedPosition);
+        int y = BlockCooldownMap.getY(packedPosition);
+        int z = BlockCooldownMap.getZ(packedPosition);
+        if(!contains(x, y, z)) return;
+
+        int slot = getOrCreateSlot(uuid);
+        int sectionIndex = getSectionIndex(x, y, z);
+        int blockIndex = getBlockIndex(x, y, z);
+
+        long[] bits = bitsBySectionBySlot.get(slot).computeIfAbsent(sectionIndex, index -> new long[SECTION_WORDS]);
+        long mask = 1L << blockIndex;
+        if((bits[blockIndex >>> 6] & mask) != 0) return;
+        bits[blockIndex >>> 6] |= mask;
+
+        short[] replacements = replacementsBySection[sectionIndex];
+        if(replacements == null) {
+            replacements = new short[SECTION_BLOCKS];
+            replacementsBySection[sectionIndex] = replacements;
+        }
+        replacements[blockIndex] = (short) (replacementOrdinal + 1);
+
+        heapPush(expiryTick, slot, packedPosition);
+    }
+
+    /**
+     * Removes every cooldown that has expired by the current tick and passes each one to the {@link ExpiredConsumer}.
+     * @param currentTick The current server tick.
+     * @param consumer The {@link ExpiredConsumer} to pass each expired cooldown to.
+     */
+    public void expireCooldowns(long currentTick, @NotNull ExpiredConsumer consumer) {
+        while(heapSize > 0 && heapExpiryTicks[0] <= currentTick) {
+            int slot = heapSlots[0];
+            long packedPosition = heapPackedPositions[0];
+            heapRemove(0);
+
+            int x = BlockCooldownMap.getX(packedPosition);
+            int y = BlockCooldownMap.getY(packedPosition);
+            int z = BlockCooldownMap.getZ(packedPosition);
+            long[] bits = bitsBySectionBySlot.get(slot).get(getSectionIndex(x, y, z));
+            if(bits == null) continue;
+
+            int blockIndex = getBlockIndex(x, y, z);
+            bits[blockIndex >>> 6] &= ~(1L << blockIndex);
+
+            consumer.accept(playersBySlot.get(slot), packedPosition);
+        }
+    }
+
+    /**
+     * Get the replacement {@link org.bukkit.Material} ordinal stored for a packed block position.
+     * Only valid for positions inside the store's bounds.
+     * @param packedPosition The block position packed with {@link BlockCooldownMap#packPosition(int, int, int)}.
+     * @return The ordinal.
+     */
+    public int getReplacementOrdinal(long packedPosition) {
+        int x = BlockCooldownMap.getX(packedPosition);
+        int y = BlockCooldownMap.getY(packedPosition);
+        int z = BlockCooldownMap.getZ(packedPosition);
+
+        short[] replacements = replacementsBySection[getSectionIndex(x, y, z)];
+        return replacements == null ? 0 : replacements[getBlockIndex(x, y, z)] - 1;
+    }
+
+    /**
+     * Passes every cooldown the player has in the store to the {@link BlockCooldownMap.EntryConsumer}.
+     * @param uuid The {@link UUID} of the player.
+     * @param consumer The {@link BlockCooldownMap.EntryConsumer} to pass each packed position and packed cooldown to.
+     */
+    public void forEachCooldown(@NotNull UUID uuid, @NotNull BlockCooldownMap.EntryConsumer consumer) {
+        Integer slot = slotsByPlayer.get(uuid);
+        if(slot == null) return;
+
+        int[] heapIndexes = heapIndexesBySlot[slot];
+        int count = heapIndexCounts[slot];
+        for(int i = 0; i < count; i++) {
+            int index = heapIndexes[i];
+            long packedPosition = heapPackedPositions[index];
+            consumer.accept(packedPosition, BlockCooldownMap.packCooldown(getReplacementOrdinal(packedPosition), heapExpiryTicks[index]));
+        }
+    }
+
+    /**
+     * Passes every cooldown the player has inside a chunk to the {@link BlockCooldownMap.EntryConsumer}.
+     * The expiry tick passed is always 0 as only the player's bitsets are read.
+     * @param uuid The {@link UUID} of the player.
+     * @param chunkX The chunk x coordinate.
+     * @param chunkZ The chunk z coordinate.
+     * @param consumer The {@link BlockCooldownMap.EntryConsumer} to pass each packed position and packed cooldown to.
+     */
+    public void forEachCooldownInChunk(@NotNull UUID uuid, int chunkX, int chunkZ, @NotNull BlockCooldownMap.EntryConsumer consumer) {
+        Integer slot = slotsByPlayer.get(uuid);
+        if(slot == null) return;
+
+        int sectionX = chunkX - minSectionX;
+        int sectionZ = chunkZ - minSectionZ;
+        if(sectionX < 0 || sectionX >= sectionsX || sectionZ < 0 || sectionZ >= sectionsZ) return;
+
+        Map<Integer, long[]> bitsBySection = bitsBySectionBySlot.get(slot);
+        int sectionsY = replacementsBySection.length / (sectionsX * sectionsZ);
+
+        for(int sectionY = 0; sectionY < sectionsY; sectionY++) {
+            int sectionIndex = (sectionY * sectionsZ + sectionZ) * sectionsX + sectionX;
+            long[] bits = bitsBySection.get(sectionIndex);
+            short[] replacements = replacementsBySection[sectionIndex];
+            if(bits == null || replacements == null) continue;
+
+            int baseX = (minSectionX + sectionX) << 4;
+            int baseY = (minSectionY + sectionY) << 4;
+            int baseZ = (minSectionZ + sectionZ) << 4;
+
+            for(int word = 0; word < SECTION_WORDS; word++) {
+                long remaining = bits[word];
+                while(remaining != 0) {
+                    int blockIndex = (word << 6) + Long.numberOfTrailingZeros(remaining);
+                    remaining &= remaining - 1;
+
+                    long packedPosition = BlockCooldownMap.packPosition(baseX + (blockIndex & 15), baseY + (blockIndex >>> 8), baseZ + ((blockIndex >>> 4) & 15));
+                    consumer.accept(packedPosition, BlockCooldownMap.packCooldown(replacements[blockIndex] - 1, 0L));
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the {@link UUID}s of the players that have a slot in the store, which are the players that had cooldowns in the store since their data was loaded.
+     * @return A {@link Set} of player {@link UUID}s.
+     */
+    public @NotNull Set<UUID> getPlayers() {
+        return slotsByPlayer.keySet();
+    }
+
+    /**
+     * Removes every cooldown the player has in the store, such as when their data is unloaded, and frees the player's slot.
+     * The slot is only re-used after its bits and heap entries are removed, so a different player never sees the player's cooldowns.
+     * Only the player's own heap entries are visited.
+     * @param uuid The {@link UUID} of the player.
+     */
+    public void removePlayer(@NotNull UUID uuid) {
+        Integer slot = slotsByPlayer.remove(uuid);
+        if(slot == null) return;
+
+        bitsBySectionBySlot.set(slot, new HashMap<>());
+        playersBySlot.set(slot, null);
+        freeSlots.push(slot);
+
+        while(heapIndexCounts[slot] > 0) {
+            heapRemove(heapIndexesBySlot[slot][heapIndexCounts[slot] - 1]);
+        }
+        heapIndexesBySlot[slot] = new int[INITIAL_HEAP_INDEXES];
+    }
+
+    /**
+     * Consumes a cooldown that expired.
+     */
+    @FunctionalInterface
+    public interface ExpiredConsumer {
+        /**
+         * Consumes an expired cooldown.
+         * @param uuid The {@link UUID} of the player.
+         * @param packedPosition The block position packed with {@link BlockCooldownMap#packPosition(int, int, int)}.
+         */
+        void accept(@NotNull UUID uuid, long packedPosition);
+    }
+
+    /**
+     * Get the slot for a player, assigning a free slot or a new one if the player has none.
+     * @param uuid The {@link UUID} of the player.
+     * @return The slot.
+     */
+    private int getOrCreateSlot(@NotNull UUID uuid) {
+        Integer slot = slotsByPlayer.get(uuid);
+        if(slot != null) return slot;
+
+        Integer freeSlot = freeSlots.poll();
+        if(freeSlot != null) {
+            playersBySlot.set(freeSlot, uuid);
+            slotsByPlayer.put(uuid, freeSlot);
+            return freeSlot;
+        }
+
+        int newSlot = playersBySlot.size();
+        playersBySlot.add(uuid);
+        bitsBySectionBySlot.add(new HashMap<>());
+        slotsByPlayer.put(uuid, newSlot);
+
+        if(newSlot == heapIndexCounts.length) {
+            heapIndexesBySlot = Arrays.copyOf(heapIndexesBySlot, newSlot * 2);
+            heapIndexCounts = Arrays.copyOf(heapIndexCounts, newSlot * 2);
+        }
+        heapIndexesBySlot[newSlot] = new int[INITIAL_HEAP_INDEXES];
+
+        return newSlot;
+    }
+
+    /**
+     * Get the index of the section a block is in, relative to the store's bounds.
+     * @param x The block x coordinate.
+     * @param y The block y coordinate.
+     * @param z The block z coordinate.
+     * @return The section index.
+     */
+    private int getSectionIndex(int x, int y, int z) {
+        return (((y >> 4) - minSectionY) * sectionsZ + ((z >> 4) - minSectionZ)) * sectionsX + ((x >> 4) - minSectionX);
+    }
+
+    /**
+     * Get the index of a block inside its section.
+     * @param x The block x coordinate.
+     * @param y The block y coordinate.
+     * @param z The block z coordinate.
+     * @return The block index from 0 to 4095.
+     */
+    private static int getBlockIndex(int x, int y, int z) {
+        return ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+    }
+
+    /**
+     * Adds an entry to the expiry heap.
+     * @param expiryTick The server tick the cooldown ends at.
+     * @param slot The slot of the player.
+     * @param packedPosition The packed block position.
+     */
+    private void heapPush(long expiryTick, int slot, long packedPosition) {
+        if(heapSize == heapExpiryTicks.length) {
+            int capacity = heapSize * 2;
+            heapExpiryTicks = Arrays.copyOf(heapExpiryTicks, capacity);
+            heapSlots = Arrays.copyOf(heapSlots, capacity);
+            heapPackedPositions = Arrays.copyOf(heapPackedPositions, capacity);
+            heapSlotIndexes = Arrays.copyOf(heapSlotIndexes, capacity);
+        }
+
+        int slotIndex = heapIndexCounts[slot];
+        if(slotIndex == heapIndexesBySlot[slot].length) heapIndexesBySlot[slot] = Arrays.copyOf(heapIndexesBySlot[slot], slotIndex * 2);
+        heapIndexCounts[slot] = slotIndex + 1;
+
+        siftUp(heapSize++, expiryTick, slot, packedPosition, slotIndex);
+    }
+
+    /**
+     * Removes the entry at the index from the heap and from its slot's list of heap indexes.
+     * @param index The index of the entry.
+     */
+    private void heapRemove(int index) {
+        // The slot's last heap index takes the place of the removed one
+        int slot = heapSlots[index];
+        int lastSlotIndex = --heapIndexCounts[slot];
+        int slotIndex = heapSlotIndexes[index];
+        if(slotIndex != lastSlotIndex) {
+            int movedIndex = heapIndexesBySlot[slot][lastSlotIndex];
+            heapIndexesBySlot[slot][slotIndex] = movedIndex;
+            heapSlotIndexes[movedIndex] = slotIndex;
+        }
+
+        heapSize--;
+        if(index == heapSize) return;
+
+        // The heap's last entry takes the place of the removed one
+        long expiryTick = heapExpiryTicks[heapSize];
+        int lastSlot = heapSlots[heapSize];
+        long packedPosition = heapPackedPositions[heapSize];
+        int lastEntrySlotIndex = heapSlotIndexes[heapSize];
+        if(index > 0 && heapExpiryTicks[(index - 1) >>> 1] > expiryTick) {
+            siftUp(index, expiryTick, lastSlot, packedPosition, lastEntrySlotIndex);
+        } else {
+            siftDown(index, expiryTick, lastSlot, packedPosition, lastEntrySlotIndex);
+        }
+    }
+
+    /**
+     * Places an entry at the index, moving it up until the heap order is restored.
+     * @param index The index to start at.
+     * @param expiryTick The server tick the cooldown ends at.
+     * @param slot The slot of the player.
+     * @param packedPosition The packed block position.
+     * @param slotIndex The index of the entry in its slot's list of heap indexes.
+     */
+    private void siftUp(int index, long expiryTick, int slot, long packedPosition, int slotIndex) {
+        while(index > 0) {
+            int parent = (index - 1) >>> 1;
+            if(heapExpiryTicks[parent] <= expiryTick) break;
+
+            moveHeapEntry(parent, index);
+            index = parent;
+        }
+
+        setHeapEntry(index, expiryTick, slot, packedPosition, slotIndex);
+    }
+
+    /**
+     * Places an entry at the index, moving it down until the heap order is restored.
+     * @param index The index to start at.
+     * @param expiryTick The server tick the cooldown ends at.
+     * @param slot The slot of the player.
+     * @param packedPosition The packed block position.
+     * @param slotIndex The index of the entry in its slot's list of heap indexes.
+     */
+    private void siftDown(int index, long expiryTick, int slot, long packedPosition, int slotIndex) {
+        int half = heapSize >>> 1;
+        while(index < half) {
+            int child = (index << 1) + 1;
+            int right = child + 1;
+            if(right < heapSize && heapExpiryTicks[right] < heapExpiryTicks[child]) child = right;
+            if(expiryTick <= heapExpiryTicks[child]) break;
+
+            moveHeapEntry(child, index);
+            index = child;
+        }
+
+        setHeapEntry(index, expiryTick, slot, packedPosition, slotIndex);
+    }
+
+    /**
+     * Copies the heap entry at one index to another.
+     * @param from The index of the entry.
+     * @param to The index to copy the entry to.
+     */
+    private void moveHeapEntry(int from, int to) {
+        setHeapEntry(to, heapExpiryTicks[from], heapSlots[from], heapPackedPositions[from], heapSlotIndexes[from]);
+    }
+
+    /**
+     * Writes a heap entry and points its slot's list of heap indexes at it.
+     * @param index The index of the entry.
+     * @param expiryTick The server tick the cooldown ends at.
+     * @param slot The slot of the player.
+     * @param packedPosition The packed block position.
+     * @param slotIndex The index of the entry in its slot's list of heap indexes.
+     */
+    private void setHeapEntry(int index, long expiryTick, int slot, long packedPosition, int slotIndex) {
+        heapExpiryTicks[index] = expiryTick;
+        heapSlots[index] = slot;
+        heapPackedPositions[index] = packedPosition;
+        heapSlotIndexes[index] = slotIndex;
+        heapIndexesBySlot[slot][slotIndex] = index;
+    }
+}
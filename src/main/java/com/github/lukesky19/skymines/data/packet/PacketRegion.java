@@ -0,0 +1,147 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.data.packet;
+
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import org.bukkit.block.BlockType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contains a child region of a packet mine and the {@link PacketBlock}s that can be mined inside it indexed by their world {@link BlockType}.
+ */
+public class PacketRegion {
+    private final @NotNull ProtectedRegion region;
+    private final boolean cuboid;
+    private final int minX;
+    private final int minY;
+    private final int minZ;
+    private final int maxX;
+    private final int maxY;
+    private final int maxZ;
+    private final @NotNull Map<BlockType, PacketBlock> packetBlocksByWorldType = new HashMap<>();
+
+    /**
+     * Constructor
+     * @param region The child {@link ProtectedRegion}.
+     * @param packetBlocks The {@link List} of {@link PacketBlock}s that can be mined in the region. If multiple {@link PacketBlock}s share a world {@link BlockType}, the first one is used.
+     */
+    public PacketRegion(@NotNull ProtectedRegion region, @NotNull List<PacketBlock> packetBlocks) {
+        this.region = region;
+        this.cuboid = region instanceof ProtectedCuboidRegion;
+
+        BlockVector3 min = region.getMinimumPoint();
+        BlockVector3 max = region.getMaximumPoint();
+        this.minX = min.x();
+        this.minY = min.y();
+        this.minZ = min.z();
+        this.maxX = max.x();
+        this.maxY = max.y();
+        this.maxZ = max.z();
+
+        for(PacketBlock packetBlock : packetBlocks) {
+            packetBlocksByWorldType.putIfAbsent(packetBlock.worldType(), packetBlock);
+        }
+    }
+
+    /**
+     * Get the child {@link ProtectedRegion}.
+     * @return A {@link ProtectedRegion}.
+     */
+    public @NotNull ProtectedRegion getRegion() {
+        return region;
+    }
+
+    /**
+     * Get the minimum block x coordinate of the region.
+     * @return The minimum x coordinate.
+     */
+    public int getMinX() {
+        return minX;
+    }
+
+    /**
+     * Get the minimum block y coordinate of the region.
+     * @return The minimum y coordinate.
+     */
+    public int getMinY() {
+        return minY;
+    }
+
+    /**
+     * Get the minimum block z coordinate of the region.
+     * @return The minimum z coordinate.
+     */
+    public int getMinZ() {
+        return minZ;
+    }
+
+    /**
+     * Get the maximum block x coordinate of the region.
+     * @return The maximum x coordinate.
+     */
+    public int getMaxX() {
+        return maxX;
+    }
+
+    /**
+     * Get the maximum block y coordinate of the region.
+     * @return The maximum y coordinate.
+     */
+    public int getMaxY() {
+        return maxY;
+    }
+
+    /**
+     * Get the maximum block z coordinate of the region.
+     * @return The maximum z coordinate.
+     */
+    public int getMaxZ() {
+        return maxZ;
+    }
+
+    /**
+     * Checks if the block coordinates are inside the region.
+     * Cuboid regions are checked against their bounds, other region shapes are checked by the {@link ProtectedRegion}.
+     * @param x The block x coordinate.
+     * @param y The block y coordinate.
+     * @param z The block z coordinate.
+     * @return true if inside the region, otherwise false.
+     */
+    public boolean contains(int x, int y, int z) {
+        if(x < minX || x > maxX || y < minY || y > maxY || z < minZ || z > maxZ) return false;
+        if(cuboid) return true;
+
+        return region.contains(x, y, z);
+    }
+
+    /**
+     * Get the {@link PacketBlock} for the world {@link BlockType} provided.
+     * @param worldType The {@link BlockType} of the block in the world.
+     * @return The {@link PacketBlock} or null if the {@link BlockType} cannot be mined in this region.
+     */
+    public @Nullable PacketBlock getPacketBlock(@NotNull BlockType worldType) {
+        return packetBlocksByWorldType.get(worldType);
+    }
+}
@@ -0,0 +1,279 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.data.packet;
+
+import org.bukkit.block.BlockType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A lookup table that resolves a block position to the {@link PacketRegion} containing it.
+ * The lookup table is built once from the child regions of a packet mine and stores the candidate regions for each chunk section (16x16x16 blocks) the regions overlap.
+ * A lookup only checks the few regions that overlap the position's chunk section.
+ * Regions spanning up to {@link #MAX_DENSE_SECTIONS} sections use a dense table that does not allocate on lookup.
+ * Larger regions use a sparse map of the sections overlapped by regions of up to {@link #MAX_DENSE_SECTIONS} sections each,
+ * and any region larger than that is checked for every section instead of being indexed.
+ */
+public class PacketRegionLookup {
+    private static final @NotNull PacketRegion[] NO_REGIONS = new PacketRegion[0];
+    /**
+     * The most sections the dense table, and a single region in the sparse map, may span. This bounds the memory used by the lookup table.
+     */
+    private static final long MAX_DENSE_SECTIONS = 1L << 16;
+
+    private final int minSectionX;
+    private final int minSectionY;
+    private final int minSectionZ;
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+    /**
+     * The candidate {@link PacketRegion}s for each chunk section, indexed by {@link #getSectionIndex(int, int, int)}. Null if the sparse map is used.
+     */
+    private final @Nullable PacketRegion[][] regionsBySection;
+    /**
+     * The candidate {@link PacketRegion}s for each chunk section overlapped by an indexed region, keyed by {@link #getSectionKey(int, int, int)}. Null if the dense table is used.
+     */
+    private final @Nullable Map<Long, PacketRegion[]> regionsBySectionKey;
+    /**
+     * The {@link PacketRegion}s too large to index, which are the candidates of every section not in {@link #regionsBySectionKey}.
+     */
+    private final @NotNull PacketRegion[] unindexedRegions;
+
+    /**
+     * Constructor
+     * @param packetRegions The {@link List} of {@link PacketRegion}s to build the lookup table for. Earlier regions take priority when regions overlap.
+     */
+    public PacketRegionLookup(@NotNull List<PacketRegion> packetRegions) {
+        if(packetRegions.isEmpty()) {
+            minSectionX = 0;
+            minSectionY = 0;
+            minSectionZ = 0;
+            sizeX = 0;
+            sizeY = 0;
+            sizeZ = 0;
+            regionsBySection = new PacketRegion[0][];
+            regionsBySectionKey = null;
+            unindexedRegions = NO_REGIONS;
+            return;
+        }
+
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+        for(PacketRegion packetRegion : packetRegions) {
+            minX = Math.min(minX, packetRegion.getMinX() >> 4);
+            minY = Math.min(minY, packetRegion.getMinY() >> 4);
+            minZ = Math.min(minZ, packetRegion.getMinZ() >> 4);
+            maxX = Math.max(maxX, packetRegion.getMaxX() >> 4);
+            maxY = Math.max(maxY, packetRegion.getMaxY() >> 4);
+            maxZ = Math.max(maxZ, packetRegion.getMaxZ() >> 4);
+        }
+
+        minSectionX = minX;
+        minSectionY = minY;
+        minSectionZ = minZ;
+        sizeX = maxX - minX + 1;
+        sizeY = maxY - minY + 1;
+        sizeZ = maxZ - minZ + 1;
+
+        // The size is computed as a long, as the section count of a large region overflows an int
+        if((long) sizeX * sizeY * sizeZ <= MAX_DENSE_SECTIONS) {
+            regionsBySection = buildDenseTable(packetRegions);
+            regionsBySectionKey = null;
+            unindexedRegions = NO_REGIONS;
+            return;
+        }
+
+        List<PacketRegion> indexedRegions = new ArrayList<>();
+        List<PacketRegion> largeRegions = new ArrayList<>();
+        for(PacketRegion packetRegion : packetRegions) {
+            if(getSectionCount(packetRegion) <= MAX_DENSE_SECTIONS) {
+                indexedRegions.add(packetRegion);
+            } else {
+                largeRegions.add(packetRegion);
+            }
+        }
+
+        regionsBySection = null;
+        regionsBySectionKey = buildSparseMap(packetRegions, indexedRegions);
+        unindexedRegions = largeRegions.toArray(new PacketRegion[0]);
+    }
+
+    /**
+     * Get the {@link PacketBlock} for the block {@link BlockType} at the block coordinates.
+     * If regions overlap, the first region containing the coordinates that allows the {@link BlockType} is used.
+     * @param x The block x coordinate.
+     * @param y The block y coordinate.
+     * @param z The block z coordinate.
+     * @param worldType The {@link BlockType} of the block in the world.
+     * @return The {@link PacketBlock} or null if the block cannot be mined at the coordinates.
+     */
+    public @Nullable PacketBlock getPacketBlock(int x, int y, int z, @NotNull BlockType worldType) {
+        for(PacketRegion packetRegion : getCandidates(x, y, z)) {
+            if(!packetRegion.contains(x, y, z)) continue;
+
+            PacketBlock packetBlock = packetRegion.getPacketBlock(worldType);
+            if(packetBlock != null) return packetBlock;
+        }
+
+        return null;
+    }
+
+    /**
+     * Builds the dense table of candidate {@link PacketRegion}s for every section in the bounds of the regions.
+     * @param packetRegions The {@link List} of {@link PacketRegion}s in priority order.
+     * @return The candidate {@link PacketRegion}s for each chunk section, indexed by {@link #getSectionIndex(int, int, int)}.
+     */
+    private @NotNull PacketRegion[][] buildDenseTable(@NotNull List<PacketRegion> packetRegions) {
+        List<List<PacketRegion>> candidatesBySection = new ArrayList<>();
+        for(int i = 0; i < sizeX * sizeY * sizeZ; i++) {
+            candidatesBySection.add(null);
+        }
+
+        for(PacketRegion packetRegion : packetRegions) {
+            for(int sectionX = packetRegion.getMinX() >> 4; sectionX <= packetRegion.getMaxX() >> 4; sectionX++) {
+                for(int sectionY = packetRegion.getMinY() >> 4; sectionY <= packetRegion.getMaxY() >> 4; sectionY++) {
+                    for(int sectionZ = packetRegion.getMinZ() >> 4; sectionZ <= packetRegion.getMaxZ() >> 4; sectionZ++) {
+                        int index = getSectionIndex(sectionX, sectionY, sectionZ);
+
+                        List<PacketRegion> candidates = candidatesBySection.get(index);
+                        if(candidates == null) {
+                            candidates = new ArrayList<>(1);
+                            candidatesBySection.set(index, candidates);
+                        }
+
+                        candidates.add(packetRegion);
+                    }
+                }
+            }
+        }
+
+        PacketRegion[][] table = new PacketRegion[candidatesBySection.size()][];
+        for(int i = 0; i < candidatesBySection.size(); i++) {
+            List<PacketRegion> candidates = candidatesBySection.get(i);
+            table[i] = candidates == null ? NO_REGIONS : candidates.toArray(new PacketRegion[0]);
+        }
+
+        return table;
+    }
+
+    /**
+     * Builds the sparse map of candidate {@link PacketRegion}s for the sections overlapped by the indexed regions.
+     * Each entry also holds the overlapping regions too large to index, so the candidates keep the priority order of the regions.
+     * @param packetRegions The {@link List} of all {@link PacketRegion}s in priority order.
+     * @param indexedRegions The {@link List} of {@link PacketRegion}s small enough to index.
+     * @return A {@link Map} mapping section keys to the candidate {@link PacketRegion}s of the section.
+     */
+    private @NotNull Map<Long, PacketRegion[]> buildSparseMap(@NotNull List<PacketRegion> packetRegions, @NotNull List<PacketRegion> indexedRegions) {
+        Map<Long, int[]> sectionsByKey = new HashMap<>();
+        for(PacketRegion packetRegion : indexedRegions) {
+            for(int sectionX = packetRegion.getMinX() >> 4; sectionX <= packetRegion.getMaxX() >> 4; sectionX++) {
+                for(int sectionY = packetRegion.getMinY() >> 4; sectionY <= packetRegion.getMaxY() >> 4; sectionY++) {
+                    for(int sectionZ = packetRegion.getMinZ() >> 4; sectionZ <= packetRegion.getMaxZ() >> 4; sectionZ++) {
+                        sectionsByKey.putIfAbsent(getSectionKey(sectionX, sectionY, sectionZ), new int[] {sectionX, sectionY, sectionZ});
+                    }
+                }
+            }
+        }
+
+        Map<Long, PacketRegion[]> map = new HashMap<>(sectionsByKey.size());
+        sectionsByKey.forEach((sectionKey, section) -> {
+            List<PacketRegion> candidates = new ArrayList<>(1);
+            for(PacketRegion packetRegion : packetRegions) {
+                if(overlapsSection(packetRegion, section[0], section[1], section[2])) candidates.add(packetRegion);
+            }
+
+            map.put(sectionKey, candidates.toArray(new PacketRegion[0]));
+        });
+
+        return map;
+    }
+
+    /**
+     * Get the candidate {@link PacketRegion}s for the chunk section containing the block coordinates.
+     * @param x The block x coordinate.
+     * @param y The block y coordinate.
+     * @param z The block z coordinate.
+     * @return An array of {@link PacketRegion}s that overlap the chunk section. May be empty.
+     */
+    private @NotNull PacketRegion[] getCandidates(int x, int y, int z) {
+        int sectionX = (x >> 4) - minSectionX;
+        int sectionY = (y >> 4) - minSectionY;
+        int sectionZ = (z >> 4) - minSectionZ;
+        if(sectionX < 0 || sectionX >= sizeX || sectionY < 0 || sectionY >= sizeY || sectionZ < 0 || sectionZ >= sizeZ) return NO_REGIONS;
+
+        if(regionsBySection != null) return regionsBySection[(sectionY * sizeZ + sectionZ) * sizeX + sectionX];
+
+        PacketRegion[] candidates = regionsBySectionKey != null ? regionsBySectionKey.get(getSectionKey(x >> 4, y >> 4, z >> 4)) : null;
+        return candidates != null ? candidates : unindexedRegions;
+    }
+
+    /**
+     * Get the index into {@link #regionsBySection} for absolute section coordinates.
+     * @param sectionX The section x coordinate.
+     * @param sectionY The section y coordinate.
+     * @param sectionZ The section z coordinate.
+     * @return The index of the section.
+     */
+    private int getSectionIndex(int sectionX, int sectionY, int sectionZ) {
+        return ((sectionY - minSectionY) * sizeZ + (sectionZ - minSectionZ)) * sizeX + (sectionX - minSectionX);
+    }
+
+    /**
+     * Get the key into {@link #regionsBySectionKey} for absolute section coordinates.
+     * Section x and z coordinates fit in 22 bits and section y coordinates fit in 20 bits.
+     * @param sectionX The section x coordinate.
+     * @param sectionY The section y coordinate.
+     * @param sectionZ The section z coordinate.
+     * @return The key of the section.
+     */
+    private static long getSectionKey(int sectionX, int sectionY, int sectionZ) {
+        return ((long) (sectionX & 0x3FFFFF) << 42) | ((long) (sectionZ & 0x3FFFFF) << 20) | (sectionY & 0xFFFFF);
+    }
+
+    /**
+     * Get the number of chunk sections the {@link PacketRegion} overlaps.
+     * @param packetRegion The {@link PacketRegion}.
+     * @return The number of sections.
+     */
+    private static long getSectionCount(@NotNull PacketRegion packetRegion) {
+        long sectionsX = (packetRegion.getMaxX() >> 4) - (packetRegion.getMinX() >> 4) + 1L;
+        long sectionsY = (packetRegion.getMaxY() >> 4) - (packetRegion.getMinY() >> 4) + 1L;
+        long sectionsZ = (packetRegion.getMaxZ() >> 4) - (packetRegion.getMinZ() >> 4) + 1L;
+        return sectionsX * sectionsY * sectionsZ;
+    }
+
+    /**
+     * Checks if the {@link PacketRegion} overlaps the chunk section.
+     * @param packetRegion The {@link PacketRegion}.
+     * @param sectionX The section x coordinate.
+     * @param sectionY The section y coordinate.
+     * @param sectionZ The section z coordinate.
+     * @return true if the region overlaps the section, otherwise false.
+     */
+    private static boolean overlapsSection(@NotNull PacketRegion packetRegion, int sectionX, int sectionY, int sectionZ) {
+        return sectionX >= packetRegion.getMinX() >> 4 && sectionX <= packetRegion.getMaxX() >> 4
+                && sectionY >= packetRegion.getMinY() >> 4 && sectionY <= packetRegion.getMaxY() >> 4
+                && sectionZ >= packetRegion.getMinZ() >> 4 && sectionZ <= packetRegion.getMaxZ() >> 4;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.data.packet;
+
+import io.papermc.paper.math.Position;
+import org.bukkit.block.data.BlockData;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * This class buffers the client-side block changes waiting to be sent to a single player.
+ * Changes are grouped by chunk section and keyed by their packed block position, so a later change to a position replaces an earlier one.
+ */
+public class PendingBlockChanges {
+    private final @NotNull UUID worldId;
+    private final @NotNull Map<Long, Map<Long, PendingBlockChange>> changesBySection = new HashMap<>();
+
+    /**
+     * Default Constructor.
+     * You should use {@link #PendingBlockChanges(UUID)} instead.
+     * @deprecated You should use {@link #PendingBlockChanges(UUID)} instead.
+     * @throws RuntimeException if used.
+     */
+    @Deprecated
+    public PendingBlockChanges() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param worldId The {@link UUID} of the world the changes are for.
+     */
+    public PendingBlockChanges(@NotNull UUID worldId) {
+        this.worldId = worldId;
+    }
+
+    /**
+     * Get the {@link UUID} of the world the changes are for.
+     * @return The {@link UUID} of the world.
+     */
+    public @NotNull UUID getWorldId() {
+        return worldId;
+    }
+
+    /**
+     * Queues a block change. A change already queued for the same position is replaced.
+     * The replacement is not sent before the later of the two due ticks.
+     * @param packedPosition The block position packed with {@link BlockCooldownMap#packPosition(int, int, int)}.
+     * @param blockData The {@link BlockData} to send.
+     * @param dueTick The server tick the change may be sent at.
+     */
+    public void queue(long packedPosition, @NotNull BlockData blockData, long dueTick) {
+        long sectionKey = getSectionKey(packedPosition);
+        Map<Long, PendingBlockChange> sectionChanges = changesBySection.computeIfAbsent(sectionKey, key -> new HashMap<>());
+
+        PendingBlockChange previous = sectionChanges.get(packedPosition);
+        if(previous != null && previous.dueTick() > dueTick) dueTick = previous.dueTick();
+
+        sectionChanges.put(packedPosition, new PendingBlockChange(blockData, dueTick));
+    }
+
+    /**
+     * Removes every change that is due by the provided tick and adds it to the provided {@link Map}.
+     * Changes are added one section at a time.
+     * @param currentTick The current server tick.
+     * @param blockChanges The {@link Map} to add the due changes to.
+     */
+    public void drainDue(long currentTick, @NotNull Map<Position, BlockData> blockChanges) {
+        Iterator<Map<Long, PendingBlockChange>> sectionIterator = changesBySection.values().iterator();
+        while(sectionIterator.hasNext()) {
+            Map<Long, PendingBlockChange> sectionChanges = sectionIterator.next();
+
+            Iterator<Map.Entry<Long, PendingBlockChange>> changeIterator = sectionChanges.entrySet().iterator();
+            while(changeIterator.hasNext()) {
+                Map.Entry<Long, PendingBlockChange> entry = changeIterator.next();
+                PendingBlockChange change = entry.getValue();
+                if(change.dueTick() > currentTick) continue;
+
+                long packedPosition = entry.getKey();
+                blockChanges.put(Position.block(BlockCooldownMap.getX(packedPosition), BlockCooldownMap.getY(packedPosition), BlockCooldownMap.getZ(packedPosition)), change.blockData());
+                changeIterator.remove();
+            }
+
+            if(sectionChanges.isEmpty()) sectionIterator.remove();
+        }
+    }
+
+    /**
+     * Are there no changes waiting to be sent?
+     * @return true if no changes are queued, otherwise false.
+     */
+    public boolean isEmpty() {
+        return changesBySection.isEmpty();
+    }
+
+    /**
+     * Get the key of the chunk section a packed block position is in.
+     * @param packedPosition The block position packed with {@link BlockCooldownMap#packPosition(int, int, int)}.
+     * @return The section key.
+     */
+    private static long getSectionKey(long packedPosition) {
+        return BlockCooldownMap.packPosition(BlockCooldownMap.getX(packedPosition) >> 4, BlockCooldownMap.getY(packedPosition) >> 4, BlockCooldownMap.getZ(packedPosition) >> 4);
+    }
+
+    /**
+     * A queued block change.
+     * @param blockData The {@link BlockData} to send.
+     * @param dueTick The server tick the change may be sent at.
+     */
+    private record PendingBlockChange(@NotNull BlockData blockData, long dueTick) {}
+}
@@ -17,33 +17,64 @@
 */
 package com.github.lukesky19.skymines.data.player;
 
-import com.github.lukesky19.skymines.data.packet.BlockData;
-import com.github.lukesky19.skymines.util.PluginUtils;
+import com.github.lukesky19.skymines.data.packet.BlockCooldownMap;
 import net.kyori.adventure.bossbar.BossBar;
-import org.bukkit.Location;
+import org.bukkit.Chunk;
+import org.bukkit.Material;
 import org.bukkit.block.BlockType;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.HashMap;
-import java.util.List;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * This class stores player data for related to mines.
  */
 public class PlayerData {
     // Packet Mines
-    private final @NotNull Map<Location, BlockData> blockDataByLocation = new HashMap<>();
+    /**
+     * Block cooldowns by world {@link UUID}, then by chunk key from {@link Chunk#getChunkKey(int, int)}.
+     */
+    private final @NotNull Map<UUID, Map<Long, BlockCooldownMap>> blockCooldownsByChunkByWorld = new HashMap<>();
     private @NotNull Map<String, Long> mineTimeByMineId = new HashMap<>();
+    /**
+     * The id of the mine the player's time is currently being used for, or null if the player is not inside a packet mine.
+     */
+    private @Nullable String sessionMineId;
+    /**
+     * The {@link System#nanoTime()} up to which the session's time has been removed from the player's mine time.
+     */
+    private long sessionSettledNanos;
 
     // World Mines
-    private @NotNull Map<String, List<BlockType>> unlockedBlocksByMineId = new HashMap<>();
+    /**
+     * The blocks unlocked in each world mine, indexed by the ordinals of {@link com.github.lukesky19.skymines.data.world.BlockOrdinalMap}.
+     */
+    private @NotNull Map<String, BitSet> unlockedBlocksByMineId = new HashMap<>();
 
     // Other
     private @Nullable BossBar bossBar;
 
+    // Dirty tracking
+    /**
+     * The mine ids whose mine time changed since the last save.
+     */
+    private @NotNull Set<String> dirtyMineTimeIds = new HashSet<>();
+    /**
+     * The mine ids whose unlocked blocks changed since the last save.
+     */
+    private @NotNull Set<String> dirtyUnlockedBlockMineIds = new HashSet<>();
+    /**
+     * Did any block cooldown change since the last save?
+     */
+    private boolean cooldownsDirty;
+
     /**
      * Default Constructor
      */
@@ -52,9 +83,9 @@ public class PlayerData {
     /**
      * Constructor
      * @param mineTimeByMineId A {@link Map} mapping mine ids to mine time as a {@link Long}.
-     * @param unlockedBlocksByMineId A {@link Map} mapping mine ids to a {@link List} of {@link BlockType}s.
+     * @param unlockedBlocksByMineId A {@link Map} mapping mine ids to a {@link BitSet} of unlocked block ordinals.
      */
-    public PlayerData(@NotNull Map<String, Long> mineTimeByMineId, @NotNull Map<String, List<BlockType>> unlockedBlocksByMineId) {
+    public PlayerData(@NotNull Map<String, Long> mineTimeByMineId, @NotNull Map<String, BitSet> unlockedBlocksByMineId) {
         this.mineTimeByMineId = mineTimeByMineId;
         this.unlockedBlocksByMineId = unlockedBlocksByMineId;
     }
@@ -89,6 +120,8 @@ public class PlayerData {
         } else {
             mineTimeByMineId.put(mineId, timeSeconds);
         }
+
+        dirtyMineTimeIds.add(mineId);
     }
 
     /**
@@ -103,6 +136,7 @@ public class PlayerData {
 
         // Calculate the updated time
         long updatedTime = mineTimeByMineId.get(mineId) - timeSeconds;
+        dirtyMineTimeIds.add(mineId);
 
         // If the updated time is less than or equal to 0, remove the time from the Map and return
         if(updatedTime <= 0) {
@@ -123,6 +157,55 @@ public class PlayerData {
         if(!mineTimeByMineId.containsKey(mineId)) return;
 
         mineTimeByMineId.put(mineId, timeSeconds);
+        dirtyMineTimeIds.add(mineId);
+    }
+
+    /**
+     * Start using the player's time for the provided mine id.
+     * Any session for another mine is settled and ended first. Starting a session for the mine already in session does nothing.
+     * @param mineId The id of the mine.
+     * @param nanoTime The current {@link System#nanoTime()}.
+     */
+    public void startMineSession(@NotNull String mineId, long nanoTime) {
+        if(mineId.equals(sessionMineId)) return;
+
+        endMineSession(nanoTime);
+
+        sessionMineId = mineId;
+        sessionSettledNanos = nanoTime;
+    }
+
+    /**
+     * Removes the whole seconds elapsed since the session was last settled from the player's time for the mine in session.
+     * The remaining fraction of a second is carried over to the next settle.
+     * @param nanoTime The current {@link System#nanoTime()}.
+     */
+    public void settleMineSession(long nanoTime) {
+        if(sessionMineId == null) return;
+
+        long elapsedSeconds = (nanoTime - sessionSettledNanos) / 1_000_000_000L;
+        if(elapsedSeconds <= 0) return;
+
+        decrementMineTime(sessionMineId, elapsedSeconds);
+        sessionSettledNanos += elapsedSeconds * 1_000_000_000L;
+    }
+
+    /**
+     * Settles and ends the session for the mine in session, if any.
+     * @param nanoTime The current {@link System#nanoTime()}.
+     */
+    public void endMineSession(long nanoTime) {
+        settleMineSession(nanoTime);
+
+        sessionMineId = null;
+    }
+
+    /**
+     * Get the id of the mine the player's time is currently being used for.
+     * @return The mine id or null if no session is active.
+     */
+    public @Nullable String getSessionMineId() {
+        return sessionMineId;
     }
 
     /**
@@ -134,114 +217,233 @@ public class PlayerData {
     }
 
     /**
-     * Check if a {@link Location} is on cooldown for the player.
-     * @param location The {@link Location} to check ran through {@link PluginUtils#getCleanLocation(Location)}.
+     * Check if a block position is on cooldown for the player.
+     * @param worldId The {@link UUID} of the world the block is in.
+     * @param packedPosition The block position packed with {@link BlockCooldownMap#packPosition(int, int, int)}.
+     * @param currentTick The current server tick.
      * @return true if on cooldown, otherwise false.
      */
-    public boolean isLocationOnCooldown(@NotNull Location location) {
-        Location cleanLocation = PluginUtils.getCleanLocation(location);
-        if(!blockDataByLocation.containsKey(cleanLocation)) return false;
+    public boolean isLocationOnCooldown(@NotNull UUID worldId, long packedPosition, long currentTick) {
+        @Nullable BlockCooldownMap blockCooldowns = getBlockCooldowns(worldId, getChunkKey(packedPosition));
+        if(blockCooldowns == null) return false;
 
-        return blockDataByLocation.get(cleanLocation).getCooldownSeconds() > 0;
+        long packedCooldown = blockCooldowns.get(packedPosition);
+        if(packedCooldown == BlockCooldownMap.NO_COOLDOWN) return false;
+
+        return BlockCooldownMap.getExpiryTick(packedCooldown) > currentTick;
     }
 
     /**
-     * Get the cooldown in seconds for a particular location.
-     * @param location A {@link Location} ran through {@link PluginUtils#getCleanLocation(Location)}.
-     * @return The cooldown in seconds as a {@link Long} or null if no cooldown.
+     * Get the {@link Map} mapping world {@link UUID}s to the player's {@link BlockCooldownMap}s, mapped by chunk key.
+     * @return A {@link Map} mapping world {@link UUID}s to a {@link Map} mapping chunk keys to {@link BlockCooldownMap}s.
      */
-    public @Nullable Long getLocationCooldownSeconds(@NotNull Location location) {
-        @Nullable BlockData blockData = blockDataByLocation.get(location);
-        if(blockData == null) return null;
+    public @NotNull Map<UUID, Map<Long, BlockCooldownMap>> getBlockCooldownsByChunkByWorld() {
+        return blockCooldownsByChunkByWorld;
+    }
 
-        return blockData.getCooldownSeconds();
+    /**
+     * Get the {@link BlockCooldownMap}s of blocks on cooldown for the player in a world, mapped by chunk key.
+     * @param worldId The {@link UUID} of the world.
+     * @return A {@link Map} mapping chunk keys to {@link BlockCooldownMap}s or null if the player has no cooldowns in the world.
+     */
+    public @Nullable Map<Long, BlockCooldownMap> getBlockCooldownsByChunk(@NotNull UUID worldId) {
+        return blockCooldownsByChunkByWorld.get(worldId);
     }
 
     /**
-     * Get a {@link Map} mapping {@link Location}s to {@link BlockData} for locations that are on cooldown.
-     * @return A {@link Map} mapping {@link Location}s to {@link BlockData}
+     * Get the {@link BlockCooldownMap} of blocks on cooldown for the player in a chunk.
+     * @param worldId The {@link UUID} of the world.
+     * @param chunkKey The chunk key from {@link Chunk#getChunkKey(int, int)}.
+     * @return The {@link BlockCooldownMap} or null if the player has no cooldowns in the chunk.
      */
-    public @NotNull Map<Location, BlockData> getBlockDataOnCooldown() {
-        return blockDataByLocation;
+    public @Nullable BlockCooldownMap getBlockCooldowns(@NotNull UUID worldId, long chunkKey) {
+        @Nullable Map<Long, BlockCooldownMap> blockCooldownsByChunk = blockCooldownsByChunkByWorld.get(worldId);
+        if(blockCooldownsByChunk == null) return null;
+
+        return blockCooldownsByChunk.get(chunkKey);
     }
 
     /**
-     * Add a cooldown for a particular location.
-     * @param location A {@link Location} ran through {@link PluginUtils#getCleanLocation(Location)}.
+     * Add a cooldown for a particular block position.
+     * @param worldId The {@link UUID} of the world the block is in.
+     * @param packedPosition The block position packed with {@link BlockCooldownMap#packPosition(int, int, int)}.
      * @param replacementType The {@link BlockType} that is displayed to the client while on cooldown.
-     * @param cooldownSeconds The cooldown in seconds.
+     * @param expiryTick The server tick the cooldown ends at.
      */
-    public void addLocationCooldown(@NotNull Location location, @NotNull BlockType replacementType, long cooldownSeconds) {
-        BlockData blockData = new BlockData(replacementType, cooldownSeconds);
+    public void addLocationCooldown(@NotNull UUID worldId, long packedPosition, @NotNull BlockType replacementType, long expiryTick) {
+        @Nullable Material replacementMaterial = replacementType.asMaterial();
+        if(replacementMaterial == null) return;
 
-        blockDataByLocation.put(location, blockData);
+        putLocationCooldown(worldId, packedPosition, BlockCooldownMap.packCooldown(replacementMaterial.ordinal(), expiryTick));
     }
 
     /**
-     * Removes the time in seconds provided from a cooldown at the provided {@link Location}.
-     * @param location A {@link Location} ran through {@link PluginUtils#getCleanLocation(Location)}.
-     * @param timeSeconds The time in seconds to remove.
+     * Add an already packed cooldown for a particular block position, such as one restored from the database.
+     * @param worldId The {@link UUID} of the world the block is in.
+     * @param packedPosition The block position packed with {@link BlockCooldownMap#packPosition(int, int, int)}.
+     * @param packedCooldown The cooldown packed with {@link BlockCooldownMap#packCooldown(int, long)}.
      */
-    public void decrementLocationCooldown(@NotNull Location location, long timeSeconds) {
-        if(!blockDataByLocation.containsKey(location)) return;
-        BlockData blockData = blockDataByLocation.get(location);
+    public void putLocationCooldown(@NotNull UUID worldId, long packedPosition, long packedCooldown) {
+        blockCooldownsByChunkByWorld.computeIfAbsent(worldId, id -> new HashMap<>())
+                .computeIfAbsent(getChunkKey(packedPosition), key -> new BlockCooldownMap())
+                .put(packedPosition, packedCooldown);
 
-        long cooldownSeconds = blockData.getCooldownSeconds();
-        cooldownSeconds -= timeSeconds;
+        cooldownsDirty = true;
+    }
 
-        if(cooldownSeconds > 0) {
-            blockData.setCooldownSeconds(cooldownSeconds);
-        } else {
-            blockDataByLocation.remove(location);
-        }
+    /**
+     * Removes the cooldown at the provided block position whether it has expired or not.
+     * @param worldId The {@link UUID} of the world the block is in.
+     * @param packedPosition The block position packed with {@link BlockCooldownMap#packPosition(int, int, int)}.
+     */
+    public void removeLocationCooldown(@NotNull UUID worldId, long packedPosition) {
+        @Nullable Map<Long, BlockCooldownMap> blockCooldownsByChunk = blockCooldownsByChunkByWorld.get(worldId);
+        if(blockCooldownsByChunk == null) return;
+
+        long chunkKey = getChunkKey(packedPosition);
+        @Nullable BlockCooldownMap blockCooldowns = blockCooldownsByChunk.get(chunkKey);
+        if(blockCooldowns == null) return;
+
+        if(blockCooldowns.remove(packedPosition) != BlockCooldownMap.NO_COOLDOWN) cooldownsDirty = true;
+        if(blockCooldowns.isEmpty()) blockCooldownsByChunk.remove(chunkKey);
+        if(blockCooldownsByChunk.isEmpty()) blockCooldownsByChunkByWorld.remove(worldId);
+    }
+
+    /**
+     * Removes the cooldown at the provided block position if it has expired.
+     * A cooldown that was re-applied after the expired one is not removed.
+     * @param worldId The {@link UUID} of the world the block is in.
+     * @param packedPosition The block position packed with {@link BlockCooldownMap#packPosition(int, int, int)}.
+     * @param currentTick The current server tick.
+     * @return true if an expired cooldown was removed, otherwise false.
+     */
+    public boolean removeExpiredLocationCooldown(@NotNull UUID worldId, long packedPosition, long currentTick) {
+        @Nullable Map<Long, BlockCooldownMap> blockCooldownsByChunk = blockCooldownsByChunkByWorld.get(worldId);
+        if(blockCooldownsByChunk == null) return false;
+
+        long chunkKey = getChunkKey(packedPosition);
+        @Nullable BlockCooldownMap blockCooldowns = blockCooldownsByChunk.get(chunkKey);
+        if(blockCooldowns == null) return false;
+
+        long packedCooldown = blockCooldowns.get(packedPosition);
+        if(packedCooldown == BlockCooldownMap.NO_COOLDOWN || BlockCooldownMap.getExpiryTick(packedCooldown) > currentTick) return false;
+
+        blockCooldowns.remove(packedPosition);
+        if(blockCooldowns.isEmpty()) blockCooldownsByChunk.remove(chunkKey);
+        if(blockCooldownsByChunk.isEmpty()) blockCooldownsByChunkByWorld.remove(worldId);
+        cooldownsDirty = true;
+        return true;
     }
 
     /**
-     * Check if the player has unlocked the block type for the mine id provided.
+     * Check if the player has unlocked the block ordinal for the mine id provided.
      * @param mineId The mine id to check.
-     * @param blockType The {@link BlockType} to check.
+     * @param ordinal The ordinal of the block to check.
      * @return true if the player has unlocked access to the block, otherwise false. Will also return false if no data is stored for said mine id.
      */
-    public boolean isBlockTypeUnlocked(@NotNull String mineId, @NotNull BlockType blockType) {
-        @Nullable List<BlockType> unlockedBlocks = unlockedBlocksByMineId.get(mineId);
+    public boolean isBlockUnlocked(@NotNull String mineId, int ordinal) {
+        @Nullable BitSet unlockedBlocks = unlockedBlocksByMineId.get(mineId);
         if(unlockedBlocks == null) return false;
 
-        return unlockedBlocks.contains(blockType);
+        return unlockedBlocks.get(ordinal);
     }
 
     /**
-     * Add a {@link BlockType} to the list of unlocked blocks for the mine id provided.
+     * Add a block ordinal to the unlocked blocks for the mine id provided.
      * @param mineId THe mine id to unlock the block for.
-     * @param blockType The {@link BlockType}.
+     * @param ordinal The ordinal of the block.
      */
-    public void addUnlockedBlock(@NotNull String mineId, @NotNull BlockType blockType) {
-        List<BlockType> unlockedBlocks = unlockedBlocksByMineId.getOrDefault(mineId, new ArrayList<>());
+    public void addUnlockedBlock(@NotNull String mineId, int ordinal) {
+        BitSet unlockedBlocks = unlockedBlocksByMineId.computeIfAbsent(mineId, k -> new BitSet());
+        if(unlockedBlocks.get(ordinal)) return;
 
-        unlockedBlocks.add(blockType);
-        unlockedBlocksByMineId.put(mineId, unlockedBlocks);
+        unlockedBlocks.set(ordinal);
+        dirtyUnlockedBlockMineIds.add(mineId);
     }
 
     /**
-     * Remove a {@link BlockType} to the list of unlocked blocks for the mine id provided.
+     * Remove a block ordinal from the unlocked blocks for the mine id provided.
      * @param mineId THe mine id to lock the block for.
-     * @param blockType The {@link BlockType}.
+     * @param ordinal The ordinal of the block.
      */
-    public void removeUnlockedBlock(@NotNull String mineId, @NotNull BlockType blockType) {
-        @Nullable List<BlockType> unlockedBlocks = unlockedBlocksByMineId.get(mineId);
-        if(unlockedBlocks == null) return;
+    public void removeUnlockedBlock(@NotNull String mineId, int ordinal) {
+        @Nullable BitSet unlockedBlocks = unlockedBlocksByMineId.get(mineId);
+        if(unlockedBlocks == null || !unlockedBlocks.get(ordinal)) return;
 
-        unlockedBlocks.remove(blockType);
-        unlockedBlocksByMineId.put(mineId, unlockedBlocks);
+        unlockedBlocks.clear(ordinal);
+        dirtyUnlockedBlockMineIds.add(mineId);
     }
 
     /**
-     * Get a {@link Map} mapping mine ids to a {@link List} of {@link BlockType}s.
-     * @return A {@link Map} mapping mine ids to a {@link List} of {@link BlockType}s.
+     * Get a {@link Map} mapping mine ids to a {@link BitSet} of unlocked block ordinals.
+     * @return A {@link Map} mapping mine ids to a {@link BitSet} of unlocked block ordinals.
      */
-    public @NotNull Map<String, List<BlockType>> getUnlockedBlocksByMineIdMap() {
+    public @NotNull Map<String, BitSet> getUnlockedBlocksByMineIdMap() {
         return unlockedBlocksByMineId;
     }
 
+    /**
+     * Get the mine ids whose mine time changed since the last call and clears them.
+     * @return A {@link Set} of mine ids.
+     */
+    public @NotNull Set<String> takeDirtyMineTimeIds() {
+        Set<String> mineIds = dirtyMineTimeIds;
+        dirtyMineTimeIds = new HashSet<>();
+        return mineIds;
+    }
+
+    /**
+     * Get the mine ids whose unlocked blocks changed since the last call and clears them.
+     * @return A {@link Set} of mine ids.
+     */
+    public @NotNull Set<String> takeDirtyUnlockedBlockMineIds() {
+        Set<String> mineIds = dirtyUnlockedBlockMineIds;
+        dirtyUnlockedBlockMineIds = new HashSet<>();
+        return mineIds;
+    }
+
+    /**
+     * Check if any block cooldown changed since the last call and clears the flag.
+     * @return true if any block cooldown changed, otherwise false.
+     */
+    public boolean takeCooldownsDirty() {
+        boolean dirty = cooldownsDirty;
+        cooldownsDirty = false;
+        return dirty;
+    }
+
+    /**
+     * Marks the mine time of the provided mine ids as changed, such as after a save failed.
+     * @param mineIds A {@link Collection} of mine ids.
+     */
+    public void markMineTimesDirty(@NotNull Collection<String> mineIds) {
+        dirtyMineTimeIds.addAll(mineIds);
+    }
+
+    /**
+     * Marks the unlocked blocks of the provided mine ids as changed, such as after a save failed.
+     * @param mineIds A {@link Collection} of mine ids.
+     */
+    public void markUnlockedBlocksDirty(@NotNull Collection<String> mineIds) {
+        dirtyUnlockedBlockMineIds.addAll(mineIds);
+    }
+
+    /**
+     * Marks the block cooldowns as changed, such as when a cooldown stored outside this {@link PlayerData} changed.
+     */
+    public void markCooldownsDirty() {
+        cooldownsDirty = true;
+    }
+
+    /**
+     * Clears all changes, such as after the data was loaded from the database.
+     */
+    public void clearDirty() {
+        dirtyMineTimeIds.clear();
+        dirtyUnlockedBlockMineIds.clear();
+        cooldownsDirty = false;
+    }
+
     /**
      * Set the active {@link BossBar} being displayed to the player.
      * @param bossBar The {@link BossBar} to store, may be null.
@@ -257,4 +459,13 @@ public class PlayerData {
     public @Nullable BossBar getBossBar() {
         return this.bossBar;
     }
+
+    /**
+     * Get the chunk key for a packed block position.
+     * @param packedPosition The block position packed with {@link BlockCooldownMap#packPosition(int, int, int)}.
+     * @return The chunk key from {@link Chunk#getChunkKey(int, int)}.
+     */
+    private static long getChunkKey(long packedPosition) {
+        return Chunk.getChunkKey(BlockCooldownMap.getX(packedPosition) >> 4, BlockCooldownMap.getZ(packedPosition) >> 4);
+    }
 }
@@ -0,0 +1,28 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.data.player;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A lease on a player's saved data, held by the server that has the player loaded.
+ * Saves are fenced by the lease, so they are only written while the server still holds the same version of the lease.
+ * @param serverId The id of the server holding the lease.
+ * @param version The version of the lease, which increases each time a server acquires it.
+ */
+public record SessionLease(@NotNull String serverId, long version) {}
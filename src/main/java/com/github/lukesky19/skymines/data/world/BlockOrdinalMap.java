@@ -0,0 +1,102 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.data.world;
+
+import org.bukkit.block.BlockType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps the {@link BlockType}s of one world mine to stable ordinals.
+ * Players' unlocked blocks are stored as a {@link java.util.BitSet} indexed by these ordinals.
+ * Ordinals are never reassigned, so they stay valid when the mine's config changes.
+ */
+public class BlockOrdinalMap {
+    private final @NotNull Map<BlockType, Integer> ordinalsByBlockType = new HashMap<>();
+    private int nextOrdinal;
+
+    /**
+     * Default Constructor
+     */
+    public BlockOrdinalMap() {}
+
+    /**
+     * Get the ordinal of the {@link BlockType} provided.
+     * @param blockType The {@link BlockType}.
+     * @return The ordinal, or -1 if the {@link BlockType} has no ordinal.
+     */
+    public int getOrdinal(@NotNull BlockType blockType) {
+        Integer ordinal = ordinalsByBlockType.get(blockType);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /**
+     * Get the ordinal of the {@link BlockType} provided, assigning the next free ordinal if it has none.
+     * @param blockType The {@link BlockType}.
+     * @return The ordinal.
+     */
+    public int assignOrdinal(@NotNull BlockType blockType) {
+        Integer ordinal = ordinalsByBlockType.get(blockType);
+        if(ordinal != null) return ordinal;
+
+        int assignedOrdinal = nextOrdinal++;
+        ordinalsByBlockType.put(blockType, assignedOrdinal);
+        return assignedOrdinal;
+    }
+
+    /**
+     * Assigns the next free ordinal to the {@link BlockType} provided, replacing its current ordinal.
+     * This is used when the current ordinal was saved for another {@link BlockType} first.
+     * @param blockType The {@link BlockType}.
+     * @return The new ordinal.
+     */
+    public int reassignOrdinal(@NotNull BlockType blockType) {
+        int assignedOrdinal = nextOrdinal++;
+        ordinalsByBlockType.put(blockType, assignedOrdinal);
+        return assignedOrdinal;
+    }
+
+    /**
+     * Stores an ordinal that was assigned before, such as one loaded from the database.
+     * @param blockType The {@link BlockType}.
+     * @param ordinal The ordinal of the {@link BlockType}.
+     */
+    public void putOrdinal(@NotNull BlockType blockType, int ordinal) {
+        ordinalsByBlockType.put(blockType, ordinal);
+        nextOrdinal = Math.max(nextOrdinal, ordinal + 1);
+    }
+
+    /**
+     * Removes the ordinal of the {@link BlockType} provided, such as when it failed to save.
+     * The removed ordinal is not assigned again.
+     * @param blockType The {@link BlockType}.
+     */
+    public void removeOrdinal(@NotNull BlockType blockType) {
+        ordinalsByBlockType.remove(blockType);
+    }
+
+    /**
+     * Reserves an ordinal that was assigned before to a {@link BlockType} that no longer exists, so it is not reassigned.
+     * @param ordinal The ordinal to reserve.
+     */
+    public void reserveOrdinal(int ordinal) {
+        nextOrdinal = Math.max(nextOrdinal, ordinal + 1);
+    }
+}
@@ -17,19 +17,68 @@
 */
 package com.github.lukesky19.skymines.database;
 
+import com.github.lukesky19.skylib.api.adventure.AdventureUtil;
 import com.github.lukesky19.skylib.api.database.connection.AbstractConnectionManager;
 import com.github.lukesky19.skylib.libs.hikaricp.HikariConfig;
 import com.github.lukesky19.skylib.libs.hikaricp.HikariDataSource;
 import com.github.lukesky19.skymines.SkyMines;
+import com.github.lukesky19.skymines.data.config.Settings;
+import com.github.lukesky19.skymines.database.dialect.MySqlDialect;
+import com.github.lukesky19.skymines.database.dialect.PostgreSqlDialect;
+import com.github.lukesky19.skymines.database.dialect.SqlDialect;
+import com.github.lukesky19.skymines.database.dialect.SqliteDialect;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  * This class manages connections to the database.
  */
 public class ConnectionManager extends AbstractConnectionManager {
+    /**
+     * The SQLite flag to open a connection read-only.
+     */
+    private static final int SQLITE_OPEN_READONLY = 1;
+
+    /**
+     * The MySQL and MariaDB driver properties. Prepared statements are cached and batches are sent as multi-row statements.
+     */
+    private static final Map<String, String> MYSQL_PROPERTIES = Map.of(
+            "cachePrepStmts", "true",
+            "prepStmtCacheSize", "250",
+            "prepStmtCacheSqlLimit", "2048",
+            "useServerPrepStmts", "true",
+            "rewriteBatchedStatements", "true");
+
+    /**
+     * The PostgreSQL driver properties. Batches of inserts are sent as multi-row statements.
+     */
+    private static final Map<String, String> POSTGRESQL_PROPERTIES = Map.of(
+            "reWriteBatchedInserts", "true",
+            "prepareThreshold", "1");
+
+    /**
+     * Set by {@link #createHikariDataSource(Plugin)}, which is called while the super class is constructed.
+     * It must not have an initializer, as that would run afterward and clear it.
+     */
+    private @Nullable SqliteWriter sqliteWriter;
+
+    /**
+     * Set by {@link #createHikariDataSource(Plugin)}, so like {@link #sqliteWriter} it must not have an initializer.
+     */
+    private SqlDialect sqlDialect;
+
+    /**
+     * Set by {@link #createHikariDataSource(Plugin)}, so like {@link #sqliteWriter} it must not have an initializer.
+     */
+    private HikariDataSource dataSource;
+
     /**
      * Constructor
      * @param skyMines A {@link SkyMines} instance.
@@ -38,16 +87,174 @@ public class ConnectionManager extends AbstractConnectionManager {
         super(skyMines);
     }
 
+    /**
+     * Get the {@link SqliteWriter} all writes are made through.
+     * @return The {@link SqliteWriter}, or null if each write is committed on its own through the queue.
+     */
+    public @Nullable SqliteWriter getSqliteWriter() {
+        return sqliteWriter;
+    }
+
+    /**
+     * Get the {@link SqlDialect} of the database backend.
+     * @return The {@link SqlDialect}.
+     */
+    public @NotNull SqlDialect getSqlDialect() {
+        return sqlDialect;
+    }
+
+    /**
+     * Get the {@link HikariDataSource} created by {@link #createHikariDataSource(Plugin)}.
+     * It is used for writes that need several statements in one transaction when there is no {@link SqliteWriter}.
+     * @return The {@link HikariDataSource}.
+     */
+    public @NotNull HikariDataSource getTransactionDataSource() {
+        return dataSource;
+    }
+
     /**
      * Creates the required {@link HikariConfig} to access the database and returns the {@link HikariDataSource}.
+     * The database backend is chosen by the database type setting.
      * @param plugin The {@link Plugin} implementing and making use of this class.
      * @return A {@link HikariDataSource} object.
      */
     @Override
     protected @NotNull HikariDataSource createHikariDataSource(@NotNull Plugin plugin) {
+        SkyMines skyMines = (SkyMines) plugin;
+
+        // This is called before the constructor finishes, so the settings are taken from the plugin
+        Settings settings = skyMines.getSettingsManager().getSettings();
+        Settings.Database databaseSettings = settings != null && settings.database() != null ? settings.database()
+                : new Settings.Database(null, null, null, null, null, null, null, null, null, null, null, null, null, null);
+
+        String type = Objects.requireNonNullElse(databaseSettings.type(), "sqlite").toLowerCase(Locale.ROOT);
+        switch(type) {
+            case "mysql" -> {
+                sqlDialect = new MySqlDialect();
+                return createServerDataSource(skyMines, databaseSettings, "mysql", 3306, "com.mysql.cj.jdbc.Driver", MYSQL_PROPERTIES);
+            }
+
+            case "mariadb" -> {
+                sqlDialect = new MySqlDialect();
+                return createServerDataSource(skyMines, databaseSettings, "mariadb", 3306, "org.mariadb.jdbc.Driver", MYSQL_PROPERTIES);
+            }
+
+            case "postgresql" -> {
+                sqlDialect = new PostgreSqlDialect();
+                return createServerDataSource(skyMines, databaseSettings, "postgresql", 5432, "org.postgresql.Driver", POSTGRESQL_PROPERTIES);
+            }
+
+            default -> {
+                if(!type.equals("sqlite")) {
+                    skyMines.getComponentLogger().warn(AdventureUtil.serialize("Unknown database type " + type + ", SQLite will be used instead."));
+                }
+
+                sqlDialect = new SqliteDialect();
+                return createSqliteDataSource(skyMines, databaseSettings);
+            }
+        }
+    }
+
+    /**
+     * Creates the {@link HikariDataSource} of the local SQLite database file.
+     * When the single writer is used, the {@link SqliteWriter} is created first, so the database file exists and uses WAL journaling,
+     * and the returned {@link HikariDataSource} is a read-only pool for reads.
+     * @param skyMines A {@link SkyMines} instance.
+     * @param databaseSettings The database settings.
+     * @return A {@link HikariDataSource} object.
+     */
+    private @NotNull HikariDataSource createSqliteDataSource(@NotNull SkyMines skyMines, @NotNull Settings.Database databaseSettings) {
+        String jdbcUrl = "jdbc:sqlite:" +  skyMines.getDataFolder().getAbsolutePath() + File.separator + "database.db";
+
         HikariConfig config = new HikariConfig();
-        config.setJdbcUrl("jdbc:sqlite:" +  plugin.getDataFolder().getAbsolutePath() + File.separator + "database.db");
+        config.setJdbcUrl(jdbcUrl);
         config.setAutoCommit(true);
+
+        if(!"queue".equalsIgnoreCase(databaseSettings.writeMode())) {
+            HikariDataSource writeDataSource = createWriteDataSource(jdbcUrl);
+            try {
+                sqliteWriter = new SqliteWriter(skyMines.getComponentLogger(), writeDataSource,
+                        Objects.requireNonNullElse(databaseSettings.commitIntervalMillis(), 10L),
+                        Objects.requireNonNullElse(databaseSettings.commitBatchSize(), 512));
+
+                config.addDataSourceProperty("open_mode", String.valueOf(SQLITE_OPEN_READONLY));
+                config.setMaximumPoolSize(Math.max(1, Objects.requireNonNullElse(databaseSettings.readPoolSize(), 4)));
+            } catch (SQLException e) {
+                skyMines.getComponentLogger().error(AdventureUtil.serialize("Failed to start the database writer, each write will be committed on its own. Reason: " + e.getMessage()));
+                sqliteWriter = null;
+                writeDataSource.close();
+            }
+        }
+
+        dataSource = new HikariDataSource(config);
+        return dataSource;
+    }
+
+    /**
+     * Creates the {@link HikariDataSource} of a database server shared between servers.
+     * The pool is kept at a fixed size, so a burst of reads and writes never waits on new connections being opened.
+     * @param skyMines A {@link SkyMines} instance.
+     * @param databaseSettings The database settings.
+     * @param scheme The JDBC url scheme of the backend.
+     * @param defaultPort The port used if none is set.
+     * @param driverClassName The class name of the backend's JDBC driver.
+     * @param dataSourceProperties The driver properties to set.
+     * @return A {@link HikariDataSource} object.
+     */
+    private @NotNull HikariDataSource createServerDataSource(
+            @NotNull SkyMines skyMines,
+            @NotNull Settings.Database databaseSettings,
+            @NotNull String scheme,
+            int defaultPort,
+            @NotNull String driverClassName,
+            @NotNull Map<String, String> dataSourceProperties) {
+        HikariConfig config = new HikariConfig();
+
+        String jdbcUrl = databaseSettings.jdbcUrl();
+        if(jdbcUrl == null || jdbcUrl.isBlank()) {
+            jdbcUrl = "jdbc:" + scheme + "://" + Objects.requireNonNullElse(databaseSettings.host(), "localhost") + ":"
+                    + Objects.requireNonNullElse(databaseSettings.port(), defaultPort) + "/"
+                    + Objects.requireNonNullElse(databaseSettings.databaseName(), "skymines");
+            config.setDriverClassName(driverClassName);
+            dataSourceProperties.forEach(config::addDataSourceProperty);
+        }
+
+        config.setJdbcUrl(jdbcUrl);
+        if(databaseSettings.username() != null) config.setUsername(databaseSettings.username());
+        if(databaseSettings.password() != null) config.setPassword(databaseSettings.password());
+
+        int poolSize = Math.max(1, Objects.requireNonNullElse(databaseSettings.poolSize(), 10));
+        config.setMaximumPoolSize(poolSize);
+        config.setMinimumIdle(poolSize);
+        config.setConnectionTimeout(10000);
+        config.setKeepaliveTime(60000);
+        config.setMaxLifetime(1800000);
+        config.setAutoCommit(true);
+        config.setPoolName("SkyMines-" + sqlDialect.getName());
+
+        // The driver is one of the plugin's libraries, which HikariCP can only load through the context class loader
+        Thread thread = Thread.currentThread();
+        ClassLoader contextClassLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(skyMines.getClass().getClassLoader());
+        try {
+            skyMines.getComponentLogger().info(AdventureUtil.serialize("Connecting to the " + sqlDialect.getName() + " database with " + poolSize + " connections."));
+            dataSource = new HikariDataSource(config);
+            return dataSource;
+        } finally {
+            thread.setContextClassLoader(contextClassLoader);
+        }
+    }
+
+    /**
+     * Creates the {@link HikariDataSource} the {@link SqliteWriter} takes its connection from.
+     * @param jdbcUrl The JDBC url of the database.
+     * @return A {@link HikariDataSource} with a single connection.
+     */
+    private @NotNull HikariDataSource createWriteDataSource(@NotNull String jdbcUrl) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(jdbcUrl);
+        config.setMaximumPoolSize(1);
+        config.setPoolName("SkyMines-Writer");
         return new HikariDataSource(config);
     }
 }
@@ -18,28 +18,48 @@
 package com.github.lukesky19.skymines.database;
 
 import com.github.lukesky19.skylib.api.database.AbstractDatabaseManager;
+import com.github.lukesky19.skylib.api.adventure.AdventureUtil;
 import com.github.lukesky19.skymines.SkyMines;
+import com.github.lukesky19.skymines.database.dialect.SqlDialect;
+import com.github.lukesky19.skymines.database.tables.BlockOrdinalsTable;
+import com.github.lukesky19.skymines.database.tables.CooldownsTable;
 import com.github.lukesky19.skymines.database.tables.MineIdsTable;
 import com.github.lukesky19.skymines.database.tables.PlayerIdsTable;
+import com.github.lukesky19.skymines.database.tables.SessionsTable;
 import com.github.lukesky19.skymines.database.tables.TimesTable;
 import com.github.lukesky19.skymines.database.tables.UnlockedBlocksTable;
 import org.jetbrains.annotations.NotNull;
 
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * This class manages access to the database table classes and migrating the database as needed.
  */
 public class DatabaseManager extends AbstractDatabaseManager {
+    private final @NotNull SkyMines skyMines;
+    private final @NotNull QueueManager queueManager;
+    private final @NotNull KeyCache keyCache = new KeyCache();
     private final @NotNull PlayerIdsTable playerIdsTable;
     private final @NotNull MineIdsTable mineIdsTable;
+    private final @NotNull SessionsTable sessionsTable;
     private final @NotNull TimesTable timesTable;
     private final @NotNull UnlockedBlocksTable unlockedBlocksTable;
+    private final @NotNull CooldownsTable cooldownsTable;
+    private final @NotNull BlockOrdinalsTable blockOrdinalsTable;
+    private final @NotNull CompletableFuture<Void> setupFuture;
 
     /**
      * Constructor
@@ -49,19 +69,69 @@ public class DatabaseManager extends AbstractDatabaseManager {
      */
     public DatabaseManager(@NotNull SkyMines skyMines, @NotNull ConnectionManager connectionManager, @NotNull QueueManager queueManager) {
         super(connectionManager, queueManager);
+        this.skyMines = skyMines;
+        this.queueManager = queueManager;
 
-        playerIdsTable = new PlayerIdsTable(queueManager);
-        mineIdsTable = new MineIdsTable(queueManager);
-        timesTable = new TimesTable(queueManager);
-        unlockedBlocksTable = new UnlockedBlocksTable(skyMines, queueManager);
+        SqlDialect sqlDialect = connectionManager.getSqlDialect();
+        playerIdsTable = new PlayerIdsTable(queueManager, sqlDialect, keyCache);
+        mineIdsTable = new MineIdsTable(queueManager, sqlDialect, keyCache);
+        sessionsTable = new SessionsTable(queueManager, sqlDialect);
+        timesTable = new TimesTable(queueManager, sqlDialect, keyCache);
+        unlockedBlocksTable = new UnlockedBlocksTable(queueManager, sqlDialect, keyCache);
+        cooldownsTable = new CooldownsTable(skyMines.getComponentLogger(), queueManager, sqlDialect, keyCache);
+        blockOrdinalsTable = new BlockOrdinalsTable(queueManager, sqlDialect);
 
-        playerIdsTable.createTable();
-        mineIdsTable.createTable();
+        // The id tables need their integer keys before any data table is created or migrated
+        setupFuture = CompletableFuture.allOf(playerIdsTable.createTable(), mineIdsTable.createTable())
+                .thenCompose(v -> addIdColumn("skymines_player_ids", playerIdsTable::addIdColumn))
+                .thenCompose(v -> addIdColumn("skymines_mine_ids", mineIdsTable::addIdColumn))
+                .thenCompose(v -> sessionsTable.createTable())
+                .thenCompose(v -> migrateTimesTable())
+                .thenCompose(result -> migrateToKeys("skymines_times", timesTable::createTable, timesTable::migrateToKeys))
+                .thenCompose(v -> migrateToKeys("skymines_unlocked_blocks", unlockedBlocksTable::createTable, unlockedBlocksTable::migrateToKeys))
+                .thenCompose(v -> migrateToKeys("skymines_cooldowns", cooldownsTable::createTable, cooldownsTable::migrateToKeys))
+                .thenCompose(v -> blockOrdinalsTable.createTable())
+                .thenCompose(v -> migrateUnlockedBlocksTable());
+    }
 
-        migrateTimesTable().thenAccept(result -> {
-            timesTable.createTable();
-            unlockedBlocksTable.createTable();
-        });
+    /**
+     * Get the {@link CompletableFuture} that completes once the tables are created and migrated.
+     * @return A {@link CompletableFuture} of type {@link Void}.
+     */
+    public @NotNull CompletableFuture<Void> getSetupFuture() {
+        return setupFuture;
+    }
+
+    /**
+     * Commits the writes still queued to the {@link SqliteWriter}, then closes the database.
+     */
+    public void close() {
+        queueManager.closeWriter();
+        handlePluginDisable();
+    }
+
+    /**
+     * Get the {@link PlayerIdsTable}.
+     * @return The {@link PlayerIdsTable}.
+     */
+    public @NotNull PlayerIdsTable getPlayerIdsTable() {
+        return playerIdsTable;
+    }
+
+    /**
+     * Get the {@link MineIdsTable}.
+     * @return The {@link MineIdsTable}.
+     */
+    public @NotNull MineIdsTable getMineIdsTable() {
+        return mineIdsTable;
+    }
+
+    /**
+     * Get the {@link SessionsTable}.
+     * @return The {@link SessionsTable}.
+     */
+    public @NotNull SessionsTable getSessionsTable() {
+        return sessionsTable;
     }
 
     /**
@@ -80,6 +150,79 @@ public class DatabaseManager extends AbstractDatabaseManager {
         return unlockedBlocksTable;
     }
 
+    /**
+     * Get the {@link CooldownsTable}.
+     * @return The {@link CooldownsTable}.
+     */
+    public @NotNull CooldownsTable getCooldownsTable() {
+        return cooldownsTable;
+    }
+
+    /**
+     * Get the {@link BlockOrdinalsTable}.
+     * @return The {@link BlockOrdinalsTable}.
+     */
+    public @NotNull BlockOrdinalsTable getBlockOrdinalsTable() {
+        return blockOrdinalsTable;
+    }
+
+    /**
+     * Adds the integer key column to an id table created by an older version.
+     * @param tableName The name of the id table.
+     * @param addIdColumn The {@link Supplier} that adds the column.
+     * @return A {@link CompletableFuture} of type {@link Void} when complete.
+     */
+    private @NotNull CompletableFuture<Void> addIdColumn(@NotNull String tableName, @NotNull Supplier<CompletableFuture<Void>> addIdColumn) {
+        return getColumns(tableName).thenCompose(columns -> {
+            if(columns.contains("id")) return CompletableFuture.completedFuture(null);
+
+            return addIdColumn.get().thenRun(() -> skyMines.getComponentLogger().info(AdventureUtil.serialize("Added integer keys to the " + tableName + " table.")));
+        });
+    }
+
+    /**
+     * Creates a data table, or replaces a data table created by an older version that is keyed on mine ids and player {@link UUID}s with one keyed on their integer keys.
+     * The ids stored in the older table are saved to the id tables first.
+     * @param tableName The name of the data table.
+     * @param createTable The {@link Supplier} that creates the table.
+     * @param migrateToKeys The {@link Supplier} that migrates the table.
+     * @return A {@link CompletableFuture} of type {@link Void} when complete.
+     */
+    private @NotNull CompletableFuture<Void> migrateToKeys(@NotNull String tableName, @NotNull Supplier<CompletableFuture<Void>> createTable, @NotNull Supplier<CompletableFuture<Void>> migrateToKeys) {
+        return getColumns(tableName).thenCompose(columns -> {
+            if(!columns.contains("mine_id")) return createTable.get();
+
+            return playerIdsTable.insertPlayerIdsFrom(tableName)
+                    .thenCompose(v -> mineIdsTable.insertMineIdsFrom(tableName))
+                    .thenCompose(v -> migrateToKeys.get())
+                    .thenRun(() -> skyMines.getComponentLogger().info(AdventureUtil.serialize("Migrated the " + tableName + " table to integer keys.")));
+        });
+    }
+
+    /**
+     * Get the names of the columns of a table in lower case.
+     * @param tableName The name of the table.
+     * @return A {@link CompletableFuture} containing a {@link Set} of column names, which is empty if the table doesn't exist.
+     */
+    private @NotNull CompletableFuture<Set<String>> getColumns(@NotNull String tableName) {
+        String selectSql = "SELECT * FROM " + tableName + " WHERE 1 = 0";
+
+        return queueManager.queueReadTransaction(selectSql, resultSet -> {
+            Set<String> columns = new HashSet<>();
+
+            try {
+                ResultSetMetaData metaData = resultSet.getMetaData();
+                for(int i = 1; i <= metaData.getColumnCount(); i++) {
+                    columns.add(metaData.getColumnName(i).toLowerCase(Locale.ROOT));
+                }
+
+                return columns;
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }).exceptionally(throwable -> new HashSet<>());
+    }
+
     /**
      * Migrates the legacy times data to the new times table.
      */
@@ -123,4 +266,50 @@ public class DatabaseManager extends AbstractDatabaseManager {
             }
         });
     }
+
+    /**
+     * Migrates unlocked blocks stored as a JSON array of block type keys to a {@link BitSet} of block ordinals.
+     * Block types without an ordinal are assigned the next free ordinal of their mine.
+     * @return A {@link CompletableFuture} of type {@link Void} when complete.
+     */
+    private @NotNull CompletableFuture<Void> migrateUnlockedBlocksTable() {
+        return unlockedBlocksTable.getLegacyUnlockedBlocks().thenCompose(legacyUnlockedBlocksByMineId -> {
+            if(legacyUnlockedBlocksByMineId.isEmpty()) return CompletableFuture.completedFuture(null);
+
+            return blockOrdinalsTable.loadBlockOrdinals().thenCompose(ordinalsByMineId -> {
+                Map<String, Map<String, Integer>> assignedOrdinalsByMineId = new HashMap<>();
+                Map<Long, BitSet> unlockedBlocksByRowId = new HashMap<>();
+
+                legacyUnlockedBlocksByMineId.forEach((mineId, blockTypeKeysByRowId) -> {
+                    Map<String, Integer> ordinals = ordinalsByMineId.computeIfAbsent(mineId, k -> new HashMap<>());
+                    Map<String, Integer> assignedOrdinals = new HashMap<>();
+                    int nextOrdinal = ordinals.values().stream().mapToInt(ordinal -> ordinal + 1).max().orElse(0);
+
+                    for(Map.Entry<Long, List<String>> entry : blockTypeKeysByRowId.entrySet()) {
+                        BitSet unlockedBlocks = new BitSet();
+
+                        for(String blockTypeKey : entry.getValue()) {
+                            Integer ordinal = ordinals.get(blockTypeKey);
+                            if(ordinal == null) {
+                                ordinal = nextOrdinal++;
+                                ordinals.put(blockTypeKey, ordinal);
+                                assignedOrdinals.put(blockTypeKey, ordinal);
+                            }
+
+                            unlockedBlocks.set(ordinal);
+                        }
+
+                        unlockedBlocksByRowId.put(entry.getKey(), unlockedBlocks);
+                    }
+
+                    if(!assignedOrdinals.isEmpty()) assignedOrdinalsByMineId.put(mineId, assignedOrdinals);
+                });
+
+                // The ordinals are saved first, so a migrated row never references an ordinal that is not saved
+                return blockOrdinalsTable.saveBlockOrdinals(assignedOrdinalsByMineId)
+                        .thenCompose(v -> unlockedBlocksTable.saveMigratedUnlockedBlocks(unlockedBlocksByRowId))
+                        .thenRun(() -> skyMines.getComponentLogger().info(AdventureUtil.serialize("Migrated the unlocked blocks of " + unlockedBlocksByRowId.size() + " rows.")));
+            });
+        });
+    }
 }
@@ -0,0 +1,112 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.database;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the integer keys the player ids and mine ids tables assign to players and mines.
+ * The data tables are keyed on these instead of the {@link UUID} and mine id, so the keys are needed for every read and write.
+ * Player keys are cached while this server holds the player's lease. Mine keys are cached while the plugin is enabled.
+ */
+public class KeyCache {
+    private final @NotNull Map<UUID, Long> playerKeys = new ConcurrentHashMap<>();
+    private final @NotNull Map<String, Long> mineKeys = new ConcurrentHashMap<>();
+    private final @NotNull Map<Long, String> mineIds = new ConcurrentHashMap<>();
+
+    /**
+     * Default Constructor
+     */
+    public KeyCache() {}
+
+    /**
+     * Get the key of the player.
+     * @param uuid The {@link UUID} of the player.
+     * @return The key, or null if it is not cached.
+     */
+    public @Nullable Long getPlayerKey(@NotNull UUID uuid) {
+        return playerKeys.get(uuid);
+    }
+
+    /**
+     * Get the keys of the players that are cached.
+     * @param uuids The {@link UUID}s of the players.
+     * @return A {@link Map} mapping the cached keys to the {@link UUID} of their player.
+     */
+    public @NotNull Map<Long, UUID> getPlayerKeys(@NotNull Collection<UUID> uuids) {
+        Map<Long, UUID> uuidsByPlayerKey = new HashMap<>();
+        for(UUID uuid : uuids) {
+            Long playerKey = playerKeys.get(uuid);
+            if(playerKey != null) uuidsByPlayerKey.put(playerKey, uuid);
+        }
+
+        return uuidsByPlayerKey;
+    }
+
+    /**
+     * Caches the key of the player.
+     * @param uuid The {@link UUID} of the player.
+     * @param playerKey The key of the player.
+     */
+    public void putPlayerKey(@NotNull UUID uuid, long playerKey) {
+        playerKeys.put(uuid, playerKey);
+    }
+
+    /**
+     * Removes the key of the player from the cache.
+     * @param uuid The {@link UUID} of the player.
+     */
+    public void removePlayerKey(@NotNull UUID uuid) {
+        playerKeys.remove(uuid);
+    }
+
+    /**
+     * Get the key of the mine.
+     * @param mineId The mine id.
+     * @return The key, or null if it is not cached.
+     */
+    public @Nullable Long getMineKey(@NotNull String mineId) {
+        return mineKeys.get(mineId);
+    }
+
+    /**
+     * Get the mine id of the key.
+     * @param mineKey The key of the mine.
+     * @return The mine id, or null if it is not cached.
+     */
+    public @Nullable String getMineId(long mineKey) {
+        return mineIds.get(mineKey);
+    }
+
+    /**
+     * Caches the key of the mine.
+     * @param mineId The mine id.
+     * @param mineKey The key of the mine.
+     */
+    public void putMineKey(@NotNull String mineId, long mineKey) {
+        mineKeys.put(mineId, mineKey);
+        mineIds.put(mineKey, mineId);
+    }
+}
@@ -17,18 +17,204 @@
 */
 package com.github.lukesky19.skymines.database;
 
+import com.github.lukesky19.skylib.api.database.parameter.Parameter;
+import com.github.lukesky19.skylib.api.database.parameter.impl.LongParameter;
+import com.github.lukesky19.skylib.api.database.parameter.impl.StringParameter;
 import com.github.lukesky19.skylib.api.database.queue.MultiThreadQueueManager;
+import com.github.lukesky19.skylib.libs.hikaricp.HikariDataSource;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class manages queuing reads and writes to the database.
+ * Writes made through {@link #queueWrite(String, List)}, {@link #queueWrites(List)} and {@link #queueSchemaWrite(List)} use the {@link SqliteWriter} if there is one.
  */
 public class QueueManager extends MultiThreadQueueManager {
+    private final @Nullable SqliteWriter sqliteWriter;
+    private final @NotNull HikariDataSource dataSource;
+    /**
+     * Runs the transactions of {@link #queueWrites(List)} when there is no {@link SqliteWriter}.
+     * A single thread keeps them in the order they were queued, so an older save never overwrites a newer one.
+     */
+    private final @NotNull ExecutorService transactionExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "SkyMines Database Transactions"));
+
     /**
      * Constructor
      * @param connectionManager A {@link ConnectionManager} instance.
      */
     public QueueManager(@NotNull ConnectionManager connectionManager) {
         super(connectionManager);
+        this.sqliteWriter = connectionManager.getSqliteWriter();
+        this.dataSource = connectionManager.getTransactionDataSource();
+    }
+
+    /**
+     * Queues a statement to run once for each parameter row in a single transaction.
+     * Parameters may be a {@link String}, a {@link Number} or a {@link UUID}.
+     * @param sql The SQL statement.
+     * @param rows A {@link List} of parameter rows.
+     * @return A {@link CompletableFuture} containing a {@link List} of the rows changed by each parameter row.
+     */
+    public @NotNull CompletableFuture<List<Integer>> queueWrite(@NotNull String sql, @NotNull List<List<Object>> rows) {
+        if(rows.isEmpty()) return CompletableFuture.completedFuture(List.of());
+        if(sqliteWriter != null) return sqliteWriter.queueWrite(sql, rows);
+
+        List<List<Parameter<?>>> listOfParameterLists = new ArrayList<>(rows.size());
+        for(List<Object> row : rows) {
+            List<Parameter<?>> parameterList = new ArrayList<>(row.size());
+            for(Object value : row) {
+                parameterList.add(toParameter(value));
+            }
+
+            listOfParameterLists.add(parameterList);
+        }
+
+        return queueBulkWriteTransaction(sql, listOfParameterLists);
+    }
+
+    /**
+     * Queues statements to run in order in a single transaction, so either all or none of them are written.
+     * Parameters may be a {@link String}, a {@link Number} or a {@link UUID}.
+     * @param statements A {@link List} of {@link WriteStatement}s.
+     * @return A {@link CompletableFuture} containing, for each statement, a {@link List} of the rows changed by each parameter row.
+     */
+    public @NotNull CompletableFuture<List<List<Integer>>> queueWrites(@NotNull List<WriteStatement> statements) {
+        if(statements.isEmpty()) return CompletableFuture.completedFuture(List.of());
+        if(sqliteWriter != null) return sqliteWriter.queueWrites(statements);
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return writeTransaction(statements);
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }, transactionExecutor);
+    }
+
+    /**
+     * Queues statements without parameters, such as creating tables and indexes, to run in order.
+     * @param statements A {@link List} of SQL statements.
+     * @return A {@link CompletableFuture} of type {@link Void} when complete.
+     */
+    public @NotNull CompletableFuture<Void> queueSchemaWrite(@NotNull List<String> statements) {
+        if(sqliteWriter == null) return queueBulkWriteTransaction(statements).thenAccept(result -> {});
+
+        List<CompletableFuture<List<Integer>>> futures = new ArrayList<>(statements.size());
+        for(String statement : statements) {
+            futures.add(sqliteWriter.queueWrite(statement, List.of()));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Commits the writes queued to the {@link SqliteWriter} and closes it.
+     * Waits up to 10 seconds for the transactions queued by {@link #queueWrites(List)} to finish.
+     */
+    public void closeWriter() {
+        if(sqliteWriter != null) sqliteWriter.close();
+
+        transactionExecutor.shutdown();
+        try {
+            transactionExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs statements in one transaction on a connection from the {@link HikariDataSource}.
+     * The transaction is rolled back if any statement fails.
+     * @param statements A {@link List} of {@link WriteStatement}s.
+     * @return For each statement, a {@link List} of the rows changed by each parameter row.
+     * @throws SQLException if a statement or the commit failed.
+     */
+    private @NotNull List<List<Integer>> writeTransaction(@NotNull List<WriteStatement> statements) throws SQLException {
+        try(Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+
+            try {
+                List<List<Integer>> results = new ArrayList<>(statements.size());
+                for(WriteStatement statement : statements) {
+                    results.add(execute(connection, statement));
+                }
+
+                connection.commit();
+                return results;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Runs a statement once for each of its parameter rows as a batch.
+     * @param connection The {@link Connection} of the transaction.
+     * @param statement The {@link WriteStatement} to run.
+     * @return A {@link List} of the rows changed by each parameter row.
+     * @throws SQLException if the statement failed.
+     */
+    private @NotNull List<Integer> execute(@NotNull Connection connection, @NotNull WriteStatement statement) throws SQLException {
+        try(PreparedStatement preparedStatement = connection.prepareStatement(statement.sql())) {
+            if(statement.rows().isEmpty()) return List.of(preparedStatement.executeUpdate());
+
+            for(List<Object> row : statement.rows()) {
+                for(int i = 0; i < row.size(); i++) {
+                    preparedStatement.setObject(i + 1, toValue(row.get(i)));
+                }
+
+                preparedStatement.addBatch();
+            }
+
+            int[] updateCounts = preparedStatement.executeBatch();
+            List<Integer> results = new ArrayList<>(updateCounts.length);
+            for(int updateCount : updateCounts) {
+                results.add(updateCount);
+            }
+
+            return results;
+        }
+    }
+
+    /**
+     * Converts a parameter value to the value bound to a {@link PreparedStatement}, the same way {@link #toParameter(Object)} does.
+     * @param value The parameter value.
+     * @return A {@link String} or {@link Long}.
+     */
+    private @NotNull Object toValue(@NotNull Object value) {
+        return switch(value) {
+            case UUID uuid -> uuid.toString();
+            case Number number -> number.longValue();
+            default -> value.toString();
+        };
+    }
+
+    /**
+     * Wraps a parameter value in the matching {@link Parameter}.
+     * {@link UUID}s are bound as text like the {@link SqliteWriter} does, as fenced writes select their parameters and the database can't infer the column type.
+     * @param value The parameter value.
+     * @return The {@link Parameter}.
+     */
+    private @NotNull Parameter<?> toParameter(@NotNull Object value) {
+        return switch(value) {
+            case UUID uuid -> new StringParameter(uuid.toString());
+            case Number number -> new LongParameter(number.longValue());
+            default -> new StringParameter(value.toString());
+        };
     }
 }
@@ -0,0 +1,343 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.database;
+
+import com.github.lukesky19.skylib.api.adventure.AdventureUtil;
+import com.github.lukesky19.skylib.libs.hikaricp.HikariDataSource;
+import net.kyori.adventure.text.logger.slf4j.ComponentLogger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Makes every write to a SQLite database on one dedicated thread.
+ * Queued writes are grouped into one commit until the commit interval passes or the commit batch size is reached,
+ * so many small writes share a single fsync instead of contending for SQLite's write lock.
+ * The database is switched to WAL journaling, so reads on other connections are not blocked by the writer.
+ * Prepared statements are kept open and reused across commits.
+ */
+public class SqliteWriter {
+    private static final int MAX_CACHED_STATEMENTS = 64;
+    /**
+     * Queued by {@link #close()} to stop the writer thread once the writes queued before it are committed.
+     */
+    private static final WriteRequest CLOSE = new WriteRequest(List.of(), new CompletableFuture<>());
+
+    private final @NotNull ComponentLogger logger;
+    private final @NotNull HikariDataSource dataSource;
+    private final @NotNull Connection connection;
+    private final long commitIntervalNanos;
+    private final int commitBatchSize;
+    private final @NotNull BlockingQueue<WriteRequest> queue = new LinkedBlockingQueue<>();
+    /**
+     * Prepared statements by SQL. Only accessed by the writer thread.
+     */
+    private final @NotNull Map<String, PreparedStatement> statementsBySql = new HashMap<>();
+    private final @NotNull Thread writerThread;
+    private volatile boolean closed;
+
+    /**
+     * Default Constructor.
+     * You should use {@link #SqliteWriter(ComponentLogger, HikariDataSource, long, int)} instead.
+     * @deprecated You should use {@link #SqliteWriter(ComponentLogger, HikariDataSource, long, int)} instead.
+     * @throws RuntimeException if used.
+     */
+    @Deprecated
+    public SqliteWriter() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * Takes a connection from the data source for the writer's lifetime, enables WAL journaling and starts the writer thread.
+     * @param logger A {@link ComponentLogger} instance.
+     * @param dataSource The {@link HikariDataSource} to take the write connection from. It is closed when the writer is closed.
+     * @param commitIntervalMillis The longest time in milliseconds a write waits for other writes to share its commit.
+     * @param commitBatchSize The most statements that share one commit.
+     * @throws SQLException if the write connection could not be setup.
+     */
+    public SqliteWriter(@NotNull ComponentLogger logger, @NotNull HikariDataSource dataSource, long commitIntervalMillis, int commitBatchSize) throws SQLException {
+        this.logger = logger;
+        this.dataSource = dataSource;
+        this.commitIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, commitIntervalMillis));
+        this.commitBatchSize = Math.max(1, commitBatchSize);
+
+        connection = dataSource.getConnection();
+        try(Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA journal_mode=WAL");
+            // With WAL, NORMAL only syncs on checkpoints and cannot corrupt the database
+            statement.execute("PRAGMA synchronous=NORMAL");
+        }
+        connection.setAutoCommit(false);
+
+        writerThread = new Thread(this::run, "SkyMines Database Writer");
+        writerThread.start();
+    }
+
+    /**
+     * Queues a statement to run once for each parameter row. All rows are committed together.
+     * {@link UUID} parameters are bound as text.
+     * @param sql The SQL statement.
+     * @param rows A {@link List} of parameter rows. An empty list runs the statement once without parameters.
+     * @return A {@link CompletableFuture} containing a {@link List} of the rows changed by each parameter row.
+     */
+    public @NotNull CompletableFuture<List<Integer>> queueWrite(@NotNull String sql, @NotNull List<List<Object>> rows) {
+        return queueWrites(List.of(new WriteStatement(sql, rows))).thenApply(List::getFirst);
+    }
+
+    /**
+     * Queues statements to run in order. They are always committed together, so either all or none of them are written.
+     * {@link UUID} parameters are bound as text.
+     * @param statements A {@link List} of {@link WriteStatement}s.
+     * @return A {@link CompletableFuture} containing, for each statement, a {@link List} of the rows changed by each parameter row.
+     */
+    public @NotNull CompletableFuture<List<List<Integer>>> queueWrites(@NotNull List<WriteStatement> statements) {
+        CompletableFuture<List<List<Integer>>> future = new CompletableFuture<>();
+        if(closed) {
+            future.completeExceptionally(new IllegalStateException("The database writer is closed."));
+            return future;
+        }
+
+        queue.add(new WriteRequest(statements, future));
+        return future;
+    }
+
+    /**
+     * Commits the queued writes, then stops the writer thread and closes the connection.
+     * If called from outside the writer thread, waits up to 10 seconds for the queued writes to finish.
+     */
+    public void close() {
+        if(closed) return;
+        closed = true;
+
+        queue.add(CLOSE);
+
+        // Futures are completed on the writer thread, so a callback closing the writer cannot wait for itself
+        if(Thread.currentThread() == writerThread) return;
+
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The writer thread's loop. Takes the first queued write, then groups writes queued after it into the same commit.
+     */
+    private void run() {
+        List<WriteRequest> batch = new ArrayList<>();
+        boolean closing = false;
+
+        while(!closing) {
+            WriteRequest request = take();
+            long deadlineNanos = System.nanoTime() + commitIntervalNanos;
+            int statementCount = 0;
+
+            while(request != null) {
+                if(request == CLOSE) {
+                    closing = true;
+                    break;
+                }
+
+                batch.add(request);
+                for(WriteStatement statement : request.statements()) {
+                    statementCount += Math.max(1, statement.rows().size());
+                }
+                if(statementCount >= commitBatchSize) break;
+
+                request = poll(deadlineNanos - System.nanoTime());
+            }
+
+            if(!batch.isEmpty()) commitBatch(batch);
+            batch.clear();
+        }
+
+        // Writes queued while closing are still committed, so nothing waits on them forever
+        queue.drainTo(batch);
+        batch.remove(CLOSE);
+        if(!batch.isEmpty()) commitBatch(batch);
+
+        closeConnection();
+    }
+
+    /**
+     * Waits for the next queued write.
+     * @return The next {@link WriteRequest}, or {@link #CLOSE} if interrupted.
+     */
+    private @NotNull WriteRequest take() {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            return CLOSE;
+        }
+    }
+
+    /**
+     * Waits up to the time provided for another queued write.
+     * @param timeoutNanos The time in nanoseconds to wait.
+     * @return The next {@link WriteRequest}, or null if none was queued in time.
+     */
+    private @Nullable WriteRequest poll(long timeoutNanos) {
+        try {
+            return timeoutNanos > 0 ? queue.poll(timeoutNanos, TimeUnit.NANOSECONDS) : queue.poll();
+        } catch (InterruptedException e) {
+            return CLOSE;
+        }
+    }
+
+    /**
+     * Commits the writes with {@link #commit(List)}, failing every write that was not completed if anything else goes wrong,
+     * so the writer thread keeps running and nothing waits on a write forever.
+     * @param batch The {@link WriteRequest}s to commit.
+     */
+    private void commitBatch(@NotNull List<WriteRequest> batch) {
+        try {
+            commit(batch);
+        } catch (RuntimeException e) {
+            logger.error(AdventureUtil.serialize("Failed to write to the database due to: " + e.getMessage()));
+            batch.forEach(request -> request.future().completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Runs the writes in one transaction and completes their futures.
+     * If the transaction fails and holds more than one write, each write is retried in its own transaction,
+     * so one failing write does not fail the writes it was grouped with.
+     * Runtime exceptions, such as from a driver or a future's callback, fail the affected writes instead of stopping the writer thread.
+     * @param batch The {@link WriteRequest}s to commit.
+     */
+    private void commit(@NotNull List<WriteRequest> batch) {
+        List<List<List<Integer>>> results = new ArrayList<>(batch.size());
+
+        try {
+            for(WriteRequest request : batch) {
+                List<List<Integer>> requestResults = new ArrayList<>(request.statements().size());
+                for(WriteStatement statement : request.statements()) {
+                    requestResults.add(execute(statement));
+                }
+
+                results.add(requestResults);
+            }
+
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            rollback();
+
+            if(batch.size() > 1) {
+                batch.forEach(request -> commit(List.of(request)));
+            } else {
+                logger.error(AdventureUtil.serialize("Failed to write to the database due to: " + e.getMessage()));
+                batch.getFirst().future().completeExceptionally(e);
+            }
+
+            return;
+        }
+
+        for(int i = 0; i < batch.size(); i++) {
+            try {
+                batch.get(i).future().complete(results.get(i));
+            } catch (RuntimeException e) {
+                logger.error(AdventureUtil.serialize("A database write callback failed due to: " + e.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Runs a statement using a cached {@link PreparedStatement}.
+     * @param statement The {@link WriteStatement} to run.
+     * @return A {@link List} of the rows changed by each parameter row.
+     * @throws SQLException if the statement failed.
+     */
+    private @NotNull List<Integer> execute(@NotNull WriteStatement statement) throws SQLException {
+        PreparedStatement preparedStatement = statementsBySql.get(statement.sql());
+        if(preparedStatement == null) {
+            preparedStatement = connection.prepareStatement(statement.sql());
+            if(statementsBySql.size() < MAX_CACHED_STATEMENTS) statementsBySql.put(statement.sql(), preparedStatement);
+        }
+
+        try {
+            if(statement.rows().isEmpty()) return List.of(preparedStatement.executeUpdate());
+
+            for(List<Object> row : statement.rows()) {
+                for(int i = 0; i < row.size(); i++) {
+                    Object value = row.get(i);
+                    preparedStatement.setObject(i + 1, value instanceof UUID uuid ? uuid.toString() : value);
+                }
+
+                preparedStatement.addBatch();
+            }
+
+            int[] updateCounts = preparedStatement.executeBatch();
+            List<Integer> results = new ArrayList<>(updateCounts.length);
+            for(int updateCount : updateCounts) {
+                results.add(updateCount);
+            }
+
+            return results;
+        } finally {
+            preparedStatement.clearBatch();
+            if(statementsBySql.get(statement.sql()) != preparedStatement) preparedStatement.close();
+        }
+    }
+
+    /**
+     * Rolls back the current transaction after a failed write.
+     */
+    private void rollback() {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            logger.error(AdventureUtil.serialize("Failed to roll back a database write due to: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Closes the cached statements, the write connection and the data source.
+     */
+    private void closeConnection() {
+        try {
+            for(PreparedStatement preparedStatement : statementsBySql.values()) {
+                preparedStatement.close();
+            }
+
+            connection.close();
+        } catch (SQLException e) {
+            logger.error(AdventureUtil.serialize("Failed to close the database writer due to: " + e.getMessage()));
+        }
+
+        statementsBySql.clear();
+        dataSource.close();
+    }
+
+    /**
+     * A queued write.
+     * @param statements The {@link WriteStatement}s to run in order.
+     * @param future The {@link CompletableFuture} to complete once the write is committed.
+     */
+    private record WriteRequest(@NotNull List<WriteStatement> statements, @NotNull CompletableFuture<List<List<Integer>>> future) {}
+}
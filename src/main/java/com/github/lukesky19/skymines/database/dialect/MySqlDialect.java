@@ -0,0 +1,120 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.database.dialect;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The {@link SqlDialect} of a MySQL or MariaDB database server.
+ */
+public class MySqlDialect extends SqlDialect {
+    /**
+     * Default Constructor
+     */
+    public MySqlDialect() {}
+
+    /**
+     * Get the name of the database backend.
+     * @return "MySQL"
+     */
+    @Override
+    public @NotNull String getName() {
+        return "MySQL";
+    }
+
+    /**
+     * Get the column definition of an auto-incrementing primary key named id.
+     * @return A String
+     */
+    @Override
+    public @NotNull String getIdColumn() {
+        return "id BIGINT PRIMARY KEY AUTO_INCREMENT NOT NULL";
+    }
+
+    /**
+     * Get the column type used for indexed text, such as mine ids and player ids.
+     * 191 characters is the longest utf8mb4 column that fits in an InnoDB index on older servers.
+     * @return A String
+     */
+    @Override
+    public @NotNull String getKeyType() {
+        return "VARCHAR(191)";
+    }
+
+    /**
+     * Get the column type used for 64-bit integers.
+     * @return A String
+     */
+    @Override
+    public @NotNull String getLongType() {
+        return "BIGINT";
+    }
+
+    /**
+     * Get the column definition of non-null unindexed text.
+     * TEXT columns can't have a default value on older servers, so none is given.
+     * @return A String
+     */
+    @Override
+    public @NotNull String getTextColumn() {
+        return "TEXT NOT NULL";
+    }
+
+    /**
+     * Get the statements that create an index if it doesn't exist.
+     * MySQL has no CREATE INDEX IF NOT EXISTS, but InnoDB already indexes every column the tables index,
+     * either as the first column of a unique key or as a foreign key.
+     * @param indexName The name of the index.
+     * @param tableName The name of the table.
+     * @param column The column to index.
+     * @return An empty {@link List}.
+     */
+    @Override
+    public @NotNull List<String> createIndex(@NotNull String indexName, @NotNull String tableName, @NotNull String column) {
+        return List.of();
+    }
+
+    /**
+     * Get a statement that inserts a row, or does nothing if the row conflicts with a unique key.
+     * The parameters are the columns in order.
+     * @param tableName The name of the table.
+     * @param columns The columns to insert.
+     * @return A SQL statement.
+     */
+    @Override
+    public @NotNull String insertIgnore(@NotNull String tableName, @NotNull List<String> columns) {
+        // INSERT IGNORE would also hide foreign key errors, so only duplicate keys are ignored
+        String firstColumn = columns.getFirst();
+        return insertInto(tableName, columns) + " ON DUPLICATE KEY UPDATE " + firstColumn + " = " + firstColumn;
+    }
+
+    /**
+     * Get the clause of an upsert that updates the value columns of the row with the same key columns.
+     * @param keyColumns The columns of the unique key, which MySQL finds from the table's unique keys.
+     * @param valueColumns The columns to update.
+     * @return A SQL clause.
+     */
+    @Override
+    protected @NotNull String onConflictUpdate(@NotNull List<String> keyColumns, @NotNull List<String> valueColumns) {
+        return "ON DUPLICATE KEY UPDATE " +
+                valueColumns.stream().map(column -> column + " = VALUES(" + column + ")").collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,75 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.database.dialect;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The {@link SqlDialect} of a PostgreSQL database server.
+ */
+public class PostgreSqlDialect extends SqlDialect {
+    /**
+     * Default Constructor
+     */
+    public PostgreSqlDialect() {}
+
+    /**
+     * Get the name of the database backend.
+     * @return "PostgreSQL"
+     */
+    @Override
+    public @NotNull String getName() {
+        return "PostgreSQL";
+    }
+
+    /**
+     * Get the column definition of an auto-incrementing primary key named id.
+     * @return A String
+     */
+    @Override
+    public @NotNull String getIdColumn() {
+        return "id BIGSERIAL PRIMARY KEY NOT NULL";
+    }
+
+    /**
+     * Get the column type used for indexed text, such as mine ids and player ids.
+     * @return A String
+     */
+    @Override
+    public @NotNull String getKeyType() {
+        return "VARCHAR(191)";
+    }
+
+    /**
+     * Get the column type used for 64-bit integers.
+     * @return A String
+     */
+    @Override
+    public @NotNull String getLongType() {
+        return "BIGINT";
+    }
+
+    /**
+     * Get the column definition of non-null unindexed text, including the default value.
+     * @return A String
+     */
+    @Override
+    public @NotNull String getTextColumn() {
+        return "TEXT NOT NULL DEFAULT ''";
+    }
+}
@@ -0,0 +1,172 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.database.dialect;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Abstract class to extend to create the SQL that differs between database backends.
+ * Tables build their statements through this class so the same table works on each backend.
+ * The statements default to the ON CONFLICT syntax shared by SQLite and PostgreSQL.
+ */
+public abstract class SqlDialect {
+    /**
+     * Default Constructor
+     */
+    public SqlDialect() {}
+
+    /**
+     * Get the name of the database backend.
+     * @return A String
+     */
+    public abstract @NotNull String getName();
+
+    /**
+     * Get the column definition of an auto-incrementing primary key named id.
+     * @return A String
+     */
+    public abstract @NotNull String getIdColumn();
+
+    /**
+     * Get the column type used for indexed text, such as mine ids and player ids.
+     * @return A String
+     */
+    public abstract @NotNull String getKeyType();
+
+    /**
+     * Get the column type used for 64-bit integers.
+     * @return A String
+     */
+    public abstract @NotNull String getLongType();
+
+    /**
+     * Get the column definition of non-null unindexed text, including the default value if the backend supports one.
+     * @return A String
+     */
+    public abstract @NotNull String getTextColumn();
+
+    /**
+     * Get the statements that create an index if it doesn't exist.
+     * @param indexName The name of the index.
+     * @param tableName The name of the table.
+     * @param column The column to index.
+     * @return A {@link List} of SQL statements, which is empty if the backend already indexes the column.
+     */
+    public @NotNull List<String> createIndex(@NotNull String indexName, @NotNull String tableName, @NotNull String column) {
+        return List.of("CREATE INDEX IF NOT EXISTS " + indexName + " ON " + tableName + "(" + column + ")");
+    }
+
+    /**
+     * Get the statements that add the column from {@link #getIdColumn()} to an existing table, numbering the existing rows.
+     * @param tableName The name of the table.
+     * @param columnDefinitions The definitions of the table's existing columns, which are kept.
+     * @param columns The names of the table's existing columns.
+     * @return A {@link List} of SQL statements.
+     */
+    public @NotNull List<String> addIdColumn(@NotNull String tableName, @NotNull String columnDefinitions, @NotNull List<String> columns) {
+        return List.of("ALTER TABLE " + tableName + " ADD COLUMN " + getIdColumn());
+    }
+
+    /**
+     * Get a statement that inserts a row, or does nothing if the row conflicts with a unique key.
+     * The parameters are the columns in order.
+     * @param tableName The name of the table.
+     * @param columns The columns to insert.
+     * @return A SQL statement.
+     */
+    public @NotNull String insertIgnore(@NotNull String tableName, @NotNull List<String> columns) {
+        return insertInto(tableName, columns) + " ON CONFLICT DO NOTHING";
+    }
+
+    /**
+     * Get a statement that inserts a row, or updates the row with the same key columns.
+     * The parameters are the key columns and then the value columns in order.
+     * @param tableName The name of the table.
+     * @param keyColumns The columns of the unique key.
+     * @param valueColumns The columns to update.
+     * @return A SQL statement.
+     */
+    public @NotNull String upsert(@NotNull String tableName, @NotNull List<String> keyColumns, @NotNull List<String> valueColumns) {
+        return insertInto(tableName, concat(keyColumns, valueColumns)) + " " + onConflictUpdate(keyColumns, valueColumns);
+    }
+
+    /**
+     * Get a statement that inserts a row, or updates the row with the same key columns, only if the FROM and WHERE clause provided selects a row.
+     * This is used to fence a write by a row in another table.
+     * The parameters are the key columns, the value columns and then the parameters of the clause in order.
+     * @param tableName The name of the table.
+     * @param keyColumns The columns of the unique key.
+     * @param valueColumns The columns to update.
+     * @param fromClause The FROM and WHERE clause that must select a row for the write to happen.
+     * @return A SQL statement.
+     */
+    public @NotNull String upsertFrom(@NotNull String tableName, @NotNull List<String> keyColumns, @NotNull List<String> valueColumns, @NotNull String fromClause) {
+        return insertSelect(tableName, concat(keyColumns, valueColumns), fromClause) + " " + onConflictUpdate(keyColumns, valueColumns);
+    }
+
+    /**
+     * Get the clause of an upsert that updates the value columns of the row with the same key columns.
+     * @param keyColumns The columns of the unique key.
+     * @param valueColumns The columns to update.
+     * @return A SQL clause.
+     */
+    protected @NotNull String onConflictUpdate(@NotNull List<String> keyColumns, @NotNull List<String> valueColumns) {
+        return "ON CONFLICT (" + String.join(", ", keyColumns) + ") DO UPDATE SET " +
+                valueColumns.stream().map(column -> column + " = excluded." + column).collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Get the start of an insert statement for the columns, up to and including the values.
+     * @param tableName The name of the table.
+     * @param columns The columns to insert.
+     * @return A SQL statement.
+     */
+    protected @NotNull String insertInto(@NotNull String tableName, @NotNull List<String> columns) {
+        return "INSERT INTO " + tableName + " (" + String.join(", ", columns) + ") " +
+                "VALUES (" + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+    }
+
+    /**
+     * Get an insert statement for the columns whose values are parameters selected by the FROM and WHERE clause provided.
+     * @param tableName The name of the table.
+     * @param columns The columns to insert.
+     * @param fromClause The FROM and WHERE clause.
+     * @return A SQL statement.
+     */
+    protected @NotNull String insertSelect(@NotNull String tableName, @NotNull List<String> columns, @NotNull String fromClause) {
+        return "INSERT INTO " + tableName + " (" + String.join(", ", columns) + ") " +
+                "SELECT " + String.join(", ", Collections.nCopies(columns.size(), "?")) + " " + fromClause;
+    }
+
+    /**
+     * Joins two lists of columns.
+     * @param first The first columns.
+     * @param second The columns after the first columns.
+     * @return A {@link List} of columns.
+     */
+    protected @NotNull List<String> concat(@NotNull List<String> first, @NotNull List<String> second) {
+        List<String> columns = new ArrayList<>(first);
+        columns.addAll(second);
+        return columns;
+    }
+}
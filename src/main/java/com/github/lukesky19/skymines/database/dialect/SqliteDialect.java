@@ -0,0 +1,98 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.database.dialect;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * The {@link SqlDialect} of a local SQLite database file.
+ */
+public class SqliteDialect extends SqlDialect {
+    /**
+     * Default Constructor
+     */
+    public SqliteDialect() {}
+
+    /**
+     * Get the name of the database backend.
+     * @return "SQLite"
+     */
+    @Override
+    public @NotNull String getName() {
+        return "SQLite";
+    }
+
+    /**
+     * Get the column definition of an auto-incrementing primary key named id.
+     * @return A String
+     */
+    @Override
+    public @NotNull String getIdColumn() {
+        return "id INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL";
+    }
+
+    /**
+     * Get the column type used for indexed text, such as mine ids and player ids.
+     * @return A String
+     */
+    @Override
+    public @NotNull String getKeyType() {
+        return "TEXT";
+    }
+
+    /**
+     * Get the column type used for 64-bit integers.
+     * This is not INTEGER, as an INTEGER time column marks the legacy times table.
+     * @return A String
+     */
+    @Override
+    public @NotNull String getLongType() {
+        return "LONG";
+    }
+
+    /**
+     * Get the column definition of non-null unindexed text, including the default value.
+     * @return A String
+     */
+    @Override
+    public @NotNull String getTextColumn() {
+        return "TEXT NOT NULL DEFAULT ''";
+    }
+
+    /**
+     * Get the statements that add the column from {@link #getIdColumn()} to an existing table, numbering the existing rows.
+     * SQLite can't add a primary key to an existing table, so the table is copied into a new table with the column and replaces the old table.
+     * @param tableName The name of the table.
+     * @param columnDefinitions The definitions of the table's existing columns, which are kept.
+     * @param columns The names of the table's existing columns.
+     * @return A {@link List} of SQL statements.
+     */
+    @Override
+    public @NotNull List<String> addIdColumn(@NotNull String tableName, @NotNull String columnDefinitions, @NotNull List<String> columns) {
+        String newTableName = tableName + "_new";
+        String columnList = String.join(", ", columns);
+
+        return List.of(
+                "CREATE TABLE " + newTableName + " (" + getIdColumn() + ", " + columnDefinitions + ")",
+                "INSERT INTO " + newTableName + " (" + columnList + ") SELECT " + columnList + " FROM " + tableName,
+                "DROP TABLE " + tableName,
+                "ALTER TABLE " + newTableName + " RENAME TO " + tableName);
+    }
+}
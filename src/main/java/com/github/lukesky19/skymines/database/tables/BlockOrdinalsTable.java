@@ -0,0 +1,151 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.database.tables;
+
+import com.github.lukesky19.skylib.api.database.parameter.impl.StringParameter;
+import com.github.lukesky19.skymines.database.QueueManager;
+import com.github.lukesky19.skymines.database.dialect.SqlDialect;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * This class is used to create and interface with the block ordinals table in the database.
+ * Each row stores the ordinal a world mine assigned to a block type, which indexes the player's unlocked blocks bitset.
+ */
+public class BlockOrdinalsTable {
+    private final @NotNull QueueManager queueManager;
+    private final @NotNull SqlDialect sqlDialect;
+    private final @NotNull String tableName = "skymines_block_ordinals";
+
+    /**
+     * Default Constructor.
+     * You should use {@link #BlockOrdinalsTable(QueueManager, SqlDialect)} instead.
+     * @deprecated You should use {@link #BlockOrdinalsTable(QueueManager, SqlDialect)} instead.
+     */
+    @Deprecated
+    public BlockOrdinalsTable() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param queueManager A {@link QueueManager} instance.
+     * @param sqlDialect The {@link SqlDialect} of the database backend.
+     */
+    public BlockOrdinalsTable(@NotNull QueueManager queueManager, @NotNull SqlDialect sqlDialect) {
+        this.queueManager = queueManager;
+        this.sqlDialect = sqlDialect;
+    }
+
+    /**
+     * Creates the table in the database if it doesn't exist and any indexes that don't exist.
+     * @return A {@link CompletableFuture} of type {@link Void} when complete.
+     */
+    public @NotNull CompletableFuture<Void> createTable() {
+        return queueManager.queueSchemaWrite(getCreationStatements());
+    }
+
+    /**
+     * Get the statements that create the table and its indexes if they don't exist.
+     * @return A {@link List} of SQL statements.
+     */
+    public @NotNull List<String> getCreationStatements() {
+        String tableCreationSql = "CREATE TABLE IF NOT EXISTS " + tableName + " (" +
+                sqlDialect.getIdColumn() + ", " +
+                "mine_id " + sqlDialect.getKeyType() + " NOT NULL, " + // Unique
+                "block_type " + sqlDialect.getKeyType() + " NOT NULL, " + // Unique
+                "ordinal " + sqlDialect.getLongType() + " NOT NULL, " +
+                "FOREIGN KEY (mine_id) REFERENCES skymines_mine_ids(mine_id) ON UPDATE CASCADE ON DELETE CASCADE, " +
+                "UNIQUE (mine_id, block_type), " +
+                "UNIQUE (mine_id, ordinal))";
+
+        List<String> statements = new ArrayList<>();
+        statements.add(tableCreationSql);
+        statements.addAll(sqlDialect.createIndex("idx_" + tableName + "_mine_ids", tableName, "mine_id"));
+
+        return statements;
+    }
+
+    /**
+     * Get the ordinals of all block types for all mines.
+     * @return A {@link CompletableFuture} containing a {@link Map} mapping mine ids to a {@link Map} mapping block type keys to ordinals.
+     */
+    public @NotNull CompletableFuture<@NotNull Map<String, Map<String, Integer>>> loadBlockOrdinals() {
+        String selectSql = "SELECT mine_id, block_type, ordinal FROM " + tableName;
+
+        return queueManager.queueReadTransaction(selectSql, resultSet -> {
+            Map<String, Map<String, Integer>> ordinalsByMineId = new HashMap<>();
+
+            try {
+                while(resultSet.next()) {
+                    String mineId = resultSet.getString("mine_id");
+                    String blockTypeKey = resultSet.getString("block_type");
+                    int ordinal = resultSet.getInt("ordinal");
+
+                    ordinalsByMineId.computeIfAbsent(mineId, k -> new HashMap<>()).put(blockTypeKey, ordinal);
+                }
+
+                return ordinalsByMineId;
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    /**
+     * Get the ordinals of all block types for the mine id provided.
+     * @param mineId The mine id.
+     * @return A {@link CompletableFuture} containing a {@link Map} mapping block type keys to ordinals.
+     */
+    public @NotNull CompletableFuture<@NotNull Map<String, Integer>> loadBlockOrdinals(@NotNull String mineId) {
+        String selectSql = "SELECT block_type, ordinal FROM " + tableName + " WHERE mine_id = ?";
+        StringParameter mineIdParameter = new StringParameter(mineId);
+
+        return queueManager.queueReadTransaction(selectSql, List.of(mineIdParameter), resultSet -> {
+            Map<String, Integer> ordinalsByBlockTypeKey = new HashMap<>();
+
+            try {
+                while(resultSet.next()) {
+                    ordinalsByBlockTypeKey.put(resultSet.getString("block_type"), resultSet.getInt("ordinal"));
+                }
+
+                return ordinalsByBlockTypeKey;
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    /**
+     * Saves newly assigned block type ordinals to the database. Ordinals that are already saved are left unchanged.
+     * A row is not written if its block type or its ordinal is already saved for the mine, such as by another server, so the saved ordinals should be loaded afterward.
+     * @param data A {@link Map} mapping mine ids to a {@link Map} mapping block type keys to ordinals.
+     * @return A {@link CompletableFuture} of type {@link Void} when complete.
+     */
+    public @NotNull CompletableFuture<Void> saveBlockOrdinals(@NotNull Map<String, Map<String, Integer>> data) {
+        List<List<Object>> listOfParameterLists = new ArrayList<>();
+        String insertSql = sqlDialect.insertIgnore(tableName, List.of("mine_id", "block_type", "ordinal"));
+
+        data.forEach((mineId, ordinalsByBlockType) -> ordinalsByBlockType.forEach((blockTypeKey, ordinal) -> listOfParameterLists.add(List.of(mineId, blockTypeKey, ordinal))));
+
+        return queueManager.queueWrite(insertSql, listOfParameterLists).thenAccept(result -> {});
+    }
+}
@@ -0,0 +1,309 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.database.tables;
+
+import com.github.lukesky19.skylib.api.adventure.AdventureUtil;
+import com.github.lukesky19.skylib.api.database.parameter.Parameter;
+import com.github.lukesky19.skylib.api.database.parameter.impl.LongParameter;
+import com.github.lukesky19.skymines.data.packet.CooldownBlob;
+import com.github.lukesky19.skymines.data.player.SessionLease;
+import com.github.lukesky19.skymines.database.KeyCache;
+import com.github.lukesky19.skymines.database.QueueManager;
+import com.github.lukesky19.skymines.database.WriteStatement;
+import com.github.lukesky19.skymines.database.dialect.SqlDialect;
+import net.kyori.adventure.text.logger.slf4j.ComponentLogger;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * This class is used to create and interface with the cooldowns table in the database.
+ * Each row stores every active block cooldown a player has inside one packet mine as a single {@link CooldownBlob}, encoded as Base64 text.
+ * Rows are keyed on the integer keys of the player and the mine from the {@link KeyCache}.
+ */
+public class CooldownsTable {
+    private final @NotNull ComponentLogger logger;
+    private final @NotNull QueueManager queueManager;
+    private final @NotNull SqlDialect sqlDialect;
+    private final @NotNull KeyCache keyCache;
+    private final @NotNull String tableName = "skymines_cooldowns";
+
+    /**
+     * Default Constructor.
+     * You should use {@link #CooldownsTable(ComponentLogger, QueueManager, SqlDialect, KeyCache)} instead.
+     * @deprecated You should use {@link #CooldownsTable(ComponentLogger, QueueManager, SqlDialect, KeyCache)} instead.
+     */
+    @Deprecated
+    public CooldownsTable() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param logger A {@link ComponentLogger} instance.
+     * @param queueManager A {@link QueueManager} instance.
+     * @param sqlDialect The {@link SqlDialect} of the database backend.
+     * @param keyCache The {@link KeyCache} with the keys of players and mines.
+     */
+    public CooldownsTable(@NotNull ComponentLogger logger, @NotNull QueueManager queueManager, @NotNull SqlDialect sqlDialect, @NotNull KeyCache keyCache) {
+        this.logger = logger;
+        this.queueManager = queueManager;
+        this.sqlDialect = sqlDialect;
+        this.keyCache = keyCache;
+    }
+
+    /**
+     * Creates the table in the database if it doesn't exist and any indexes that don't exist.
+     * @return A {@link CompletableFuture} of type {@link Void} when complete.
+     */
+    public @NotNull CompletableFuture<Void> createTable() {
+        return queueManager.queueSchemaWrite(getCreationStatements());
+    }
+
+    /**
+     * Replaces a table created by an older version, which is keyed on the mine id and the player's {@link UUID}, with a table keyed on their integer keys.
+     * The player ids and mine ids used by the table must be saved first.
+     * @return A {@link CompletableFuture} of type {@link Void} when complete.
+     */
+    public @NotNull CompletableFuture<Void> migrateToKeys() {
+        // The new table is created under another name, so its constraint names don't collide with the older table's
+        String keyedTableName = tableName + "_keyed";
+
+        List<String> statements = new ArrayList<>();
+        statements.add(getTableCreationSql(keyedTableName));
+        statements.add("INSERT INTO " + keyedTableName + " (player_key, mine_key, cooldowns, last_updated) " +
+                "SELECT p.id, m.id, l.cooldowns, l.last_updated FROM " + tableName + " l " +
+                "JOIN skymines_player_ids p ON p.player_id = l.player_id " +
+                "JOIN skymines_mine_ids m ON m.mine_id = l.mine_id");
+        statements.add("DROP TABLE " + tableName);
+        statements.add("ALTER TABLE " + keyedTableName + " RENAME TO " + tableName);
+        statements.addAll(getIndexCreationStatements());
+
+        return queueManager.queueSchemaWrite(statements);
+    }
+
+    /**
+     * Get the encoded {@link CooldownBlob} bytes of many players in a single query.
+     * Players whose key is not cached are left out of the returned {@link Map}.
+     * @param uuids The {@link UUID}s of the players.
+     * @return A {@link CompletableFuture} containing a {@link Map} mapping {@link UUID}s to a {@link Map} mapping mine ids to encoded {@link CooldownBlob} bytes.
+     */
+    public @NotNull CompletableFuture<@NotNull Map<UUID, Map<String, byte[]>>> loadCooldownsBatch(@NotNull Collection<UUID> uuids) {
+        Map<Long, UUID> uuidsByPlayerKey = keyCache.getPlayerKeys(uuids);
+        if(uuidsByPlayerKey.isEmpty()) return CompletableFuture.completedFuture(new HashMap<>());
+
+        String selectSql = "SELECT player_key, mine_key, cooldowns FROM " + tableName + " WHERE player_key IN (" + String.join(", ", Collections.nCopies(uuidsByPlayerKey.size(), "?")) + ")";
+        List<Parameter<?>> parameters = new ArrayList<>(uuidsByPlayerKey.size());
+        uuidsByPlayerKey.keySet().forEach(playerKey -> parameters.add(new LongParameter(playerKey)));
+
+        return queueManager.queueReadTransaction(selectSql, parameters, resultSet -> {
+            // Every player gets an entry, so players without saved rows can be told apart from players whose key is not cached
+            Map<UUID, Map<String, byte[]>> cooldownsByPlayer = new HashMap<>();
+            uuidsByPlayerKey.values().forEach(uuid -> cooldownsByPlayer.put(uuid, new HashMap<>()));
+
+            try {
+                while(resultSet.next()) {
+                    UUID uuid = uuidsByPlayerKey.get(resultSet.getLong("player_key"));
+                    String mineId = keyCache.getMineId(resultSet.getLong("mine_key"));
+                    String encodedCooldowns = resultSet.getString("cooldowns");
+                    if(uuid == null || mineId == null || encodedCooldowns == null || encodedCooldowns.isEmpty()) continue;
+
+                    try {
+                        cooldownsByPlayer.get(uuid).put(mineId, Base64.getDecoder().decode(encodedCooldowns));
+                    } catch (IllegalArgumentException e) {
+                        logger.warn(AdventureUtil.serialize("Skipped the saved cooldowns of " + uuid + " in mine " + mineId + " as they are not valid Base64: " + e.getMessage()));
+                    }
+                }
+
+                return cooldownsByPlayer;
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    /**
+     * Saves the encoded cooldowns for a player, one row per mine.
+     * Rows for mines that were not part of this save are deleted in the same transaction, as the player no longer has cooldowns in them.
+     * Rows are only written and deleted while the player's {@link SessionLease} is still held.
+     * @param uuid The {@link UUID} of the player to save data for.
+     * @param lease The {@link SessionLease} held for the player.
+     * @param data A {@link Map} mapping mine ids to encoded {@link CooldownBlob} bytes.
+     * @return A {@link CompletableFuture} containing a {@link List} of {@link Boolean} with the results.
+     * The list will contain false if an operation failed, the lease is no longer held or a key is not cached.
+     */
+    public @NotNull CompletableFuture<List<Boolean>> saveCooldowns(@NotNull UUID uuid, @NotNull SessionLease lease, @NotNull Map<String, byte[]> data) {
+        Long playerKey = keyCache.getPlayerKey(uuid);
+        if(playerKey == null) return CompletableFuture.completedFuture(List.of(false));
+
+        List<List<Object>> listOfParameterLists = new ArrayList<>();
+        String insertOrUpdateSql = getUpsertSql();
+        String deleteStaleSql = getDeleteStaleSql();
+
+        long lastUpdated = System.currentTimeMillis();
+        int missingKeys = 0;
+        for(Map.Entry<String, byte[]> entry : data.entrySet()) {
+            Long mineKey = keyCache.getMineKey(entry.getKey());
+            if(mineKey == null) {
+                missingKeys++;
+                continue;
+            }
+
+            String encodedCooldowns = Base64.getEncoder().encodeToString(entry.getValue());
+            listOfParameterLists.add(List.of(playerKey, mineKey, encodedCooldowns, lastUpdated, uuid, lease.serverId(), lease.version()));
+        }
+
+        int failedRows = missingKeys;
+        List<WriteStatement> statements = new ArrayList<>();
+        if(!listOfParameterLists.isEmpty()) statements.add(new WriteStatement(insertOrUpdateSql, listOfParameterLists));
+        statements.add(new WriteStatement(deleteStaleSql, List.of(List.of(playerKey, lastUpdated, uuid, lease.serverId(), lease.version()))));
+
+        return queueManager.queueWrites(statements).thenApply(resultsByStatement -> {
+            List<Boolean> results = new ArrayList<>(Collections.nCopies(failedRows, false));
+
+            // The last statement is the delete, which changes no rows if nothing was stale
+            resultsByStatement.subList(0, resultsByStatement.size() - 1).forEach(list -> list.forEach(rowsUpdated -> {
+                if(rowsUpdated > 0) {
+                    results.add(true);
+                } else  {
+                    results.add(false);
+                }
+            }));
+
+            return results;
+        });
+    }
+
+    /**
+     * Saves the encoded cooldowns for many players in a single transaction, one row per player and mine.
+     * Each player's rows for mines that were not part of this save are deleted in the same transaction, as the player no longer has cooldowns in them.
+     * Each player's rows are only written and deleted while their {@link SessionLease} is still held.
+     * @param data A {@link Map} mapping {@link UUID}s to a {@link Map} mapping mine ids to encoded {@link CooldownBlob} bytes.
+     * @param leases A {@link Map} mapping {@link UUID}s to the {@link SessionLease} held for each player in the data.
+     * @return A {@link CompletableFuture} containing a {@link Map} mapping each {@link UUID} to true if all of the player's rows saved, otherwise false.
+     */
+    public @NotNull CompletableFuture<@NotNull Map<UUID, Boolean>> saveCooldownsBatch(@NotNull Map<UUID, Map<String, byte[]>> data, @NotNull Map<UUID, SessionLease> leases) {
+        List<List<Object>> upsertParameterLists = new ArrayList<>();
+        List<List<Object>> deleteParameterLists = new ArrayList<>();
+        List<UUID> rowOwners = new ArrayList<>();
+        Map<UUID, Boolean> baseResults = new HashMap<>();
+
+        long lastUpdated = System.currentTimeMillis();
+        data.forEach((uuid, cooldowns) -> {
+            SessionLease lease = leases.get(uuid);
+            Long playerKey = keyCache.getPlayerKey(uuid);
+            if(lease == null || playerKey == null) {
+                baseResults.put(uuid, false);
+                return;
+            }
+
+            // A player with no rows to write only has their stale rows deleted, which has nothing to fail
+            baseResults.put(uuid, true);
+            cooldowns.forEach((mineId, bytes) -> {
+                Long mineKey = keyCache.getMineKey(mineId);
+                if(mineKey == null) {
+                    baseResults.put(uuid, false);
+                    return;
+                }
+
+                String encodedCooldowns = Base64.getEncoder().encodeToString(bytes);
+                upsertParameterLists.add(List.of(playerKey, mineKey, encodedCooldowns, lastUpdated, uuid, lease.serverId(), lease.version()));
+                rowOwners.add(uuid);
+            });
+
+            deleteParameterLists.add(List.of(playerKey, lastUpdated, uuid, lease.serverId(), lease.version()));
+        });
+
+        if(deleteParameterLists.isEmpty()) return CompletableFuture.completedFuture(baseResults);
+
+        List<WriteStatement> statements = new ArrayList<>();
+        if(!upsertParameterLists.isEmpty()) statements.add(new WriteStatement(getUpsertSql(), upsertParameterLists));
+        statements.add(new WriteStatement(getDeleteStaleSql(), deleteParameterLists));
+
+        return queueManager.queueWrites(statements).thenApply(resultsByStatement -> {
+            Map<UUID, Boolean> results = new HashMap<>(baseResults);
+
+            // The deletes change no rows if nothing was stale, so only the upserts are checked
+            List<Integer> list = upsertParameterLists.isEmpty() ? List.of() : resultsByStatement.getFirst();
+            for(int i = 0; i < rowOwners.size(); i++) {
+                boolean successful = i < list.size() && list.get(i) > 0;
+                results.merge(rowOwners.get(i), successful, Boolean::logicalAnd);
+            }
+
+            return results;
+        });
+    }
+
+    /**
+     * Get the statement that inserts or updates a player's cooldowns in a mine, fenced by the player's {@link SessionLease}.
+     * The parameters are the player key, mine key, encoded cooldowns, last updated time, player {@link UUID}, server id and lease version.
+     * @return A SQL statement.
+     */
+    public @NotNull String getUpsertSql() {
+        return sqlDialect.upsertFrom(tableName, List.of("player_key", "mine_key"), List.of("cooldowns", "last_updated"), SessionsTable.FENCE_SQL);
+    }
+
+    /**
+     * Get the statement that deletes a player's rows last updated before a save, fenced by the player's {@link SessionLease}.
+     * The parameters are the player key, the save's last updated time, player {@link UUID}, server id and lease version.
+     * @return A SQL statement.
+     */
+    public @NotNull String getDeleteStaleSql() {
+        return "DELETE FROM " + tableName + " WHERE player_key = ? AND last_updated < ? AND EXISTS (SELECT 1 " + SessionsTable.FENCE_SQL + ")";
+    }
+
+    /**
+     * Get the statements that create the table and its indexes if they don't exist.
+     * @return A {@link List} of SQL statements.
+     */
+    public @NotNull List<String> getCreationStatements() {
+        List<String> statements = new ArrayList<>();
+        statements.add(getTableCreationSql(tableName));
+        statements.addAll(getIndexCreationStatements());
+
+        return statements;
+    }
+
+    /**
+     * Get the statement that creates the table if it doesn't exist.
+     * @param name The name to create the table with.
+     * @return A SQL statement.
+     */
+    private @NotNull String getTableCreationSql(@NotNull String name) {
+        return "CREATE TABLE IF NOT EXISTS " + name + " (" +
+                sqlDialect.getIdColumn() + ", " +
+                "player_key " + sqlDialect.getLongType() + " NOT NULL, " + // Unique
+                "mine_key " + sqlDialect.getLongType() + " NOT NULL, " + // Unique
+                "cooldowns " + sqlDialect.getTextColumn() + ", " +
+                "last_updated " + sqlDialect.getLongType() + " NOT NULL DEFAULT 0, " +
+                "FOREIGN KEY (player_key) REFERENCES skymines_player_ids(id), " +
+                "FOREIGN KEY (mine_key) REFERENCES skymines_mine_ids(id) ON DELETE CASCADE, " +
+                "UNIQUE (player_key, mine_key))";
+    }
+
+    /**
+     * Get the statements that create the indexes of the table if they don't exist.
+     * @return A {@link List} of SQL statements.
+     */
+    private @NotNull List<String> getIndexCreationStatements() {
+        // The unique key leads with the player's key, so loading a player's rows needs no other index
+        return List.of();
+    }
+}
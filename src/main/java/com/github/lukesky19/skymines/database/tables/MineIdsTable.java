@@ -17,24 +17,31 @@
 */
 package com.github.lukesky19.skymines.database.tables;
 
-import com.github.lukesky19.skylib.api.database.parameter.impl.StringParameter;
+import com.github.lukesky19.skymines.database.KeyCache;
 import com.github.lukesky19.skymines.database.QueueManager;
+import com.github.lukesky19.skymines.database.dialect.SqlDialect;
 import org.jetbrains.annotations.NotNull;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 /**
  * This class is used to create and interface with the mine ids table in the database.
+ * Each row assigns an integer key to a mine id, which the data tables are keyed on.
  */
 public class MineIdsTable {
     private final @NotNull QueueManager queueManager;
+    private final @NotNull SqlDialect sqlDialect;
+    private final @NotNull KeyCache keyCache;
     private final @NotNull String tableName = "skymines_mine_ids";
 
     /**
      * Default Constructor.
-     * You should use {@link #MineIdsTable(QueueManager)} instead.
-     * @deprecated You should use {@link #MineIdsTable(QueueManager)} instead.
+     * You should use {@link #MineIdsTable(QueueManager, SqlDialect, KeyCache)} instead.
+     * @deprecated You should use {@link #MineIdsTable(QueueManager, SqlDialect, KeyCache)} instead.
      */
     @Deprecated
     public MineIdsTable() {
@@ -44,19 +51,43 @@ public class MineIdsTable {
     /**
      * Constructor
      * @param queueManager A {@link QueueManager} instance.
+     * @param sqlDialect The {@link SqlDialect} of the database backend.
+     * @param keyCache The {@link KeyCache} to cache the keys of mines in.
      */
-    public MineIdsTable(@NotNull QueueManager queueManager) {
+    public MineIdsTable(@NotNull QueueManager queueManager, @NotNull SqlDialect sqlDialect, @NotNull KeyCache keyCache) {
         this.queueManager = queueManager;
+        this.sqlDialect = sqlDialect;
+        this.keyCache = keyCache;
     }
 
     /**
      * Creates the table in the database if it doesn't exist and any indexes that don't exist.
+     * @return A {@link CompletableFuture} of type {@link Void} when complete.
      */
-    public void createTable() {
-        String tableCreationSql = "CREATE TABLE IF NOT EXISTS " + tableName + " (mine_id TEXT NOT NULL UNIQUE)";
-        String indexCreationSql = "CREATE INDEX IF NOT EXISTS idx_" + tableName + "_mine_id ON " + tableName + "(mine_id)";
+    public @NotNull CompletableFuture<Void> createTable() {
+        return queueManager.queueSchemaWrite(getCreationStatements());
+    }
+
+    /**
+     * Get the statements that create the table and its indexes if they don't exist.
+     * @return A {@link List} of SQL statements.
+     */
+    public @NotNull List<String> getCreationStatements() {
+        String tableCreationSql = "CREATE TABLE IF NOT EXISTS " + tableName + " (" + sqlDialect.getIdColumn() + ", " + getMineIdColumn() + ")";
+
+        List<String> statements = new ArrayList<>();
+        statements.add(tableCreationSql);
+        statements.addAll(sqlDialect.createIndex("idx_" + tableName + "_mine_id", tableName, "mine_id"));
 
-        queueManager.queueBulkWriteTransaction(List.of(tableCreationSql, indexCreationSql));
+        return statements;
+    }
+
+    /**
+     * Adds the id column to a table created by an older version, which only stored the mine ids.
+     * @return A {@link CompletableFuture} of type {@link Void} when complete.
+     */
+    public @NotNull CompletableFuture<Void> addIdColumn() {
+        return queueManager.queueSchemaWrite(sqlDialect.addIdColumn(tableName, getMineIdColumn(), List.of("mine_id")));
     }
 
     /**
@@ -65,11 +96,43 @@ public class MineIdsTable {
      * @return A {@link CompletableFuture} of type {@link Boolean} where true is successful, otherwise false. If the mine id already exists it will also return false.
      */
     public @NotNull CompletableFuture<Boolean> insertMineId(@NotNull String mineId) {
-        String insertMineIdSql = "INSERT INTO " + tableName + " (mine_id) VALUES (?) ON CONFLICT (mine_id) DO NOTHING";
+        String insertMineIdSql = sqlDialect.insertIgnore(tableName, List.of("mine_id"));
 
-        StringParameter mineIdParameter = new StringParameter(mineId);
+        return queueManager.queueWrite(insertMineIdSql, List.of(List.of(mineId))).thenApply(result -> result.getFirst() > 0);
+    }
 
-        return queueManager.queueWriteTransaction(insertMineIdSql, List.of(mineIdParameter)).thenApply(result -> result > 0);
+    /**
+     * Insert mine ids into the mine ids table in a single transaction, then cache the keys of all saved mine ids in the {@link KeyCache}.
+     * Mine ids that already exist are left unchanged.
+     * @param mineIds The mine ids to insert.
+     * @return A {@link CompletableFuture} of type {@link Void} when complete. It completes exceptionally if the key of any of the mine ids could not be cached.
+     */
+    public @NotNull CompletableFuture<Void> insertMineIds(@NotNull Collection<String> mineIds) {
+        String insertMineIdSql = sqlDialect.insertIgnore(tableName, List.of("mine_id"));
+        String selectSql = "SELECT id, mine_id FROM " + tableName;
+
+        // Only the mine ids that aren't saved yet are inserted, as a conflicting insert still uses up a key on some backends
+        List<List<Object>> listOfParameterLists = new ArrayList<>();
+        mineIds.forEach(mineId -> {
+            if(keyCache.getMineKey(mineId) == null) listOfParameterLists.add(List.of(mineId));
+        });
+
+        return queueManager.queueWrite(insertMineIdSql, listOfParameterLists)
+                .thenCompose(result -> queueManager.queueReadTransaction(selectSql, resultSet -> {
+                    try {
+                        while(resultSet.next()) {
+                            keyCache.putMineKey(resultSet.getString("mine_id"), resultSet.getLong("id"));
+                        }
+
+                        for(String mineId : mineIds) {
+                            if(keyCache.getMineKey(mineId) == null) throw new IllegalStateException("The key of mine " + mineId + " was not saved.");
+                        }
+
+                        return null;
+                    } catch (SQLException e) {
+                        throw new RuntimeException(e);
+                    }
+                }));
     }
 
     /**
@@ -80,8 +143,26 @@ public class MineIdsTable {
     public @NotNull CompletableFuture<Boolean> removeMineId(@NotNull String mineId) {
         String deleteMineIdSql = "DELETE FROM " + tableName + " WHERE mine_id = ?";
 
-        StringParameter mineIdParameter = new StringParameter(mineId);
+        return queueManager.queueWrite(deleteMineIdSql, List.of(List.of(mineId))).thenApply(result -> result.getFirst() > 0);
+    }
+
+    /**
+     * Inserts the mine ids used by a table created by an older version that are not in the mine ids table yet.
+     * @param sourceTableName The name of the table with a mine_id column.
+     * @return A {@link CompletableFuture} of type {@link Void} when complete.
+     */
+    public @NotNull CompletableFuture<Void> insertMineIdsFrom(@NotNull String sourceTableName) {
+        String insertSql = "INSERT INTO " + tableName + " (mine_id) " +
+                "SELECT DISTINCT mine_id FROM " + sourceTableName + " WHERE mine_id NOT IN (SELECT mine_id FROM " + tableName + ")";
+
+        return queueManager.queueSchemaWrite(List.of(insertSql));
+    }
 
-        return queueManager.queueWriteTransaction(deleteMineIdSql, List.of(mineIdParameter)).thenApply(result -> result > 0);
+    /**
+     * Get the definition of the mine_id column.
+     * @return A String
+     */
+    private @NotNull String getMineIdColumn() {
+        return "mine_id " + sqlDialect.getKeyType() + " NOT NULL UNIQUE";
     }
 }
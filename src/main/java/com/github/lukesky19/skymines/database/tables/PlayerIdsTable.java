@@ -17,25 +17,33 @@
 */
 package com.github.lukesky19.skymines.database.tables;
 
-import com.github.lukesky19.skylib.api.database.parameter.impl.UUIDParameter;
+import com.github.lukesky19.skylib.api.database.parameter.impl.StringParameter;
+import com.github.lukesky19.skymines.database.KeyCache;
 import com.github.lukesky19.skymines.database.QueueManager;
+import com.github.lukesky19.skymines.database.dialect.SqlDialect;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
 /**
  * This class is used to create and interface with the player ids table in the database.
+ * Each row assigns an integer key to a player's {@link UUID}, which the data tables are keyed on.
  */
 public class PlayerIdsTable {
     private final @NotNull QueueManager queueManager;
+    private final @NotNull SqlDialect sqlDialect;
+    private final @NotNull KeyCache keyCache;
     private final @NotNull String tableName = "skymines_player_ids";
 
     /**
      * Default Constructor.
-     * You should use {@link #PlayerIdsTable(QueueManager)} instead.
-     * @deprecated You should use {@link #PlayerIdsTable(QueueManager)} instead.
+     * You should use {@link #PlayerIdsTable(QueueManager, SqlDialect, KeyCache)} instead.
+     * @deprecated You should use {@link #PlayerIdsTable(QueueManager, SqlDialect, KeyCache)} instead.
      */
     @Deprecated
     public PlayerIdsTable() {
@@ -45,19 +53,73 @@ public class PlayerIdsTable {
     /**
      * Constructor
      * @param queueManager A {@link QueueManager} instance.
+     * @param sqlDialect The {@link SqlDialect} of the database backend.
+     * @param keyCache The {@link KeyCache} to cache the keys of players in.
      */
-    public PlayerIdsTable(@NotNull QueueManager queueManager) {
+    public PlayerIdsTable(@NotNull QueueManager queueManager, @NotNull SqlDialect sqlDialect, @NotNull KeyCache keyCache) {
         this.queueManager = queueManager;
+        this.sqlDialect = sqlDialect;
+        this.keyCache = keyCache;
     }
 
     /**
      * Creates the table in the database if it doesn't exist and any indexes that don't exist.
+     * @return A {@link CompletableFuture} of type {@link Void} when complete.
      */
-    public void createTable() {
-        String tableCreationSql = "CREATE TABLE IF NOT EXISTS " + tableName + " (player_id TEXT NOT NULL UNIQUE)";
-        String indexCreationSql = "CREATE INDEX IF NOT EXISTS idx_" + tableName + "_player_id ON " + tableName + "(player_id)";
+    public @NotNull CompletableFuture<Void> createTable() {
+        return queueManager.queueSchemaWrite(getCreationStatements());
+    }
+
+    /**
+     * Get the statements that create the table and its indexes if they don't exist.
+     * @return A {@link List} of SQL statements.
+     */
+    public @NotNull List<String> getCreationStatements() {
+        String tableCreationSql = "CREATE TABLE IF NOT EXISTS " + tableName + " (" + sqlDialect.getIdColumn() + ", " + getPlayerIdColumn() + ")";
+
+        List<String> statements = new ArrayList<>();
+        statements.add(tableCreationSql);
+        statements.addAll(sqlDialect.createIndex("idx_" + tableName + "_player_id", tableName, "player_id"));
+
+        return statements;
+    }
+
+    /**
+     * Adds the id column to a table created by an older version, which only stored the player ids.
+     * @return A {@link CompletableFuture} of type {@link Void} when complete.
+     */
+    public @NotNull CompletableFuture<Void> addIdColumn() {
+        return queueManager.queueSchemaWrite(sqlDialect.addIdColumn(tableName, getPlayerIdColumn(), List.of("player_id")));
+    }
+
+    /**
+     * Get the key of the player, inserting the player id if it doesn't exist yet.
+     * The key is cached in the {@link KeyCache} until {@link #uncachePlayerKey(UUID)} is called.
+     * @param uuid The {@link UUID} of the player.
+     * @return A {@link CompletableFuture} containing the key of the player.
+     */
+    public @NotNull CompletableFuture<Long> getPlayerKey(@NotNull UUID uuid) {
+        Long cachedPlayerKey = keyCache.getPlayerKey(uuid);
+        if(cachedPlayerKey != null) return CompletableFuture.completedFuture(cachedPlayerKey);
+
+        // The key is selected first, as a conflicting insert still uses up a key on some backends
+        return loadPlayerKey(uuid).thenCompose(playerKey -> playerKey != null ? CompletableFuture.completedFuture(playerKey)
+                : insertPlayerId(uuid).thenCompose(inserted -> loadPlayerKey(uuid)).thenApply(insertedPlayerKey -> {
+                    if(insertedPlayerKey == null) throw new IllegalStateException("The player id " + uuid + " was not saved.");
+                    return insertedPlayerKey;
+                }))
+                .thenApply(playerKey -> {
+                    keyCache.putPlayerKey(uuid, playerKey);
+                    return playerKey;
+                });
+    }
 
-        queueManager.queueBulkWriteTransaction(List.of(tableCreationSql, indexCreationSql));
+    /**
+     * Removes the key of the player from the {@link KeyCache}, once this server no longer reads or writes the player's data.
+     * @param uuid The {@link UUID} of the player.
+     */
+    public void uncachePlayerKey(@NotNull UUID uuid) {
+        keyCache.removePlayerKey(uuid);
     }
 
     /**
@@ -66,10 +128,46 @@ public class PlayerIdsTable {
      * @return A {@link CompletableFuture} of type {@link Boolean} where true is successful, otherwise false. If the player id already exists it will also return false.
      */
     public @NotNull CompletableFuture<Boolean> insertPlayerId(@NotNull UUID uuid) {
-        String insertMineIdSql = "INSERT INTO " + tableName + " (player_id) VALUES (?) ON CONFLICT (player_id) DO NOTHING";
+        String insertMineIdSql = sqlDialect.insertIgnore(tableName, List.of("player_id"));
+
+        return queueManager.queueWrite(insertMineIdSql, List.of(List.of(uuid))).thenApply(result -> result.getFirst() > 0);
+    }
 
-        UUIDParameter playerIdParameter = new UUIDParameter(uuid);
+    /**
+     * Inserts the player ids used by a table created by an older version that are not in the player ids table yet.
+     * @param sourceTableName The name of the table with a player_id column.
+     * @return A {@link CompletableFuture} of type {@link Void} when complete.
+     */
+    public @NotNull CompletableFuture<Void> insertPlayerIdsFrom(@NotNull String sourceTableName) {
+        String insertSql = "INSERT INTO " + tableName + " (player_id) " +
+                "SELECT DISTINCT player_id FROM " + sourceTableName + " WHERE player_id NOT IN (SELECT player_id FROM " + tableName + ")";
+
+        return queueManager.queueSchemaWrite(List.of(insertSql));
+    }
 
-        return queueManager.queueWriteTransaction(insertMineIdSql, List.of(playerIdParameter)).thenApply(result -> result > 0);
+    /**
+     * Get the saved key of the player.
+     * @param uuid The {@link UUID} of the player.
+     * @return A {@link CompletableFuture} containing the key of the player, or null if the player id is not saved.
+     */
+    private @NotNull CompletableFuture<@Nullable Long> loadPlayerKey(@NotNull UUID uuid) {
+        String selectSql = "SELECT id FROM " + tableName + " WHERE player_id = ?";
+        StringParameter playerIdParameter = new StringParameter(uuid.toString());
+
+        return queueManager.queueReadTransaction(selectSql, List.of(playerIdParameter), resultSet -> {
+            try {
+                return resultSet.next() ? resultSet.getLong("id") : null;
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    /**
+     * Get the definition of the player_id column.
+     * @return A String
+     */
+    private @NotNull String getPlayerIdColumn() {
+        return "player_id " + sqlDialect.getKeyType() + " NOT NULL UNIQUE";
     }
 }
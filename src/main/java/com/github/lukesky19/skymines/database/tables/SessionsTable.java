@@ -0,0 +1,198 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.database.tables;
+
+import com.github.lukesky19.skylib.api.database.parameter.impl.UUIDParameter;
+import com.github.lukesky19.skymines.data.player.SessionLease;
+import com.github.lukesky19.skymines.database.QueueManager;
+import com.github.lukesky19.skymines.database.dialect.SqlDialect;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * This class is used to create and interface with the sessions table in the database.
+ * Each row stores which server holds the lease on a player's data and the version of the lease.
+ * Writes to the player's data are fenced by {@link #FENCE_SQL}, so a server that no longer holds the lease can't overwrite newer data.
+ */
+public class SessionsTable {
+    /**
+     * The FROM and WHERE clause that fences a write by a player's {@link SessionLease}.
+     * The parameters are the {@link UUID} of the player, the server id and the version of the lease.
+     */
+    public static final @NotNull String FENCE_SQL = "FROM skymines_sessions WHERE player_id = ? AND server_id = ? AND version = ?";
+
+    private final @NotNull QueueManager queueManager;
+    private final @NotNull SqlDialect sqlDialect;
+    private final @NotNull String tableName = "skymines_sessions";
+
+    /**
+     * Default Constructor.
+     * You should use {@link #SessionsTable(QueueManager, SqlDialect)} instead.
+     * @deprecated You should use {@link #SessionsTable(QueueManager, SqlDialect)} instead.
+     */
+    @Deprecated
+    public SessionsTable() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param queueManager A {@link QueueManager} instance.
+     * @param sqlDialect The {@link SqlDialect} of the database backend.
+     */
+    public SessionsTable(@NotNull QueueManager queueManager, @NotNull SqlDialect sqlDialect) {
+        this.queueManager = queueManager;
+        this.sqlDialect = sqlDialect;
+    }
+
+    /**
+     * Creates the table in the database if it doesn't exist.
+     * @return A {@link CompletableFuture} of type {@link Void} when complete.
+     */
+    public @NotNull CompletableFuture<Void> createTable() {
+        return queueManager.queueSchemaWrite(getCreationStatements());
+    }
+
+    /**
+     * Get the statements that create the table if it doesn't exist.
+     * @return A {@link List} of SQL statements.
+     */
+    public @NotNull List<String> getCreationStatements() {
+        String tableCreationSql = "CREATE TABLE IF NOT EXISTS " + tableName + " (" +
+                "player_id " + sqlDialect.getKeyType() + " NOT NULL UNIQUE, " +
+                "server_id " + sqlDialect.getKeyType() + " NOT NULL DEFAULT '', " +
+                "version " + sqlDialect.getLongType() + " NOT NULL DEFAULT 0, " +
+                "lease_expires " + sqlDialect.getLongType() + " NOT NULL DEFAULT 0, " +
+                "FOREIGN KEY (player_id) REFERENCES skymines_player_ids(player_id))";
+
+        return List.of(tableCreationSql);
+    }
+
+    /**
+     * Get the player's session.
+     * @param uuid The {@link UUID} of the player.
+     * @return A {@link CompletableFuture} containing the {@link Session}, or null if the player has never had a session.
+     */
+    public @NotNull CompletableFuture<@Nullable Session> loadSession(@NotNull UUID uuid) {
+        String selectSql = "SELECT server_id, version, lease_expires FROM " + tableName + " WHERE player_id = ?";
+        UUIDParameter uuidParameter = new UUIDParameter(uuid);
+
+        return queueManager.queueReadTransaction(selectSql, List.of(uuidParameter), resultSet -> {
+            try {
+                if(!resultSet.next()) return null;
+
+                return new Session(resultSet.getString("server_id"), resultSet.getLong("version"), resultSet.getLong("lease_expires"));
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    /**
+     * Creates the player's first session, held by the server provided at version 1.
+     * @param uuid The {@link UUID} of the player.
+     * @param serverId The id of the server acquiring the lease.
+     * @param leaseExpires The time in milliseconds the lease expires at if it is not renewed.
+     * @return A {@link CompletableFuture} of type {@link Boolean} where true is successful, otherwise false. If the player already has a session it will also return false.
+     */
+    public @NotNull CompletableFuture<Boolean> insertSession(@NotNull UUID uuid, @NotNull String serverId, long leaseExpires) {
+        String insertSql = sqlDialect.insertIgnore(tableName, List.of("player_id", "server_id", "version", "lease_expires"));
+
+        return queueManager.queueWrite(insertSql, List.of(List.of(uuid, serverId, 1L, leaseExpires))).thenApply(result -> result.getFirst() > 0);
+    }
+
+    /**
+     * Acquires the player's lease for the server provided if the session is still at the version provided, increasing the version by 1.
+     * @param uuid The {@link UUID} of the player.
+     * @param serverId The id of the server acquiring the lease.
+     * @param currentVersion The version of the session that was loaded.
+     * @param leaseExpires The time in milliseconds the lease expires at if it is not renewed.
+     * @return A {@link CompletableFuture} of type {@link Boolean} where true is successful, otherwise false. If the version changed it will also return false.
+     */
+    public @NotNull CompletableFuture<Boolean> updateSession(@NotNull UUID uuid, @NotNull String serverId, long currentVersion, long leaseExpires) {
+        String updateSql = "UPDATE " + tableName + " SET server_id = ?, version = ?, lease_expires = ? WHERE player_id = ? AND version = ?";
+
+        return queueManager.queueWrite(updateSql, List.of(List.of(serverId, currentVersion + 1, leaseExpires, uuid, currentVersion)))
+                .thenApply(result -> result.getFirst() > 0);
+    }
+
+    /**
+     * Extends the leases provided in a single transaction.
+     * @param leases A {@link Map} mapping {@link UUID}s to the {@link SessionLease} held.
+     * @param leaseExpires The time in milliseconds the leases expire at if they are not renewed again.
+     * @return A {@link CompletableFuture} containing a {@link Map} mapping each {@link UUID} to true if the lease was renewed, or false if it is no longer held.
+     */
+    public @NotNull CompletableFuture<@NotNull Map<UUID, Boolean>> renewSessions(@NotNull Map<UUID, SessionLease> leases, long leaseExpires) {
+        String updateSql = "UPDATE " + tableName + " SET lease_expires = ? WHERE player_id = ? AND server_id = ? AND version = ?";
+
+        List<List<Object>> listOfParameterLists = new ArrayList<>();
+        List<UUID> rowOwners = new ArrayList<>();
+        leases.forEach((uuid, lease) -> {
+            listOfParameterLists.add(List.of(leaseExpires, uuid, lease.serverId(), lease.version()));
+            rowOwners.add(uuid);
+        });
+
+        return queueManager.queueWrite(updateSql, listOfParameterLists).thenApply(list -> {
+            Map<UUID, Boolean> results = new HashMap<>();
+
+            for(int i = 0; i < rowOwners.size(); i++) {
+                results.put(rowOwners.get(i), i < list.size() && list.get(i) > 0);
+            }
+
+            return results;
+        });
+    }
+
+    /**
+     * Releases the leases provided in a single transaction, so another server can acquire them without waiting.
+     * The version is kept, so writes fenced by a released lease are still rejected.
+     * Leases that are no longer held are left unchanged.
+     * @param leases A {@link Map} mapping {@link UUID}s to the {@link SessionLease} held.
+     * @return A {@link CompletableFuture} of type {@link Void} when complete.
+     */
+    public @NotNull CompletableFuture<Void> releaseSessions(@NotNull Map<UUID, SessionLease> leases) {
+        String updateSql = "UPDATE " + tableName + " SET server_id = '', lease_expires = 0 WHERE player_id = ? AND server_id = ? AND version = ?";
+
+        List<List<Object>> listOfParameterLists = new ArrayList<>();
+        leases.forEach((uuid, lease) -> listOfParameterLists.add(List.of(uuid, lease.serverId(), lease.version())));
+
+        return queueManager.queueWrite(updateSql, listOfParameterLists).thenAccept(result -> {});
+    }
+
+    /**
+     * A player's session as saved in the database.
+     * @param serverId The id of the server holding the lease, or an empty String if it is released.
+     * @param version The version of the lease.
+     * @param leaseExpires The time in milliseconds the lease expires at.
+     */
+    public record Session(@NotNull String serverId, long version, long leaseExpires) {
+        /**
+         * Checks if the server provided can acquire the lease without waiting.
+         * @param serverId The id of the server acquiring the lease.
+         * @param currentTimeMillis The current time in milliseconds.
+         * @return true if the lease is released, expired or already held by the server, otherwise false.
+         */
+        public boolean isAvailable(@NotNull String serverId, long currentTimeMillis) {
+            return this.serverId.isEmpty() || this.serverId.equals(serverId) || leaseExpires < currentTimeMillis;
+        }
+    }
+}
@@ -19,9 +19,11 @@ package com.github.lukesky19.skymines.database.tables;
 
 import com.github.lukesky19.skylib.api.database.parameter.Parameter;
 import com.github.lukesky19.skylib.api.database.parameter.impl.LongParameter;
-import com.github.lukesky19.skylib.api.database.parameter.impl.StringParameter;
-import com.github.lukesky19.skylib.api.database.parameter.impl.UUIDParameter;
+import com.github.lukesky19.skymines.data.player.SessionLease;
+import com.github.lukesky19.skymines.database.KeyCache;
 import com.github.lukesky19.skymines.database.QueueManager;
+import com.github.lukesky19.skymines.database.dialect.SqlDialect;
+import com.github.lukesky19.skymines.database.dialect.SqliteDialect;
 import org.jetbrains.annotations.NotNull;
 
 import java.sql.SQLException;
@@ -30,15 +32,18 @@ import java.util.concurrent.CompletableFuture;
 
 /**
  * This class is used to create and interface with the times table in the database.
+ * Rows are keyed on the integer keys of the player and the mine from the {@link KeyCache}.
  */
 public class TimesTable {
     private final @NotNull QueueManager queueManager;
+    private final @NotNull SqlDialect sqlDialect;
+    private final @NotNull KeyCache keyCache;
     private final @NotNull String tableName = "skymines_times";
 
     /**
      * Default Constructor.
-     * You should use {@link #TimesTable(QueueManager)} instead.
-     * @deprecated You should use {@link #TimesTable(QueueManager)} instead.
+     * You should use {@link #TimesTable(QueueManager, SqlDialect, KeyCache)} instead.
+     * @deprecated You should use {@link #TimesTable(QueueManager, SqlDialect, KeyCache)} instead.
      */
     @Deprecated
     public TimesTable() {
@@ -48,9 +53,13 @@ public class TimesTable {
     /**
      * Constructor
      * @param queueManager A {@link QueueManager} instance.
+     * @param sqlDialect The {@link SqlDialect} of the database backend.
+     * @param keyCache The {@link KeyCache} with the keys of players and mines.
      */
-    public TimesTable(@NotNull QueueManager queueManager) {
+    public TimesTable(@NotNull QueueManager queueManager, @NotNull SqlDialect sqlDialect, @NotNull KeyCache keyCache) {
         this.queueManager = queueManager;
+        this.sqlDialect = sqlDialect;
+        this.keyCache = keyCache;
     }
 
     /**
@@ -58,42 +67,61 @@ public class TimesTable {
      * @return A {@link CompletableFuture} of type {@link Void} when complete.
      */
     public @NotNull CompletableFuture<Void> createTable() {
-        String tableCreationSql = "CREATE TABLE IF NOT EXISTS " + tableName + " (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
-                "mine_id TEXT NOT NULL, " + // Unique
-                "player_id LONG NOT NULL DEFAULT 0, " + // Unique
-                "time LONG NOT NULL DEFAULT 0, " +
-                "last_updated LONG NOT NULL DEFAULT 0, " +
-                "FOREIGN KEY (mine_id) REFERENCES skymines_mine_ids(mine_id) ON UPDATE CASCADE ON DELETE CASCADE, " +
-                "FOREIGN KEY (player_id) REFERENCES skymines_player_ids(player_id), " +
-                "UNIQUE (mine_id, player_id))";
-        String mineIdsIndexSql = "CREATE INDEX IF NOT EXISTS idx_" + tableName + "_mine_ids ON " + tableName + "(mine_id)";
-        String playerIdsIndexSql = "CREATE INDEX IF NOT EXISTS idx_" + tableName + "_player_ids ON " + tableName + "(player_id)";
-
-        return queueManager.queueBulkWriteTransaction(List.of(tableCreationSql, mineIdsIndexSql, playerIdsIndexSql)).thenAccept(result -> {});
+        return queueManager.queueSchemaWrite(getCreationStatements());
     }
 
     /**
-     * Get a {@link Map} mapping mine ids to mine time as a {@link Long}.
-     * @param uuid The {@link UUID} of the player.
-     * @return A {@link Map} mapping mine ids to mine time as a {@link Long}.
+     * Replaces a table created by an older version, which is keyed on the mine id and the player's {@link UUID}, with a table keyed on their integer keys.
+     * The player ids and mine ids used by the table must be saved first.
+     * @return A {@link CompletableFuture} of type {@link Void} when complete.
      */
-    public @NotNull CompletableFuture<@NotNull Map<String, Long>> loadMineTimes(@NotNull UUID uuid) {
-        String selectSql = "SELECT mine_id, time FROM " + tableName + " WHERE player_id = ?";
-        UUIDParameter uuidParameter = new UUIDParameter(uuid);
+    public @NotNull CompletableFuture<Void> migrateToKeys() {
+        // The new table is created under another name, so its constraint names don't collide with the older table's
+        String keyedTableName = tableName + "_keyed";
+
+        List<String> statements = new ArrayList<>();
+        statements.add(getTableCreationSql(keyedTableName));
+        statements.add("INSERT INTO " + keyedTableName + " (player_key, mine_key, time, last_updated) " +
+                "SELECT p.id, m.id, l.time, l.last_updated FROM " + tableName + " l " +
+                "JOIN skymines_player_ids p ON p.player_id = l.player_id " +
+                "JOIN skymines_mine_ids m ON m.mine_id = l.mine_id");
+        statements.add("DROP TABLE " + tableName);
+        statements.add("ALTER TABLE " + keyedTableName + " RENAME TO " + tableName);
+        statements.addAll(getIndexCreationStatements());
+
+        return queueManager.queueSchemaWrite(statements);
+    }
 
-        return queueManager.queueReadTransaction(selectSql, List.of(uuidParameter), resultSet -> {
-            Map<String, Long> mineTimes = new HashMap<>();
+    /**
+     * Get the mine times of many players in a single query.
+     * Players whose key is not cached are left out of the returned {@link Map}.
+     * @param uuids The {@link UUID}s of the players.
+     * @return A {@link CompletableFuture} containing a {@link Map} mapping {@link UUID}s to a {@link Map} mapping mine ids to mine time as a {@link Long}.
+     */
+    public @NotNull CompletableFuture<@NotNull Map<UUID, Map<String, Long>>> loadMineTimesBatch(@NotNull Collection<UUID> uuids) {
+        Map<Long, UUID> uuidsByPlayerKey = keyCache.getPlayerKeys(uuids);
+        if(uuidsByPlayerKey.isEmpty()) return CompletableFuture.completedFuture(new HashMap<>());
+
+        String selectSql = "SELECT player_key, mine_key, time FROM " + tableName + " WHERE player_key IN (" + String.join(", ", Collections.nCopies(uuidsByPlayerKey.size(), "?")) + ")";
+        List<Parameter<?>> parameters = new ArrayList<>(uuidsByPlayerKey.size());
+        uuidsByPlayerKey.keySet().forEach(playerKey -> parameters.add(new LongParameter(playerKey)));
+
+        return queueManager.queueReadTransaction(selectSql, parameters, resultSet -> {
+            // Every player gets an entry, so players without saved rows can be told apart from players whose key is not cached
+            Map<UUID, Map<String, Long>> mineTimesByPlayer = new HashMap<>();
+            uuidsByPlayerKey.values().forEach(uuid -> mineTimesByPlayer.put(uuid, new HashMap<>()));
 
             try {
                 while(resultSet.next()) {
-                    String mineId = resultSet.getString("mine_id");
+                    UUID uuid = uuidsByPlayerKey.get(resultSet.getLong("player_key"));
+                    String mineId = keyCache.getMineId(resultSet.getLong("mine_key"));
                     long mineTime = resultSet.getLong("time");
 
-                    mineTimes.put(mineId, mineTime);
+                    // Time that ran out is saved as 0
+                    if(uuid != null && mineId != null && mineTime > 0) mineTimesByPlayer.get(uuid).put(mineId, mineTime);
                 }
 
-                return mineTimes;
+                return mineTimesByPlayer;
             } catch (SQLException e) {
                 throw new RuntimeException(e);
             }
@@ -101,32 +129,34 @@ public class TimesTable {
     }
 
     /**
-     * Saves all mine time for a player to the database.
+     * Saves the mine time for a player to the database for the mines provided.
+     * Rows are only written while the player's {@link SessionLease} is still held.
      * @param uuid The {@link UUID} to save data for.
+     * @param lease The {@link SessionLease} held for the player.
      * @param data A {@link Map} mapping mine ids to mine time as a {@link Long}.
      * @return A {@link CompletableFuture} containing a {@link List} of {@link Boolean} with the results.
-     * The list will contain false if an operation failed.
+     * The list will contain false if an operation failed, the lease is no longer held or a key is not cached.
      */
-    public @NotNull CompletableFuture<List<Boolean>> saveMineTimes(@NotNull UUID uuid, @NotNull Map<String, Long> data) {
-        List<List<Parameter<?>>> listOfParameterLists = new ArrayList<>();
-        String insertOrUpdateSql = "INSERT INTO " + tableName + " (mine_id, player_id, time, last_updated) " +
-                "VALUES (?, ?, ?, ?) " +
-                "ON CONFLICT (mine_id, player_id) DO UPDATE SET " +
-                "time = ?, last_updated = ? WHERE last_updated < ?";
-
-        data.forEach((mineId, time) -> {
-            StringParameter mineIdParameter = new StringParameter(mineId);
-            UUIDParameter playerIdParameter = new UUIDParameter(uuid);
-            LongParameter timeParameter = new LongParameter(time);
-            LongParameter lastUpdatedParameter = new LongParameter(System.currentTimeMillis());
-
-            List<Parameter<?>> parameterList = List.of(mineIdParameter, playerIdParameter, timeParameter, lastUpdatedParameter, timeParameter, lastUpdatedParameter, lastUpdatedParameter);
-
-            listOfParameterLists.add(parameterList);
-        });
+    public @NotNull CompletableFuture<List<Boolean>> saveMineTimes(@NotNull UUID uuid, @NotNull SessionLease lease, @NotNull Map<String, Long> data) {
+        List<List<Object>> listOfParameterLists = new ArrayList<>();
+        String insertOrUpdateSql = getUpsertSql();
+
+        Long playerKey = keyCache.getPlayerKey(uuid);
+        long lastUpdated = System.currentTimeMillis();
+        int missingKeys = 0;
+        for(Map.Entry<String, Long> entry : data.entrySet()) {
+            Long mineKey = keyCache.getMineKey(entry.getKey());
+            if(playerKey == null || mineKey == null) {
+                missingKeys++;
+                continue;
+            }
 
-        return queueManager.queueBulkWriteTransaction(insertOrUpdateSql, listOfParameterLists).thenApply(list -> {
-                    List<Boolean> results = new ArrayList<>();
+            listOfParameterLists.add(List.of(playerKey, mineKey, entry.getValue(), lastUpdated, uuid, lease.serverId(), lease.version()));
+        }
+
+        int failedRows = missingKeys;
+        return queueManager.queueWrite(insertOrUpdateSql, listOfParameterLists).thenApply(list -> {
+                    List<Boolean> results = new ArrayList<>(Collections.nCopies(failedRows, false));
 
                     list.forEach(rowsUpdated -> {
                         if(rowsUpdated > 0) {
@@ -141,34 +171,66 @@ public class TimesTable {
         );
     }
 
+    /**
+     * Saves the mine time for many players to the database in a single transaction.
+     * Each player's rows are only written while their {@link SessionLease} is still held.
+     * @param data A {@link Map} mapping {@link UUID}s to a {@link Map} mapping mine ids to mine time as a {@link Long}.
+     * @param leases A {@link Map} mapping {@link UUID}s to the {@link SessionLease} held for each player in the data.
+     * @return A {@link CompletableFuture} containing a {@link Map} mapping each {@link UUID} to true if all of the player's rows saved, otherwise false.
+     */
+    public @NotNull CompletableFuture<@NotNull Map<UUID, Boolean>> saveMineTimesBatch(@NotNull Map<UUID, Map<String, Long>> data, @NotNull Map<UUID, SessionLease> leases) {
+        List<List<Object>> listOfParameterLists = new ArrayList<>();
+        List<UUID> rowOwners = new ArrayList<>();
+        String insertOrUpdateSql = getUpsertSql();
+        Map<UUID, Boolean> missingKeyResults = new HashMap<>();
+
+        long lastUpdated = System.currentTimeMillis();
+        data.forEach((uuid, mineTimes) -> {
+            SessionLease lease = leases.get(uuid);
+            Long playerKey = keyCache.getPlayerKey(uuid);
+            mineTimes.forEach((mineId, time) -> {
+                Long mineKey = keyCache.getMineKey(mineId);
+                if(playerKey == null || mineKey == null) {
+                    missingKeyResults.put(uuid, false);
+                    return;
+                }
+
+                listOfParameterLists.add(List.of(playerKey, mineKey, time, lastUpdated, uuid, lease.serverId(), lease.version()));
+                rowOwners.add(uuid);
+            });
+        });
+
+        if(listOfParameterLists.isEmpty()) return CompletableFuture.completedFuture(missingKeyResults);
+
+        return queueManager.queueWrite(insertOrUpdateSql, listOfParameterLists).thenApply(list -> {
+            Map<UUID, Boolean> results = new HashMap<>(missingKeyResults);
+
+            for(int i = 0; i < rowOwners.size(); i++) {
+                boolean successful = i < list.size() && list.get(i) > 0;
+                results.merge(rowOwners.get(i), successful, Boolean::logicalAnd);
+            }
+
+            return results;
+        });
+    }
+
     /**
      * Saves all mine time to the database for all mines and players.
+     * This is only used to migrate data into the newly created table, so the writes are not fenced by a {@link SessionLease}.
+     * The keys are selected from the player ids and mine ids tables, so the player ids and mine ids must be saved first.
      * @param data A {@link Map} mapping mine ids to a {@link Map} mapping {@link UUID} to mine time as a {@link Long}.
      * @return A {@link CompletableFuture} containing a {@link List} of {@link Boolean} with the results.
      * The list will contain false if an operation failed.
      */
     public @NotNull CompletableFuture<@NotNull List<@NotNull Boolean>> saveMineTimes(@NotNull Map<@NotNull String, Map<@NotNull UUID, @NotNull Long>> data) {
-        List<List<Parameter<?>>> listOfParameterLists = new ArrayList<>();
-        String insertOrUpdateSql = "INSERT INTO " + tableName + " (mine_id, player_id, time, last_updated) " +
-                "VALUES (?, ?, ?, ?) " +
-                "ON CONFLICT (mine_id, player_id) DO UPDATE SET " +
-                "time = ?, last_updated = ? WHERE last_updated < ?";
-
-        data.forEach((mineId, timesMap) -> {
-            StringParameter mineIdParameter = new StringParameter(mineId);
-
-            timesMap.forEach((uuid, time) -> {
-                UUIDParameter playerIdParameter = new UUIDParameter(uuid);
-                LongParameter timeParameter = new LongParameter(time);
-                LongParameter lastUpdatedParameter = new LongParameter(System.currentTimeMillis());
+        List<List<Object>> listOfParameterLists = new ArrayList<>();
+        String insertSql = "INSERT INTO " + tableName + " (player_key, mine_key, time, last_updated) " +
+                "SELECT p.id, m.id, ?, ? FROM skymines_player_ids p, skymines_mine_ids m WHERE p.player_id = ? AND m.mine_id = ?";
 
-                List<Parameter<?>> parameterList = List.of(mineIdParameter, playerIdParameter, timeParameter, lastUpdatedParameter, timeParameter, lastUpdatedParameter, lastUpdatedParameter);
-
-                listOfParameterLists.add(parameterList);
-            });
-        });
+        long lastUpdated = System.currentTimeMillis();
+        data.forEach((mineId, timesMap) -> timesMap.forEach((uuid, time) -> listOfParameterLists.add(List.of(time, lastUpdated, uuid, mineId))));
 
-        return queueManager.queueBulkWriteTransaction(insertOrUpdateSql, listOfParameterLists).thenApply(list -> {
+        return queueManager.queueWrite(insertSql, listOfParameterLists).thenApply(list -> {
                     List<Boolean> results = new ArrayList<>();
 
                     list.forEach(rowsUpdated -> {
@@ -184,6 +246,53 @@ public class TimesTable {
         );
     }
 
+    /**
+     * Get the statement that saves a row while the player's {@link SessionLease} is still held.
+     * The parameters are the player's key, the mine's key, the time, the last updated time and then the parameters of {@link SessionsTable#FENCE_SQL}.
+     * @return A SQL statement.
+     */
+    public @NotNull String getUpsertSql() {
+        return sqlDialect.upsertFrom(tableName, List.of("player_key", "mine_key"), List.of("time", "last_updated"), SessionsTable.FENCE_SQL);
+    }
+
+    /**
+     * Get the statements that create the table and its indexes if they don't exist.
+     * @return A {@link List} of SQL statements.
+     */
+    public @NotNull List<String> getCreationStatements() {
+        List<String> statements = new ArrayList<>();
+        statements.add(getTableCreationSql(tableName));
+        statements.addAll(getIndexCreationStatements());
+
+        return statements;
+    }
+
+    /**
+     * Get the statement that creates the table if it doesn't exist.
+     * @param name The name to create the table with.
+     * @return A SQL statement.
+     */
+    private @NotNull String getTableCreationSql(@NotNull String name) {
+        return "CREATE TABLE IF NOT EXISTS " + name + " (" +
+                sqlDialect.getIdColumn() + ", " +
+                "player_key " + sqlDialect.getLongType() + " NOT NULL, " + // Unique
+                "mine_key " + sqlDialect.getLongType() + " NOT NULL, " + // Unique
+                "time " + sqlDialect.getLongType() + " NOT NULL DEFAULT 0, " +
+                "last_updated " + sqlDialect.getLongType() + " NOT NULL DEFAULT 0, " +
+                "FOREIGN KEY (player_key) REFERENCES skymines_player_ids(id), " +
+                "FOREIGN KEY (mine_key) REFERENCES skymines_mine_ids(id) ON DELETE CASCADE, " +
+                "UNIQUE (player_key, mine_key))";
+    }
+
+    /**
+     * Get the statements that create the indexes of the table if they don't exist.
+     * @return A {@link List} of SQL statements.
+     */
+    private @NotNull List<String> getIndexCreationStatements() {
+        // The unique key leads with the player's key, so it also serves loading a player's rows
+        return sqlDialect.createIndex("idx_" + tableName + "_mine_keys", tableName, "mine_key");
+    }
+
     /**
      * Check if the table is in the legacy format or not.
      * @return A {@link CompletableFuture} of type {@link Boolean} where true is legacy and false is not.
@@ -191,6 +300,9 @@ public class TimesTable {
      */
     @Deprecated(since = "3.1.0.0", forRemoval = true)
     public @NotNull CompletableFuture<Boolean> isLegacyFormat() {
+        // Older versions only stored data in SQLite
+        if(!(sqlDialect instanceof SqliteDialect)) return CompletableFuture.completedFuture(false);
+
         String pragmaQuery = "PRAGMA table_info(" + tableName + ")";
 
         return queueManager.queueReadTransaction(pragmaQuery, resultSet -> {
@@ -252,9 +364,9 @@ public class TimesTable {
     public @NotNull CompletableFuture<Boolean> dropTable() {
         String dropTableSql = "DROP TABLE " + tableName;
 
-        return queueManager.queueWriteTransaction(dropTableSql)
+        return queueManager.queueSchemaWrite(List.of(dropTableSql))
                 .thenApply(result -> {
-                    return result > 0;
+                    return true;
                 })
                 .exceptionally(e -> {
                     return false;
@@ -19,14 +19,12 @@ package com.github.lukesky19.skymines.database.tables;
 
 import com.github.lukesky19.skylib.api.database.parameter.Parameter;
 import com.github.lukesky19.skylib.api.database.parameter.impl.LongParameter;
-import com.github.lukesky19.skylib.api.database.parameter.impl.StringParameter;
-import com.github.lukesky19.skylib.api.database.parameter.impl.UUIDParameter;
-import com.github.lukesky19.skylib.api.registry.RegistryUtil;
-import com.github.lukesky19.skymines.SkyMines;
+import com.github.lukesky19.skymines.data.player.SessionLease;
+import com.github.lukesky19.skymines.database.KeyCache;
 import com.github.lukesky19.skymines.database.QueueManager;
+import com.github.lukesky19.skymines.database.dialect.SqlDialect;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
-import org.bukkit.block.BlockType;
 import org.jetbrains.annotations.NotNull;
 
 import java.lang.reflect.Type;
@@ -36,16 +34,20 @@ import java.util.concurrent.CompletableFuture;
 
 /**
  * This class is used to create and interface with the unlocked blocks table in the database.
+ * Each row stores the blocks a player unlocked in one world mine as a {@link BitSet} indexed by the mine's block ordinals, encoded as Base64 text.
+ * Rows saved by older versions store a JSON array of block type keys instead.
+ * Rows are keyed on the integer keys of the player and the mine from the {@link KeyCache}.
  */
 public class UnlockedBlocksTable {
-    private final @NotNull SkyMines skyMines;
     private final @NotNull QueueManager queueManager;
+    private final @NotNull SqlDialect sqlDialect;
+    private final @NotNull KeyCache keyCache;
     private final @NotNull String tableName = "skymines_unlocked_blocks";
 
     /**
      * Default Constructor.
-     * You should use {@link #UnlockedBlocksTable(SkyMines, QueueManager)} instead.
-     * @deprecated You should use {@link #UnlockedBlocksTable(SkyMines, QueueManager)} instead.
+     * You should use {@link #UnlockedBlocksTable(QueueManager, SqlDialect, KeyCache)} instead.
+     * @deprecated You should use {@link #UnlockedBlocksTable(QueueManager, SqlDialect, KeyCache)} instead.
      */
     @Deprecated
     public UnlockedBlocksTable() {
@@ -54,64 +56,77 @@ public class UnlockedBlocksTable {
 
     /**
      * Constructor
-     * @param skyMines A {@link SkyMines} instance.
      * @param queueManager A {@link QueueManager} instance.
+     * @param sqlDialect The {@link SqlDialect} of the database backend.
+     * @param keyCache The {@link KeyCache} with the keys of players and mines.
      */
-    public UnlockedBlocksTable(@NotNull SkyMines skyMines, @NotNull QueueManager queueManager) {
-        this.skyMines = skyMines;
+    public UnlockedBlocksTable(@NotNull QueueManager queueManager, @NotNull SqlDialect sqlDialect, @NotNull KeyCache keyCache) {
         this.queueManager = queueManager;
+        this.sqlDialect = sqlDialect;
+        this.keyCache = keyCache;
     }
 
     /**
      * Creates the table in the database if it doesn't exist and any indexes that don't exist.
+     * @return A {@link CompletableFuture} of type {@link Void} when complete.
      */
-    public void createTable() {
-        String tableCreationSql = "CREATE TABLE IF NOT EXISTS " + tableName + " (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
-                "mine_id TEXT NOT NULL, " + // Unique
-                "player_id LONG NOT NULL DEFAULT 0, " + // Unique
-                "unlocked_blocks TEXT NOT NULL DEFAULT 0, " +
-                "last_updated LONG NOT NULL DEFAULT 0, " +
-                "FOREIGN KEY (mine_id) REFERENCES skymines_mine_ids(mine_id) ON UPDATE CASCADE ON DELETE CASCADE, " +
-                "FOREIGN KEY (player_id) REFERENCES skymines_player_ids(player_id), " +
-                "UNIQUE (mine_id, player_id))";
-        String mineIdsIndexSql = "CREATE INDEX IF NOT EXISTS idx_" + tableName + "_mine_ids ON " + tableName + "(mine_id);";
-        String playerIdsIndexSql = "CREATE INDEX IF NOT EXISTS idx_" + tableName + "_player_ids ON " + tableName + "(player_id);";
-
-        queueManager.queueBulkWriteTransaction(List.of(tableCreationSql, mineIdsIndexSql, playerIdsIndexSql));
+    public @NotNull CompletableFuture<Void> createTable() {
+        return queueManager.queueSchemaWrite(getCreationStatements());
     }
 
     /**
-     * Get a {@link Map} mapping mine ids to unlocked blocks as a {@link List} of {@link BlockType}s.
-     * @param uuid The {@link UUID} of the player.
-     * @return A {@link Map} mapping mine ids to unlocked blocks as a {@link List} of {@link BlockType}s.
+     * Replaces a table created by an older version, which is keyed on the mine id and the player's {@link UUID}, with a table keyed on their integer keys.
+     * The player ids and mine ids used by the table must be saved first.
+     * @return A {@link CompletableFuture} of type {@link Void} when complete.
      */
-    public @NotNull CompletableFuture<@NotNull Map<String, List<BlockType>>> loadUnlockedBlocks(@NotNull UUID uuid) {
-        String selectSql = "SELECT mine_id, unlocked_blocks FROM " + tableName + " WHERE player_id = ?";
-        UUIDParameter uuidParameter = new UUIDParameter(uuid);
+    public @NotNull CompletableFuture<Void> migrateToKeys() {
+        // The new table is created under another name, so its constraint names don't collide with the older table's
+        String keyedTableName = tableName + "_keyed";
 
-        return queueManager.queueReadTransaction(selectSql, List.of(uuidParameter), resultSet -> {
-            Map<String, List<BlockType>> unlockedBlockTypesByMineId = new HashMap<>();
+        List<String> statements = new ArrayList<>();
+        statements.add(getTableCreationSql(keyedTableName));
+        statements.add("INSERT INTO " + keyedTableName + " (player_key, mine_key, unlocked_blocks, last_updated) " +
+                "SELECT p.id, m.id, l.unlocked_blocks, l.last_updated FROM " + tableName + " l " +
+                "JOIN skymines_player_ids p ON p.player_id = l.player_id " +
+                "JOIN skymines_mine_ids m ON m.mine_id = l.mine_id");
+        statements.add("DROP TABLE " + tableName);
+        statements.add("ALTER TABLE " + keyedTableName + " RENAME TO " + tableName);
+        statements.addAll(getIndexCreationStatements());
 
-            try {
-                while(resultSet.next()) {
-                    String mineId = resultSet.getString("mine_id");
-                    String unlockedBlocksJson = resultSet.getString("unlocked_blocks");
+        return queueManager.queueSchemaWrite(statements);
+    }
+
+    /**
+     * Get the unlocked blocks of many players in a single query.
+     * Players whose key is not cached are left out of the returned {@link Map}.
+     * @param uuids The {@link UUID}s of the players.
+     * @return A {@link CompletableFuture} containing a {@link Map} mapping {@link UUID}s to a {@link Map} mapping mine ids to unlocked blocks as a {@link BitSet} of block ordinals.
+     */
+    public @NotNull CompletableFuture<@NotNull Map<UUID, Map<String, BitSet>>> loadUnlockedBlocksBatch(@NotNull Collection<UUID> uuids) {
+        Map<Long, UUID> uuidsByPlayerKey = keyCache.getPlayerKeys(uuids);
+        if(uuidsByPlayerKey.isEmpty()) return CompletableFuture.completedFuture(new HashMap<>());
 
-                    Gson gson = new Gson();
+        String selectSql = "SELECT player_key, mine_key, unlocked_blocks FROM " + tableName + " WHERE player_key IN (" + String.join(", ", Collections.nCopies(uuidsByPlayerKey.size(), "?")) + ")";
+        List<Parameter<?>> parameters = new ArrayList<>(uuidsByPlayerKey.size());
+        uuidsByPlayerKey.keySet().forEach(playerKey -> parameters.add(new LongParameter(playerKey)));
 
-                    Type listType = new TypeToken<List<String>>() {}.getType();
+        return queueManager.queueReadTransaction(selectSql, parameters, resultSet -> {
+            // Every player gets an entry, so players without saved rows can be told apart from players whose key is not cached
+            Map<UUID, Map<String, BitSet>> unlockedBlocksByPlayer = new HashMap<>();
+            uuidsByPlayerKey.values().forEach(uuid -> unlockedBlocksByPlayer.put(uuid, new HashMap<>()));
 
-                    List<String> unlockedBlockTypeNames = gson.fromJson(unlockedBlocksJson, listType);
-                    List<BlockType> unlockedBlockTypes = unlockedBlockTypeNames.stream().map(blockTypeName -> {
-                        Optional<BlockType> optionalBlockType = RegistryUtil.getBlockType(skyMines.getComponentLogger(), blockTypeName);
-                        return optionalBlockType.orElse(null);
-                    }).filter(Objects::nonNull).toList();
+            try {
+                while(resultSet.next()) {
+                    UUID uuid = uuidsByPlayerKey.get(resultSet.getLong("player_key"));
+                    String mineId = keyCache.getMineId(resultSet.getLong("mine_key"));
+                    String unlockedBlocks = resultSet.getString("unlocked_blocks");
+                    // Rows that were not migrated are skipped, so they are not overwritten with an empty bitset
+                    if(uuid == null || mineId == null || isLegacyFormat(unlockedBlocks)) continue;
 
-                    unlockedBlockTypesByMineId.put(mineId, new ArrayList<>(unlockedBlockTypes));
+                    unlockedBlocksByPlayer.get(uuid).put(mineId, BitSet.valueOf(Base64.getDecoder().decode(unlockedBlocks)));
                 }
 
-                return unlockedBlockTypesByMineId;
+                return unlockedBlocksByPlayer;
             } catch (SQLException e) {
                 throw new RuntimeException(e);
             }
@@ -119,36 +134,35 @@ public class UnlockedBlocksTable {
     }
 
     /**
-     * For all mines, save all unlocked blocks for a player to the database.
+     * For the mines provided, save the unlocked blocks for a player to the database.
+     * Rows are only written while the player's {@link SessionLease} is still held.
      * @param uuid The {@link UUID} of the player to save data for.
-     * @param data A {@link Map} mapping mine ids to mine time as a {@link Long}.
+     * @param lease The {@link SessionLease} held for the player.
+     * @param data A {@link Map} mapping mine ids to unlocked blocks as a {@link BitSet} of block ordinals.
      * @return A {@link CompletableFuture} containing a {@link List} of {@link Boolean} with the results.
-     * The list will contain false if an operation failed.
+     * The list will contain false if an operation failed, the lease is no longer held or a key is not cached.
      */
-    public @NotNull CompletableFuture<List<Boolean>> saveUnlockedBlocks(@NotNull UUID uuid, @NotNull Map<String, List<BlockType>> data) {
-        Map<String, List<Parameter<?>>> sqlStatementsAndParameters = new HashMap<>();
-        String insertOrUpdateSql = "INSERT INTO " + tableName + " (mine_id, player_id, unlocked_blocks, last_updated) " +
-                "VALUES (?, ?, ?, ?) " +
-                "ON CONFLICT (mine_id, player_id) DO UPDATE SET " +
-                "unlocked_blocks = ?, last_updated = ? WHERE last_updated < ?";
-
-        data.forEach((mineId, blockTypeList) -> {
-            Gson gson = new Gson();
-            List<String> blockTypeNamesList = blockTypeList.stream().map(blockType -> blockType.getKey().toString()).toList();
-            String jsonList = gson.toJson(blockTypeNamesList);
+    public @NotNull CompletableFuture<List<Boolean>> saveUnlockedBlocks(@NotNull UUID uuid, @NotNull SessionLease lease, @NotNull Map<String, BitSet> data) {
+        List<List<Object>> listOfParameterLists = new ArrayList<>();
+        String insertOrUpdateSql = getUpsertSql();
 
-            StringParameter mineIdParameter = new StringParameter(mineId);
-            UUIDParameter playerIdParameter = new UUIDParameter(uuid);
-            StringParameter unlockedBlocksParameter = new StringParameter(jsonList);
-            LongParameter lastUpdatedParameter = new LongParameter(System.currentTimeMillis());
-
-            List<Parameter<?>> parameterList = List.of(mineIdParameter, playerIdParameter, unlockedBlocksParameter, lastUpdatedParameter, unlockedBlocksParameter, lastUpdatedParameter, lastUpdatedParameter);
+        Long playerKey = keyCache.getPlayerKey(uuid);
+        long lastUpdated = System.currentTimeMillis();
+        int missingKeys = 0;
+        for(Map.Entry<String, BitSet> entry : data.entrySet()) {
+            Long mineKey = keyCache.getMineKey(entry.getKey());
+            if(playerKey == null || mineKey == null) {
+                missingKeys++;
+                continue;
+            }
 
-            sqlStatementsAndParameters.put(insertOrUpdateSql, parameterList);
-        });
+            String encodedUnlockedBlocks = encode(entry.getValue());
+            listOfParameterLists.add(List.of(playerKey, mineKey, encodedUnlockedBlocks, lastUpdated, uuid, lease.serverId(), lease.version()));
+        }
 
-        return queueManager.queueBulkWriteTransaction(sqlStatementsAndParameters).thenApply(list -> {
-                    List<Boolean> results = new ArrayList<>();
+        int failedRows = missingKeys;
+        return queueManager.queueWrite(insertOrUpdateSql, listOfParameterLists).thenApply(list -> {
+                    List<Boolean> results = new ArrayList<>(Collections.nCopies(failedRows, false));
 
                     list.forEach(rowsUpdated -> {
                         if(rowsUpdated > 0) {
@@ -162,4 +176,155 @@ public class UnlockedBlocksTable {
                 }
         );
     }
+
+    /**
+     * Saves the unlocked blocks for many players to the database in a single transaction.
+     * Each player's rows are only written while their {@link SessionLease} is still held.
+     * @param data A {@link Map} mapping {@link UUID}s to a {@link Map} mapping mine ids to unlocked blocks as a {@link BitSet} of block ordinals.
+     * @param leases A {@link Map} mapping {@link UUID}s to the {@link SessionLease} held for each player in the data.
+     * @return A {@link CompletableFuture} containing a {@link Map} mapping each {@link UUID} to true if all of the player's rows saved, otherwise false.
+     */
+    public @NotNull CompletableFuture<@NotNull Map<UUID, Boolean>> saveUnlockedBlocksBatch(@NotNull Map<UUID, Map<String, BitSet>> data, @NotNull Map<UUID, SessionLease> leases) {
+        List<List<Object>> listOfParameterLists = new ArrayList<>();
+        List<UUID> rowOwners = new ArrayList<>();
+        String insertOrUpdateSql = getUpsertSql();
+        Map<UUID, Boolean> missingKeyResults = new HashMap<>();
+
+        long lastUpdated = System.currentTimeMillis();
+        data.forEach((uuid, unlockedBlocksByMineId) -> {
+            SessionLease lease = leases.get(uuid);
+            Long playerKey = keyCache.getPlayerKey(uuid);
+            unlockedBlocksByMineId.forEach((mineId, unlockedBlocks) -> {
+                Long mineKey = keyCache.getMineKey(mineId);
+                if(playerKey == null || mineKey == null) {
+                    missingKeyResults.put(uuid, false);
+                    return;
+                }
+
+                String encodedUnlockedBlocks = encode(unlockedBlocks);
+                listOfParameterLists.add(List.of(playerKey, mineKey, encodedUnlockedBlocks, lastUpdated, uuid, lease.serverId(), lease.version()));
+                rowOwners.add(uuid);
+            });
+        });
+
+        if(listOfParameterLists.isEmpty()) return CompletableFuture.completedFuture(missingKeyResults);
+
+        return queueManager.queueWrite(insertOrUpdateSql, listOfParameterLists).thenApply(list -> {
+            Map<UUID, Boolean> results = new HashMap<>(missingKeyResults);
+
+            for(int i = 0; i < rowOwners.size(); i++) {
+                boolean successful = i < list.size() && list.get(i) > 0;
+                results.merge(rowOwners.get(i), successful, Boolean::logicalAnd);
+            }
+
+            return results;
+        });
+    }
+
+    /**
+     * Gets all rows that store unlocked blocks as a JSON array of block type keys.
+     * @return A {@link CompletableFuture} containing a {@link Map} mapping mine ids to a {@link Map} mapping row ids to a {@link List} of block type keys.
+     */
+    public @NotNull CompletableFuture<@NotNull Map<String, Map<Long, List<String>>>> getLegacyUnlockedBlocks() {
+        String selectSql = "SELECT u.id, m.mine_id, u.unlocked_blocks FROM " + tableName + " u " +
+                "JOIN skymines_mine_ids m ON m.id = u.mine_key WHERE u.unlocked_blocks LIKE '[%'";
+
+        return queueManager.queueReadTransaction(selectSql, resultSet -> {
+            Map<String, Map<Long, List<String>>> unlockedBlocksByMineId = new HashMap<>();
+            Gson gson = new Gson();
+            Type listType = new TypeToken<List<String>>() {}.getType();
+
+            try {
+                while(resultSet.next()) {
+                    long rowId = resultSet.getLong("id");
+                    String mineId = resultSet.getString("mine_id");
+                    List<String> blockTypeKeys = gson.fromJson(resultSet.getString("unlocked_blocks"), listType);
+
+                    unlockedBlocksByMineId.computeIfAbsent(mineId, k -> new HashMap<>()).put(rowId, blockTypeKeys != null ? blockTypeKeys : List.of());
+                }
+
+                return unlockedBlocksByMineId;
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    /**
+     * Replaces the JSON array of rows returned by {@link #getLegacyUnlockedBlocks()} with the migrated {@link BitSet}.
+     * @param data A {@link Map} mapping row ids to unlocked blocks as a {@link BitSet} of block ordinals.
+     * @return A {@link CompletableFuture} of type {@link Void} when complete.
+     */
+    public @NotNull CompletableFuture<Void> saveMigratedUnlockedBlocks(@NotNull Map<Long, BitSet> data) {
+        List<List<Object>> listOfParameterLists = new ArrayList<>();
+        String updateSql = "UPDATE " + tableName + " SET unlocked_blocks = ? WHERE id = ?";
+
+        data.forEach((rowId, unlockedBlocks) -> listOfParameterLists.add(List.of(encode(unlockedBlocks), rowId)));
+
+        return queueManager.queueWrite(updateSql, listOfParameterLists).thenAccept(result -> {});
+    }
+
+    /**
+     * Get the statement that saves a row while the player's {@link SessionLease} is still held.
+     * The parameters are the player's key, the mine's key, the encoded unlocked blocks, the last updated time and then the parameters of {@link SessionsTable#FENCE_SQL}.
+     * @return A SQL statement.
+     */
+    public @NotNull String getUpsertSql() {
+        return sqlDialect.upsertFrom(tableName, List.of("player_key", "mine_key"), List.of("unlocked_blocks", "last_updated"), SessionsTable.FENCE_SQL);
+    }
+
+    /**
+     * Get the statements that create the table and its indexes if they don't exist.
+     * @return A {@link List} of SQL statements.
+     */
+    public @NotNull List<String> getCreationStatements() {
+        List<String> statements = new ArrayList<>();
+        statements.add(getTableCreationSql(tableName));
+        statements.addAll(getIndexCreationStatements());
+
+        return statements;
+    }
+
+    /**
+     * Get the statement that creates the table if it doesn't exist.
+     * @param name The name to create the table with.
+     * @return A SQL statement.
+     */
+    private @NotNull String getTableCreationSql(@NotNull String name) {
+        return "CREATE TABLE IF NOT EXISTS " + name + " (" +
+                sqlDialect.getIdColumn() + ", " +
+                "player_key " + sqlDialect.getLongType() + " NOT NULL, " + // Unique
+                "mine_key " + sqlDialect.getLongType() + " NOT NULL, " + // Unique
+                "unlocked_blocks " + sqlDialect.getTextColumn() + ", " +
+                "last_updated " + sqlDialect.getLongType() + " NOT NULL DEFAULT 0, " +
+                "FOREIGN KEY (player_key) REFERENCES skymines_player_ids(id), " +
+                "FOREIGN KEY (mine_key) REFERENCES skymines_mine_ids(id) ON DELETE CASCADE, " +
+                "UNIQUE (player_key, mine_key))";
+    }
+
+    /**
+     * Get the statements that create the indexes of the table if they don't exist.
+     * @return A {@link List} of SQL statements.
+     */
+    private @NotNull List<String> getIndexCreationStatements() {
+        return sqlDialect.createIndex("idx_" + tableName + "_mine_keys", tableName, "mine_key");
+    }
+
+    /**
+     * Checks if the stored unlocked blocks are a JSON array saved by an older version.
+     * @param unlockedBlocks The stored unlocked blocks.
+     * @return true if a JSON array, otherwise false.
+     */
+    private boolean isLegacyFormat(@NotNull String unlockedBlocks) {
+        return unlockedBlocks.startsWith("[");
+    }
+
+    /**
+     * Encodes the unlocked blocks as Base64 text.
+     * @param unlockedBlocks The unlocked blocks as a {@link BitSet} of block ordinals.
+     * @return The encoded unlocked blocks.
+     */
+    private @NotNull String encode(@NotNull BitSet unlockedBlocks) {
+        return Base64.getEncoder().encodeToString(unlockedBlocks.toByteArray());
+    }
 }
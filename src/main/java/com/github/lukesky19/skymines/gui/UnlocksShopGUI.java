@@ -27,11 +27,13 @@ import com.github.lukesky19.skylib.api.itemstack.ItemStackConfig;
 import com.github.lukesky19.skylib.api.registry.RegistryUtil;
 import com.github.lukesky19.skymines.SkyMines;
 import com.github.lukesky19.skymines.data.config.Locale;
+import com.github.lukesky19.skymines.data.config.LocaleMessage;
 import com.github.lukesky19.skymines.data.config.world.WorldMineConfig;
 import com.github.lukesky19.skymines.data.config.world.WorldMineGUIConfig;
 import com.github.lukesky19.skymines.manager.config.LocaleManager;
 import com.github.lukesky19.skymines.manager.gui.GUIManager;
 import com.github.lukesky19.skymines.manager.mine.world.BlocksManager;
+import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
 import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
 import net.milkbowl.vault.economy.Economy;
@@ -306,7 +308,18 @@ public class UnlocksShopGUI extends ChestGUI {
 
                     List<TagResolver.Single> placeholders = List.of(Placeholder.parsed("block_type", FormatUtil.formatBlockTypeName(blockType)), Placeholder.parsed("mine_id", mineId));
 
-                    blocksManager.addUnlockedBlock(uuid, mineId, blockType);
+                    if(!blocksManager.isPlayerDataLoaded(uuid)) {
+                        player.sendMessage(localeManager.getMessage(LocaleMessage.PLAYER_DATA_NOT_LOADED, Component.text(player.getName())));
+                        close();
+                        return;
+                    }
+
+                    if(!blocksManager.addUnlockedBlock(uuid, mineId, blockType)) {
+                        player.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_UNLOCK_NOT_READY, Component.text(FormatUtil.formatBlockTypeName(blockType)), Component.text(mineId), Component.text(player.getName())));
+                        close();
+                        return;
+                    }
+
                     player.sendMessage(AdventureUtil.serialize(player, locale.prefix() + locale.worldMineMessages().blockUnlocked(), placeholders));
 
                     refresh();
@@ -20,14 +20,14 @@ package com.github.lukesky19.skymines.listeners;
 import com.github.lukesky19.skymines.manager.mine.MineDataManager;
 import com.github.lukesky19.skymines.mine.AbstractMine;
 import io.papermc.paper.event.packet.PlayerChunkLoadEvent;
-import org.bukkit.Location;
+import org.bukkit.Chunk;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.jetbrains.annotations.NotNull;
 
 /**
- * This class listens to when a player loads a chunk and passes that event to the mine they are in (if any).
+ * This class listens to when a player loads a chunk and passes that event to the mines inside the chunk (if any).
  */
 public class ChunkLoadListener implements Listener {
     private final @NotNull MineDataManager mineDataManager;
@@ -52,15 +52,18 @@ public class ChunkLoadListener implements Listener {
     }
 
     /**
-     * Listens to when a player loads a chunk and passes the event to the mine they are in (if any).
+     * Listens to when a player loads a chunk and passes the event to the mines inside the chunk (if any).
      * @param playerChunkLoadEvent A PlayerChunkLoadEvent
      */
     @EventHandler(priority = EventPriority.NORMAL, ignoreCancelled = true)
     public void onChunkLoad(PlayerChunkLoadEvent playerChunkLoadEvent) {
-        Location location = playerChunkLoadEvent.getPlayer().getLocation();
+        Chunk chunk = playerChunkLoadEvent.getChunk();
 
-        AbstractMine mine = mineDataManager.getMineByLocation(location);
-        if(mine != null) {
+        for(AbstractMine mine : mineDataManager.getMinesByChunk(chunk.getWorld(), chunk.getX(), chunk.getZ())) {
+            mine.handlePlayerChunkLoad(playerChunkLoadEvent);
+        }
+
+        for(AbstractMine mine : mineDataManager.getWorldMines(chunk.getWorld())) {
             mine.handlePlayerChunkLoad(playerChunkLoadEvent);
         }
     }
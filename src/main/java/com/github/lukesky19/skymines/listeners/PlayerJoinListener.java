@@ -18,6 +18,7 @@
 package com.github.lukesky19.skymines.listeners;
 
 import com.github.lukesky19.skymines.manager.mine.MineDataManager;
+import com.github.lukesky19.skymines.manager.mine.packet.CooldownManager;
 import com.github.lukesky19.skymines.manager.player.PlayerDataManager;
 import com.github.lukesky19.skymines.mine.AbstractMine;
 import org.bukkit.entity.Player;
@@ -35,11 +36,12 @@ import java.util.UUID;
 public class PlayerJoinListener implements Listener {
     private final @NotNull MineDataManager mineDataManager;
     private final @NotNull PlayerDataManager playerDataManager;
+    private final @NotNull CooldownManager cooldownManager;
 
     /**
      * Default Constructor.
-     * You should use {@link #PlayerJoinListener(MineDataManager, PlayerDataManager)} instead.
-     * @deprecated You should use {@link #PlayerJoinListener(MineDataManager, PlayerDataManager)} instead.
+     * You should use {@link #PlayerJoinListener(MineDataManager, PlayerDataManager, CooldownManager)} instead.
+     * @deprecated You should use {@link #PlayerJoinListener(MineDataManager, PlayerDataManager, CooldownManager)} instead.
      * @throws RuntimeException if used.
      */
     @Deprecated
@@ -51,12 +53,15 @@ public class PlayerJoinListener implements Listener {
      * Constructor
      * @param mineDataManager A {@link MineDataManager} instance.
      * @param playerDataManager A {@link PlayerDataManager} instance.
+     * @param cooldownManager A {@link CooldownManager} instance.
      */
     public PlayerJoinListener(
             @NotNull MineDataManager mineDataManager,
-            @NotNull PlayerDataManager playerDataManager) {
+            @NotNull PlayerDataManager playerDataManager,
+            @NotNull CooldownManager cooldownManager) {
         this.mineDataManager = mineDataManager;
         this.playerDataManager = playerDataManager;
+        this.cooldownManager = cooldownManager;
     }
 
     /**
@@ -69,6 +74,8 @@ public class PlayerJoinListener implements Listener {
         UUID uuid = player.getUniqueId();
 
         playerDataManager.loadPlayerData(uuid).thenAccept(v -> {
+            cooldownManager.restoreCooldowns(player);
+
             AbstractMine mine = mineDataManager.getMineByLocation(player.getLocation());
             if(mine != null) {
                 mine.createAndShowBossBar(player, uuid);
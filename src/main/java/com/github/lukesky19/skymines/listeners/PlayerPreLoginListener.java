@@ -0,0 +1,63 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.listeners;
+
+import com.github.lukesky19.skymines.manager.player.PlayerDataManager;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * This class listens to when a player is about to log in and loads their player data before they join.
+ */
+public class PlayerPreLoginListener implements Listener {
+    private final @NotNull PlayerDataManager playerDataManager;
+
+    /**
+     * Default Constructor.
+     * You should use {@link #PlayerPreLoginListener(PlayerDataManager)} instead.
+     * @deprecated You should use {@link #PlayerPreLoginListener(PlayerDataManager)} instead.
+     * @throws RuntimeException if used.
+     */
+    @Deprecated
+    public PlayerPreLoginListener() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param playerDataManager A {@link PlayerDataManager} instance.
+     */
+    public PlayerPreLoginListener(@NotNull PlayerDataManager playerDataManager) {
+        this.playerDataManager = playerDataManager;
+    }
+
+    /**
+     * Listens to when a player is about to log in and preloads their player data.
+     * The event is called off the main thread, so waiting for the data here delays the login instead of the server.
+     * @param asyncPlayerPreLoginEvent An {@link AsyncPlayerPreLoginEvent}.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPlayerPreLogin(AsyncPlayerPreLoginEvent asyncPlayerPreLoginEvent) {
+        if(asyncPlayerPreLoginEvent.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) return;
+
+        playerDataManager.preloadPlayerData(asyncPlayerPreLoginEvent.getUniqueId()).join();
+    }
+}
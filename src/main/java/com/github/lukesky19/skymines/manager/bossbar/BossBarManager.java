@@ -83,12 +83,14 @@ public class BossBarManager {
 
     /**
      * Set the boss bar currently shown to the player.
+     * The boss bar is not shown if the player's {@link PlayerData} is not loaded, as it could not be removed later.
      * @param player The {@link Player}.
      * @param uuid The {@link UUID} of the player.
      * @param bossBar The {@link BossBar} to show.
      */
     public void setBossBar(@NotNull Player player, @NotNull UUID uuid, @NotNull BossBar bossBar) {
-        @NotNull PlayerData playerData = playerDataManager.getPlayerData(uuid);
+        PlayerData playerData = playerDataManager.getPlayerData(uuid);
+        if(playerData == null) return;
 
         // Remove the current boss bar shown (if any)
         removeBossBar(player, uuid);
@@ -104,7 +106,8 @@ public class BossBarManager {
      * @return The {@link BossBar} currently shown to the player or null.
      */
     public @Nullable BossBar getBossBar(@NotNull UUID uuid) {
-        @NotNull PlayerData playerData = playerDataManager.getPlayerData(uuid);
+        PlayerData playerData = playerDataManager.getPlayerData(uuid);
+        if(playerData == null) return null;
 
         return playerData.getBossBar();
     }
@@ -115,9 +118,10 @@ public class BossBarManager {
      * @param uuid The {@link UUID} of the player.
      */
     public void removeBossBar(@NotNull Player player, @NotNull UUID uuid) {
-        @NotNull PlayerData playerData = playerDataManager.getPlayerData(uuid);
+        PlayerData playerData = playerDataManager.getPlayerData(uuid);
+        if(playerData == null) return;
 
-        BossBar bossBar = getBossBar(uuid);
+        BossBar bossBar = playerData.getBossBar();
         if(bossBar != null) {
             player.hideBossBar(bossBar);
             playerData.setBossBar(null);
@@ -25,26 +25,44 @@ import com.github.lukesky19.skylib.libs.configurate.ConfigurateException;
 import com.github.lukesky19.skylib.libs.configurate.yaml.YamlConfigurationLoader;
 import com.github.lukesky19.skymines.SkyMines;
 import com.github.lukesky19.skymines.data.config.Locale;
+import com.github.lukesky19.skymines.data.config.LocaleMessage;
 import com.github.lukesky19.skymines.data.config.Settings;
+import com.github.lukesky19.skymines.util.ComponentTemplate;
+import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.logger.slf4j.ComponentLogger;
 import net.kyori.adventure.text.minimessage.MiniMessage;
-import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
-import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class loads the plugin's locale configuration.
  */
 public class LocaleManager {
+    private static final @NotNull String @NotNull [] TIME_PLACEHOLDERS = {"years", "months", "weeks", "days", "hours", "minutes", "seconds"};
+
     private final @NotNull SkyMines skyMines;
     private final @NotNull SettingsManager settingsManager;
     private @NotNull Locale DEFAULT_LOCALE;
     private @Nullable Locale locale;
+    /**
+     * The time message templates of the current locale, mapped by the time units they show.
+     */
+    private final @NotNull Map<Integer, ComponentTemplate> timeTemplatesByUnits = new ConcurrentHashMap<>();
+    /**
+     * The parsed messages of the current locale, with the prefix included.
+     */
+    private @NotNull Map<LocaleMessage, ComponentTemplate> messageTemplates = new EnumMap<>(LocaleMessage.class);
+    /**
+     * The parsed help message of the current locale.
+     */
+    private @NotNull List<Component> helpMessage = List.of();
 
     /**
      * Constructor
@@ -56,6 +74,7 @@ public class LocaleManager {
         this.settingsManager = settingsManager;
 
         createDefaultLocale();
+        createMessageTemplates();
     }
 
     /**
@@ -69,9 +88,36 @@ public class LocaleManager {
     }
 
     /**
-     * Reloads the plugin's locale.
+     * Reloads the plugin's locale and parses its messages.
      */
     public void reload() {
+        loadLocale();
+        createMessageTemplates();
+    }
+
+    /**
+     * Get a message of the plugin's locale, with the prefix included.
+     * The message was parsed when the locale was loaded, so only the placeholders are replaced.
+     * @param message The {@link LocaleMessage} to get.
+     * @param values The values of the message's placeholders, in the order of {@link LocaleMessage#getPlaceholderNames()}.
+     * @return A {@link Component} containing the message.
+     */
+    public @NotNull Component getMessage(@NotNull LocaleMessage message, @NotNull Component @NotNull ... values) {
+        return messageTemplates.get(message).render(values);
+    }
+
+    /**
+     * Get the plugin's help message, parsed when the locale was loaded.
+     * @return A {@link List} of {@link Component}s, one for each line.
+     */
+    public @NotNull List<Component> getHelpMessage() {
+        return helpMessage;
+    }
+
+    /**
+     * Loads the plugin's locale. If it fails to load or is invalid, the default locale is used.
+     */
+    private void loadLocale() {
         ComponentLogger logger = skyMines.getComponentLogger();
         locale = null;
 
@@ -100,6 +146,28 @@ public class LocaleManager {
         validateLocale();
     }
 
+    /**
+     * Parses the messages of the current locale so they don't need to be parsed every time they are sent.
+     * Any cached time message templates from the previous locale are removed.
+     */
+    private void createMessageTemplates() {
+        Locale currentLocale = getLocale();
+
+        Map<LocaleMessage, ComponentTemplate> templates = new EnumMap<>(LocaleMessage.class);
+        for(LocaleMessage message : LocaleMessage.values()) {
+            // Messages added after a locale file was created fall back to the default message
+            String text = message.getMessage(currentLocale);
+            if(text == null) text = message.getMessage(DEFAULT_LOCALE);
+
+            templates.put(message, new ComponentTemplate(currentLocale.prefix() + text, message.getPlaceholderNames()));
+        }
+        messageTemplates = templates;
+
+        helpMessage = currentLocale.help().stream().map(line -> AdventureUtil.serialize(line)).toList();
+
+        timeTemplatesByUnits.clear();
+    }
+
     /**
      * Copies the default locale files that come bundled with the plugin, if they do not exist at least.
     */
@@ -210,96 +278,63 @@ public class LocaleManager {
      */
     @NotNull
     public String getTimeMessage(long timeSeconds) {
-        Locale locale = this.getLocale();
+        return MiniMessage.miniMessage().serialize(getTimeComponent(timeSeconds));
+    }
+
+    /**
+     * Gets the time message to display in the boss bar as a {@link Component}.
+     * The message is rendered from a {@link ComponentTemplate} that is only parsed once for each combination of non-zero time units.
+     * @param timeSeconds The time in seconds.
+     * @return A {@link Component} containing the time message.
+     */
+    public @NotNull Component getTimeComponent(long timeSeconds) {
         Time timeRecord = TimeUtil.millisToTime(timeSeconds * 1000L);
+        long[] units = {timeRecord.years(), timeRecord.months(), timeRecord.weeks(), timeRecord.days(), timeRecord.hours(), timeRecord.minutes(), timeRecord.seconds()};
 
-        List<TagResolver.Single> placeholders = List.of(
-                Placeholder.parsed("years", String.valueOf(timeRecord.years())),
-                Placeholder.parsed("months", String.valueOf(timeRecord.months())),
-                Placeholder.parsed("weeks", String.valueOf(timeRecord.weeks())),
-                Placeholder.parsed("days", String.valueOf(timeRecord.days())),
-                Placeholder.parsed("hours", String.valueOf(timeRecord.hours())),
-                Placeholder.parsed("minutes", String.valueOf(timeRecord.minutes())),
-                Placeholder.parsed("seconds", String.valueOf(timeRecord.seconds())));
+        int unitsMask = 0;
+        for(int i = 0; i < units.length; i++) {
+            if(units[i] > 0) unitsMask |= 1 << i;
+        }
+        // Seconds are shown if all time units are 0
+        if(unitsMask == 0) unitsMask = 1 << (units.length - 1);
 
-        StringBuilder stringBuilder = getStringBuilder(locale, timeRecord);
+        ComponentTemplate template = timeTemplatesByUnits.computeIfAbsent(unitsMask, this::createTimeTemplate);
 
-        return MiniMessage.miniMessage().serialize(AdventureUtil.serialize(stringBuilder.toString(), placeholders));
+        Component[] values = new Component[units.length];
+        for(int i = 0; i < units.length; i++) {
+            values[i] = Component.text(units[i]);
+        }
+
+        return template.render(values);
     }
 
     /**
-     * Builds the string by populating any non-zero individual time units.
-     * @param locale The plugin's locale
-     * @param timeRecord The record containing the individual time units to display.
-     * @return A populated StringBuilder. May be empty if all time units were 0 and no suffix was configured.
+     * Creates the {@link ComponentTemplate} for the time message that shows the provided time units.
+     * The whole message is parsed at once, so tags opened in the prefix or in one time unit can be closed in another.
+     * @param unitsMask The time units to show. Bit 0 is years and bit 6 is seconds.
+     * @return A {@link ComponentTemplate}.
      */
-    private @NotNull StringBuilder getStringBuilder(Locale locale, Time timeRecord) {
-        Locale.TimeMessage timeMessage = locale.timeMessage();
+    private @NotNull ComponentTemplate createTimeTemplate(int unitsMask) {
+        Locale.TimeMessage timeMessage = getLocale().timeMessage();
+        String[] unitMessages = {timeMessage.years(), timeMessage.months(), timeMessage.weeks(), timeMessage.days(), timeMessage.hours(), timeMessage.minutes(), timeMessage.seconds()};
         StringBuilder stringBuilder = new StringBuilder();
 
         stringBuilder.append(timeMessage.prefix());
 
         boolean isFirstUnit = true;
+        for(int i = 0; i < unitMessages.length; i++) {
+            if((unitsMask & (1 << i)) == 0) continue;
 
-        if(timeRecord.years() > 0) {
-            stringBuilder.append(timeMessage.years());
-            isFirstUnit = false;
-        }
-
-        if (timeRecord.months() > 0) {
-            if (!isFirstUnit) {
+            if(!isFirstUnit) {
                 stringBuilder.append(" ");
             }
-            stringBuilder.append(timeMessage.months());
+            stringBuilder.append(unitMessages[i]);
             isFirstUnit = false;
         }
 
-        if (timeRecord.weeks() > 0) {
-            if (!isFirstUnit) {
-                stringBuilder.append(" ");
-            }
-            stringBuilder.append(timeMessage.weeks());
-            isFirstUnit = false;
-        }
-
-        if (timeRecord.days() > 0) {
-            if (!isFirstUnit) {
-                stringBuilder.append(" ");
-            }
-            stringBuilder.append(timeMessage.days());
-            isFirstUnit = false;
-        }
-
-        if (timeRecord.hours() > 0) {
-            if (!isFirstUnit) {
-                stringBuilder.append(" ");
-            }
-            stringBuilder.append(timeMessage.hours());
-            isFirstUnit = false;
-        }
-
-        if (timeRecord.minutes() > 0) {
-            if (!isFirstUnit) {
-                stringBuilder.append(" ");
-            }
-            stringBuilder.append(timeMessage.minutes());
-            isFirstUnit = false;
-        }
-
-        if (timeRecord.seconds() > 0) {
-            if (!isFirstUnit) {
-                stringBuilder.append(" ");
-            }
-            stringBuilder.append(timeMessage.seconds());
-            isFirstUnit = false;
-        }
-
-        if(isFirstUnit) {
-            stringBuilder.append(timeMessage.seconds());
-        }
-
         stringBuilder.append(timeMessage.suffix());
-        return stringBuilder;
+
+        return new ComponentTemplate(stringBuilder.toString(), TIME_PLACEHOLDERS);
     }
 
     /**
@@ -326,6 +361,7 @@ public class LocaleManager {
                 "<aqua>The plugin has reloaded successfully.</aqua>",
                 "<red>There is no mine with that name.",
                 "<red>Unable to open this GUI because of a configuration error.</red>",
+                "<red>The data of <yellow><player_name></yellow> is still loading. Try again in a moment.</red>",
                 new Locale.PacketMineMessages(
                         "<aqua>You now have access to <yellow><mine_id></yellow> for <time>.</aqua>",
                         "<aqua>Player <yellow><player_name></yellow> now has access to <yellow><mine_id></yellow> for <time>.</aqua>",
@@ -356,7 +392,8 @@ public class LocaleManager {
                         "<red>You cannot interact with this block because it has not been unlocked. Unlock blocks in <yellow>/skymines shop</yellow>.</red>",
                         "<red>This block cannot be interacted with.<red>",
                         "<red>You do not have enough money to unlock this block.</red>",
-                        "<red>You must be inside a mine to open <yellow>/skymines shop</yellow>.</red>"),
+                        "<red>You must be inside a mine to open <yellow>/skymines shop</yellow>.</red>",
+                        "<red>The block <yellow><block_type></yellow> can't be unlocked in mine <yellow><mine_id></yellow> yet. Try again in a moment.</red>"),
                 new Locale.TimeMessage(
                         "",
                         "<yellow><years></yellow> year(s)",
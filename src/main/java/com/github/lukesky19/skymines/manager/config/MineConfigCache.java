@@ -0,0 +1,279 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.manager.config;
+
+import com.github.lukesky19.skylib.api.adventure.AdventureUtil;
+import com.github.lukesky19.skymines.SkyMines;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class caches the parsed node tree of each mine config file, keyed by the SHA-256 hash of the file.
+ * Unchanged files can be mapped from the cached tree instead of being parsed as YAML again.
+ * Only trees that mapped to a valid mine config are cached, and entries for files that no longer exist are dropped on save.
+ */
+public class MineConfigCache {
+    private static final int CACHE_MAGIC = 0x534D4343;
+    private static final int CACHE_VERSION = 1;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_BOOLEAN = 2;
+    private static final byte TYPE_INTEGER = 3;
+    private static final byte TYPE_LONG = 4;
+    private static final byte TYPE_DOUBLE = 5;
+    private static final byte TYPE_LIST = 6;
+    private static final byte TYPE_MAP = 7;
+
+    private final @NotNull SkyMines skyMines;
+    private final @NotNull Path cachePath;
+    /**
+     * The encoded node trees read from the cache file, by file hash.
+     */
+    private @NotNull Map<String, byte[]> cachedTreesByHash = new HashMap<>();
+    /**
+     * The encoded node trees used during the current load, by file hash. These are written on {@link #save()}.
+     */
+    private final @NotNull Map<String, byte[]> usedTreesByHash = new ConcurrentHashMap<>();
+
+    /**
+     * Default Constructor.
+     * You should use {@link #MineConfigCache(SkyMines)} instead.
+     * @deprecated You should use {@link #MineConfigCache(SkyMines)} instead.
+     * @throws RuntimeException if used.
+     */
+    @Deprecated
+    public MineConfigCache() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param skyMines A {@link SkyMines} instance.
+     */
+    public MineConfigCache(@NotNull SkyMines skyMines) {
+        this.skyMines = skyMines;
+        this.cachePath = skyMines.getDataFolder().toPath().resolve("cache").resolve("mine-configs.bin");
+    }
+
+    /**
+     * Reads the cache file. A missing, outdated or corrupt cache file is treated as empty.
+     */
+    public void load() {
+        usedTreesByHash.clear();
+        cachedTreesByHash = new HashMap<>();
+        if(!Files.isRegularFile(cachePath)) return;
+
+        try(DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(cachePath)))) {
+            if(input.readInt() != CACHE_MAGIC || input.readInt() != CACHE_VERSION) return;
+
+            int entries = input.readInt();
+            Map<String, byte[]> treesByHash = new HashMap<>(entries * 2);
+            for(int i = 0; i < entries; i++) {
+                String hash = input.readUTF();
+                byte[] tree = new byte[input.readInt()];
+                input.readFully(tree);
+                treesByHash.put(hash, tree);
+            }
+
+            cachedTreesByHash = treesByHash;
+        } catch (IOException e) {
+            skyMines.getComponentLogger().warn(AdventureUtil.serialize("Unable to read the mine config cache. All mine configs will be parsed. " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Writes the node trees used since the last {@link #load()} to the cache file.
+     */
+    public void save() {
+        try {
+            Files.createDirectories(cachePath.getParent());
+
+            Path tempPath = cachePath.resolveSibling(cachePath.getFileName() + ".tmp");
+            try(DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath)))) {
+                output.writeInt(CACHE_MAGIC);
+                output.writeInt(CACHE_VERSION);
+                output.writeInt(usedTreesByHash.size());
+                for(Map.Entry<String, byte[]> entry : usedTreesByHash.entrySet()) {
+                    output.writeUTF(entry.getKey());
+                    output.writeInt(entry.getValue().length);
+                    output.write(entry.getValue());
+                }
+            }
+
+            Files.move(tempPath, cachePath, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            skyMines.getComponentLogger().warn(AdventureUtil.serialize("Unable to write the mine config cache. " + e.getMessage()));
+        }
+
+        cachedTreesByHash = new HashMap<>(usedTreesByHash);
+        usedTreesByHash.clear();
+    }
+
+    /**
+     * Get the cached node tree for a file hash. This is safe to call from multiple threads during a load.
+     * @param hash The hash of the file from {@link #hash(byte[])}.
+     * @return The raw node value, made of {@link Map}s, {@link List}s and scalars, or null if nothing is cached for the hash.
+     */
+    public @Nullable Object getTree(@NotNull String hash) {
+        byte[] tree = cachedTreesByHash.get(hash);
+        if(tree == null) return null;
+
+        try(DataInputStream input = new DataInputStream(new ByteArrayInputStream(tree))) {
+            Object value = readValue(input);
+            usedTreesByHash.put(hash, tree);
+            return value;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Caches the node tree for a file hash. This is safe to call from multiple threads during a load.
+     * Trees containing values that cannot be encoded are not cached.
+     * @param hash The hash of the file from {@link #hash(byte[])}.
+     * @param tree The raw node value, made of {@link Map}s, {@link List}s and scalars.
+     */
+    public void putTree(@NotNull String hash, @Nullable Object tree) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(DataOutputStream output = new DataOutputStream(bytes)) {
+            writeValue(output, tree);
+        } catch (IOException e) {
+            return;
+        }
+
+        usedTreesByHash.put(hash, bytes.toByteArray());
+    }
+
+    /**
+     * Get the hex encoded SHA-256 hash of a file's contents.
+     * @param contents The contents of the file.
+     * @return The hash.
+     */
+    public static @NotNull String hash(byte @NotNull [] contents) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(contents));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Encodes a raw node value.
+     * @param output The {@link DataOutputStream} to write to.
+     * @param value The value to encode.
+     * @throws IOException if the value contains a type that cannot be encoded.
+     */
+    private static void writeValue(@NotNull DataOutputStream output, @Nullable Object value) throws IOException {
+        switch(value) {
+            case null -> output.writeByte(TYPE_NULL);
+            case String string -> {
+                output.writeByte(TYPE_STRING);
+                output.writeUTF(string);
+            }
+            case Boolean bool -> {
+                output.writeByte(TYPE_BOOLEAN);
+                output.writeBoolean(bool);
+            }
+            case Integer integer -> {
+                output.writeByte(TYPE_INTEGER);
+                output.writeInt(integer);
+            }
+            case Long number -> {
+                output.writeByte(TYPE_LONG);
+                output.writeLong(number);
+            }
+            case Double number -> {
+                output.writeByte(TYPE_DOUBLE);
+                output.writeDouble(number);
+            }
+            case List<?> list -> {
+                output.writeByte(TYPE_LIST);
+                output.writeInt(list.size());
+                for(Object element : list) {
+                    writeValue(output, element);
+                }
+            }
+            case Map<?, ?> map -> {
+                output.writeByte(TYPE_MAP);
+                output.writeInt(map.size());
+                for(Map.Entry<?, ?> entry : map.entrySet()) {
+                    writeValue(output, entry.getKey());
+                    writeValue(output, entry.getValue());
+                }
+            }
+            default -> throw new IOException("Unsupported value type " + value.getClass().getName() + ".");
+        }
+    }
+
+    /**
+     * Decodes a raw node value.
+     * @param input The {@link DataInputStream} to read from.
+     * @return The decoded value.
+     * @throws IOException if the data is corrupt.
+     */
+    private static @Nullable Object readValue(@NotNull DataInputStream input) throws IOException {
+        byte type = input.readByte();
+        switch(type) {
+            case TYPE_NULL -> {
+                return null;
+            }
+            case TYPE_STRING -> {
+                return input.readUTF();
+            }
+            case TYPE_BOOLEAN -> {
+                return input.readBoolean();
+            }
+            case TYPE_INTEGER -> {
+                return input.readInt();
+            }
+            case TYPE_LONG -> {
+                return input.readLong();
+            }
+            case TYPE_DOUBLE -> {
+                return input.readDouble();
+            }
+            case TYPE_LIST -> {
+                int size = input.readInt();
+                List<Object> list = new ArrayList<>(size);
+                for(int i = 0; i < size; i++) {
+                    list.add(readValue(input));
+                }
+                return list;
+            }
+            case TYPE_MAP -> {
+                int size = input.readInt();
+                Map<Object, Object> map = new LinkedHashMap<>(size * 2);
+                for(int i = 0; i < size; i++) {
+                    map.put(readValue(input), readValue(input));
+                }
+                return map;
+            }
+            default -> throw new IOException("Unknown value type " + type + ".");
+        }
+    }
+}
@@ -19,7 +19,8 @@ package com.github.lukesky19.skymines.manager.config;
 
 import com.github.lukesky19.skylib.api.adventure.AdventureUtil;
 import com.github.lukesky19.skylib.api.configurate.ConfigurationUtility;
-import com.github.lukesky19.skylib.libs.configurate.ConfigurateException;
+import com.github.lukesky19.skylib.libs.configurate.BasicConfigurationNode;
+import com.github.lukesky19.skylib.libs.configurate.ConfigurationNode;
 import com.github.lukesky19.skylib.libs.configurate.yaml.YamlConfigurationLoader;
 import com.github.lukesky19.skymines.SkyMines;
 import com.github.lukesky19.skymines.data.config.packet.PacketMineConfig;
@@ -33,7 +34,12 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 /**
@@ -43,6 +49,7 @@ public class MineConfigManager {
     private final @NotNull SkyMines skyMines;
     private final @NotNull Map<String, PacketMineConfig> packetMineConfigs = new HashMap<>();
     private final @NotNull Map<String, WorldMineConfig> worldMineConfigMap = new HashMap<>();
+    private final @NotNull MineConfigCache mineConfigCache;
 
     /**
      * Constructor
@@ -50,6 +57,7 @@ public class MineConfigManager {
      */
     public MineConfigManager(@NotNull SkyMines skyMines) {
         this.skyMines = skyMines;
+        this.mineConfigCache = new MineConfigCache(skyMines);
     }
 
     /**
@@ -79,48 +87,99 @@ public class MineConfigManager {
 
     /**
      * Loads all mine config files in the mines folder.
+     * Files are loaded in parallel and files that are unchanged since the last load are mapped from the {@link MineConfigCache} instead of being parsed.
      */
     public void reload() {
-        try(Stream<Path> paths = Files.walk(Paths.get(skyMines.getDataFolder() + File.separator + "mines" + File.separator + "packet"))) {
-            paths.filter(Files::isRegularFile)
-                    .forEach(path -> {
-                        PacketMineConfig mineConfig = null;
-                        @NotNull YamlConfigurationLoader loader = ConfigurationUtility.getYamlConfigurationLoader(path);
-                        try {
-                            mineConfig = loader.load().get(PacketMineConfig.class);
-                        } catch (ConfigurateException e) {
-                            skyMines.getComponentLogger().warn(AdventureUtil.serialize("Failed to load packet mine config for " + path.toFile()));
-                        }
-
-                        if(mineConfig != null && mineConfig.mineId() != null) {
-                            packetMineConfigs.put(mineConfig.mineId(), mineConfig);
-                        } else {
-                            skyMines.getComponentLogger().warn(AdventureUtil.serialize("Failed to load packet mine config for " + path.toFile()));
-                        }
-                    });
+        long startNanos = System.nanoTime();
+        mineConfigCache.load();
+
+        List<Path> packetPaths = getConfigPaths("packet");
+        List<Path> worldPaths = getConfigPaths("world");
+        LongAdder cacheHits = new LongAdder();
+
+        List<PacketMineConfig> packetConfigs = packetPaths.parallelStream()
+                .map(path -> loadMineConfig(path, PacketMineConfig.class, PacketMineConfig::mineId, "packet", cacheHits))
+                .filter(Objects::nonNull)
+                .toList();
+        List<WorldMineConfig> worldConfigs = worldPaths.parallelStream()
+                .map(path -> loadMineConfig(path, WorldMineConfig.class, WorldMineConfig::mineId, "world", cacheHits))
+                .filter(Objects::nonNull)
+                .toList();
+
+        packetMineConfigs.clear();
+        for(PacketMineConfig mineConfig : packetConfigs) {
+            packetMineConfigs.put(mineConfig.mineId(), mineConfig);
+        }
+
+        worldMineConfigMap.clear();
+        for(WorldMineConfig mineConfig : worldConfigs) {
+            worldMineConfigMap.put(mineConfig.mineId(), mineConfig);
+        }
+
+        mineConfigCache.save();
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        skyMines.getComponentLogger().info(AdventureUtil.serialize("Loaded " + (packetPaths.size() + worldPaths.size()) + " mine config files (" + cacheHits.sum() + " from cache) in " + elapsedMillis + " ms."));
+    }
+
+    /**
+     * Get the paths of the mine config files in a folder of the mines folder.
+     * @param folderName The name of the folder.
+     * @return A {@link List} of file {@link Path}s.
+     */
+    private @NotNull List<Path> getConfigPaths(@NotNull String folderName) {
+        try(Stream<Path> paths = Files.walk(Paths.get(skyMines.getDataFolder() + File.separator + "mines" + File.separator + folderName))) {
+            return paths.filter(Files::isRegularFile).toList();
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+    }
+
+    /**
+     * Loads a mine config file, using the cached node tree if the file is unchanged.
+     * This is called from multiple threads.
+     * @param path The {@link Path} of the file.
+     * @param configClass The class of the mine config.
+     * @param mineIdGetter The function to get the mine id from the mine config.
+     * @param mineType The type of mine, used in warnings.
+     * @param cacheHits The counter to increment when the cached node tree is used.
+     * @return The mine config or null if it failed to load or has no mine id.
+     * @param <T> The type of the mine config.
+     */
+    private <T> @Nullable T loadMineConfig(
+            @NotNull Path path,
+            @NotNull Class<T> configClass,
+            @NotNull Function<T, String> mineIdGetter,
+            @NotNull String mineType,
+            @NotNull LongAdder cacheHits) {
+        T mineConfig = null;
+        try {
+            String hash = MineConfigCache.hash(Files.readAllBytes(path));
+            @NotNull YamlConfigurationLoader loader = ConfigurationUtility.getYamlConfigurationLoader(path);
 
-        try(Stream<Path> paths = Files.walk(Paths.get(skyMines.getDataFolder() + File.separator + "mines" + File.separator + "world"))) {
-            paths.filter(Files::isRegularFile)
-                    .forEach(path -> {
-                        WorldMineConfig mineConfig = null;
-                        @NotNull YamlConfigurationLoader loader = ConfigurationUtility.getYamlConfigurationLoader(path);
-                        try {
-                            mineConfig = loader.load().get(WorldMineConfig.class);
-                        } catch (ConfigurateException e) {
-                            skyMines.getComponentLogger().warn(AdventureUtil.serialize("Failed to load world mine config for " + path.toFile()));
-                        }
-
-                        if(mineConfig != null && mineConfig.mineId() != null) {
-                            worldMineConfigMap.put(mineConfig.mineId(), mineConfig);
-                        } else {
-                            skyMines.getComponentLogger().warn(AdventureUtil.serialize("Failed to load world mine config for " + path.toFile()));
-                        }
-                    });
+            Object cachedTree = mineConfigCache.getTree(hash);
+            ConfigurationNode node;
+            if(cachedTree != null) {
+                node = BasicConfigurationNode.root(loader.defaultOptions()).raw(cachedTree);
+                cacheHits.increment();
+            } else {
+                node = loader.load();
+            }
+
+            mineConfig = node.get(configClass);
+            if(cachedTree == null && mineConfig != null && mineIdGetter.apply(mineConfig) != null) {
+                mineConfigCache.putTree(hash, node.raw());
+            }
         } catch (IOException e) {
-            throw new RuntimeException(e);
+            skyMines.getComponentLogger().warn(AdventureUtil.serialize("Failed to load " + mineType + " mine config for " + path.toFile()));
+            return null;
         }
+
+        if(mineConfig == null || mineIdGetter.apply(mineConfig) == null) {
+            skyMines.getComponentLogger().warn(AdventureUtil.serialize("Failed to load " + mineType + " mine config for " + path.toFile()));
+            return null;
+        }
+
+        return mineConfig;
     }
 }
@@ -20,20 +20,29 @@ package com.github.lukesky19.skymines.manager.mine;
 import com.github.lukesky19.skymines.mine.AbstractMine;
 import com.github.lukesky19.skymines.mine.PacketMine;
 import com.github.lukesky19.skymines.mine.WorldMine;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.util.BoundingBox;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Objects;
+import java.util.*;
 
 /**
  * This class stores mines that have been created by their mine id.
+ * Mines are also indexed by the world and chunks they overlap so that {@link #getMineByLocation(Location)} only checks the mines near a location.
  */
 public class MineDataManager {
     private final @NotNull Map<String, AbstractMine> minesMap = new HashMap<>();
+    /**
+     * Maps a world's {@link UUID} to a {@link Map} mapping chunk keys to the mines that overlap that chunk.
+     */
+    private final @NotNull Map<UUID, Map<Long, List<AbstractMine>>> minesByChunkByWorld = new HashMap<>();
+    /**
+     * Maps a world's {@link UUID} to the mines that cover the entire world.
+     */
+    private final @NotNull Map<UUID, List<AbstractMine>> worldMinesByWorld = new HashMap<>();
 
     /**
      * Default Constructor.
@@ -46,7 +55,10 @@ public class MineDataManager {
      * @param mine The {@link AbstractMine}.
      */
     public void addMine(@NotNull String mineId, @NotNull AbstractMine mine) {
-        minesMap.put(mineId, mine);
+        AbstractMine previousMine = minesMap.put(mineId, mine);
+        if(previousMine != null) unindexMine(previousMine);
+
+        indexMine(mine);
     }
 
     /**
@@ -106,15 +118,61 @@ public class MineDataManager {
      * @return A mine if the location is inside one, or null.
      */
     public @Nullable AbstractMine getMineByLocation(@NotNull Location location) {
-        for(AbstractMine mine : minesMap.values()) {
-            if(mine.isLocationInMine(location)) {
-                return mine;
+        World world = location.getWorld();
+        if(world == null) return null;
+        UUID worldId = world.getUID();
+
+        // Check the mines that overlap the location's chunk first
+        Map<Long, List<AbstractMine>> minesByChunk = minesByChunkByWorld.get(worldId);
+        if(minesByChunk != null) {
+            List<AbstractMine> chunkMines = minesByChunk.get(Chunk.getChunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4));
+            if(chunkMines != null) {
+                for(AbstractMine mine : chunkMines) {
+                    if(mine.isLocationInMine(location)) {
+                        return mine;
+                    }
+                }
+            }
+        }
+
+        // Check the mines that cover the entire world
+        List<AbstractMine> worldMines = worldMinesByWorld.get(worldId);
+        if(worldMines != null) {
+            for(AbstractMine mine : worldMines) {
+                if(mine.isLocationInMine(location)) {
+                    return mine;
+                }
             }
         }
 
         return null;
     }
 
+    /**
+     * Gets the mines whose bounds overlap a chunk. Mines that cover the entire world are returned by {@link #getWorldMines(World)}.
+     * This is called for every chunk a player loads, so the indexed list is returned without copying it and must not be modified.
+     * @param world The {@link World} the chunk is in.
+     * @param chunkX The chunk x coordinate.
+     * @param chunkZ The chunk z coordinate.
+     * @return A {@link List} of {@link AbstractMine}s. May be empty.
+     */
+    public @NotNull List<AbstractMine> getMinesByChunk(@NotNull World world, int chunkX, int chunkZ) {
+        Map<Long, List<AbstractMine>> minesByChunk = minesByChunkByWorld.get(world.getUID());
+        if(minesByChunk == null) return List.of();
+
+        return minesByChunk.getOrDefault(Chunk.getChunkKey(chunkX, chunkZ), List.of());
+    }
+
+    /**
+     * Gets the mines that cover the entire world.
+     * The indexed list is returned without copying it and must not be modified.
+     * @param world The {@link World}.
+     * @return A {@link List} of {@link AbstractMine}s. May be empty.
+     */
+    public @NotNull List<AbstractMine> getWorldMines(@NotNull World world) {
+        return worldMinesByWorld.getOrDefault(world.getUID(), List.of());
+    }
+
     /**
      * Gets a mine by the id of the mine.
      * @param id The id of the mine.
@@ -135,5 +193,73 @@ public class MineDataManager {
         }
 
         minesMap.clear();
+        minesByChunkByWorld.clear();
+        worldMinesByWorld.clear();
+    }
+
+    /**
+     * Replaces every stored mine with the provided mines and re-creates the index of mines by world and chunk.
+     * Mines that are no longer stored are not cleaned up.
+     * @param mines A {@link Map} mapping mine ids to the new {@link AbstractMine}s.
+     */
+    public void replaceMines(@NotNull Map<String, AbstractMine> mines) {
+        minesMap.clear();
+        minesMap.putAll(mines);
+
+        rebuildIndex();
+    }
+
+    /**
+     * Clears and re-creates the index of mines by world and chunk from the currently stored mines.
+     */
+    public void rebuildIndex() {
+        minesByChunkByWorld.clear();
+        worldMinesByWorld.clear();
+
+        minesMap.values().forEach(this::indexMine);
+    }
+
+    /**
+     * Adds the mine to the index of mines by world and chunk.
+     * Mines without bounds are indexed as covering the entire world.
+     * @param mine The {@link AbstractMine} to index.
+     */
+    private void indexMine(@NotNull AbstractMine mine) {
+        World world = mine.getMineWorld();
+        if(world == null) return;
+        UUID worldId = world.getUID();
+
+        BoundingBox bounds = mine.getMineBounds();
+        if(bounds == null) {
+            worldMinesByWorld.computeIfAbsent(worldId, k -> new ArrayList<>()).add(mine);
+            return;
+        }
+
+        Map<Long, List<AbstractMine>> minesByChunk = minesByChunkByWorld.computeIfAbsent(worldId, k -> new HashMap<>());
+        int minChunkX = ((int) Math.floor(bounds.getMinX())) >> 4;
+        int minChunkZ = ((int) Math.floor(bounds.getMinZ())) >> 4;
+        int maxChunkX = ((int) Math.floor(bounds.getMaxX())) >> 4;
+        int maxChunkZ = ((int) Math.floor(bounds.getMaxZ())) >> 4;
+
+        for(int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for(int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                minesByChunk.computeIfAbsent(Chunk.getChunkKey(chunkX, chunkZ), k -> new ArrayList<>(1)).add(mine);
+            }
+        }
+    }
+
+    /**
+     * Removes the mine from the index of mines by world and chunk.
+     * @param mine The {@link AbstractMine} to remove.
+     */
+    private void unindexMine(@NotNull AbstractMine mine) {
+        worldMinesByWorld.values().forEach(worldMines -> worldMines.remove(mine));
+        worldMinesByWorld.values().removeIf(List::isEmpty);
+
+        minesByChunkByWorld.values().forEach(minesByChunk -> {
+            minesByChunk.values().forEach(chunkMines -> chunkMines.remove(mine));
+            minesByChunk.values().removeIf(List::isEmpty);
+        });
+        minesByChunkByWorld.values().removeIf(Map::isEmpty);
     }
 }
@@ -18,11 +18,14 @@
 package com.github.lukesky19.skymines.manager.mine;
 
 import com.github.lukesky19.skymines.SkyMines;
+import com.github.lukesky19.skymines.data.config.MineConfig;
 import com.github.lukesky19.skymines.data.config.packet.PacketMineConfig;
 import com.github.lukesky19.skymines.data.config.world.WorldMineConfig;
+import com.github.lukesky19.skymines.database.DatabaseManager;
 import com.github.lukesky19.skymines.manager.bossbar.BossBarManager;
 import com.github.lukesky19.skymines.manager.config.LocaleManager;
 import com.github.lukesky19.skymines.manager.config.MineConfigManager;
+import com.github.lukesky19.skymines.manager.mine.packet.BlockChangeManager;
 import com.github.lukesky19.skymines.manager.mine.packet.CooldownManager;
 import com.github.lukesky19.skymines.manager.mine.packet.MineTimeManager;
 import com.github.lukesky19.skymines.manager.mine.world.BlocksManager;
@@ -31,6 +34,15 @@ import com.github.lukesky19.skymines.mine.AbstractMine;
 import com.github.lukesky19.skymines.mine.PacketMine;
 import com.github.lukesky19.skymines.mine.WorldMine;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * This class manages the creation of mines from their config files from {@link MineConfigManager}.
@@ -42,15 +54,17 @@ public class MineManager {
     private final @NotNull MineConfigManager mineConfigManager;
     private final @NotNull MineDataManager mineDataManager;
     private final @NotNull CooldownManager cooldownManager;
+    private final @NotNull BlockChangeManager blockChangeManager;
     private final @NotNull MineTimeManager mineTimeManager;
     private final @NotNull BossBarManager bossBarManager;
     private final @NotNull BlocksManager blocksManager;
+    private final @NotNull DatabaseManager databaseManager;
     private final @NotNull PDCManager pdcManager;
 
     /**
      * Default Constructor.
-     * You should use {@link #MineManager(SkyMines, LocaleManager, MineConfigManager, MineDataManager, CooldownManager, MineTimeManager, BossBarManager, BlocksManager)} instead.
-     * @deprecated You should use {@link #MineManager(SkyMines, LocaleManager, MineConfigManager, MineDataManager, CooldownManager, MineTimeManager, BossBarManager, BlocksManager)} instead.
+     * You should use {@link #MineManager(SkyMines, LocaleManager, MineConfigManager, MineDataManager, CooldownManager, BlockChangeManager, MineTimeManager, BossBarManager, BlocksManager, DatabaseManager)} instead.
+     * @deprecated You should use {@link #MineManager(SkyMines, LocaleManager, MineConfigManager, MineDataManager, CooldownManager, BlockChangeManager, MineTimeManager, BossBarManager, BlocksManager, DatabaseManager)} instead.
      * @throws RuntimeException if used.
      */
     @Deprecated
@@ -65,9 +79,11 @@ public class MineManager {
      * @param mineConfigManager A {@link MineConfigManager} instance.
      * @param mineDataManager A {@link MineDataManager} instance.
      * @param cooldownManager A {@link CooldownManager} instance.
+     * @param blockChangeManager A {@link BlockChangeManager} instance.
      * @param mineTimeManager A {@link MineTimeManager} instance.
      * @param bossBarManager A {@link BossBarManager} instance.
      * @param blocksManager A {@link BlocksManager} instance.
+     * @param databaseManager A {@link DatabaseManager} instance.
      */
     public MineManager(
             @NotNull SkyMines skyMines,
@@ -75,51 +91,103 @@ public class MineManager {
             @NotNull MineConfigManager mineConfigManager,
             @NotNull MineDataManager mineDataManager,
             @NotNull CooldownManager cooldownManager,
+            @NotNull BlockChangeManager blockChangeManager,
             @NotNull MineTimeManager mineTimeManager,
             @NotNull BossBarManager bossBarManager,
-            @NotNull BlocksManager blocksManager) {
+            @NotNull BlocksManager blocksManager,
+            @NotNull DatabaseManager databaseManager) {
         this.skyMines = skyMines;
         this.localeManager = localeManager;
         this.mineConfigManager = mineConfigManager;
         this.mineDataManager = mineDataManager;
         this.cooldownManager = cooldownManager;
+        this.blockChangeManager = blockChangeManager;
         this.mineTimeManager = mineTimeManager;
         this.bossBarManager = bossBarManager;
         this.blocksManager = blocksManager;
+        this.databaseManager = databaseManager;
         this.pdcManager = new PDCManager();
     }
 
+    /**
+     * Saves the ids of the configured mines and caches their keys.
+     * Saved mine data references the mine key, and world mines save block ordinals while they are created,
+     * so this must complete before {@link #reload()}. It runs off the main thread, as it waits on the database.
+     * @return A {@link CompletableFuture} of type {@link Void} when complete.
+     */
+    public @NotNull CompletableFuture<Void> saveMineIds() {
+        Set<String> mineIds = new HashSet<>(mineConfigManager.getPacketMineConfigs().keySet());
+        mineIds.addAll(mineConfigManager.getWorldMineConfigs().keySet());
+
+        return databaseManager.getMineIdsTable().insertMineIds(mineIds);
+    }
+
     /**
      * Re-create the mines from their configuration files.
+     * The mine ids must be saved with {@link #saveMineIds()} first.
+     * The new set of mines is built first and then swapped in at once.
+     * Mines whose config, world and regions are unchanged keep their existing instance, so their boss bars, sessions and cooldowns are left untouched.
+     * Only the mines that were changed or removed are cleaned up.
      */
     public void reload() {
-        clearMines(false);
+        Map<String, AbstractMine> currentMines = mineDataManager.getMinesMap();
+        Map<String, AbstractMine> newMines = new HashMap<>();
+
+        mineConfigManager.getPacketMineConfigs().forEach((mineId, mineConfig) -> {
+            AbstractMine mine = getUnchangedMine(currentMines.get(mineId), mineConfig);
+            if(mine == null) mine = createPacketMine(mineConfig);
+            if(mine != null) newMines.put(mineId, mine);
+        });
+        mineConfigManager.getWorldMineConfigs().forEach((mineId, mineConfig) -> {
+            AbstractMine mine = getUnchangedMine(currentMines.get(mineId), mineConfig);
+            if(mine == null) mine = createWorldMine(mineConfig);
+            if(mine != null) newMines.put(mineId, mine);
+        });
+
+        List<AbstractMine> staleMines = new ArrayList<>();
+        currentMines.forEach((mineId, mine) -> {
+            if(newMines.get(mineId) != mine) staleMines.add(mine);
+        });
+
+        mineDataManager.replaceMines(newMines);
+
+        for(AbstractMine mine : staleMines) {
+            mine.cleanUp(false);
+        }
+    }
+
+    /**
+     * Get the current mine if it would be created the same from the reloaded config.
+     * @param currentMine The currently loaded {@link AbstractMine} with the same mine id, or null.
+     * @param mineConfig The reloaded {@link MineConfig}.
+     * @return The current {@link AbstractMine} or null if the mine needs to be created.
+     */
+    private @Nullable AbstractMine getUnchangedMine(@Nullable AbstractMine currentMine, @NotNull MineConfig mineConfig) {
+        if(currentMine == null) return null;
 
-        // Create mines
-        mineConfigManager.getPacketMineConfigs().forEach(this::createPacketMine);
-        mineConfigManager.getWorldMineConfigs().forEach(this::createWorldMine);
+        return currentMine.isUnchanged(mineConfig) ? currentMine : null;
     }
 
     /**
-     * Creates a new {@link PacketMine} and adds it the list of mines if it was created successfully.
-     * @param mineId The id of the mine being created.
+     * Creates a new {@link PacketMine}.
      * @param mineConfig The {@link PacketMineConfig} for the mine being created.
+     * @return The {@link PacketMine} or null if it was not created successfully.
      */
-    public void createPacketMine(@NotNull String mineId, @NotNull PacketMineConfig mineConfig) {
-        AbstractMine mine = new PacketMine(skyMines, localeManager, cooldownManager, mineTimeManager, bossBarManager, mineConfig);
+    private @Nullable AbstractMine createPacketMine(@NotNull PacketMineConfig mineConfig) {
+        AbstractMine mine = new PacketMine(skyMines, localeManager, cooldownManager, blockChangeManager, mineTimeManager, bossBarManager, mineConfig);
 
-        if(mine.isSetup()) mineDataManager.addMine(mineId, mine);
+        return mine.isSetup() ? mine : null;
     }
 
     /**
-     * Creates a new {@link WorldMine} and adds it the list of mines if it was created successfully.
-     * @param mineId The id of the mine being created.
+     * Creates a new {@link WorldMine}.
      * @param mineConfig The {@link WorldMineConfig} for the mine being created.
+     * @return The {@link WorldMine} or null if it was not created successfully.
      */
-    public void createWorldMine(@NotNull String mineId, @NotNull WorldMineConfig mineConfig) {
+    private @Nullable AbstractMine createWorldMine(@NotNull WorldMineConfig mineConfig) {
         AbstractMine mine = new WorldMine(skyMines, localeManager, blocksManager, bossBarManager, pdcManager, mineConfig);
 
-        if(mine.isSetup()) mineDataManager.addMine(mineId, mine);
+        return mine.isSetup() ? mine : null;
     }
 
     /**
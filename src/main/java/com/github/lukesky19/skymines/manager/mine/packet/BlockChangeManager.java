@@ -0,0 +1,139 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.manager.mine.packet;
+
+import com.github.lukesky19.skymines.SkyMines;
+import com.github.lukesky19.skymines.data.packet.BlockCooldownMap;
+import com.github.lukesky19.skymines.data.packet.PendingBlockChanges;
+import io.papermc.paper.math.Position;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * This class buffers client-side block changes for players and sends them once per tick.
+ * All changes due for a player during a tick are sent through a single multi-block change, grouped by chunk section.
+ */
+public class BlockChangeManager {
+    private final @NotNull SkyMines skyMines;
+    private final @NotNull Map<UUID, PendingBlockChanges> pendingChangesByPlayer = new HashMap<>();
+
+    /**
+     * Default Constructor.
+     * You should use {@link #BlockChangeManager(SkyMines)} instead.
+     * @deprecated You should use {@link #BlockChangeManager(SkyMines)} instead.
+     * @throws RuntimeException if used.
+     */
+    @Deprecated
+    public BlockChangeManager() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param skyMines A {@link SkyMines} instance.
+     */
+    public BlockChangeManager(@NotNull SkyMines skyMines) {
+        this.skyMines = skyMines;
+    }
+
+    /**
+     * Queues a client-side block change for the player.
+     * @param player The {@link Player} to send the change to.
+     * @param location The {@link Location} of the block.
+     * @param blockData The {@link BlockData} to send.
+     * @param delayTicks The minimum number of ticks to wait before sending the change.
+     */
+    public void queueBlockChange(@NotNull Player player, @NotNull Location location, @NotNull BlockData blockData, long delayTicks) {
+        queueBlockChange(player, location.getWorld(), BlockCooldownMap.packPosition(location.getBlockX(), location.getBlockY(), location.getBlockZ()), blockData, delayTicks);
+    }
+
+    /**
+     * Queues a client-side block change for the player.
+     * Changes queued for a different {@link World} than the one provided are discarded.
+     * @param player The {@link Player} to send the change to.
+     * @param world The {@link World} the block is in.
+     * @param packedPosition The block position packed with {@link BlockCooldownMap#packPosition(int, int, int)}.
+     * @param blockData The {@link BlockData} to send.
+     * @param delayTicks The minimum number of ticks to wait before sending the change.
+     */
+    public void queueBlockChange(@NotNull Player player, @NotNull World world, long packedPosition, @NotNull BlockData blockData, long delayTicks) {
+        UUID uuid = player.getUniqueId();
+        UUID worldId = world.getUID();
+
+        PendingBlockChanges pendingChanges = pendingChangesByPlayer.get(uuid);
+        if(pendingChanges == null || !pendingChanges.getWorldId().equals(worldId)) {
+            pendingChanges = new PendingBlockChanges(worldId);
+            pendingChangesByPlayer.put(uuid, pendingChanges);
+        }
+
+        pendingChanges.queue(packedPosition, blockData, getCurrentTick() + delayTicks);
+    }
+
+    /**
+     * Discards any block changes waiting to be sent to the player.
+     * @param uuid The {@link UUID} of the player.
+     */
+    public void clearPendingChanges(@NotNull UUID uuid) {
+        pendingChangesByPlayer.remove(uuid);
+    }
+
+    /**
+     * Sends every block change that is due to each player.
+     * Changes for players that went offline or changed worlds are discarded.
+     */
+    public void flushBlockChanges() {
+        if(pendingChangesByPlayer.isEmpty()) return;
+
+        long currentTick = getCurrentTick();
+
+        Iterator<Map.Entry<UUID, PendingBlockChanges>> iterator = pendingChangesByPlayer.entrySet().iterator();
+        while(iterator.hasNext()) {
+            Map.Entry<UUID, PendingBlockChanges> entry = iterator.next();
+            PendingBlockChanges pendingChanges = entry.getValue();
+
+            Player player = skyMines.getServer().getPlayer(entry.getKey());
+            if(player == null || !player.isOnline() || !player.isConnected() || !player.getWorld().getUID().equals(pendingChanges.getWorldId())) {
+                iterator.remove();
+                continue;
+            }
+
+            Map<Position, BlockData> blockChanges = new LinkedHashMap<>();
+            pendingChanges.drainDue(currentTick, blockChanges);
+            if(pendingChanges.isEmpty()) iterator.remove();
+
+            if(!blockChanges.isEmpty()) player.sendMultiBlockChange(blockChanges);
+        }
+    }
+
+    /**
+     * Get the current server tick.
+     * @return The current server tick.
+     */
+    private long getCurrentTick() {
+        return skyMines.getServer().getCurrentTick();
+    }
+}
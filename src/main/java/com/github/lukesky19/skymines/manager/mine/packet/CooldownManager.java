@@ -18,29 +18,48 @@
 package com.github.lukesky19.skymines.manager.mine.packet;
 
 import com.github.lukesky19.skymines.SkyMines;
-import com.github.lukesky19.skymines.data.packet.BlockData;
+import com.github.lukesky19.skymines.data.packet.BlockCooldownMap;
+import com.github.lukesky19.skymines.data.packet.MineCooldownStore;
 import com.github.lukesky19.skymines.data.player.PlayerData;
 import com.github.lukesky19.skymines.manager.player.PlayerDataManager;
-import com.github.lukesky19.skymines.util.PluginUtils;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.BlockType;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.UUID;
 
 /**
  * This class manages the block cooldowns for players.
+ * Cooldowns are stored as the absolute server tick they expire at and are queued by that tick,
+ * so only the cooldowns that actually expire during a tick are processed by {@link #expireCooldowns()}.
  */
 public class CooldownManager {
     private final @NotNull SkyMines skyMines;
     private final @NotNull PlayerDataManager playerDataManager;
+    private final @NotNull BlockChangeManager blockChangeManager;
+    /**
+     * The queue of cooldowns ordered by the server tick they expire at.
+     */
+    private final @NotNull PriorityQueue<CooldownExpiry> expiryQueue = new PriorityQueue<>(Comparator.comparingLong(CooldownExpiry::expiryTick));
+    /**
+     * The {@link MineCooldownStore}s of the mines that store their cooldowns per mine instead of per player.
+     */
+    private final @NotNull List<MineCooldownStore> cooldownStores = new ArrayList<>();
 
     /**
      * Default Constructor.
-     * You should use {@link #CooldownManager(SkyMines, PlayerDataManager)} instead.
-     * @deprecated You should use You should use {@link #CooldownManager(SkyMines, PlayerDataManager)} instead.
+     * You should use {@link #CooldownManager(SkyMines, PlayerDataManager, BlockChangeManager)} instead.
+     * @deprecated You should use You should use {@link #CooldownManager(SkyMines, PlayerDataManager, BlockChangeManager)} instead.
      * @throws RuntimeException if used.
      */
     @Deprecated
@@ -52,73 +71,298 @@ public class CooldownManager {
      * Constructor
      * @param skyMines A {@link SkyMines} instance.
      * @param playerDataManager A {@link PlayerDataManager} instance.
+     * @param blockChangeManager A {@link BlockChangeManager} instance.
      */
-    public CooldownManager(@NotNull SkyMines skyMines, @NotNull PlayerDataManager playerDataManager) {
+    public CooldownManager(@NotNull SkyMines skyMines, @NotNull PlayerDataManager playerDataManager, @NotNull BlockChangeManager blockChangeManager) {
         this.skyMines = skyMines;
         this.playerDataManager = playerDataManager;
+        this.blockChangeManager = blockChangeManager;
+    }
+
+    /**
+     * Registers a mine's {@link MineCooldownStore} so its cooldowns are expired every tick.
+     * @param cooldownStore The {@link MineCooldownStore} to register.
+     */
+    public void registerCooldownStore(@NotNull MineCooldownStore cooldownStore) {
+        cooldownStores.add(cooldownStore);
+    }
+
+    /**
+     * Unregisters a mine's {@link MineCooldownStore}, such as when the mine is unloaded.
+     * The active cooldowns of loaded players are moved to their {@link PlayerData} so they survive a reload.
+     * @param cooldownStore The {@link MineCooldownStore} to unregister.
+     */
+    public void unregisterCooldownStore(@NotNull MineCooldownStore cooldownStore) {
+        if(!cooldownStores.remove(cooldownStore)) return;
+
+        UUID worldId = cooldownStore.getWorldId();
+        for(UUID uuid : cooldownStore.getPlayers()) {
+            PlayerData playerData = playerDataManager.getPlayerDataMap().get(uuid);
+            if(playerData == null) continue;
+
+            cooldownStore.forEachCooldown(uuid, (packedPosition, packedCooldown) -> {
+                playerData.putLocationCooldown(worldId, packedPosition, packedCooldown);
+                expiryQueue.add(new CooldownExpiry(uuid, worldId, packedPosition, BlockCooldownMap.getExpiryTick(packedCooldown)));
+            });
+        }
     }
 
     /**
      * Check if a {@link Location} is on cooldown for the player.
      * @param uuid The {@link UUID} of the player.
      * @param location The {@link Location} to check.
+     * @param cooldownStore The {@link MineCooldownStore} of the mine, or null if the mine stores cooldowns per player.
      * @return true if on cooldown, otherwise false.
      */
-    public boolean isLocationOnCooldown(@NotNull UUID uuid, @NotNull Location location) {
-        @NotNull PlayerData playerData = playerDataManager.getPlayerData(uuid);
+    public boolean isLocationOnCooldown(@NotNull UUID uuid, @NotNull Location location, @Nullable MineCooldownStore cooldownStore) {
+        if(cooldownStore != null && cooldownStore.isOnCooldown(uuid, location.getBlockX(), location.getBlockY(), location.getBlockZ())) return true;
+
+        // The world is null once it is unloaded, and blocks in an unloaded world can't be on cooldown
+        World world = location.getWorld();
+        if(world == null) return false;
+
+        PlayerData playerData = playerDataManager.getPlayerData(uuid);
+        if(playerData == null) return false;
+
+        return playerData.isLocationOnCooldown(world.getUID(), packPosition(location), getCurrentTick());
+    }
+
+    /**
+     * Get the packed cooldown for a {@link Location} of the player.
+     * Cooldowns from a {@link MineCooldownStore} are returned with an expiry tick of 0 as only the player's bitsets are read.
+     * @param uuid The {@link UUID} of the player.
+     * @param location The {@link Location} to get the cooldown for.
+     * @param cooldownStore The {@link MineCooldownStore} of the mine, or null if the mine stores cooldowns per player.
+     * @return The cooldown packed with {@link BlockCooldownMap#packCooldown(int, long)} or {@link BlockCooldownMap#NO_COOLDOWN} if the location is not on cooldown.
+     */
+    public long getLocationCooldown(@NotNull UUID uuid, @NotNull Location location, @Nullable MineCooldownStore cooldownStore) {
+        long packedPosition = packPosition(location);
+        if(cooldownStore != null && cooldownStore.isOnCooldown(uuid, location.getBlockX(), location.getBlockY(), location.getBlockZ())) {
+            return BlockCooldownMap.packCooldown(cooldownStore.getReplacementOrdinal(packedPosition), 0L);
+        }
+
+        World world = location.getWorld();
+        if(world == null) return BlockCooldownMap.NO_COOLDOWN;
 
-        Location cleanLocation = PluginUtils.getCleanLocation(location);
+        PlayerData playerData = playerDataManager.getPlayerData(uuid);
+        if(playerData == null) return BlockCooldownMap.NO_COOLDOWN;
 
-        return playerData.isLocationOnCooldown(cleanLocation);
+        @Nullable BlockCooldownMap blockCooldowns = playerData.getBlockCooldowns(world.getUID(), Chunk.getChunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4));
+        if(blockCooldowns == null) return BlockCooldownMap.NO_COOLDOWN;
+
+        long packedCooldown = blockCooldowns.get(packedPosition);
+        if(packedCooldown == BlockCooldownMap.NO_COOLDOWN || BlockCooldownMap.getExpiryTick(packedCooldown) <= getCurrentTick()) return BlockCooldownMap.NO_COOLDOWN;
+
+        return packedCooldown;
     }
 
     /**
      * Add a cooldown for a particular location.
+     * Nothing is added if the player's {@link PlayerData} is not loaded, as the cooldown could not be saved.
      * @param uuid The {@link UUID} of the player.
      * @param location A {@link Location} add a cooldown for.
      * @param replacementType The {@link BlockType} that is displayed to the client while on cooldown.
      * @param cooldownSeconds The cooldown in seconds.
+     * @param cooldownStore The {@link MineCooldownStore} of the mine, or null if the mine stores cooldowns per player.
      */
-    public void addLocationCooldown(@NotNull UUID uuid, @NotNull Location location, @NotNull BlockType replacementType, long cooldownSeconds) {
-        @NotNull PlayerData playerData = playerDataManager.getPlayerData(uuid);
+    public void addLocationCooldown(@NotNull UUID uuid, @NotNull Location location, @NotNull BlockType replacementType, long cooldownSeconds, @Nullable MineCooldownStore cooldownStore) {
+        PlayerData playerData = playerDataManager.getPlayerData(uuid);
+        if(playerData == null) return;
+
+        long packedPosition = packPosition(location);
+        long expiryTick = getCurrentTick() + (cooldownSeconds * 20L);
+
+        if(cooldownStore != null && cooldownStore.contains(location.getBlockX(), location.getBlockY(), location.getBlockZ())) {
+            Material replacementMaterial = replacementType.asMaterial();
+            if(replacementMaterial != null) cooldownStore.addCooldown(uuid, packedPosition, replacementMaterial.ordinal(), expiryTick);
+            playerData.markCooldownsDirty();
+            return;
+        }
 
-        Location cleanLocation = PluginUtils.getCleanLocation(location);
+        World world = location.getWorld();
+        if(world == null) return;
 
-        playerData.addLocationCooldown(cleanLocation, replacementType, cooldownSeconds);
+        UUID worldId = world.getUID();
+
+        playerData.addLocationCooldown(worldId, packedPosition, replacementType, expiryTick);
+        expiryQueue.add(new CooldownExpiry(uuid, worldId, packedPosition, expiryTick));
     }
 
     /**
-     * Get a {@link Map} mapping {@link Location}s to {@link BlockData} for locations that are on cooldown for the player.
+     * Get the {@link BlockCooldownMap}s of blocks on cooldown for the player in the provided {@link World}, mapped by chunk key.
      * @param uuid The {@link UUID} of the player.
-     * @return A {@link Map} mapping {@link Location}s to {@link BlockData}
+     * @param world The {@link World} to get cooldowns for.
+     * @return A {@link Map} mapping chunk keys to {@link BlockCooldownMap}s or null if the player has no cooldowns in the {@link World} or their data is not loaded.
      */
-    public @NotNull Map<Location, BlockData> getBlockDataOnCooldown(@NotNull UUID uuid) {
-        @NotNull PlayerData playerData = playerDataManager.getPlayerData(uuid);
+    public @Nullable Map<Long, BlockCooldownMap> getBlockCooldownsByChunk(@NotNull UUID uuid, @NotNull World world) {
+        PlayerData playerData = playerDataManager.getPlayerData(uuid);
+        if(playerData == null) return null;
 
-        return playerData.getBlockDataOnCooldown();
+        return playerData.getBlockCooldownsByChunk(world.getUID());
     }
 
     /**
-     * Decrement the block's cooldown for the location provided and revet client-side changes if necessary.
+     * Get the {@link BlockCooldownMap} of blocks on cooldown for the player in the provided chunk.
      * @param uuid The {@link UUID} of the player.
-     * @param location The {@link Location}.
+     * @param world The {@link World} the chunk is in.
+     * @param chunkX The chunk x coordinate.
+     * @param chunkZ The chunk z coordinate.
+     * @return The {@link BlockCooldownMap} or null if the player has no cooldowns in the chunk or their data is not loaded.
      */
-    public void decrementLocationCooldown(@NotNull UUID uuid, @NotNull Location location) {
-        @NotNull PlayerData playerData = playerDataManager.getPlayerData(uuid);
+    public @Nullable BlockCooldownMap getBlockCooldowns(@NotNull UUID uuid, @NotNull World world, int chunkX, int chunkZ) {
+        PlayerData playerData = playerDataManager.getPlayerData(uuid);
+        if(playerData == null) return null;
 
-        Location cleanLocation = PluginUtils.getCleanLocation(location);
+        return playerData.getBlockCooldowns(world.getUID(), Chunk.getChunkKey(chunkX, chunkZ));
+    }
+
+    /**
+     * Queues the cooldowns restored from the database for expiry and resends the replacement blocks in the player's current {@link World}.
+     * This should be called once the player's data has finished loading. The work is run on the next server tick.
+     * @param player The {@link Player} whose cooldowns were restored.
+     */
+    public void restoreCooldowns(@NotNull Player player) {
+        skyMines.getServer().getScheduler().runTask(skyMines, () -> {
+            UUID uuid = player.getUniqueId();
+            PlayerData playerData = playerDataManager.getPlayerDataMap().get(uuid);
+            if(playerData == null) return;
 
-        playerData.decrementLocationCooldown(cleanLocation, 1);
+            List<CooldownExpiry> movedToStores = new ArrayList<>();
+            playerData.getBlockCooldownsByChunkByWorld().forEach((worldId, blockCooldownsByChunk) -> {
+                for(BlockCooldownMap blockCooldowns : blockCooldownsByChunk.values()) {
+                    blockCooldowns.forEach((packedPosition, packedCooldown) -> {
+                        long expiryTick = BlockCooldownMap.getExpiryTick(packedCooldown);
 
-        // Revert client-side block change
-        Long updatedCooldown = playerData.getLocationCooldownSeconds(cleanLocation);
-        if(updatedCooldown == null || updatedCooldown <= 0) {
-            skyMines.getServer().getScheduler().runTaskLater(skyMines, () -> {
-                Player player = skyMines.getServer().getPlayer(uuid);
-                if(player != null && player.isOnline() && player.isConnected() && cleanLocation.isChunkLoaded()) {
-                    player.sendBlockChange(cleanLocation, cleanLocation.getBlock().getBlockData());
+                        MineCooldownStore cooldownStore = getCooldownStore(worldId, packedPosition);
+                        if(cooldownStore != null) {
+                            cooldownStore.addCooldown(uuid, packedPosition, BlockCooldownMap.getReplacementOrdinal(packedCooldown), expiryTick);
+                            movedToStores.add(new CooldownExpiry(uuid, worldId, packedPosition, expiryTick));
+                        } else {
+                            expiryQueue.add(new CooldownExpiry(uuid, worldId, packedPosition, expiryTick));
+                        }
+                    });
                 }
-            }, 1L);
+            });
+
+            // Cooldowns inside a mine's store are no longer tracked by the player's data
+            for(CooldownExpiry moved : movedToStores) {
+                playerData.removeLocationCooldown(moved.worldId(), moved.packedPosition());
+            }
+
+            if(!player.isOnline() || !player.isConnected()) return;
+            World world = player.getWorld();
+            Map<Long, BlockCooldownMap> blockCooldownsByChunk = playerData.getBlockCooldownsByChunk(world.getUID());
+            if(blockCooldownsByChunk == null) return;
+
+            for(BlockCooldownMap blockCooldowns : blockCooldownsByChunk.values()) {
+                blockCooldowns.forEach((packedPosition, packedCooldown) ->
+                        blockChangeManager.queueBlockChange(player, world, packedPosition, BlockCooldownMap.getReplacementMaterial(packedCooldown).createBlockData(), 0L));
+            }
+
+            for(MineCooldownStore cooldownStore : cooldownStores) {
+                if(!cooldownStore.getWorldId().equals(world.getUID())) continue;
+
+                cooldownStore.forEachCooldown(uuid, (packedPosition, packedCooldown) ->
+                        blockChangeManager.queueBlockChange(player, world, packedPosition, BlockCooldownMap.getReplacementMaterial(packedCooldown).createBlockData(), 0L));
+            }
+        });
+    }
+
+    /**
+     * Removes the cooldowns that have expired by the current server tick and reverts the client-side block changes for them.
+     * Cooldowns that have not expired are not touched.
+     */
+    public void expireCooldowns() {
+        long currentTick = getCurrentTick();
+
+        while(!expiryQueue.isEmpty() && expiryQueue.peek().expiryTick() <= currentTick) {
+            CooldownExpiry cooldownExpiry = expiryQueue.poll();
+            UUID uuid = cooldownExpiry.uuid();
+            UUID worldId = cooldownExpiry.worldId();
+            long packedPosition = cooldownExpiry.packedPosition();
+
+            // The player's data may have been unloaded since the cooldown was added
+            PlayerData playerData = playerDataManager.getPlayerDataMap().get(uuid);
+            if(playerData == null) continue;
+            if(!playerData.removeExpiredLocationCooldown(worldId, packedPosition, currentTick)) continue;
+
+            // Revert client-side block change
+            World world = skyMines.getServer().getWorld(worldId);
+            if(world != null) revertBlockChange(uuid, world, packedPosition);
+        }
+
+        for(MineCooldownStore cooldownStore : cooldownStores) {
+            World world = skyMines.getServer().getWorld(cooldownStore.getWorldId());
+            if(world == null) continue;
+
+            cooldownStore.expireCooldowns(currentTick, (uuid, packedPosition) -> {
+                PlayerData playerData = playerDataManager.getPlayerDataMap().get(uuid);
+                if(playerData != null) playerData.markCooldownsDirty();
+
+                revertBlockChange(uuid, world, packedPosition);
+            });
         }
     }
+
+    /**
+     * Queues a client-side block change that reverts a block to what is in the world.
+     * @param uuid The {@link UUID} of the player.
+     * @param world The {@link World} the block is in.
+     * @param packedPosition The block position packed with {@link BlockCooldownMap#packPosition(int, int, int)}.
+     */
+    private void revertBlockChange(@NotNull UUID uuid, @NotNull World world, long packedPosition) {
+        Player player = skyMines.getServer().getPlayer(uuid);
+        if(player == null || !player.isOnline() || !player.isConnected()) return;
+
+        int x = BlockCooldownMap.getX(packedPosition);
+        int y = BlockCooldownMap.getY(packedPosition);
+        int z = BlockCooldownMap.getZ(packedPosition);
+        if(!world.isChunkLoaded(x >> 4, z >> 4)) return;
+
+        blockChangeManager.queueBlockChange(player, world, packedPosition, world.getBlockData(x, y, z), 0L);
+    }
+
+    /**
+     * Get the registered {@link MineCooldownStore} that contains a block position.
+     * @param worldId The {@link UUID} of the world the block is in.
+     * @param packedPosition The block position packed with {@link BlockCooldownMap#packPosition(int, int, int)}.
+     * @return The {@link MineCooldownStore} or null if no store contains the position.
+     */
+    private @Nullable MineCooldownStore getCooldownStore(@NotNull UUID worldId, long packedPosition) {
+        int x = BlockCooldownMap.getX(packedPosition);
+        int y = BlockCooldownMap.getY(packedPosition);
+        int z = BlockCooldownMap.getZ(packedPosition);
+
+        for(MineCooldownStore cooldownStore : cooldownStores) {
+            if(cooldownStore.getWorldId().equals(worldId) && cooldownStore.contains(x, y, z)) return cooldownStore;
+        }
+
+        return null;
+    }
+
+    /**
+     * Packs the block coordinates of a {@link Location}.
+     * @param location The {@link Location}.
+     * @return The position packed with {@link BlockCooldownMap#packPosition(int, int, int)}.
+     */
+    private long packPosition(@NotNull Location location) {
+        return BlockCooldownMap.packPosition(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    /**
+     * Get the current server tick.
+     * @return The current server tick.
+     */
+    private long getCurrentTick() {
+        return skyMines.getServer().getCurrentTick();
+    }
+
+    /**
+     * A queued cooldown that expires at a server tick.
+     * @param uuid The {@link UUID} of the player.
+     * @param worldId The {@link UUID} of the world the block is in.
+     * @param packedPosition The block position packed with {@link BlockCooldownMap#packPosition(int, int, int)}.
+     * @param expiryTick The server tick the cooldown ends at.
+     */
+    private record CooldownExpiry(@NotNull UUID uuid, @NotNull UUID worldId, long packedPosition, long expiryTick) {}
 }
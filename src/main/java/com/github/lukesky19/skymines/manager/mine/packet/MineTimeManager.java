@@ -21,11 +21,15 @@ import com.github.lukesky19.skymines.data.player.PlayerData;
 import com.github.lukesky19.skymines.manager.bossbar.BossBarManager;
 import com.github.lukesky19.skymines.manager.player.PlayerDataManager;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.UUID;
 
 /**
  * This class manages the player's time to use mines.
+ * Time is used through sessions. A session starts when a player enters a packet mine and the elapsed wall-clock time is
+ * removed from the player's time when the session is settled. Sessions are settled whenever the player's time is read or changed,
+ * when the player's data is saved and when the session ends.
  */
 public class MineTimeManager {
     private final @NotNull PlayerDataManager playerDataManager;
@@ -57,10 +61,12 @@ public class MineTimeManager {
      * @param uuid The {@link UUID} of the player.
      * @param mineId The mine id to check time for.
      * @return true if the player has time for the provided mine id, otherwise false.
-     * Will return false if there is no {@link PlayerData} as well.
+     * Will return false if the player's {@link PlayerData} is not loaded as well.
      */
     public boolean hasMineTime(@NotNull UUID uuid, @NotNull String mineId) {
-        @NotNull PlayerData playerData = playerDataManager.getPlayerData(uuid);
+        PlayerData playerData = playerDataManager.getPlayerData(uuid);
+        if(playerData == null) return false;
+        playerData.settleMineSession(System.nanoTime());
 
         return playerData.hasMineTime(mineId);
     }
@@ -69,10 +75,12 @@ public class MineTimeManager {
      * Get the mine time the player has for the provided mine id.
      * @param uuid The {@link UUID} of the player.
      * @param mineId The mine id to get time for.
-     * @return The player's time to access the mine. Will return 0 if no {@link PlayerData} exists for the player.
+     * @return The player's time to access the mine. Will return 0 if the player's {@link PlayerData} is not loaded.
      */
     public long getMineTime(@NotNull UUID uuid, @NotNull String mineId) {
-        @NotNull PlayerData playerData = playerDataManager.getPlayerData(uuid);
+        PlayerData playerData = playerDataManager.getPlayerData(uuid);
+        if(playerData == null) return 0;
+        playerData.settleMineSession(System.nanoTime());
 
         return playerData.getMineTime(mineId);
     }
@@ -83,13 +91,17 @@ public class MineTimeManager {
      * @param uuid The {@link UUID} of the player.
      * @param mineId The mine id to increment mine time for.
      * @param timeSeconds The time in seconds to add.
+     * @return true if the time was added, false if the player's {@link PlayerData} is not loaded.
      */
-    public void incrementMineTime(@NotNull UUID uuid, @NotNull String mineId, long timeSeconds) {
-        @NotNull PlayerData playerData = playerDataManager.getPlayerData(uuid);
+    public boolean incrementMineTime(@NotNull UUID uuid, @NotNull String mineId, long timeSeconds) {
+        PlayerData playerData = playerDataManager.getPlayerData(uuid);
+        if(playerData == null) return false;
+        playerData.settleMineSession(System.nanoTime());
 
         playerData.incrementMineTime(mineId, timeSeconds);
 
         bossBarManager.updateBossBar(mineId, uuid);
+        return true;
     }
 
     /**
@@ -98,13 +110,17 @@ public class MineTimeManager {
      * @param uuid The {@link UUID} of the player.
      * @param mineId The mine id to increment mine time for.
      * @param timeSeconds The time in seconds to add.
+     * @return true if the time was removed, false if the player's {@link PlayerData} is not loaded.
      */
-    public void decrementMineTime(@NotNull UUID uuid, @NotNull String mineId, long timeSeconds) {
-        @NotNull PlayerData playerData = playerDataManager.getPlayerData(uuid);
+    public boolean decrementMineTime(@NotNull UUID uuid, @NotNull String mineId, long timeSeconds) {
+        PlayerData playerData = playerDataManager.getPlayerData(uuid);
+        if(playerData == null) return false;
+        playerData.settleMineSession(System.nanoTime());
 
         playerData.decrementMineTime(mineId, timeSeconds);
 
         bossBarManager.updateBossBar(mineId, uuid);
+        return true;
     }
 
     /**
@@ -112,12 +128,53 @@ public class MineTimeManager {
      * @param uuid The {@link UUID} of the player.
      * @param mineId The id of the mine.
      * @param timeSeconds The time in seconds.
+     * @return true if the time was set, false if the player's {@link PlayerData} is not loaded.
      */
-    public void setMineTime(@NotNull UUID uuid, @NotNull String mineId, long timeSeconds) {
-        @NotNull PlayerData playerData = playerDataManager.getPlayerData(uuid);
+    public boolean setMineTime(@NotNull UUID uuid, @NotNull String mineId, long timeSeconds) {
+        PlayerData playerData = playerDataManager.getPlayerData(uuid);
+        if(playerData == null) return false;
+        playerData.settleMineSession(System.nanoTime());
 
         playerData.setMineTime(mineId, timeSeconds);
 
         bossBarManager.updateBossBar(mineId, uuid);
+        return true;
+    }
+
+    /**
+     * Start using the player's time for the provided mine id, such as when the player enters the mine.
+     * Any session for another mine is ended first. Nothing is started if the player's {@link PlayerData} is not loaded.
+     * @param uuid The {@link UUID} of the player.
+     * @param mineId The id of the mine.
+     */
+    public void startMineSession(@NotNull UUID uuid, @NotNull String mineId) {
+        PlayerData playerData = playerDataManager.getPlayerData(uuid);
+        if(playerData == null) return;
+
+        playerData.startMineSession(mineId, System.nanoTime());
+    }
+
+    /**
+     * Stop using the player's time, such as when the player leaves the mine.
+     * The time used since the session was last settled is removed from the player's time.
+     * @param uuid The {@link UUID} of the player.
+     */
+    public void endMineSession(@NotNull UUID uuid) {
+        PlayerData playerData = playerDataManager.getPlayerDataMap().get(uuid);
+        if(playerData == null) return;
+
+        playerData.endMineSession(System.nanoTime());
+    }
+
+    /**
+     * Get the id of the mine the player's time is currently being used for.
+     * @param uuid The {@link UUID} of the player.
+     * @return The mine id or null if the player has no session.
+     */
+    public @Nullable String getSessionMineId(@NotNull UUID uuid) {
+        PlayerData playerData = playerDataManager.getPlayerDataMap().get(uuid);
+        if(playerData == null) return null;
+
+        return playerData.getSessionMineId();
     }
 }
@@ -0,0 +1,239 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.manager.mine.world;
+
+import com.github.lukesky19.skylib.api.adventure.AdventureUtil;
+import com.github.lukesky19.skylib.api.registry.RegistryUtil;
+import com.github.lukesky19.skymines.SkyMines;
+import com.github.lukesky19.skymines.data.world.BlockOrdinalMap;
+import com.github.lukesky19.skymines.database.DatabaseManager;
+import com.github.lukesky19.skymines.database.tables.BlockOrdinalsTable;
+import net.kyori.adventure.text.logger.slf4j.ComponentLogger;
+import org.bukkit.block.BlockType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * This class manages the ordinals world mines assign to block types, which index the players' unlocked blocks.
+ * New ordinals are saved to the database as soon as they are assigned.
+ * The saved ordinals are loaded again after saving, so an ordinal another server saved first replaces the one assigned here.
+ * An ordinal is not handed out until it is saved, so players' unlocked blocks are never set with an ordinal that is replaced later.
+ */
+public class BlockOrdinalManager {
+    private final @NotNull SkyMines skyMines;
+    private final @NotNull ComponentLogger logger;
+    private final @NotNull DatabaseManager databaseManager;
+    private final @NotNull Map<String, BlockOrdinalMap> ordinalsByMineId = new HashMap<>();
+    /**
+     * The {@link BlockType}s of each mine whose assigned ordinal is still being saved.
+     */
+    private final @NotNull Map<String, Set<BlockType>> unsavedBlockTypesByMineId = new HashMap<>();
+
+    /**
+     * Default Constructor.
+     * You should use {@link #BlockOrdinalManager(SkyMines, DatabaseManager)} instead.
+     * @deprecated You should use {@link #BlockOrdinalManager(SkyMines, DatabaseManager)} instead.
+     * @throws RuntimeException if used.
+     */
+    @Deprecated
+    public BlockOrdinalManager() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param skyMines A {@link SkyMines} instance.
+     * @param databaseManager A {@link DatabaseManager} instance.
+     */
+    public BlockOrdinalManager(@NotNull SkyMines skyMines, @NotNull DatabaseManager databaseManager) {
+        this.skyMines = skyMines;
+        this.logger = skyMines.getComponentLogger();
+        this.databaseManager = databaseManager;
+    }
+
+    /**
+     * Loads the saved ordinals once the database is setup and migrated.
+     * Mines can't assign ordinals without the saved ordinals, so the plugin should not finish enabling if this fails.
+     * @return A {@link CompletableFuture} of type {@link Void} when complete, which completes exceptionally if the ordinals could not be loaded.
+     */
+    public @NotNull CompletableFuture<Void> loadOrdinals() {
+        return databaseManager.getSetupFuture()
+                .thenCompose(v -> databaseManager.getBlockOrdinalsTable().loadBlockOrdinals())
+                .thenAccept(savedOrdinalsByMineId -> savedOrdinalsByMineId.forEach((mineId, ordinalsByBlockTypeKey) ->
+                        putSavedOrdinals(ordinalsByMineId.computeIfAbsent(mineId, k -> new BlockOrdinalMap()), ordinalsByBlockTypeKey)));
+    }
+
+    /**
+     * Get the ordinal of the {@link BlockType} for the mine id provided.
+     * @param mineId The mine id.
+     * @param blockType The {@link BlockType}.
+     * @return The ordinal, or -1 if the {@link BlockType} has no saved ordinal in the mine.
+     */
+    public int getOrdinal(@NotNull String mineId, @NotNull BlockType blockType) {
+        BlockOrdinalMap blockOrdinalMap = ordinalsByMineId.get(mineId);
+        if(blockOrdinalMap == null || isUnsaved(mineId, blockType)) return -1;
+
+        return blockOrdinalMap.getOrdinal(blockType);
+    }
+
+    /**
+     * Get the ordinal of the {@link BlockType} for the mine id provided, assigning and saving a new ordinal if it has none.
+     * @param mineId The mine id.
+     * @param blockType The {@link BlockType}.
+     * @return The ordinal, or -1 if the ordinal is still being saved.
+     */
+    public int getOrAssignOrdinal(@NotNull String mineId, @NotNull BlockType blockType) {
+        BlockOrdinalMap blockOrdinalMap = ordinalsByMineId.computeIfAbsent(mineId, k -> new BlockOrdinalMap());
+        if(isUnsaved(mineId, blockType)) return -1;
+
+        int ordinal = blockOrdinalMap.getOrdinal(blockType);
+        if(ordinal != -1) return ordinal;
+
+        Map<BlockType, Integer> assignedOrdinals = new HashMap<>();
+        assignedOrdinals.put(blockType, blockOrdinalMap.assignOrdinal(blockType));
+        saveOrdinals(mineId, assignedOrdinals);
+
+        return -1;
+    }
+
+    /**
+     * Assigns and saves ordinals for the {@link BlockType}s of the mine id provided that have none.
+     * @param mineId The mine id.
+     * @param blockTypes A {@link Collection} of {@link BlockType}s.
+     */
+    public void assignOrdinals(@NotNull String mineId, @NotNull Collection<BlockType> blockTypes) {
+        BlockOrdinalMap blockOrdinalMap = ordinalsByMineId.computeIfAbsent(mineId, k -> new BlockOrdinalMap());
+        Map<BlockType, Integer> assignedOrdinals = new HashMap<>();
+
+        blockTypes.forEach(blockType -> {
+            if(blockOrdinalMap.getOrdinal(blockType) != -1) return;
+
+            assignedOrdinals.put(blockType, blockOrdinalMap.assignOrdinal(blockType));
+        });
+
+        if(!assignedOrdinals.isEmpty()) saveOrdinals(mineId, assignedOrdinals);
+    }
+
+    /**
+     * Saves newly assigned ordinals to the database, then loads the mine's saved ordinals to replace any that another server saved first.
+     * The ordinals are not handed out until they are saved. If the save fails, they are removed so the next request assigns new ones.
+     * @param mineId The mine id.
+     * @param assignedOrdinals A {@link Map} mapping {@link BlockType}s to their assigned ordinals.
+     */
+    private void saveOrdinals(@NotNull String mineId, @NotNull Map<BlockType, Integer> assignedOrdinals) {
+        unsavedBlockTypesByMineId.computeIfAbsent(mineId, k -> new HashSet<>()).addAll(assignedOrdinals.keySet());
+
+        Map<String, Integer> ordinalsByBlockTypeKey = new HashMap<>();
+        assignedOrdinals.forEach((blockType, ordinal) -> ordinalsByBlockTypeKey.put(blockType.getKey().toString(), ordinal));
+
+        BlockOrdinalsTable blockOrdinalsTable = databaseManager.getBlockOrdinalsTable();
+        blockOrdinalsTable.saveBlockOrdinals(Map.of(mineId, ordinalsByBlockTypeKey))
+                .thenCompose(v -> blockOrdinalsTable.loadBlockOrdinals(mineId))
+                .thenAcceptAsync(savedOrdinals -> applySavedOrdinals(mineId, assignedOrdinals, savedOrdinals), this::executeOnMainThread)
+                .exceptionally(e -> {
+                    logger.error(AdventureUtil.serialize("Failed to save block ordinals for mine " + mineId + " due to: " + e.getMessage()));
+                    if(skyMines.isEnabled()) executeOnMainThread(() -> discardUnsavedOrdinals(mineId, assignedOrdinals.keySet()));
+                    return null;
+                });
+    }
+
+    /**
+     * Replaces the assigned ordinals with the ordinals saved in the database.
+     * A {@link BlockType} that was saved with another ordinal uses the saved ordinal.
+     * A {@link BlockType} that was not saved, because its ordinal was saved for another {@link BlockType}, is assigned a new ordinal and saved again.
+     * @param mineId The mine id.
+     * @param assignedOrdinals A {@link Map} mapping {@link BlockType}s to the ordinals that were saved.
+     * @param savedOrdinals A {@link Map} mapping block type keys to the ordinals in the database.
+     */
+    private void applySavedOrdinals(@NotNull String mineId, @NotNull Map<BlockType, Integer> assignedOrdinals, @NotNull Map<String, Integer> savedOrdinals) {
+        BlockOrdinalMap blockOrdinalMap = ordinalsByMineId.computeIfAbsent(mineId, k -> new BlockOrdinalMap());
+        putSavedOrdinals(blockOrdinalMap, savedOrdinals);
+
+        Set<BlockType> unsavedBlockTypes = unsavedBlockTypesByMineId.computeIfAbsent(mineId, k -> new HashSet<>());
+        Map<BlockType, Integer> reassignedOrdinals = new HashMap<>();
+        assignedOrdinals.forEach((blockType, ordinal) -> {
+            Integer savedOrdinal = savedOrdinals.get(blockType.getKey().toString());
+            if(savedOrdinal == null) {
+                reassignedOrdinals.put(blockType, blockOrdinalMap.reassignOrdinal(blockType));
+                return;
+            }
+
+            if(savedOrdinal.intValue() != ordinal) {
+                logger.warn(AdventureUtil.serialize("The ordinal of " + blockType.getKey() + " in mine " + mineId + " was saved by another server first, so its saved ordinal is used instead."));
+                blockOrdinalMap.putOrdinal(blockType, savedOrdinal);
+            }
+
+            // The ordinal matches the database, so it can be handed out
+            unsavedBlockTypes.remove(blockType);
+        });
+
+        if(!reassignedOrdinals.isEmpty()) saveOrdinals(mineId, reassignedOrdinals);
+    }
+
+    /**
+     * Removes assigned ordinals that failed to save, so the next request for them assigns and saves new ones.
+     * @param mineId The mine id.
+     * @param blockTypes The {@link BlockType}s whose ordinals failed to save.
+     */
+    private void discardUnsavedOrdinals(@NotNull String mineId, @NotNull Set<BlockType> blockTypes) {
+        BlockOrdinalMap blockOrdinalMap = ordinalsByMineId.get(mineId);
+        Set<BlockType> unsavedBlockTypes = unsavedBlockTypesByMineId.get(mineId);
+        if(blockOrdinalMap == null || unsavedBlockTypes == null) return;
+
+        blockTypes.forEach(blockType -> {
+            if(unsavedBlockTypes.remove(blockType)) blockOrdinalMap.removeOrdinal(blockType);
+        });
+    }
+
+    /**
+     * Check if the ordinal assigned to the {@link BlockType} is still being saved.
+     * @param mineId The mine id.
+     * @param blockType The {@link BlockType}.
+     * @return true if the ordinal is not saved yet, otherwise false.
+     */
+    private boolean isUnsaved(@NotNull String mineId, @NotNull BlockType blockType) {
+        Set<BlockType> unsavedBlockTypes = unsavedBlockTypesByMineId.get(mineId);
+        return unsavedBlockTypes != null && unsavedBlockTypes.contains(blockType);
+    }
+
+    /**
+     * Stores saved ordinals for {@link BlockType}s that have no ordinal and reserves the rest, so they are not assigned again.
+     * @param blockOrdinalMap The {@link BlockOrdinalMap} of the mine.
+     * @param savedOrdinals A {@link Map} mapping block type keys to the ordinals in the database.
+     */
+    private void putSavedOrdinals(@NotNull BlockOrdinalMap blockOrdinalMap, @NotNull Map<String, Integer> savedOrdinals) {
+        savedOrdinals.forEach((blockTypeKey, ordinal) -> {
+            Optional<BlockType> optionalBlockType = RegistryUtil.getBlockType(logger, blockTypeKey);
+            if(optionalBlockType.isPresent() && blockOrdinalMap.getOrdinal(optionalBlockType.get()) == -1) {
+                blockOrdinalMap.putOrdinal(optionalBlockType.get(), ordinal);
+            } else {
+                blockOrdinalMap.reserveOrdinal(ordinal);
+            }
+        });
+    }
+
+    /**
+     * Runs a task on the main thread. Used as the {@link java.util.concurrent.Executor} of future continuations that change the ordinals.
+     * @param task The {@link Runnable} to run.
+     */
+    private void executeOnMainThread(@NotNull Runnable task) {
+        skyMines.getServer().getScheduler().runTask(skyMines, task);
+    }
+}
@@ -22,6 +22,7 @@ import com.github.lukesky19.skymines.manager.player.PlayerDataManager;
 import org.bukkit.block.BlockType;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collection;
 import java.util.UUID;
 
 /**
@@ -29,11 +30,12 @@ import java.util.UUID;
  */
 public class BlocksManager {
     private final @NotNull PlayerDataManager playerDataManager;
+    private final @NotNull BlockOrdinalManager blockOrdinalManager;
 
     /**
      * Default Constructor.
-     * You should use {@link #BlocksManager(PlayerDataManager)} instead.
-     * @deprecated You should use You should use {@link #BlocksManager(PlayerDataManager)} instead.
+     * You should use {@link #BlocksManager(PlayerDataManager, BlockOrdinalManager)} instead.
+     * @deprecated You should use You should use {@link #BlocksManager(PlayerDataManager, BlockOrdinalManager)} instead.
      * @throws RuntimeException if used.
      */
     @Deprecated
@@ -44,9 +46,29 @@ public class BlocksManager {
     /**
      * Constructor
      * @param playerDataManager A {@link PlayerDataManager} instance.
+     * @param blockOrdinalManager A {@link BlockOrdinalManager} instance.
      */
-    public BlocksManager(@NotNull PlayerDataManager playerDataManager) {
+    public BlocksManager(@NotNull PlayerDataManager playerDataManager, @NotNull BlockOrdinalManager blockOrdinalManager) {
         this.playerDataManager = playerDataManager;
+        this.blockOrdinalManager = blockOrdinalManager;
+    }
+
+    /**
+     * Assigns ordinals to the unlockable {@link BlockType}s of the mine id provided, so they can be checked with a single bit test.
+     * @param mineId The mine id.
+     * @param blockTypes A {@link Collection} of unlockable {@link BlockType}s.
+     */
+    public void registerUnlockableBlocks(@NotNull String mineId, @NotNull Collection<BlockType> blockTypes) {
+        blockOrdinalManager.assignOrdinals(mineId, blockTypes);
+    }
+
+    /**
+     * Check if the player's {@link PlayerData} has finished loading, so their unlocked blocks can be changed.
+     * @param uuid The {@link UUID} of the player.
+     * @return true if the player's data is loaded, otherwise false.
+     */
+    public boolean isPlayerDataLoaded(@NotNull UUID uuid) {
+        return playerDataManager.isLoaded(uuid);
     }
 
     /**
@@ -54,12 +76,17 @@ public class BlocksManager {
      * @param uuid The {@link UUID} of the player.
      * @param mineId The mine id to check.
      * @param blockType The {@link BlockType} to check.
-     * @return true if the player has unlocked access to the block, otherwise false. Will also return false if no data is stored for said mine id.
+     * @return true if the player has unlocked access to the block, otherwise false.
+     * Will also return false if no data is stored for said mine id or the player's {@link PlayerData} is not loaded.
      */
     public boolean isBlockTypeUnlocked(@NotNull UUID uuid, @NotNull String mineId, @NotNull BlockType blockType) {
-        @NotNull PlayerData playerData = playerDataManager.getPlayerData(uuid);
+        int ordinal = blockOrdinalManager.getOrdinal(mineId, blockType);
+        if(ordinal == -1) return false;
 
-        return playerData.isBlockTypeUnlocked(mineId, blockType);
+        PlayerData playerData = playerDataManager.getPlayerData(uuid);
+        if(playerData == null) return false;
+
+        return playerData.isBlockUnlocked(mineId, ordinal);
     }
 
     /**
@@ -67,10 +94,17 @@ public class BlocksManager {
      * @param uuid The {@link UUID} of the player.
      * @param mineId THe mine id to unlock the block for.
      * @param blockType The {@link BlockType}.
+     * @return true if the block was unlocked, false if the player's {@link PlayerData} is not loaded or the block's ordinal is still being saved.
      */
-    public void addUnlockedBlock(@NotNull UUID uuid, @NotNull String mineId, @NotNull BlockType blockType) {
-        @NotNull PlayerData playerData = playerDataManager.getPlayerData(uuid);
-        playerData.addUnlockedBlock(mineId, blockType);
+    public boolean addUnlockedBlock(@NotNull UUID uuid, @NotNull String mineId, @NotNull BlockType blockType) {
+        PlayerData playerData = playerDataManager.getPlayerData(uuid);
+        if(playerData == null) return false;
+
+        int ordinal = blockOrdinalManager.getOrAssignOrdinal(mineId, blockType);
+        if(ordinal == -1) return false;
+
+        playerData.addUnlockedBlock(mineId, ordinal);
+        return true;
     }
 
     /**
@@ -78,9 +112,16 @@ public class BlocksManager {
      * @param uuid The {@link UUID} of the player.
      * @param mineId The mine id to lock the block for.
      * @param blockType The {@link BlockType}.
+     * @return true if the block is locked, false if the player's {@link PlayerData} is not loaded.
      */
-    public void removeUnlockedBlock(@NotNull UUID uuid, @NotNull String mineId, @NotNull BlockType blockType) {
-        @NotNull PlayerData playerData = playerDataManager.getPlayerData(uuid);
-        playerData.removeUnlockedBlock(mineId, blockType);
+    public boolean removeUnlockedBlock(@NotNull UUID uuid, @NotNull String mineId, @NotNull BlockType blockType) {
+        PlayerData playerData = playerDataManager.getPlayerData(uuid);
+        if(playerData == null) return false;
+
+        int ordinal = blockOrdinalManager.getOrdinal(mineId, blockType);
+        if(ordinal == -1) return true;
+
+        playerData.removeUnlockedBlock(mineId, ordinal);
+        return true;
     }
 }
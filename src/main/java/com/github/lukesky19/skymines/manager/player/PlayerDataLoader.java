@@ -0,0 +1,147 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.manager.player;
+
+import com.github.lukesky19.skymines.database.DatabaseManager;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class loads the saved data of players in batches.
+ * Loads requested within a short window are collected and fetched with one query per table for all of them, so many players joining at once,
+ * such as after a restart, do not queue a query per table for each player.
+ * The future of each player is completed on its own, so a player whose key is not cached does not fail the loads of the other players.
+ */
+public class PlayerDataLoader {
+    private static final long BATCH_WINDOW_MILLIS = 25L;
+    /**
+     * Keeps each query well below the bound parameter limits of the database backends.
+     */
+    private static final int MAX_BATCH_SIZE = 500;
+
+    private final @NotNull DatabaseManager databaseManager;
+    /**
+     * The loads waiting for the next batch. Access is synchronized on the map.
+     */
+    private final @NotNull Map<UUID, CompletableFuture<LoadedPlayerData>> pendingLoads = new HashMap<>();
+
+    /**
+     * The saved data of a player.
+     * @param mineTimes A {@link Map} mapping mine ids to mine time as a {@link Long}.
+     * @param unlockedBlocks A {@link Map} mapping mine ids to unlocked blocks as a {@link BitSet} of block ordinals.
+     * @param cooldownsByMineId A {@link Map} mapping mine ids to encoded {@link com.github.lukesky19.skymines.data.packet.CooldownBlob} bytes.
+     */
+    public record LoadedPlayerData(@NotNull Map<String, Long> mineTimes, @NotNull Map<String, BitSet> unlockedBlocks, @NotNull Map<String, byte[]> cooldownsByMineId) {}
+
+    /**
+     * Default Constructor.
+     * You should use {@link #PlayerDataLoader(DatabaseManager)} instead.
+     * @deprecated You should use {@link #PlayerDataLoader(DatabaseManager)} instead.
+     * @throws RuntimeException if used.
+     */
+    @Deprecated
+    public PlayerDataLoader() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param databaseManager A {@link DatabaseManager} instance.
+     */
+    public PlayerDataLoader(@NotNull DatabaseManager databaseManager) {
+        this.databaseManager = databaseManager;
+    }
+
+    /**
+     * Queues the player's saved data to be loaded with the next batch.
+     * The player's key must be cached, which it is while this server holds the lease on their data.
+     * @param uuid The {@link UUID} of the player.
+     * @return A {@link CompletableFuture} containing the {@link LoadedPlayerData}.
+     */
+    public @NotNull CompletableFuture<LoadedPlayerData> loadPlayerData(@NotNull UUID uuid) {
+        synchronized(pendingLoads) {
+            CompletableFuture<LoadedPlayerData> pendingLoad = pendingLoads.get(uuid);
+            if(pendingLoad != null) return pendingLoad;
+
+            // The first load of a batch schedules it
+            if(pendingLoads.isEmpty()) {
+                CompletableFuture.runAsync(this::loadPendingPlayerData, CompletableFuture.delayedExecutor(BATCH_WINDOW_MILLIS, TimeUnit.MILLISECONDS));
+            }
+
+            CompletableFuture<LoadedPlayerData> loadFuture = new CompletableFuture<>();
+            pendingLoads.put(uuid, loadFuture);
+            return loadFuture;
+        }
+    }
+
+    /**
+     * Loads the data of every player waiting for the batch, split into queries of up to {@link #MAX_BATCH_SIZE} players.
+     */
+    private void loadPendingPlayerData() {
+        Map<UUID, CompletableFuture<LoadedPlayerData>> loadFutures;
+        synchronized(pendingLoads) {
+            loadFutures = new HashMap<>(pendingLoads);
+            pendingLoads.clear();
+        }
+
+        List<UUID> uuids = new ArrayList<>(loadFutures.keySet());
+        for(int start = 0; start < uuids.size(); start += MAX_BATCH_SIZE) {
+            List<UUID> batch = uuids.subList(start, Math.min(start + MAX_BATCH_SIZE, uuids.size()));
+            loadBatch(batch, loadFutures);
+        }
+    }
+
+    /**
+     * Loads the data of the players in the batch and completes the future of each player.
+     * @param uuids The {@link UUID}s of the players in the batch.
+     * @param loadFutures A {@link Map} mapping {@link UUID}s to the future to complete for the player.
+     */
+    private void loadBatch(@NotNull List<UUID> uuids, @NotNull Map<UUID, CompletableFuture<LoadedPlayerData>> loadFutures) {
+        CompletableFuture<Map<UUID, Map<String, Long>>> timesFuture = databaseManager.getTimesTable().loadMineTimesBatch(uuids);
+        CompletableFuture<Map<UUID, Map<String, BitSet>>> blocksFuture = databaseManager.getUnlockedBlocksTable().loadUnlockedBlocksBatch(uuids);
+        CompletableFuture<Map<UUID, Map<String, byte[]>>> cooldownsFuture = databaseManager.getCooldownsTable().loadCooldownsBatch(uuids);
+
+        CompletableFuture.allOf(timesFuture, blocksFuture, cooldownsFuture).whenComplete((v, e) -> {
+            for(UUID uuid : uuids) {
+                CompletableFuture<LoadedPlayerData> loadFuture = loadFutures.get(uuid);
+                if(e != null) {
+                    loadFuture.completeExceptionally(e);
+                    continue;
+                }
+
+                Map<String, Long> mineTimes = timesFuture.join().get(uuid);
+                Map<String, BitSet> unlockedBlocks = blocksFuture.join().get(uuid);
+                Map<String, byte[]> cooldownsByMineId = cooldownsFuture.join().get(uuid);
+                if(mineTimes == null || unlockedBlocks == null || cooldownsByMineId == null) {
+                    loadFuture.completeExceptionally(new IllegalStateException("The key of player " + uuid + " is not cached."));
+                    continue;
+                }
+
+                loadFuture.complete(new LoadedPlayerData(mineTimes, unlockedBlocks, cooldownsByMineId));
+            }
+        });
+    }
+}
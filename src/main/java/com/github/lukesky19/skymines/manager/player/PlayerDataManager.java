@@ -19,30 +19,70 @@ package com.github.lukesky19.skymines.manager.player;
 
 import com.github.lukesky19.skylib.api.adventure.AdventureUtil;
 import com.github.lukesky19.skymines.SkyMines;
+import com.github.lukesky19.skymines.data.packet.BlockCooldownMap;
+import com.github.lukesky19.skymines.data.packet.CooldownBlob;
+import com.github.lukesky19.skymines.data.packet.MineCooldownStore;
 import com.github.lukesky19.skymines.data.player.PlayerData;
+import com.github.lukesky19.skymines.data.player.SessionLease;
 import com.github.lukesky19.skymines.database.DatabaseManager;
+import com.github.lukesky19.skymines.database.tables.CooldownsTable;
 import com.github.lukesky19.skymines.database.tables.TimesTable;
 import com.github.lukesky19.skymines.database.tables.UnlockedBlocksTable;
+import com.github.lukesky19.skymines.manager.mine.MineDataManager;
+import com.github.lukesky19.skymines.mine.AbstractMine;
+import com.github.lukesky19.skymines.mine.PacketMine;
 import net.kyori.adventure.text.logger.slf4j.ComponentLogger;
-import org.bukkit.block.BlockType;
+import org.bukkit.Location;
+import org.bukkit.World;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class manages player data.
  */
 public class PlayerDataManager {
+    private static final int RECENT_PLAYER_DATA_CAPACITY = 128;
+    private static final long PRELOAD_EXPIRY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final @NotNull SkyMines skyMines;
     private final @NotNull ComponentLogger logger;
     private final @NotNull DatabaseManager databaseManager;
+    private final @NotNull MineDataManager mineDataManager;
+    private final @NotNull SessionManager sessionManager;
+    private final @NotNull PlayerDataLoader playerDataLoader;
+    /**
+     * The server's data version. Saved cooldowns store {@link org.bukkit.Material} ordinals, which are only valid for the same data version.
+     */
+    private final int dataVersion;
 
     private final @NotNull Map<UUID, PlayerData> playerDataMap = new HashMap<>();
+    /**
+     * Player data loaded during {@link org.bukkit.event.player.AsyncPlayerPreLoginEvent}, waiting for the player to join.
+     */
+    private final @NotNull Map<UUID, CachedPlayerData> preloadedPlayerData = new ConcurrentHashMap<>();
+    /**
+     * The player data of recently unloaded players, so quick reconnects do not need to load from the database. Access is synchronized on the map.
+     */
+    private final @NotNull Map<UUID, CachedPlayerData> recentPlayerData = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, CachedPlayerData> eldest) {
+            return size() > RECENT_PLAYER_DATA_CAPACITY;
+        }
+    };
+    /**
+     * The cached player data of offline players whose final save failed. Each entry keeps a hold on the player's lease until it is saved by {@link #savePlayerDataBatch()}.
+     */
+    private final @NotNull Map<UUID, CachedPlayerData> unsavedPlayerData = new ConcurrentHashMap<>();
 
     /**
      * Default Constructor.
-     * You should use {@link #PlayerDataManager(SkyMines, DatabaseManager)} instead.
-     * @deprecated You should use {@link #PlayerDataManager(SkyMines, DatabaseManager)} instead.
+     * You should use {@link #PlayerDataManager(SkyMines, DatabaseManager, MineDataManager, SessionManager)} instead.
+     * @deprecated You should use {@link #PlayerDataManager(SkyMines, DatabaseManager, MineDataManager, SessionManager)} instead.
      * @throws RuntimeException if used.
      */
     @Deprecated
@@ -54,23 +94,37 @@ public class PlayerDataManager {
      * Constructor
      * @param skyMines A {@link SkyMines} instance.
      * @param databaseManager A {@link DatabaseManager} instance.
+     * @param mineDataManager A {@link MineDataManager} instance.
+     * @param sessionManager A {@link SessionManager} instance.
      */
-    public PlayerDataManager(@NotNull SkyMines skyMines, @NotNull DatabaseManager databaseManager) {
+    @SuppressWarnings("deprecation")
+    public PlayerDataManager(@NotNull SkyMines skyMines, @NotNull DatabaseManager databaseManager, @NotNull MineDataManager mineDataManager, @NotNull SessionManager sessionManager) {
+        this.skyMines = skyMines;
         this.logger = skyMines.getComponentLogger();
         this.databaseManager = databaseManager;
+        this.mineDataManager = mineDataManager;
+        this.sessionManager = sessionManager;
+        this.playerDataLoader = new PlayerDataLoader(databaseManager);
+        this.dataVersion = skyMines.getServer().getUnsafe().getDataVersion();
     }
 
     /**
      * Get the {@link PlayerData} for the {@link UUID} provided.
+     * Changes must not be made for a player whose data is not loaded, as they would be lost once the data loads.
      * @param uuid The {@link UUID} of the player.
-     * @return The {@link PlayerData} for the player.
+     * @return The {@link PlayerData} for the player or null if their data is not loaded.
      */
-    public @NotNull PlayerData getPlayerData(@NotNull UUID uuid) {
-        @NotNull PlayerData playerData = playerDataMap.getOrDefault(uuid, new PlayerData());
-
-        playerDataMap.put(uuid, playerData);
+    public @Nullable PlayerData getPlayerData(@NotNull UUID uuid) {
+        return playerDataMap.get(uuid);
+    }
 
-        return playerData;
+    /**
+     * Check if the player's data has finished loading.
+     * @param uuid The {@link UUID} of the player.
+     * @return true if the player's data is loaded, otherwise false.
+     */
+    public boolean isLoaded(@NotNull UUID uuid) {
+        return playerDataMap.containsKey(uuid);
     }
 
     /**
@@ -82,7 +136,7 @@ public class PlayerDataManager {
     }
 
     /**
-     * Save all player data for the player's uuid provided to the database.
+     * Save the player data that changed since the last save for the player's uuid provided to the database.
      * @param uuid The {@link UUID} of the player.
      * @return A {@link CompletableFuture} containing a {@link Boolean} where true means all data saved successfully and false for any errors.
      */
@@ -93,87 +147,534 @@ public class PlayerDataManager {
             return CompletableFuture.completedFuture(false);
         }
 
+        // Remove the time used by the player's current session so the saved time is up to date
+        playerData.settleMineSession(System.nanoTime());
+
+        return savePlayerData(uuid, playerData, null);
+    }
+
+    /**
+     * Save the player data that changed since the last save to the database for all loaded players.
+     * @return A {@link CompletableFuture} containing a {@link Boolean} where true means all data saved successfully and false for any errors.
+     */
+    public @NotNull CompletableFuture<Boolean> savePlayerData() {
+        return savePlayerDataBatch().thenApply(results -> !results.containsValue(false));
+    }
+
+    /**
+     * Save the player data that changed since the last save to the database for all loaded players, then release all of this server's leases.
+     * This is used when the plugin is disabled, so other servers can load the players' data without waiting for the leases to expire.
+     * @return A {@link CompletableFuture} containing a {@link Boolean} where true means all data saved successfully and false for any errors.
+     */
+    public @NotNull CompletableFuture<Boolean> saveAndReleasePlayerData() {
+        return savePlayerData().thenCompose(successful -> sessionManager.releaseLeases().thenApply(v -> successful));
+    }
+
+    /**
+     * Save the player data that changed since the last save to the database for all loaded players.
+     * The mine times, unlocked blocks and cooldowns of every player are each written in a single transaction, instead of one transaction per player for each.
+     * If a player's data fails to save, it is marked as changed again so the next save retries it.
+     * The data of offline players whose final save failed is also saved, and their lease is released once it saves.
+     * Players this server does not hold the lease for are skipped.
+     * @return A {@link CompletableFuture} containing a {@link Map} mapping the {@link UUID} of each player that had changes to true if they saved successfully, otherwise false.
+     */
+    public @NotNull CompletableFuture<Map<UUID, Boolean>> savePlayerDataBatch() {
+        Map<UUID, Map<String, Long>> mineTimesByPlayer = new HashMap<>();
+        Map<UUID, Map<String, BitSet>> unlockedBlocksByPlayer = new HashMap<>();
+        Map<UUID, Map<String, byte[]>> cooldownsByPlayer = new HashMap<>();
+        Map<UUID, PlayerData> savedPlayerData = new HashMap<>();
+        Map<UUID, DirtyData> dirtyDataByPlayer = new HashMap<>();
+        Map<UUID, SessionLease> leases = sessionManager.getLeases();
+
+        long nanoTime = System.nanoTime();
+        playerDataMap.forEach((uuid, playerData) -> {
+            // The changes are kept until the lease is held, as writes without it would be rejected
+            SessionLease lease = leases.get(uuid);
+            if(lease == null) return;
+
+            // Remove the time used by the player's current session so the saved time is up to date
+            playerData.settleMineSession(nanoTime);
+
+            DirtyData dirtyData = takeDirtyData(playerData);
+            if(dirtyData.isEmpty()) return;
+
+            savedPlayerData.put(uuid, playerData);
+            dirtyDataByPlayer.put(uuid, dirtyData);
+
+            if(!dirtyData.mineTimeIds().isEmpty()) mineTimesByPlayer.put(uuid, getMineTimes(playerData, dirtyData.mineTimeIds()));
+            if(!dirtyData.unlockedBlockMineIds().isEmpty()) unlockedBlocksByPlayer.put(uuid, getUnlockedBlocks(playerData, dirtyData.unlockedBlockMineIds()));
+            if(dirtyData.cooldowns()) cooldownsByPlayer.put(uuid, encodeCooldowns(uuid, playerData));
+        });
+
+        Map<UUID, CachedPlayerData> savedUnsavedPlayerData = new HashMap<>();
+        unsavedPlayerData.forEach((uuid, cachedPlayerData) -> {
+            PlayerData playerData = cachedPlayerData.playerData();
+            // The player reconnected, so their online data is saved instead and the hold kept for the copy is released
+            if(playerDataMap.containsKey(uuid)) {
+                if(unsavedPlayerData.remove(uuid, cachedPlayerData)) sessionManager.releaseLease(uuid);
+                return;
+            }
+
+            SessionLease lease = leases.get(uuid);
+            if(lease == null) return;
+
+            DirtyData dirtyData = takeDirtyData(playerData);
+            savedUnsavedPlayerData.put(uuid, cachedPlayerData);
+            savedPlayerData.put(uuid, playerData);
+            dirtyDataByPlayer.put(uuid, dirtyData);
+
+            if(!dirtyData.mineTimeIds().isEmpty()) mineTimesByPlayer.put(uuid, getMineTimes(playerData, dirtyData.mineTimeIds()));
+            if(!dirtyData.unlockedBlockMineIds().isEmpty()) unlockedBlocksByPlayer.put(uuid, getUnlockedBlocks(playerData, dirtyData.unlockedBlockMineIds()));
+            if(dirtyData.cooldowns()) cooldownsByPlayer.put(uuid, cachedPlayerData.cooldownsByMineId());
+        });
+
+        CompletableFuture<Map<UUID, Boolean>> timesFuture = databaseManager.getTimesTable().saveMineTimesBatch(mineTimesByPlayer, leases)
+                .exceptionally(e -> {
+                    logger.error(AdventureUtil.serialize("Failed to save mine times for " + mineTimesByPlayer.size() + " players due to: " + e.getMessage()));
+                    return Map.of();
+                });
+        CompletableFuture<Map<UUID, Boolean>> blocksFuture = databaseManager.getUnlockedBlocksTable().saveUnlockedBlocksBatch(unlockedBlocksByPlayer, leases)
+                .exceptionally(e -> {
+                    logger.error(AdventureUtil.serialize("Failed to save unlocked blocks for " + unlockedBlocksByPlayer.size() + " players due to: " + e.getMessage()));
+                    return Map.of();
+                });
+        CompletableFuture<Map<UUID, Boolean>> cooldownsFuture = databaseManager.getCooldownsTable().saveCooldownsBatch(cooldownsByPlayer, leases)
+                .exceptionally(e -> {
+                    logger.error(AdventureUtil.serialize("Failed to save cooldowns for " + cooldownsByPlayer.size() + " players due to: " + e.getMessage()));
+                    return Map.of();
+                });
+
+        return timesFuture.thenCombine(blocksFuture, (timeResults, blockResults) -> {
+            Map<UUID, Boolean> results = new HashMap<>();
+
+            dirtyDataByPlayer.keySet().forEach(uuid -> {
+                // A player with no rows in a batch has nothing to fail, but a player missing from a batch's results did not save
+                boolean timesSuccessful = timeResults.getOrDefault(uuid, !mineTimesByPlayer.containsKey(uuid));
+                boolean blocksSuccessful = blockResults.getOrDefault(uuid, !unlockedBlocksByPlayer.containsKey(uuid));
+                results.put(uuid, timesSuccessful && blocksSuccessful);
+            });
+
+            return results;
+        }).thenCombine(cooldownsFuture, (results, cooldownResults) -> {
+            results.replaceAll((uuid, successful) -> successful && cooldownResults.getOrDefault(uuid, !cooldownsByPlayer.containsKey(uuid)));
+
+            results.forEach((uuid, successful) -> {
+                if(!successful) {
+                    logger.error(AdventureUtil.serialize("Failed to save player data for " + uuid + "."));
+                    markDirty(savedPlayerData.get(uuid), dirtyDataByPlayer.get(uuid));
+                    return;
+                }
+
+                // The offline player's data is saved, so the lease can be released
+                CachedPlayerData cachedPlayerData = savedUnsavedPlayerData.get(uuid);
+                if(cachedPlayerData != null && unsavedPlayerData.remove(uuid, cachedPlayerData)) sessionManager.releaseLease(uuid);
+            });
+
+            return results;
+        });
+    }
+
+    /**
+     * Acquires the lease on the player's data and loads their mine times, unlocked blocks and cooldowns ahead of them joining.
+     * This is called from {@link org.bukkit.event.player.AsyncPlayerPreLoginEvent}, so the data is ready before {@link #loadPlayerData(UUID)} is called on join.
+     * If the player's data is still cached from a recent disconnect and no other server acquired the lease since, the database is not used.
+     * @param uuid The {@link UUID} of the player.
+     * @return A {@link CompletableFuture} of type {@link Void} when complete.
+     */
+    public @NotNull CompletableFuture<Void> preloadPlayerData(@NotNull UUID uuid) {
+        long nanoTime = System.nanoTime();
+        expirePreloads();
+
+        return sessionManager.acquireLease(uuid)
+                .thenCompose(lease -> loadCachedPlayerData(uuid, lease, nanoTime))
+                .thenAccept(cachedPlayerData -> {
+                    // Each preload holds the lease once, so a replaced preload releases its hold
+                    if(preloadedPlayerData.put(uuid, cachedPlayerData) != null) sessionManager.releaseLease(uuid);
+                })
+                .exceptionally(e -> {
+                    logger.error(AdventureUtil.serialize("Failed to preload player data for " + uuid + " due to " + e.getMessage()));
+                    return null;
+                });
+    }
+
+    /**
+     * Drops preloads for players that never joined, such as when the login was denied after the preload, and releases their leases.
+     * This is called by the lease task, so the leases of players who never joined are not renewed.
+     */
+    public void expirePreloads() {
+        long nanoTime = System.nanoTime();
+        preloadedPlayerData.forEach((preloadedUuid, cachedPlayerData) -> {
+            if(nanoTime - cachedPlayerData.cachedNanos() > PRELOAD_EXPIRY_NANOS && preloadedPlayerData.remove(preloadedUuid, cachedPlayerData)) {
+                sessionManager.releaseLease(preloadedUuid);
+            }
+        });
+    }
+
+    /**
+     * Load player data from the database, using the data from {@link #preloadPlayerData(UUID)} if it is available.
+     * This must be called on the main thread. Preloaded data is stored before this returns, so it is available to handlers run after the player joins.
+     * If the player was not preloaded, the lease on their data is acquired first and the data is stored on a later tick.
+     * Restored block cooldowns still need to be queued for expiry through {@link com.github.lukesky19.skymines.manager.mine.packet.CooldownManager#restoreCooldowns(org.bukkit.entity.Player)}.
+     * The cooldowns are decoded on the main thread, as decoding reads the loaded mines, which a reload replaces on the main thread.
+     * @param uuid The {@link UUID} to load player data for.
+     * @return A {@link CompletableFuture} of type {@link Void} that completes on the main thread.
+     */
+    public @NotNull CompletableFuture<Void> loadPlayerData(@NotNull UUID uuid) {
+        CachedPlayerData preloaded = preloadedPlayerData.remove(uuid);
+        if(preloaded != null) {
+            storeLoadedPlayerData(uuid, preloaded);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return sessionManager.acquireLease(uuid)
+                .thenCompose(lease -> loadCachedPlayerData(uuid, lease, System.nanoTime()))
+                .thenAcceptAsync(cachedPlayerData -> storeLoadedPlayerData(uuid, cachedPlayerData), this::executeOnMainThread)
+                .exceptionally(e -> {
+                    logger.error(AdventureUtil.serialize("Failed to load player data for " + uuid + " due to " + e.getMessage()));
+                    return null;
+                });
+    }
+
+    /**
+     * Decodes the cooldowns of loaded player data and stores the data as the player's {@link PlayerData}.
+     * This must be called on the main thread.
+     * @param uuid The {@link UUID} of the player.
+     * @param cachedPlayerData The loaded {@link CachedPlayerData}.
+     */
+    private void storeLoadedPlayerData(@NotNull UUID uuid, @NotNull CachedPlayerData cachedPlayerData) {
+        PlayerData playerData = cachedPlayerData.playerData();
+        boolean cooldownsDirty = playerData.takeCooldownsDirty();
+        decodeCooldowns(uuid, playerData, cachedPlayerData.cooldownsByMineId());
+
+        // Data loaded from the database is already saved, but cached data keeps the changes its last save failed to write
+        if(cachedPlayerData.fromDatabase()) {
+            playerData.clearDirty();
+        } else {
+            playerData.takeCooldownsDirty();
+            if(cooldownsDirty) playerData.markCooldownsDirty();
+        }
+
+        playerDataMap.put(uuid, playerData);
+    }
+
+    /**
+     * Saves and then unloads player data.
+     * A copy of the data is kept in a bounded cache of recently unloaded players, so a quick reconnect can skip the database.
+     * The lease on the player's data is released once the data is saved, so another server can load it.
+     * If the save fails, the lease is kept and the copy is saved again by {@link #savePlayerDataBatch()}.
+     * @param uuid The {@link UUID} of the player to save and unload player data for.
+     * @return A {@link CompletableFuture} of type {@link Void} when complete.
+     */
+    public @NotNull CompletableFuture<Void> unloadPlayerData(@NotNull UUID uuid) {
+        PlayerData playerData = playerDataMap.get(uuid);
+        if(playerData == null) {
+            logger.error(AdventureUtil.serialize("Failed to save player data for " + uuid + " as they have no player data stored."));
+            sessionManager.releaseLease(uuid);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        SessionLease lease = sessionManager.getLease(uuid);
+
+        // The player is leaving, so the session ends and its time is removed before saving
+        playerData.endMineSession(System.nanoTime());
+
+        // The player's cooldowns are encoded when the save is queued, so they can be dropped from the mine stores right away
+        Map<String, byte[]> cooldownsByMineId = encodeCooldowns(uuid, playerData);
+        CompletableFuture<Boolean> saveFuture = savePlayerData(uuid, playerData, cooldownsByMineId);
+
+        mineDataManager.getMinesMap().values().forEach(mine -> {
+            mine.handlePlayerExit(uuid);
+            if(!(mine instanceof PacketMine packetMine)) return;
+
+            MineCooldownStore cooldownStore = packetMine.getCooldownStore();
+            if(cooldownStore != null) cooldownStore.removePlayer(uuid);
+        });
+
+        // A copy is cached, so a quick reconnect cannot change the data being saved
+        // Without the lease the data may already be out of date, so it is not cached
+        Map<String, BitSet> unlockedBlocksByMineId = new HashMap<>();
+        playerData.getUnlockedBlocksByMineIdMap().forEach((mineId, unlockedBlocks) -> unlockedBlocksByMineId.put(mineId, (BitSet) unlockedBlocks.clone()));
+        PlayerData cachedPlayerData = new PlayerData(new HashMap<>(playerData.getMineTimesByMineIdMap()), unlockedBlocksByMineId);
+        CachedPlayerData recent = lease != null ? new CachedPlayerData(cachedPlayerData, cooldownsByMineId, lease.version(), System.nanoTime(), false) : null;
+        if(recent != null) {
+            synchronized(recentPlayerData) {
+                recentPlayerData.put(uuid, recent);
+            }
+        }
+
+        // Only remove the data that was saved, in case the player reconnected while saving
+        return saveFuture.thenAccept(successful -> {
+            playerDataMap.remove(uuid, playerData);
+
+            if(successful || recent == null) {
+                sessionManager.releaseLease(uuid);
+                return;
+            }
+
+            // The cached copy is the only copy left in memory, so it has to save everything and keeps the lease until it does
+            runOnMainThread(() -> {
+                cachedPlayerData.markMineTimesDirty(cachedPlayerData.getMineTimesByMineIdMap().keySet());
+                cachedPlayerData.markUnlockedBlocksDirty(cachedPlayerData.getUnlockedBlocksByMineIdMap().keySet());
+                cachedPlayerData.markCooldownsDirty();
+                unsavedPlayerData.put(uuid, recent);
+            });
+        });
+    }
+
+    /**
+     * Save the player's data that changed since the last save to the database.
+     * Only the mine times and unlocked blocks of the mines that changed are written, and cooldowns are only written if any changed.
+     * If the save fails, the data is marked as changed again so the next save retries it.
+     * Nothing is saved if this server does not hold the lease on the player's data.
+     * @param uuid The {@link UUID} of the player.
+     * @param playerData The {@link PlayerData} of the player.
+     * @param cooldownsByMineId The player's cooldowns encoded by {@link #encodeCooldowns(UUID, PlayerData)}, or null to encode them if they changed.
+     * @return A {@link CompletableFuture} containing a {@link Boolean} where true means all data saved successfully and false for any errors.
+     */
+    private @NotNull CompletableFuture<Boolean> savePlayerData(@NotNull UUID uuid, @NotNull PlayerData playerData, @Nullable Map<String, byte[]> cooldownsByMineId) {
+        SessionLease lease = sessionManager.getLease(uuid);
+        if(lease == null) {
+            logger.warn(AdventureUtil.serialize("Skipped saving player data for " + uuid + " as this server does not hold their session."));
+            return CompletableFuture.completedFuture(false);
+        }
+
         TimesTable timesTable = databaseManager.getTimesTable();
         UnlockedBlocksTable unlockedBlocksTable = databaseManager.getUnlockedBlocksTable();
+        CooldownsTable cooldownsTable = databaseManager.getCooldownsTable();
 
-        CompletableFuture<List<Boolean>> timeFuture = timesTable.saveMineTimes(uuid, playerData.getMineTimesByMineIdMap());
-        CompletableFuture<List<Boolean>> blocksFuture = unlockedBlocksTable.saveUnlockedBlocks(uuid, playerData.getUnlockedBlocksByMineIdMap());
+        DirtyData dirtyData = takeDirtyData(playerData);
+        Map<String, Long> mineTimes = getMineTimes(playerData, dirtyData.mineTimeIds());
+        Map<String, BitSet> unlockedBlocks = getUnlockedBlocks(playerData, dirtyData.unlockedBlockMineIds());
 
-        return timeFuture
+        CompletableFuture<List<Boolean>> timeFuture = mineTimes.isEmpty() ? CompletableFuture.completedFuture(List.of()) : timesTable.saveMineTimes(uuid, lease, mineTimes);
+        CompletableFuture<List<Boolean>> blocksFuture = unlockedBlocks.isEmpty() ? CompletableFuture.completedFuture(List.of()) : unlockedBlocksTable.saveUnlockedBlocks(uuid, lease, unlockedBlocks);
+        CompletableFuture<List<Boolean>> cooldownsFuture = !dirtyData.cooldowns() ? CompletableFuture.completedFuture(List.of())
+                : cooldownsTable.saveCooldowns(uuid, lease, cooldownsByMineId != null ? cooldownsByMineId : encodeCooldowns(uuid, playerData));
+
+        CompletableFuture<Boolean> resultFuture = timeFuture
                 .thenCombine(blocksFuture, (timeResults, blockResults) -> {
                     boolean allTimesSuccessful = timeResults.stream().allMatch(result -> result);
                     boolean allBlocksSuccessful = blockResults.stream().allMatch(result -> result);
                     return allTimesSuccessful && allBlocksSuccessful;
                 })
+                .thenCombine(cooldownsFuture, (otherResults, cooldownResults) -> otherResults && cooldownResults.stream().allMatch(result -> result))
                 .exceptionally(e -> {
                     logger.error(AdventureUtil.serialize("Failed to save player data for " + uuid + " due to: " + e.getMessage()));
                     return false;
                 });
+
+        return resultFuture.thenApply(successful -> {
+            if(!successful) markDirty(playerData, dirtyData);
+
+            return successful;
+        });
     }
 
     /**
-     * Save all player data to the database.
-     * @return A {@link CompletableFuture} containing a {@link Boolean} where true means all data saved successfully and false for any errors.
+     * Takes the player's data that changed since the last save, so changes made while saving are tracked for the next save.
+     * @param playerData The {@link PlayerData} of the player.
+     * @return The {@link DirtyData} that was taken.
      */
-    public @NotNull CompletableFuture<Boolean> savePlayerData() {
-        TimesTable timesTable = databaseManager.getTimesTable();
-        UnlockedBlocksTable unlockedBlocksTable = databaseManager.getUnlockedBlocksTable();
-
-        List<CompletableFuture<Boolean>> saveFutures = new ArrayList<>();
+    private @NotNull DirtyData takeDirtyData(@NotNull PlayerData playerData) {
+        return new DirtyData(playerData.takeDirtyMineTimeIds(), playerData.takeDirtyUnlockedBlockMineIds(), playerData.takeCooldownsDirty());
+    }
 
-        playerDataMap.forEach((uuid, playerData) -> {
-            CompletableFuture<List<Boolean>> timeFuture = timesTable.saveMineTimes(uuid, playerData.getMineTimesByMineIdMap());
-            CompletableFuture<List<Boolean>> blocksFuture = unlockedBlocksTable.saveUnlockedBlocks(uuid, playerData.getUnlockedBlocksByMineIdMap());
-
-            CompletableFuture<Boolean> resultFuture = timeFuture
-                    .thenCombine(blocksFuture, (timeResults, blockResults) -> {
-                        boolean allTimesSuccessful = timeResults.stream().allMatch(result -> result);
-                        boolean allBlocksSuccessful = blockResults.stream().allMatch(result -> result);
-                        return allTimesSuccessful && allBlocksSuccessful;
-                    })
-                    .exceptionally(e -> {
-                        logger.error(AdventureUtil.serialize("Failed to save player data for " + uuid + " due to: " + e.getMessage()));
-                        return false;
-                    });
-
-            saveFutures.add(resultFuture);
+    /**
+     * Marks data taken by {@link #takeDirtyData(PlayerData)} as changed again after a failed save.
+     * @param playerData The {@link PlayerData} of the player.
+     * @param dirtyData The {@link DirtyData} that failed to save.
+     */
+    private void markDirty(@NotNull PlayerData playerData, @NotNull DirtyData dirtyData) {
+        runOnMainThread(() -> {
+            playerData.markMineTimesDirty(dirtyData.mineTimeIds());
+            playerData.markUnlockedBlocksDirty(dirtyData.unlockedBlockMineIds());
+            if(dirtyData.cooldowns()) playerData.markCooldownsDirty();
         });
+    }
+
+    /**
+     * Get the player's mine times for the mine ids provided.
+     * Time that ran out is removed from the player's data, so it is saved as 0.
+     * @param playerData The {@link PlayerData} of the player.
+     * @param mineIds The mine ids to get the mine times of.
+     * @return A {@link Map} mapping mine ids to mine time as a {@link Long}.
+     */
+    private @NotNull Map<String, Long> getMineTimes(@NotNull PlayerData playerData, @NotNull Set<String> mineIds) {
+        Map<String, Long> mineTimes = new HashMap<>();
+        for(String mineId : mineIds) {
+            mineTimes.put(mineId, playerData.getMineTimesByMineIdMap().getOrDefault(mineId, 0L));
+        }
 
-        return CompletableFuture.allOf(saveFutures.toArray(new CompletableFuture[0]))
-                .thenApply(v -> saveFutures.stream().allMatch(CompletableFuture::join));
+        return mineTimes;
     }
 
     /**
-     * Load player data from the database.
-     * @param uuid The {@link UUID} to load player data for.
-     * @return A {@link CompletableFuture} of type {@link Void} when complete.
+     * Get a copy of the player's unlocked blocks for the mine ids provided.
+     * @param playerData The {@link PlayerData} of the player.
+     * @param mineIds The mine ids to get the unlocked blocks of.
+     * @return A {@link Map} mapping mine ids to unlocked blocks as a {@link BitSet} of block ordinals.
      */
-    public @NotNull CompletableFuture<Void> loadPlayerData(@NotNull UUID uuid) {
-        TimesTable timesTable = databaseManager.getTimesTable();
-        UnlockedBlocksTable unlockedBlocksTable = databaseManager.getUnlockedBlocksTable();
+    private @NotNull Map<String, BitSet> getUnlockedBlocks(@NotNull PlayerData playerData, @NotNull Set<String> mineIds) {
+        Map<String, BitSet> unlockedBlocks = new HashMap<>();
+        for(String mineId : mineIds) {
+            BitSet mineUnlockedBlocks = playerData.getUnlockedBlocksByMineIdMap().get(mineId);
+            unlockedBlocks.put(mineId, mineUnlockedBlocks != null ? (BitSet) mineUnlockedBlocks.clone() : new BitSet());
+        }
 
-        CompletableFuture<Map<String, Long>> timesFuture = timesTable.loadMineTimes(uuid);
-        CompletableFuture<Map<String, List<BlockType>>> blocksFuture = unlockedBlocksTable.loadUnlockedBlocks(uuid);
+        return unlockedBlocks;
+    }
 
-        return timesFuture
-                .thenCombine(blocksFuture, (timesMap, blockTypeMap) -> {
-                    return new PlayerData(new HashMap<>(timesMap), new HashMap<>(blockTypeMap));
-                })
-                .thenAccept(playerData -> {
-                    playerDataMap.put(uuid, playerData);
+    /**
+     * Runs a task on the main thread, as the database callbacks are completed on the database thread.
+     * The task is not run if the plugin is disabled.
+     * @param task The {@link Runnable} to run.
+     */
+    private void runOnMainThread(@NotNull Runnable task) {
+        if(!skyMines.isEnabled()) return;
+
+        skyMines.getServer().getScheduler().runTask(skyMines, task);
+    }
+
+    /**
+     * Runs a task on the main thread. Used as the {@link java.util.concurrent.Executor} of future continuations that read server state.
+     * Unlike {@link #runOnMainThread(Runnable)}, this throws if the plugin is disabled, so the future fails instead of never completing.
+     * @param task The {@link Runnable} to run.
+     */
+    private void executeOnMainThread(@NotNull Runnable task) {
+        skyMines.getServer().getScheduler().runTask(skyMines, task);
+    }
+
+    /**
+     * Get the player's data from the cache of recently unloaded players, or load it from the database.
+     * The cached data is only used if no other server acquired the lease since it was cached.
+     * If the data can't be loaded, the lease is released.
+     * @param uuid The {@link UUID} of the player.
+     * @param lease The {@link SessionLease} acquired for the player.
+     * @param nanoTime The {@link System#nanoTime()} to cache the data at.
+     * @return A {@link CompletableFuture} containing the {@link CachedPlayerData}.
+     */
+    private @NotNull CompletableFuture<CachedPlayerData> loadCachedPlayerData(@NotNull UUID uuid, @NotNull SessionLease lease, long nanoTime) {
+        CachedPlayerData recent;
+        synchronized(recentPlayerData) {
+            recent = recentPlayerData.remove(uuid);
+        }
+
+        // The lease was acquired again, so the hold kept for data whose final save failed is released and the data is loaded from the copy
+        CachedPlayerData unsaved = unsavedPlayerData.remove(uuid);
+        if(unsaved != null) {
+            sessionManager.releaseLease(uuid);
+            if(recent == null) recent = unsaved;
+        }
+
+        // This server released the lease at the cached version, so acquiring it again only increases the version by 1
+        if(recent != null && lease.version() <= recent.sessionVersion() + 1) {
+            return CompletableFuture.completedFuture(new CachedPlayerData(recent.playerData(), recent.cooldownsByMineId(), lease.version(), nanoTime, false));
+        }
+
+        // Loads requested around the same time, such as when many players join after a restart, share their queries
+        return playerDataLoader.loadPlayerData(uuid)
+                .thenApply(loadedPlayerData -> {
+                    PlayerData playerData = new PlayerData(new HashMap<>(loadedPlayerData.mineTimes()), new HashMap<>(loadedPlayerData.unlockedBlocks()));
+                    return new CachedPlayerData(playerData, loadedPlayerData.cooldownsByMineId(), lease.version(), nanoTime, true);
                 })
-                .exceptionally(e -> {
-                    logger.error(AdventureUtil.serialize("Failed to load player data for " + uuid + " due to " + e.getMessage()));
-                    return null;
+                .whenComplete((cachedPlayerData, e) -> {
+                    if(e != null) sessionManager.releaseLease(uuid);
                 });
     }
 
     /**
-     * Saves and then unloads player data.
-     * @param uuid The {@link UUID} of the player to save and unload player data for.
-     * @return A {@link CompletableFuture} of type {@link Void} when complete.
+     * Encodes the player's active block cooldowns into one {@link CooldownBlob} per mine.
+     * Cooldowns that are not inside a mine are not saved. Cooldowns held in a mine's {@link MineCooldownStore} are included.
+     * @param uuid The {@link UUID} of the player.
+     * @param playerData The {@link PlayerData} of the player.
+     * @return A {@link Map} mapping mine ids to encoded {@link CooldownBlob} bytes.
      */
-    public @NotNull CompletableFuture<Void> unloadPlayerData(@NotNull UUID uuid) {
-        return savePlayerData(uuid).thenAccept(result -> playerDataMap.remove(uuid));
+    private @NotNull Map<String, byte[]> encodeCooldowns(@NotNull UUID uuid, @NotNull PlayerData playerData) {
+        long currentTick = skyMines.getServer().getCurrentTick();
+        Map<String, CooldownBlob> blobsByMineId = new HashMap<>();
+
+        playerData.getBlockCooldownsByChunkByWorld().forEach((worldId, blockCooldownsByChunk) -> {
+            World world = skyMines.getServer().getWorld(worldId);
+            if(world == null) return;
+
+            // Re-used for each mine lookup
+            Location location = new Location(world, 0, 0, 0);
+
+            for(BlockCooldownMap blockCooldowns : blockCooldownsByChunk.values()) {
+                blockCooldowns.forEach((packedPosition, packedCooldown) -> {
+                    location.set(BlockCooldownMap.getX(packedPosition), BlockCooldownMap.getY(packedPosition), BlockCooldownMap.getZ(packedPosition));
+
+                    AbstractMine mine = mineDataManager.getMineByLocation(location);
+                    if(mine == null || mine.getMineId() == null) return;
+
+                    blobsByMineId.computeIfAbsent(mine.getMineId(), mineId -> new CooldownBlob(dataVersion, currentTick)).add(packedPosition, packedCooldown);
+                });
+            }
+        });
+
+        mineDataManager.getMinesMap().forEach((mineId, mine) -> {
+            if(!(mine instanceof PacketMine packetMine)) return;
+            MineCooldownStore cooldownStore = packetMine.getCooldownStore();
+            if(cooldownStore == null) return;
+
+            CooldownBlob blob = blobsByMineId.computeIfAbsent(mineId, id -> new CooldownBlob(dataVersion, currentTick));
+            cooldownStore.forEachCooldown(uuid, blob::add);
+        });
+
+        Map<String, byte[]> cooldownsByMineId = new HashMap<>();
+        blobsByMineId.forEach((mineId, blob) -> {
+            if(!blob.isEmpty()) cooldownsByMineId.put(mineId, blob.toBytes());
+        });
+
+        return cooldownsByMineId;
+    }
+
+    /**
+     * Decodes the {@link CooldownBlob}s loaded from the database into the player's {@link PlayerData}.
+     * Cooldowns for mines that no longer exist or that were saved on a different data version are discarded.
+     * @param uuid The {@link UUID} of the player.
+     * @param playerData The {@link PlayerData} of the player.
+     * @param cooldownsByMineId A {@link Map} mapping mine ids to encoded {@link CooldownBlob} bytes.
+     */
+    private void decodeCooldowns(@NotNull UUID uuid, @NotNull PlayerData playerData, @NotNull Map<String, byte[]> cooldownsByMineId) {
+        long currentTick = skyMines.getServer().getCurrentTick();
+
+        cooldownsByMineId.forEach((mineId, bytes) -> {
+            AbstractMine mine = mineDataManager.getMineById(mineId);
+            if(mine == null) return;
+            World world = mine.getMineWorld();
+            if(world == null) return;
+            UUID worldId = world.getUID();
+
+            if(!CooldownBlob.decode(bytes, dataVersion, currentTick, (packedPosition, packedCooldown) -> playerData.putLocationCooldown(worldId, packedPosition, packedCooldown))) {
+                logger.warn(AdventureUtil.serialize("Discarded the saved cooldowns for " + uuid + " in mine " + mineId + " as they were saved by a different server version or are malformed."));
+            }
+        });
+    }
+
+    /**
+     * Player data held in memory while the player is not online.
+     * @param playerData The {@link PlayerData} without any cooldowns.
+     * @param cooldownsByMineId The player's encoded cooldowns.
+     * @param sessionVersion The version of the {@link SessionLease} the data was held under.
+     * @param cachedNanos The {@link System#nanoTime()} the data was cached at.
+     * @param fromDatabase Whether the data was loaded from the database, instead of copied from an unloaded player whose changes may not be saved yet.
+     */
+    private record CachedPlayerData(@NotNull PlayerData playerData, @NotNull Map<String, byte[]> cooldownsByMineId, long sessionVersion, long cachedNanos, boolean fromDatabase) {}
+
+    /**
+     * The data a player changed since the last save, taken from their {@link PlayerData} when a save starts.
+     * @param mineTimeIds The ids of the mines whose time changed.
+     * @param unlockedBlockMineIds The ids of the mines whose unlocked blocks changed.
+     * @param cooldowns Whether any block cooldowns changed.
+     */
+    private record DirtyData(@NotNull Set<String> mineTimeIds, @NotNull Set<String> unlockedBlockMineIds, boolean cooldowns) {
+        /**
+         * Checks if nothing changed.
+         * @return true if nothing changed, otherwise false.
+         */
+        boolean isEmpty() {
+            return mineTimeIds.isEmpty() && unlockedBlockMineIds.isEmpty() && !cooldowns;
+        }
     }
 }
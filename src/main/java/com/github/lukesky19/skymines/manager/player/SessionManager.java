@@ -0,0 +1,272 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.manager.player;
+
+import com.github.lukesky19.skylib.api.adventure.AdventureUtil;
+import com.github.lukesky19.skymines.SkyMines;
+import com.github.lukesky19.skymines.data.config.Settings;
+import com.github.lukesky19.skymines.data.player.SessionLease;
+import com.github.lukesky19.skymines.database.DatabaseManager;
+import com.github.lukesky19.skymines.database.tables.SessionsTable;
+import com.github.lukesky19.skymines.manager.config.SettingsManager;
+import net.kyori.adventure.text.logger.slf4j.ComponentLogger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class manages the leases this server holds on players' saved data.
+ * A lease is acquired before a player's data is loaded and released once their data is saved for the last time.
+ * Saves are fenced by the lease, so a server that lost the lease to another server can't overwrite newer data.
+ */
+public class SessionManager {
+    private static final long POLL_INTERVAL_MILLIS = 250L;
+
+    private final @NotNull ComponentLogger logger;
+    private final @NotNull DatabaseManager databaseManager;
+    private final @NotNull String serverId = UUID.randomUUID().toString();
+    private final long leaseMillis;
+    private final long waitMillis;
+    /**
+     * The leases held or being acquired, by the {@link UUID} of the player. Access is synchronized on the map.
+     */
+    private final @NotNull Map<UUID, CompletableFuture<SessionLease>> leaseFutures = new HashMap<>();
+    /**
+     * How many times each lease was acquired without being released, such as a preload for a reconnect while the last save is still running.
+     */
+    private final @NotNull Map<UUID, Integer> holdCounts = new HashMap<>();
+
+    /**
+     * Default Constructor.
+     * You should use {@link #SessionManager(SkyMines, SettingsManager, DatabaseManager)} instead.
+     * @deprecated You should use {@link #SessionManager(SkyMines, SettingsManager, DatabaseManager)} instead.
+     * @throws RuntimeException if used.
+     */
+    @Deprecated
+    public SessionManager() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param skyMines A {@link SkyMines} instance.
+     * @param settingsManager A {@link SettingsManager} instance.
+     * @param databaseManager A {@link DatabaseManager} instance.
+     */
+    public SessionManager(@NotNull SkyMines skyMines, @NotNull SettingsManager settingsManager, @NotNull DatabaseManager databaseManager) {
+        this.logger = skyMines.getComponentLogger();
+        this.databaseManager = databaseManager;
+
+        // The database settings require a restart, so they are only read once
+        Settings settings = settingsManager.getSettings();
+        Settings.Database databaseSettings = settings != null ? settings.database() : null;
+        long leaseSeconds = databaseSettings != null && databaseSettings.sessionLeaseSeconds() != null ? Math.max(3L, databaseSettings.sessionLeaseSeconds()) : 60L;
+        this.leaseMillis = TimeUnit.SECONDS.toMillis(leaseSeconds);
+        this.waitMillis = databaseSettings != null && databaseSettings.sessionWaitMillis() != null ? Math.max(0L, databaseSettings.sessionWaitMillis()) : 5000L;
+    }
+
+    /**
+     * Get how often in ticks the held leases need to be renewed, which is a third of the lease time.
+     * @return The renew interval in ticks.
+     */
+    public long getRenewIntervalTicks() {
+        return Math.max(20L, TimeUnit.MILLISECONDS.toSeconds(leaseMillis) / 3L * 20L);
+    }
+
+    /**
+     * Acquires the lease on the player's saved data.
+     * If another server holds the lease, this waits for it to be released for up to the configured wait time before taking it over.
+     * If this server already holds the lease, the same lease is returned and it must be released once more before it is released in the database.
+     * @param uuid The {@link UUID} of the player.
+     * @return A {@link CompletableFuture} containing the {@link SessionLease}.
+     */
+    public @NotNull CompletableFuture<SessionLease> acquireLease(@NotNull UUID uuid) {
+        CompletableFuture<SessionLease> leaseFuture;
+        synchronized(leaseFutures) {
+            CompletableFuture<SessionLease> heldFuture = leaseFutures.get(uuid);
+            if(heldFuture != null) {
+                holdCounts.merge(uuid, 1, Integer::sum);
+                return heldFuture;
+            }
+
+            // The session references the player's id, so it is saved first. Its key stays cached while the lease is held.
+            long deadline = System.currentTimeMillis() + waitMillis;
+            leaseFuture = databaseManager.getPlayerIdsTable().getPlayerKey(uuid).thenCompose(playerKey -> tryAcquireLease(uuid, deadline));
+            leaseFutures.put(uuid, leaseFuture);
+            holdCounts.put(uuid, 1);
+        }
+
+        leaseFuture.whenComplete((lease, e) -> {
+            if(e == null) return;
+
+            logger.error(AdventureUtil.serialize("Failed to acquire the session of " + uuid + " due to: " + e.getMessage()));
+            synchronized(leaseFutures) {
+                if(leaseFutures.remove(uuid, leaseFuture)) {
+                    holdCounts.remove(uuid);
+                    databaseManager.getPlayerIdsTable().uncachePlayerKey(uuid);
+                }
+            }
+        });
+
+        return leaseFuture;
+    }
+
+    /**
+     * Get the lease this server holds on the player's saved data.
+     * @param uuid The {@link UUID} of the player.
+     * @return The {@link SessionLease}, or null if this server does not hold the lease or is still acquiring it.
+     */
+    public @Nullable SessionLease getLease(@NotNull UUID uuid) {
+        synchronized(leaseFutures) {
+            CompletableFuture<SessionLease> leaseFuture = leaseFutures.get(uuid);
+            if(leaseFuture == null || !leaseFuture.isDone() || leaseFuture.isCompletedExceptionally()) return null;
+
+            return leaseFuture.join();
+        }
+    }
+
+    /**
+     * Get all leases this server holds.
+     * @return A {@link Map} mapping {@link UUID}s to the {@link SessionLease} held.
+     */
+    public @NotNull Map<UUID, SessionLease> getLeases() {
+        Map<UUID, SessionLease> leases = new HashMap<>();
+        synchronized(leaseFutures) {
+            leaseFutures.forEach((uuid, leaseFuture) -> {
+                if(leaseFuture.isDone() && !leaseFuture.isCompletedExceptionally()) leases.put(uuid, leaseFuture.join());
+            });
+        }
+
+        return leases;
+    }
+
+    /**
+     * Releases the lease on the player's saved data once it was released as many times as it was acquired.
+     * The player's data should be saved before the last release, as writes are rejected once another server acquires the lease.
+     * @param uuid The {@link UUID} of the player.
+     * @return A {@link CompletableFuture} of type {@link Void} when complete.
+     */
+    public @NotNull CompletableFuture<Void> releaseLease(@NotNull UUID uuid) {
+        CompletableFuture<SessionLease> leaseFuture;
+        synchronized(leaseFutures) {
+            Integer holdCount = holdCounts.get(uuid);
+            if(holdCount == null) return CompletableFuture.completedFuture(null);
+
+            if(holdCount > 1) {
+                holdCounts.put(uuid, holdCount - 1);
+                return CompletableFuture.completedFuture(null);
+            }
+
+            holdCounts.remove(uuid);
+            leaseFuture = leaseFutures.remove(uuid);
+            databaseManager.getPlayerIdsTable().uncachePlayerKey(uuid);
+        }
+
+        return leaseFuture.thenCompose(lease -> databaseManager.getSessionsTable().releaseSessions(Map.of(uuid, lease)))
+                .exceptionally(e -> null);
+    }
+
+    /**
+     * Releases all leases this server holds in a single transaction. This is used when the plugin is disabled.
+     * @return A {@link CompletableFuture} of type {@link Void} when complete.
+     */
+    public @NotNull CompletableFuture<Void> releaseLeases() {
+        Map<UUID, SessionLease> leases = getLeases();
+        synchronized(leaseFutures) {
+            leaseFutures.keySet().forEach(databaseManager.getPlayerIdsTable()::uncachePlayerKey);
+            leaseFutures.clear();
+            holdCounts.clear();
+        }
+
+        if(leases.isEmpty()) return CompletableFuture.completedFuture(null);
+
+        return databaseManager.getSessionsTable().releaseSessions(leases).exceptionally(e -> {
+            logger.error(AdventureUtil.serialize("Failed to release the sessions of " + leases.size() + " players due to: " + e.getMessage()));
+            return null;
+        });
+    }
+
+    /**
+     * Renews all leases this server holds in a single transaction.
+     * Leases that were taken over by another server are dropped, so the players' data is no longer saved by this server.
+     * @return A {@link CompletableFuture} of type {@link Void} when complete.
+     */
+    public @NotNull CompletableFuture<Void> renewLeases() {
+        Map<UUID, SessionLease> leases = getLeases();
+        if(leases.isEmpty()) return CompletableFuture.completedFuture(null);
+
+        return databaseManager.getSessionsTable().renewSessions(leases, System.currentTimeMillis() + leaseMillis)
+                .thenAccept(results -> results.forEach((uuid, renewed) -> {
+                    if(renewed) return;
+
+                    synchronized(leaseFutures) {
+                        CompletableFuture<SessionLease> leaseFuture = leaseFutures.get(uuid);
+                        // The lease may have been released and acquired again while renewing
+                        if(leaseFuture == null || !leases.get(uuid).equals(leaseFuture.getNow(null))) return;
+
+                        leaseFutures.remove(uuid);
+                        holdCounts.remove(uuid);
+                        databaseManager.getPlayerIdsTable().uncachePlayerKey(uuid);
+                    }
+
+                    logger.warn(AdventureUtil.serialize("The session of " + uuid + " was taken over by another server. Their data will no longer be saved by this server."));
+                }))
+                .exceptionally(e -> {
+                    logger.error(AdventureUtil.serialize("Failed to renew the sessions of " + leases.size() + " players due to: " + e.getMessage()));
+                    return null;
+                });
+    }
+
+    /**
+     * Tries to acquire the lease until it is acquired, waiting while another server holds it until the deadline provided.
+     * @param uuid The {@link UUID} of the player.
+     * @param deadline The time in milliseconds after which the lease is taken over from the server holding it.
+     * @return A {@link CompletableFuture} containing the {@link SessionLease}.
+     */
+    private @NotNull CompletableFuture<SessionLease> tryAcquireLease(@NotNull UUID uuid, long deadline) {
+        SessionsTable sessionsTable = databaseManager.getSessionsTable();
+
+        return sessionsTable.loadSession(uuid).thenCompose(session -> {
+            long currentTimeMillis = System.currentTimeMillis();
+            long leaseExpires = currentTimeMillis + leaseMillis;
+
+            if(session == null) {
+                return sessionsTable.insertSession(uuid, serverId, leaseExpires).thenCompose(inserted ->
+                        inserted ? CompletableFuture.completedFuture(new SessionLease(serverId, 1L)) : tryAcquireLease(uuid, deadline));
+            }
+
+            if(!session.isAvailable(serverId, currentTimeMillis)) {
+                if(currentTimeMillis < deadline) {
+                    return CompletableFuture.runAsync(() -> {}, CompletableFuture.delayedExecutor(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS))
+                            .thenCompose(v -> tryAcquireLease(uuid, deadline));
+                }
+
+                logger.warn(AdventureUtil.serialize("Took over the session of " + uuid + " from server " + session.serverId() + " as it was not released within " + waitMillis + " ms."));
+            }
+
+            // If another server changed the session since it was loaded, try again with the new version
+            return sessionsTable.updateSession(uuid, serverId, session.version(), leaseExpires).thenCompose(updated ->
+                    updated ? CompletableFuture.completedFuture(new SessionLease(serverId, session.version() + 1)) : tryAcquireLease(uuid, deadline));
+        });
+    }
+}
@@ -18,42 +18,57 @@
 package com.github.lukesky19.skymines.manager.task;
 
 import com.github.lukesky19.skymines.SkyMines;
-import com.github.lukesky19.skymines.data.player.PlayerData;
+import com.github.lukesky19.skymines.data.config.Settings;
+import com.github.lukesky19.skymines.manager.bossbar.BossBarManager;
+import com.github.lukesky19.skymines.manager.config.SettingsManager;
 import com.github.lukesky19.skymines.manager.mine.MineDataManager;
+import com.github.lukesky19.skymines.manager.mine.packet.BlockChangeManager;
 import com.github.lukesky19.skymines.manager.mine.packet.CooldownManager;
 import com.github.lukesky19.skymines.manager.mine.packet.MineTimeManager;
 import com.github.lukesky19.skymines.manager.player.PlayerDataManager;
+import com.github.lukesky19.skymines.manager.player.SessionManager;
 import com.github.lukesky19.skymines.mine.AbstractMine;
-import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.*;
+import java.util.UUID;
 
 /**
  * Manages {@link BukkitTask}s for the plugin.
  */
 public class TaskManager {
     private final @NotNull SkyMines skyMines;
+    private final @NotNull SettingsManager settingsManager;
     private final @NotNull MineDataManager mineDataManager;
     private final @NotNull PlayerDataManager playerDataManager;
     private final @NotNull MineTimeManager mineTimeManager;
     private final @NotNull CooldownManager cooldownManager;
+    private final @NotNull BlockChangeManager blockChangeManager;
+    private final @NotNull BossBarManager bossBarManager;
+    private final @NotNull SessionManager sessionManager;
     /**
-     * This task manages mine time and the reversion of blocks after the cooldown ends.
+     * This task refreshes the boss bars of players using mine time.
      */
     private @Nullable BukkitTask mineTask;
+    /**
+     * This task manages the reversion of blocks after the cooldown ends and sends buffered client-side block changes.
+     */
+    private @Nullable BukkitTask cooldownTask;
     /**
      * This task manages the periodic saving of player data.
      */
     private @Nullable BukkitTask saveTask;
+    /**
+     * This task renews the leases this server holds on players' data.
+     */
+    private @Nullable BukkitTask leaseTask;
 
     /**
      * Default Constructor.
-     * You should use {@link #TaskManager(SkyMines, MineDataManager, PlayerDataManager, MineTimeManager, CooldownManager)} instead.
-     * @deprecated You should use {@link #TaskManager(SkyMines, MineDataManager, PlayerDataManager, MineTimeManager, CooldownManager)} instead.
+     * You should use {@link #TaskManager(SkyMines, SettingsManager, MineDataManager, PlayerDataManager, MineTimeManager, CooldownManager, BlockChangeManager, BossBarManager, SessionManager)} instead.
+     * @deprecated You should use {@link #TaskManager(SkyMines, SettingsManager, MineDataManager, PlayerDataManager, MineTimeManager, CooldownManager, BlockChangeManager, BossBarManager, SessionManager)} instead.
      * @throws RuntimeException if used.
      */
     @Deprecated
@@ -64,56 +79,59 @@ public class TaskManager {
     /**
      * Constructor
      * @param skyMines A {@link SkyMines} instance.
+     * @param settingsManager A {@link SettingsManager} instance.
      * @param mineDataManager A {@link MineDataManager} instance.
      * @param playerDataManager A {@link PlayerDataManager} instance.
      * @param mineTimeManager A {@link MineTimeManager} instance.
      * @param cooldownManager A {@link CooldownManager} instance.
+     * @param blockChangeManager A {@link BlockChangeManager} instance.
+     * @param bossBarManager A {@link BossBarManager} instance.
+     * @param sessionManager A {@link SessionManager} instance.
      */
     public TaskManager(
             @NotNull SkyMines skyMines,
+            @NotNull SettingsManager settingsManager,
             @NotNull MineDataManager mineDataManager,
             @NotNull PlayerDataManager playerDataManager,
             @NotNull MineTimeManager mineTimeManager,
-            @NotNull CooldownManager cooldownManager) {
+            @NotNull CooldownManager cooldownManager,
+            @NotNull BlockChangeManager blockChangeManager,
+            @NotNull BossBarManager bossBarManager,
+            @NotNull SessionManager sessionManager) {
         this.skyMines = skyMines;
+        this.settingsManager = settingsManager;
         this.mineDataManager = mineDataManager;
         this.playerDataManager = playerDataManager;
         this.mineTimeManager = mineTimeManager;
         this.cooldownManager = cooldownManager;
+        this.blockChangeManager = blockChangeManager;
+        this.bossBarManager = bossBarManager;
+        this.sessionManager = sessionManager;
     }
 
     /**
-     * This task manages the decrement of mine time and block cooldown times.
+     * This task refreshes the boss bar of players using mine time once per second.
+     * Mine time is removed from the player's time by their session, so this task only updates the displayed time.
+     * Sessions of players that are no longer inside their mine, such as after respawning, are ended.
      */
     public void startMineTask() {
         mineTask = skyMines.getServer().getScheduler().runTaskTimer(skyMines, () -> {
-            Map<String, AbstractMine> minesMap = new HashMap<>(mineDataManager.getMinesMap());
-
-            for(Map.Entry<String, AbstractMine> mineEntry : minesMap.entrySet()) {
-                String mineId = mineEntry.getKey();
-                AbstractMine mine = mineEntry.getValue();
-                Map<UUID, PlayerData> playerDataMap = new HashMap<>(playerDataManager.getPlayerDataMap());
-
-                for(Map.Entry<UUID, PlayerData> playerDataEntry : playerDataMap.entrySet()) {
-                    UUID uuid = playerDataEntry.getKey();
-                    PlayerData playerData = playerDataEntry.getValue();
-
-                    Player player = skyMines.getServer().getPlayer(uuid);
-                    if(player == null || !player.isOnline() || !player.isConnected()) continue;
-
-                    if(mine.isLocationInMine(player.getLocation())) {
-                        long mineTime = mineTimeManager.getMineTime(uuid, mineId);
-                        if(mineTime > 0) {
-                            mineTimeManager.decrementMineTime(uuid, mineId, 1);
-                        }
-                    }
-
-                    // Decrement block cooldowns
-                    List<Location> locationsOnCooldown = new ArrayList<>(playerData.getBlockDataOnCooldown().keySet().stream().toList());
-                    locationsOnCooldown.forEach(location -> {
-                        cooldownManager.decrementLocationCooldown(uuid, location);
-                    });
+            for(Player player : skyMines.getServer().getOnlinePlayers()) {
+                if(!player.isOnline() || !player.isConnected()) continue;
+                UUID uuid = player.getUniqueId();
+
+                String mineId = mineTimeManager.getSessionMineId(uuid);
+                if(mineId == null) continue;
+
+                AbstractMine mine = mineDataManager.getMineById(mineId);
+                if(mine == null || !mine.isLocationInMine(player.getLocation())) {
+                    mineTimeManager.endMineSession(uuid);
+                    if(mine != null) mine.handlePlayerExit(uuid);
+                    bossBarManager.removeBossBar(player, uuid);
+                    continue;
                 }
+
+                mine.updateBossBar(uuid);
             }
         }, 20L, 20L);
     }
@@ -129,12 +147,37 @@ public class TaskManager {
     }
 
     /**
-     * This task saves player data every 15 minutes to the database.
+     * This task expires block cooldowns every tick and then sends the block changes buffered during the tick.
+     * Only the cooldowns that expire during the tick are processed.
+     */
+    public void startCooldownTask() {
+        cooldownTask = skyMines.getServer().getScheduler().runTaskTimer(skyMines, () -> {
+            cooldownManager.expireCooldowns();
+            blockChangeManager.flushBlockChanges();
+        }, 1L, 1L);
+    }
+
+    /**
+     * Stop the cooldown task.
+     */
+    public void stopCooldownTask() {
+        if(cooldownTask != null && !cooldownTask.isCancelled()) {
+            cooldownTask.cancel();
+            cooldownTask = null;
+        }
+    }
+
+    /**
+     * This task saves the player data that changed to the database at the interval configured in the settings.
      */
     public void startSaveTask() {
+        Settings settings = settingsManager.getSettings();
+        long saveIntervalSeconds = settings != null && settings.saveIntervalSeconds() != null ? Math.max(1L, settings.saveIntervalSeconds()) : 30L;
+        long saveIntervalTicks = saveIntervalSeconds * 20L;
+
         saveTask = skyMines.getServer().getScheduler().runTaskTimer(skyMines, () -> {
             playerDataManager.savePlayerData();
-        }, 20 * 60 * 15, 20 * 60 * 15); // 20 ticks * 60 seconds * 15 minutes = 18000 ticks
+        }, saveIntervalTicks, saveIntervalTicks);
     }
 
     /**
@@ -146,4 +189,28 @@ public class TaskManager {
             saveTask = null;
         }
     }
+
+    /**
+     * This task renews the leases this server holds on players' data, so other servers don't take them over.
+     * Expired preloads are dropped first, so the leases of players who never joined are released instead of renewed.
+     * The renewal only uses the database, so it runs asynchronously.
+     */
+    public void startLeaseTask() {
+        long renewIntervalTicks = sessionManager.getRenewIntervalTicks();
+
+        leaseTask = skyMines.getServer().getScheduler().runTaskTimerAsynchronously(skyMines, () -> {
+            playerDataManager.expirePreloads();
+            sessionManager.renewLeases();
+        }, renewIntervalTicks, renewIntervalTicks);
+    }
+
+    /**
+     * Stop the lease task.
+     */
+    public void stopLeaseTask() {
+        if(leaseTask != null && !leaseTask.isCancelled()) {
+            leaseTask.cancel();
+            leaseTask = null;
+        }
+    }
 }
@@ -17,8 +17,10 @@
 */
 package com.github.lukesky19.skymines.mine;
 
+import com.github.lukesky19.skymines.data.config.MineConfig;
 import io.papermc.paper.event.packet.PlayerChunkLoadEvent;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.block.BlockType;
 import org.bukkit.entity.Player;
 import org.bukkit.event.block.*;
@@ -26,6 +28,7 @@ import org.bukkit.event.entity.EntityChangeBlockEvent;
 import org.bukkit.event.entity.EntityExplodeEvent;
 import org.bukkit.event.player.*;
 import org.bukkit.event.world.StructureGrowEvent;
+import org.bukkit.util.BoundingBox;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -46,6 +49,33 @@ public abstract class AbstractMine {
      */
     public abstract @Nullable String getMineId();
 
+    /**
+     * Get the config the mine was created from.
+     * @return The mine's {@link MineConfig}.
+     */
+    public abstract @NotNull MineConfig getMineConfig();
+
+    /**
+     * Checks if creating the mine from the config provided would result in the same mine.
+     * This compares the config and anything the config resolved to when the mine was created, such as the world and regions.
+     * @param mineConfig The reloaded {@link MineConfig}.
+     * @return true if the mine can be kept on reload, otherwise false.
+     */
+    public abstract boolean isUnchanged(@NotNull MineConfig mineConfig);
+
+    /**
+     * Get the {@link World} the mine is in.
+     * @return The {@link World} or null if the mine failed to setup.
+     */
+    public abstract @Nullable World getMineWorld();
+
+    /**
+     * Get the bounds of the blocks inside the mine. The minimum and maximum corners are inclusive block coordinates.
+     * This is used to index the mine by the chunks it overlaps.
+     * @return A {@link BoundingBox} or null if the mine covers the entire {@link World}.
+     */
+    public abstract @Nullable BoundingBox getMineBounds();
+
     /**
      * Checks if the provided location is inside the mine's parent region.
      * @param location The Location to check.
@@ -181,6 +211,12 @@ public abstract class AbstractMine {
      */
     public abstract void updateBossBar(@NotNull UUID uuid);
 
+    /**
+     * Clears the state the mine holds for a player while they are inside it, such as when they leave the mine or the server.
+     * @param uuid The {@link UUID} of the player.
+     */
+    public abstract void handlePlayerExit(@NotNull UUID uuid);
+
     /**
      * Cleans up any data necessary when a mine is unloaded.
      * @param onDisable Is the plugin being disabled?
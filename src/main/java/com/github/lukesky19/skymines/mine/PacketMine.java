@@ -21,23 +21,29 @@ import com.github.lukesky19.skylib.api.adventure.AdventureUtil;
 import com.github.lukesky19.skylib.api.player.PlayerUtil;
 import com.github.lukesky19.skylib.api.registry.RegistryUtil;
 import com.github.lukesky19.skymines.SkyMines;
-import com.github.lukesky19.skymines.data.config.Locale;
+import com.github.lukesky19.skymines.data.config.LocaleMessage;
+import com.github.lukesky19.skymines.data.config.MineConfig;
 import com.github.lukesky19.skymines.data.config.packet.PacketMineConfig;
-import com.github.lukesky19.skymines.data.packet.BlockData;
+import com.github.lukesky19.skymines.data.packet.BlockCooldownMap;
+import com.github.lukesky19.skymines.data.packet.MineCooldownStore;
 import com.github.lukesky19.skymines.data.packet.PacketBlock;
+import com.github.lukesky19.skymines.data.packet.PacketRegion;
+import com.github.lukesky19.skymines.data.packet.PacketRegionLookup;
 import com.github.lukesky19.skymines.manager.bossbar.BossBarManager;
 import com.github.lukesky19.skymines.manager.config.LocaleManager;
+import com.github.lukesky19.skymines.manager.mine.packet.BlockChangeManager;
 import com.github.lukesky19.skymines.manager.mine.packet.CooldownManager;
 import com.github.lukesky19.skymines.manager.mine.packet.MineTimeManager;
+import com.github.lukesky19.skymines.util.ComponentTemplate;
 import com.sk89q.worldedit.bukkit.BukkitAdapter;
+import com.sk89q.worldedit.math.BlockVector3;
 import com.sk89q.worldguard.WorldGuard;
 import com.sk89q.worldguard.protection.managers.RegionManager;
 import com.sk89q.worldguard.protection.regions.ProtectedRegion;
 import io.papermc.paper.event.packet.PlayerChunkLoadEvent;
 import net.kyori.adventure.bossbar.BossBar;
+import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.logger.slf4j.ComponentLogger;
-import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
-import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
 import org.bukkit.*;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockState;
@@ -49,8 +55,10 @@ import org.bukkit.event.entity.EntityChangeBlockEvent;
 import org.bukkit.event.entity.EntityExplodeEvent;
 import org.bukkit.event.player.*;
 import org.bukkit.event.world.StructureGrowEvent;
+import org.bukkit.inventory.EquipmentSlot;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.loot.LootTable;
+import org.bukkit.util.BoundingBox;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -67,6 +75,7 @@ public class PacketMine extends AbstractMine {
     private final @NotNull SkyMines skyMines;
     private final @NotNull LocaleManager localeManager;
     private final @NotNull CooldownManager cooldownManager;
+    private final @NotNull BlockChangeManager blockChangeManager;
     private final @NotNull MineTimeManager mineTimeManager;
     private final @NotNull BossBarManager bossBarManager;
 
@@ -80,14 +89,40 @@ public class PacketMine extends AbstractMine {
     private @Nullable World mineWorld;
     private @Nullable ProtectedRegion mineRegion;
     /**
-     * Contains the data for a {@link ProtectedRegion} and the {@link List} of {@link PacketBlock}s that contains the data to identify if a block can be mined and the data required to replace the block.
+     * The regions the parent and child region names resolved to when the mine was created, mapped by region name.
+     * A region that was not found is mapped to null.
      */
-    private final @NotNull Map<ProtectedRegion, List<PacketBlock>> blockDataByRegion = new HashMap<>();
+    private final @NotNull Map<String, ProtectedRegion> resolvedRegions = new HashMap<>();
+    /**
+     * Resolves a block position to the {@link PacketBlock} that contains the data to identify if a block can be mined and the data required to replace the block.
+     * This is compiled from the child regions when the mine is created.
+     */
+    private @NotNull PacketRegionLookup packetRegionLookup = new PacketRegionLookup(List.of());
+    /**
+     * Stores the cooldowns for every player in this mine when the shared cooldown store is enabled, otherwise null.
+     */
+    private @Nullable MineCooldownStore cooldownStore;
+    /**
+     * The parsed boss bar text shown when the player has time, or null if not configured.
+     */
+    private final @Nullable ComponentTemplate timeTextTemplate;
+    /**
+     * The parsed boss bar text shown when the player has no time, or null if not configured.
+     */
+    private final @Nullable ComponentTemplate noTimeTextTemplate;
+    /**
+     * The server tick the cooldown message was last sent to each player at.
+     */
+    private final @NotNull Map<UUID, Long> cooldownMessageTicks = new HashMap<>();
+    /**
+     * The players whose next cooldown hit should resend every block on cooldown instead of only the block hit.
+     */
+    private final @NotNull Set<UUID> pendingResyncs = new HashSet<>();
 
     /**
      * Default Constructor.
-     * You should use {@link #PacketMine(SkyMines, LocaleManager, CooldownManager, MineTimeManager, BossBarManager, PacketMineConfig)} instead.
-     * @deprecated You should use {@link #PacketMine(SkyMines, LocaleManager, CooldownManager, MineTimeManager, BossBarManager, PacketMineConfig)} instead.
+     * You should use {@link #PacketMine(SkyMines, LocaleManager, CooldownManager, BlockChangeManager, MineTimeManager, BossBarManager, PacketMineConfig)} instead.
+     * @deprecated You should use {@link #PacketMine(SkyMines, LocaleManager, CooldownManager, BlockChangeManager, MineTimeManager, BossBarManager, PacketMineConfig)} instead.
      * @throws RuntimeException if used.
      */
     @Deprecated
@@ -100,6 +135,7 @@ public class PacketMine extends AbstractMine {
      * @param skyMines A {@link SkyMines} instance.
      * @param localeManager A {@link LocaleManager} instance.
      * @param cooldownManager A {@link CooldownManager} instance.
+     * @param blockChangeManager A {@link BlockChangeManager} instance.
      * @param mineTimeManager A {@link MineTimeManager} instance.
      * @param bossBarManager A {@link BossBarManager} instance.
      * @param mineConfig The {@link PacketMineConfig} to create the mine with.
@@ -108,16 +144,23 @@ public class PacketMine extends AbstractMine {
             @NotNull SkyMines skyMines,
             @NotNull LocaleManager localeManager,
             @NotNull CooldownManager cooldownManager,
+            @NotNull BlockChangeManager blockChangeManager,
             @NotNull MineTimeManager mineTimeManager,
             @NotNull BossBarManager bossBarManager,
             @NotNull PacketMineConfig mineConfig) {
         this.skyMines = skyMines;
         this.localeManager = localeManager;
         this.cooldownManager = cooldownManager;
+        this.blockChangeManager = blockChangeManager;
         this.mineTimeManager = mineTimeManager;
         this.bossBarManager = bossBarManager;
         this.mineConfig = mineConfig;
 
+        String timeText = mineConfig.bossBar().timeText();
+        String noTimeText = mineConfig.bossBar().noTimeText();
+        this.timeTextTemplate = timeText != null ? new ComponentTemplate(timeText, "time") : null;
+        this.noTimeTextTemplate = noTimeText != null ? new ComponentTemplate(noTimeText, "time") : null;
+
         ComponentLogger logger = skyMines.getComponentLogger();
 
         if(mineConfig.mineId() != null) {
@@ -151,6 +194,7 @@ public class PacketMine extends AbstractMine {
         this.regionManager = regionManager;
 
         ProtectedRegion parentRegion = getRegion(mineConfig.parentRegion());
+        if(mineConfig.parentRegion() != null) resolvedRegions.put(mineConfig.parentRegion(), parentRegion);
         if(parentRegion == null) {
             logger.error(AdventureUtil.serialize("Unable to create mine due to parent region " + mineConfig.parentRegion() + " not being found."));
             status = false;
@@ -158,8 +202,10 @@ public class PacketMine extends AbstractMine {
         }
         this.mineRegion = parentRegion;
 
+        List<PacketRegion> packetRegions = new ArrayList<>();
         for(PacketMineConfig.ChildRegionData childRegionData :  mineConfig.childRegions()) {
             ProtectedRegion childRegion = getRegion(childRegionData.region());
+            if(childRegionData.region() != null) resolvedRegions.put(childRegionData.region(), childRegion);
             if(childRegion == null) {
                 logger.warn(AdventureUtil.serialize("Unable to find a child region for " + childRegionData.region() + "."));
                 continue;
@@ -205,8 +251,57 @@ public class PacketMine extends AbstractMine {
                 packetBlockList.add(packetBlock);
             }
 
-            blockDataByRegion.put(childRegion, packetBlockList);
+            packetRegions.add(new PacketRegion(childRegion, packetBlockList));
+        }
+
+        this.packetRegionLookup = new PacketRegionLookup(packetRegions);
+
+        if(status && Boolean.TRUE.equals(mineConfig.sharedCooldownStore())) {
+            BlockVector3 min = parentRegion.getMinimumPoint();
+            BlockVector3 max = parentRegion.getMaximumPoint();
+
+            this.cooldownStore = new MineCooldownStore(mineWorld.getUID(), min.x(), min.y(), min.z(), max.x(), max.y(), max.z());
+            cooldownManager.registerCooldownStore(cooldownStore);
+        }
+    }
+
+    /**
+     * Get the {@link MineCooldownStore} of this mine.
+     * @return The {@link MineCooldownStore} or null if the shared cooldown store is not enabled for this mine.
+     */
+    public @Nullable MineCooldownStore getCooldownStore() {
+        return cooldownStore;
+    }
+
+    /**
+     * Get the {@link PacketMineConfig} the mine was created from.
+     * @return The {@link PacketMineConfig}.
+     */
+    @Override
+    public @NotNull PacketMineConfig getMineConfig() {
+        return mineConfig;
+    }
+
+    /**
+     * Checks if the config is equal to the config the mine was created from and if the world and regions it resolved to are unchanged.
+     * A region that was redefined, removed or created since the mine was created requires the mine to be re-created.
+     * @param mineConfig The reloaded {@link MineConfig}.
+     * @return true if the mine can be kept on reload, otherwise false.
+     */
+    @Override
+    public boolean isUnchanged(@NotNull MineConfig mineConfig) {
+        if(!this.mineConfig.equals(mineConfig)) return false;
+        if(mineWorld == null || this.mineConfig.worldName() == null) return false;
+        if(skyMines.getServer().getWorld(this.mineConfig.worldName()) != mineWorld) return false;
+
+        RegionManager currentRegionManager = WorldGuard.getInstance().getPlatform().getRegionContainer().get(BukkitAdapter.adapt(mineWorld));
+        if(currentRegionManager == null || currentRegionManager != regionManager) return false;
+
+        for(Map.Entry<String, ProtectedRegion> entry : resolvedRegions.entrySet()) {
+            if(!hasSameGeometry(entry.getValue(), currentRegionManager.getRegion(entry.getKey()))) return false;
         }
+
+        return true;
     }
 
     /**
@@ -218,6 +313,29 @@ public class PacketMine extends AbstractMine {
         return mineId;
     }
 
+    /**
+     * Get the {@link World} the mine is in.
+     * @return The {@link World} or null if the mine failed to setup.
+     */
+    @Override
+    public @Nullable World getMineWorld() {
+        return mineWorld;
+    }
+
+    /**
+     * Get the bounds of the mine's parent region.
+     * @return A {@link BoundingBox} of the parent region's minimum and maximum block coordinates or null if the mine failed to setup.
+     */
+    @Override
+    public @Nullable BoundingBox getMineBounds() {
+        if(mineRegion == null) return null;
+
+        BlockVector3 min = mineRegion.getMinimumPoint();
+        BlockVector3 max = mineRegion.getMaximumPoint();
+
+        return new BoundingBox(min.x(), min.y(), min.z(), max.x(), max.y(), max.z());
+    }
+
     /**
      * Checks if the location is inside the mine's region. This only checks the parent region and not any child regions.
      * You can use {@link #isBlockMineable(UUID, Location, BlockType)} for checking child regions.
@@ -245,10 +363,7 @@ public class PacketMine extends AbstractMine {
         if(mineId == null) return false;
         if(!mineTimeManager.hasMineTime(uuid, mineId)) return false;
 
-        return blockDataByRegion.entrySet().stream()
-                .filter(entry -> entry.getKey().contains(location.getBlockX(), location.getBlockY(), location.getBlockZ()))
-                .flatMap(entry -> entry.getValue().stream())
-                .anyMatch(packetBlock -> packetBlock.worldType().equals(blockType));
+        return getPacketBlock(location, blockType) != null;
     }
 
     /**
@@ -259,7 +374,7 @@ public class PacketMine extends AbstractMine {
      */
     @Override
     public boolean isLocationOnCooldown(@NotNull UUID uuid, @NotNull Location location) {
-        return cooldownManager.isLocationOnCooldown(uuid, location);
+        return cooldownManager.isLocationOnCooldown(uuid, location, cooldownStore);
     }
 
     /**
@@ -269,6 +384,7 @@ public class PacketMine extends AbstractMine {
      * If the block's location is on cooldown, a cooldown message is sent to the player.
      * If the block is not minable at all, a can not mine message is sent to the player.
      * The {@link BlockBreakEvent} is cancelled in the above 3 scenarios.
+     * If breaks are resolved on the event, a mineable block is also handled here through {@link #resolveBlockBreak(BlockBreakEvent, PacketBlock)}.
      * @param blockBreakEvent A BlockBreakEvent
      */
     @Override
@@ -276,12 +392,11 @@ public class PacketMine extends AbstractMine {
         if(mineId == null) return;
         Player player = blockBreakEvent.getPlayer();
         UUID uuid = player.getUniqueId();
-        Locale locale = localeManager.getLocale();
 
         if(player.getGameMode().equals(GameMode.CREATIVE)) return;
         if(!mineTimeManager.hasMineTime(uuid, mineId)) {
             blockBreakEvent.setCancelled(true);
-            player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.packetMineMessages().mineAccessNoTime()));
+            player.sendMessage(localeManager.getMessage(LocaleMessage.MINE_ACCESS_NO_TIME));
             return;
         }
 
@@ -293,16 +408,57 @@ public class PacketMine extends AbstractMine {
 
         if(isLocationOnCooldown(uuid, location)) {
             blockBreakEvent.setCancelled(true);
-            sendBulkBlockUpdates(player, uuid);
-            player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.packetMineMessages().cooldown()));
+            handleCooldownHit(player, uuid, location);
         } else {
             if(!isBlockMineable(uuid, location, blockType)) {
                 blockBreakEvent.setCancelled(true);
-                player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.packetMineMessages().canNotBreakBlock()));
+                player.sendMessage(localeManager.getMessage(LocaleMessage.CAN_NOT_BREAK_BLOCK));
+            } else if(Boolean.TRUE.equals(mineConfig.resolveBreaksOnEvent())) {
+                PacketBlock packetBlock = getPacketBlock(location, blockType);
+                if(packetBlock != null) resolveBlockBreak(blockBreakEvent, packetBlock);
             }
         }
     }
 
+    /**
+     * Resolves a block break without the block ever changing server-side.
+     * The event is cancelled, the drops and experience are given to the player directly, the tool is damaged,
+     * and the replacement block is shown to the player. This avoids the block being broken and restored in the world,
+     * which would cause lighting and neighbor updates, chunk saves and block updates sent to every nearby player.
+     * @param blockBreakEvent A BlockBreakEvent
+     * @param packetBlock The {@link PacketBlock} for the broken block.
+     */
+    private void resolveBlockBreak(@NotNull BlockBreakEvent blockBreakEvent, @NotNull PacketBlock packetBlock) {
+        Player player = blockBreakEvent.getPlayer();
+        UUID uuid = player.getUniqueId();
+        Block block = blockBreakEvent.getBlock();
+        Location location = block.getLocation();
+        int expToDrop = blockBreakEvent.getExpToDrop();
+
+        blockBreakEvent.setCancelled(true);
+
+        // Give the drops and experience to the player
+        ItemStack tool = player.getInventory().getItemInMainHand();
+        if(blockBreakEvent.isDropItems()) {
+            for(ItemStack itemStack : block.getDrops(tool, player)) {
+                PlayerUtil.giveItem(player.getInventory(), itemStack, itemStack.getAmount(), player.getLocation());
+            }
+        }
+        if(expToDrop > 0) player.giveExp(expToDrop, true);
+
+        // Apply the side effects of breaking a block to the player. Like vanilla, blocks that break instantly don't damage the tool.
+        if(block.getType().getHardness() > 0 && tool.getType().getMaxDurability() > 0) player.damageItemStack(EquipmentSlot.HAND, 1);
+        player.incrementStatistic(Statistic.MINE_BLOCK, block.getType());
+        player.setExhaustion(player.getExhaustion() + 0.005F);
+
+        cooldownManager.addLocationCooldown(uuid, location, packetBlock.replacementType(), packetBlock.cooldownSeconds(), cooldownStore);
+
+        Material replacementMaterial = packetBlock.replacementType().asMaterial();
+        if(replacementMaterial != null) {
+            blockChangeManager.queueBlockChange(player, location, replacementMaterial.createBlockData(), 1L);
+        }
+    }
+
     /**
      * Checks if the player has time to access the mine and if the block can be mined.
      * If the block can be mined, the block is replaced, the items given to the player, and sends client-side block updates.
@@ -315,12 +471,11 @@ public class PacketMine extends AbstractMine {
 
         Player player = blockDropItemEvent.getPlayer();
         UUID uuid = player.getUniqueId();
-        Locale locale = localeManager.getLocale();
 
         if(player.getGameMode().equals(GameMode.CREATIVE)) return;
         if(!mineTimeManager.hasMineTime(uuid, mineId)) {
             blockDropItemEvent.setCancelled(true);
-            player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.packetMineMessages().mineAccessNoTime()));
+            player.sendMessage(localeManager.getMessage(LocaleMessage.MINE_ACCESS_NO_TIME));
             return;
         }
 
@@ -340,34 +495,23 @@ public class PacketMine extends AbstractMine {
             currentBlockState.update(true, false);
         }, 1L);
 
-        blockDataByRegion.entrySet().stream()
-                .filter(entry -> entry.getKey().contains(location.getBlockX(), location.getBlockY(), location.getBlockZ()))
-                .map(entry -> entry.getValue().stream()
-                        .filter(packetBlock -> brokenBlockType.equals(packetBlock.worldType()))
-                        .findFirst()
-                )
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .forEach(packetBlock -> {
-                    // Add dropped items to the player's inventory.
-                    for(Item droppedItem : blockDropItemEvent.getItems()) {
-                        ItemStack itemStack = droppedItem.getItemStack();
-                        PlayerUtil.giveItem(player.getInventory(), itemStack, itemStack.getAmount(), player.getLocation());
-                    }
+        PacketBlock packetBlock = getPacketBlock(location, brokenBlockType);
+        if(packetBlock == null) return;
 
-                    BlockType replacementBlockType = packetBlock.replacementType();
-                    Material replacementMaterial = replacementBlockType.asMaterial();
+        // Add dropped items to the player's inventory.
+        for(Item droppedItem : blockDropItemEvent.getItems()) {
+            ItemStack itemStack = droppedItem.getItemStack();
+            PlayerUtil.giveItem(player.getInventory(), itemStack, itemStack.getAmount(), player.getLocation());
+        }
 
-                    cooldownManager.addLocationCooldown(uuid, location, packetBlock.replacementType(), packetBlock.cooldownSeconds());
+        BlockType replacementBlockType = packetBlock.replacementType();
+        Material replacementMaterial = replacementBlockType.asMaterial();
 
-                    if(replacementMaterial != null) {
-                        skyMines.getServer().getScheduler().runTaskLater(skyMines, () -> {
-                            if (player.isOnline() && player.isConnected()) {
-                                player.sendBlockChange(location, replacementMaterial.createBlockData());
-                            }
-                        }, 2L);
-                    }
-                });
+        cooldownManager.addLocationCooldown(uuid, location, packetBlock.replacementType(), packetBlock.cooldownSeconds(), cooldownStore);
+
+        if(replacementMaterial != null) {
+            blockChangeManager.queueBlockChange(player, location, replacementMaterial.createBlockData(), 2L);
+        }
     }
 
     /**
@@ -385,12 +529,11 @@ public class PacketMine extends AbstractMine {
         if(mineId == null) return;
         Player player = playerBucketFillEvent.getPlayer();
         UUID uuid = player.getUniqueId();
-        Locale locale = localeManager.getLocale();
 
         if(player.getGameMode().equals(GameMode.CREATIVE)) return;
         if(!mineTimeManager.hasMineTime(uuid, mineId)) {
             playerBucketFillEvent.setCancelled(true);
-            player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.packetMineMessages().mineAccessNoTime()));
+            player.sendMessage(localeManager.getMessage(LocaleMessage.MINE_ACCESS_NO_TIME));
             return;
         }
 
@@ -410,33 +553,22 @@ public class PacketMine extends AbstractMine {
             currentBlockState.update(true, false);
         }, 1L);
 
-        blockDataByRegion.entrySet().stream()
-                .filter(entry -> entry.getKey().contains(location.getBlockX(), location.getBlockY(), location.getBlockZ()))
-                .map(entry -> entry.getValue().stream()
-                        .filter(packetBlock -> brokenBlockType.equals(packetBlock.worldType()))
-                        .findFirst()
-                )
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .forEach(packetBlock -> {
-                    ItemStack itemStack = playerBucketFillEvent.getItemStack();
-                    if(itemStack != null) {
-                        PlayerUtil.giveItem(player.getInventory(), itemStack, itemStack.getAmount(), player.getLocation());
-                    }
+        PacketBlock packetBlock = getPacketBlock(location, brokenBlockType);
+        if(packetBlock == null) return;
 
-                    BlockType replacementBlockType = packetBlock.replacementType();
-                    Material replacementMaterial = replacementBlockType.asMaterial();
+        ItemStack itemStack = playerBucketFillEvent.getItemStack();
+        if(itemStack != null) {
+            PlayerUtil.giveItem(player.getInventory(), itemStack, itemStack.getAmount(), player.getLocation());
+        }
 
-                    cooldownManager.addLocationCooldown(uuid, location, packetBlock.replacementType(), packetBlock.cooldownSeconds());
+        BlockType replacementBlockType = packetBlock.replacementType();
+        Material replacementMaterial = replacementBlockType.asMaterial();
 
-                    if (replacementMaterial != null) {
-                        skyMines.getServer().getScheduler().runTaskLater(skyMines, () -> {
-                            if (player.isOnline() && player.isConnected()) {
-                                player.sendBlockChange(location, replacementMaterial.createBlockData());
-                            }
-                        }, 2L);
-                    }
-                });
+        cooldownManager.addLocationCooldown(uuid, location, packetBlock.replacementType(), packetBlock.cooldownSeconds(), cooldownStore);
+
+        if (replacementMaterial != null) {
+            blockChangeManager.queueBlockChange(player, location, replacementMaterial.createBlockData(), 2L);
+        }
     }
 
     /**
@@ -448,12 +580,11 @@ public class PacketMine extends AbstractMine {
     @Override
     public void handleBucketEmptied(@NotNull PlayerBucketEmptyEvent playerBucketEmptyEvent) {
         Player player = playerBucketEmptyEvent.getPlayer();
-        Locale locale = localeManager.getLocale();
 
         if(player.getGameMode().equals(GameMode.CREATIVE)) return;
 
         playerBucketEmptyEvent.setCancelled(true);
-        player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.packetMineMessages().canNotPlaceBlock()));
+        player.sendMessage(localeManager.getMessage(LocaleMessage.CAN_NOT_PLACE_BLOCK));
     }
 
     /**
@@ -471,7 +602,6 @@ public class PacketMine extends AbstractMine {
         if(mineId == null) return;
         Player player = playerInteractEvent.getPlayer();
         UUID uuid = player.getUniqueId();
-        Locale locale = localeManager.getLocale();
 
         if(player.getGameMode().equals(GameMode.CREATIVE)) return;
 
@@ -485,7 +615,7 @@ public class PacketMine extends AbstractMine {
 
         if(!mineTimeManager.hasMineTime(uuid, mineId)) {
             playerInteractEvent.setCancelled(true);
-            player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.packetMineMessages().mineAccessNoTime()));
+            player.sendMessage(localeManager.getMessage(LocaleMessage.MINE_ACCESS_NO_TIME));
             return;
         }
 
@@ -495,12 +625,11 @@ public class PacketMine extends AbstractMine {
 
         if(isLocationOnCooldown(uuid, location)) {
             playerInteractEvent.setCancelled(true);
-            sendBulkBlockUpdates(player, uuid);
-            player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.packetMineMessages().cooldown()));
+            handleCooldownHit(player, uuid, location);
         } else {
             if(!isBlockMineable(uuid, location, blockType)) {
                 playerInteractEvent.setCancelled(true);
-                player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.packetMineMessages().canNotBreakBlock()));
+                player.sendMessage(localeManager.getMessage(LocaleMessage.CAN_NOT_BREAK_BLOCK));
             }
         }
     }
@@ -519,12 +648,11 @@ public class PacketMine extends AbstractMine {
         if(mineId == null) return;
         Player player = playerHarvestBlockEvent.getPlayer();
         UUID uuid = player.getUniqueId();
-        Locale locale = localeManager.getLocale();
 
         if(player.getGameMode().equals(GameMode.CREATIVE)) return;
         if(!mineTimeManager.hasMineTime(uuid, mineId)) {
             playerHarvestBlockEvent.setCancelled(true);
-            player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.packetMineMessages().mineAccessNoTime()));
+            player.sendMessage(localeManager.getMessage(LocaleMessage.MINE_ACCESS_NO_TIME));
             return;
         }
 
@@ -536,41 +664,30 @@ public class PacketMine extends AbstractMine {
 
         playerHarvestBlockEvent.setCancelled(true);
 
-        blockDataByRegion.entrySet().stream()
-                .filter(entry -> entry.getKey().contains(location.getBlockX(), location.getBlockY(), location.getBlockZ()))
-                .map(entry -> entry.getValue().stream()
-                        .filter(packetBlock -> harvestedBlockType.equals(packetBlock.worldType()))
-                        .findFirst()
-                )
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .forEach(packetBlock -> {
-                    // Replace the harvested block
-                    skyMines.getServer().getScheduler().runTaskLater(skyMines, () -> {
-                        BlockState currentBlockState = location.getBlock().getState(false);
-                        currentBlockState.setType(harvestedMaterial);
-                        currentBlockState.setBlockData(blockState.getBlockData());
-                        currentBlockState.update(true, false);
-                    }, 1L);
-
-                    // Add harvested items to the player's inventory.
-                    for (ItemStack harvestedItem : playerHarvestBlockEvent.getItemsHarvested()) {
-                        PlayerUtil.giveItem(player.getInventory(), harvestedItem, harvestedItem.getAmount(), player.getLocation());
-                    }
+        PacketBlock packetBlock = getPacketBlock(location, harvestedBlockType);
+        if(packetBlock == null) return;
+
+        // Replace the harvested block
+        skyMines.getServer().getScheduler().runTaskLater(skyMines, () -> {
+            BlockState currentBlockState = location.getBlock().getState(false);
+            currentBlockState.setType(harvestedMaterial);
+            currentBlockState.setBlockData(blockState.getBlockData());
+            currentBlockState.update(true, false);
+        }, 1L);
 
-                    BlockType replacementBlockType = packetBlock.replacementType();
-                    Material replacementMaterial = replacementBlockType.asMaterial();
+        // Add harvested items to the player's inventory.
+        for (ItemStack harvestedItem : playerHarvestBlockEvent.getItemsHarvested()) {
+            PlayerUtil.giveItem(player.getInventory(), harvestedItem, harvestedItem.getAmount(), player.getLocation());
+        }
 
-                    cooldownManager.addLocationCooldown(uuid, location, packetBlock.replacementType(), packetBlock.cooldownSeconds());
+        BlockType replacementBlockType = packetBlock.replacementType();
+        Material replacementMaterial = replacementBlockType.asMaterial();
 
-                    if(replacementMaterial != null) {
-                        skyMines.getServer().getScheduler().runTaskLater(skyMines, () -> {
-                            if (player.isOnline() && player.isConnected()) {
-                                player.sendBlockChange(location, replacementMaterial.createBlockData());
-                            }
-                        }, 2L);
-                    }
-                });
+        cooldownManager.addLocationCooldown(uuid, location, packetBlock.replacementType(), packetBlock.cooldownSeconds(), cooldownStore);
+
+        if(replacementMaterial != null) {
+            blockChangeManager.queueBlockChange(player, location, replacementMaterial.createBlockData(), 2L);
+        }
     }
 
     /**
@@ -636,17 +753,16 @@ public class PacketMine extends AbstractMine {
     @Override
     public void handleBlockPlace(@NotNull BlockPlaceEvent blockPlaceEvent) {
         Player player = blockPlaceEvent.getPlayer();
-        Locale locale = localeManager.getLocale();
 
         if(player.getGameMode().equals(GameMode.CREATIVE)) return;
 
         blockPlaceEvent.setCancelled(true);
-        player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.packetMineMessages().canNotPlaceBlock()));
+        player.sendMessage(localeManager.getMessage(LocaleMessage.CAN_NOT_PLACE_BLOCK));
     }
 
     /**
      * Handles a {@link PlayerMoveEvent}.
-     * Hides or shows the boss bar depending on if they are exiting this mine or entering this mine.
+     * Hides or shows the boss bar and ends or starts the player's mine time session depending on if they are exiting this mine or entering this mine.
      * If they don't leave or enter a mine, nothing happens.
      * @param playerMoveEvent A {@link PlayerMoveEvent}.
      */
@@ -659,6 +775,8 @@ public class PacketMine extends AbstractMine {
         UUID uuid = player.getUniqueId();
 
         if(isLocationInMine(from) && !isLocationInMine(to)) {
+            mineTimeManager.endMineSession(uuid);
+            handlePlayerExit(uuid);
             bossBarManager.removeBossBar(player, uuid);
         } else if(!isLocationInMine(from) && isLocationInMine(to)) {
             createAndShowBossBar(player, uuid);
@@ -667,7 +785,7 @@ public class PacketMine extends AbstractMine {
 
     /**
      * Handles a {@link PlayerTeleportEvent}.
-     * Hides or shows the boss bar depending on if they are exiting this mine or entering this mine.
+     * Hides or shows the boss bar and ends or starts the player's mine time session depending on if they are exiting this mine or entering this mine.
      * If they don't leave or enter a mine, nothing happens.
      * @param playerTeleportEvent A {@link PlayerTeleportEvent}.
      */
@@ -680,6 +798,8 @@ public class PacketMine extends AbstractMine {
         UUID uuid = player.getUniqueId();
 
         if(isLocationInMine(from) && !isLocationInMine(to)) {
+            mineTimeManager.endMineSession(uuid);
+            handlePlayerExit(uuid);
             bossBarManager.removeBossBar(player, uuid);
         } else if(!isLocationInMine(from) && isLocationInMine(to)) {
             createAndShowBossBar(player, uuid);
@@ -688,22 +808,31 @@ public class PacketMine extends AbstractMine {
 
     /**
      * Handles a {@link PlayerChunkLoadEvent}.
-     * Handles when a player loads a chunk inside a mine and sends any block updates as needed.
+     * Handles when a player loads a chunk inside a mine and sends the block updates for the blocks inside that chunk only.
      * @param playerChunkLoadEvent A {@link PlayerChunkLoadEvent}.
      */
     @Override
     public void handlePlayerChunkLoad(@NotNull PlayerChunkLoadEvent playerChunkLoadEvent) {
+        if(mineWorld == null) return;
         Player player = playerChunkLoadEvent.getPlayer();
         UUID uuid = player.getUniqueId();
-        Location location = player.getLocation();
+        Chunk chunk = playerChunkLoadEvent.getChunk();
+        if(!chunk.getWorld().equals(mineWorld)) return;
 
-        if(isLocationInMine(location)) {
-            this.sendBulkBlockUpdates(player, uuid);
+        World world = mineWorld;
+        if(cooldownStore != null) {
+            cooldownStore.forEachCooldownInChunk(uuid, chunk.getX(), chunk.getZ(), (packedPosition, packedCooldown) ->
+                    blockChangeManager.queueBlockChange(player, world, packedPosition, BlockCooldownMap.getReplacementMaterial(packedCooldown).createBlockData(), 1L));
         }
+
+        @Nullable BlockCooldownMap blockCooldowns = cooldownManager.getBlockCooldowns(uuid, world, chunk.getX(), chunk.getZ());
+        if(blockCooldowns == null) return;
+
+        queueBlockUpdates(player, world, blockCooldowns);
     }
 
     /**
-     * Create and show the boss bar for this mine to the player.
+     * Starts using the player's time for this mine, then creates and shows the boss bar for this mine to the player.
      * @param player The {@link Player} to show the boss bar.
      * @param uuid The {@link UUID} of the player.
      */
@@ -711,8 +840,10 @@ public class PacketMine extends AbstractMine {
     public void createAndShowBossBar(@NotNull Player player, @NotNull UUID uuid) {
         if(mineId == null) return;
 
+        mineTimeManager.startMineSession(uuid, mineId);
+        pendingResyncs.add(uuid);
+
         long mineTimeSeconds = mineTimeManager.getMineTime(uuid, mineId);
-        List<TagResolver.Single> placeholders = List.of(Placeholder.parsed("time", localeManager.getTimeMessage(mineTimeSeconds)));
 
         BossBar.Color bossBarColor;
         BossBar.Overlay bossBarOverlay;
@@ -726,19 +857,19 @@ public class PacketMine extends AbstractMine {
 
         BossBar bossBar;
         if(mineTimeSeconds > 0) {
-            if(mineConfig.bossBar().timeText() == null) {
+            if(timeTextTemplate == null) {
                 skyMines.getComponentLogger().warn(AdventureUtil.serialize("Unable to create a boss bar due to invalid boss bar time text."));
                 return;
             }
 
-            bossBar = BossBar.bossBar(AdventureUtil.serialize(mineConfig.bossBar().timeText(), placeholders), 1, bossBarColor, bossBarOverlay);
+            bossBar = BossBar.bossBar(timeTextTemplate.render(localeManager.getTimeComponent(mineTimeSeconds)), 1, bossBarColor, bossBarOverlay);
         } else {
-            if(mineConfig.bossBar().noTimeText() == null) {
+            if(noTimeTextTemplate == null) {
                 skyMines.getComponentLogger().warn(AdventureUtil.serialize("Unable to create a boss bar due to invalid boss bar no time text."));
                 return;
             }
 
-            bossBar = BossBar.bossBar(AdventureUtil.serialize(mineConfig.bossBar().noTimeText(), placeholders), 1, bossBarColor, bossBarOverlay);
+            bossBar = BossBar.bossBar(noTimeTextTemplate.render(localeManager.getTimeComponent(mineTimeSeconds)), 1, bossBarColor, bossBarOverlay);
         }
 
         bossBarManager.setBossBar(player, uuid, bossBar);
@@ -746,56 +877,81 @@ public class PacketMine extends AbstractMine {
 
     /**
      * Update the boss bar shown to the player.
+     * If the boss bar is configured to skip unchanged names, the name is only set when the rendered text is different.
      * @param uuid The {@link UUID} of the player.
      */
     @Override
     public void updateBossBar(@NotNull UUID uuid) {
         if(mineId == null) return;
 
-        long mineTimeSeconds = mineTimeManager.getMineTime(uuid, mineId);
-        List<TagResolver.Single> placeholders = List.of(Placeholder.parsed("time", localeManager.getTimeMessage(mineTimeSeconds)));
-
         BossBar bossBar = bossBarManager.getBossBar(uuid);
         if(bossBar == null) return;
 
+        long mineTimeSeconds = mineTimeManager.getMineTime(uuid, mineId);
+
+        Component name;
         if(mineTimeSeconds > 0) {
-            if(mineConfig.bossBar().timeText() == null) {
+            if(timeTextTemplate == null) {
                 skyMines.getComponentLogger().warn(AdventureUtil.serialize("Unable to update a boss bar due to invalid boss bar time text."));
                 return;
             }
 
-            bossBar.name(AdventureUtil.serialize(mineConfig.bossBar().timeText(), placeholders));
+            name = timeTextTemplate.render(localeManager.getTimeComponent(mineTimeSeconds));
         } else {
-            if(mineConfig.bossBar().noTimeText() == null) {
+            if(noTimeTextTemplate == null) {
                 skyMines.getComponentLogger().warn(AdventureUtil.serialize("Unable to update a boss bar due to invalid boss bar no time text."));
                 return;
             }
 
-            bossBar.name(AdventureUtil.serialize(mineConfig.bossBar().noTimeText(), placeholders));
+            name = noTimeTextTemplate.render(localeManager.getTimeComponent(mineTimeSeconds));
         }
+
+        if(Boolean.TRUE.equals(mineConfig.bossBar().skipUnchangedName()) && name.equals(bossBar.name())) return;
+
+        bossBar.name(name);
     }
 
     /**
      * Cleans up any data for this mine on unload.
-     * Will remove any boss bars and revert any client-side block changes.
+     * Will end any mine time sessions, remove any boss bars and revert any client-side block changes.
      * @param onDisable Is the plugin being disabled?
      */
     @Override
     public void cleanUp(boolean onDisable) {
+        // Moves the store's cooldowns to the players' data, so they are reverted below and survive a reload
+        if(cooldownStore != null) {
+            cooldownManager.unregisterCooldownStore(cooldownStore);
+            cooldownStore = null;
+        }
+
+        cooldownMessageTicks.clear();
+        pendingResyncs.clear();
+
         for(Player player : skyMines.getServer().getOnlinePlayers()) {
             if(player.isOnline() && player.isConnected()) {
                 UUID uuid = player.getUniqueId();
                 Location playerLocation = player.getLocation();
 
+                if(mineId != null && mineId.equals(mineTimeManager.getSessionMineId(uuid))) {
+                    mineTimeManager.endMineSession(uuid);
+                }
+
                 if(isLocationInMine(playerLocation)) {
                     bossBarManager.removeBossBar(player, uuid);
 
-                    Map<Location, BlockData> blockDataMap = cooldownManager.getBlockDataOnCooldown(uuid);
+                    blockChangeManager.clearPendingChanges(uuid);
+
+                    if(mineWorld == null) continue;
+                    @Nullable Map<Long, BlockCooldownMap> blockCooldownsByChunk = cooldownManager.getBlockCooldownsByChunk(uuid, mineWorld);
+                    if(blockCooldownsByChunk == null) continue;
+
                     List<BlockState> blockStates = new ArrayList<>();
-                    blockDataMap.forEach((blockLocation, blockData) -> {
-                        BlockState blockState = blockLocation.getBlock().getState(true);
-                        blockStates.add(blockState);
-                    });
+                    for(BlockCooldownMap blockCooldowns : blockCooldownsByChunk.values()) {
+                        blockCooldowns.forEach((packedPosition, packedCooldown) -> {
+                            BlockState blockState = getBlockState(mineWorld, packedPosition);
+                            blockStates.add(blockState);
+                        });
+                    }
 
                     if(!onDisable) {
                         skyMines.getServer().getScheduler().runTaskLater(skyMines, () -> player.sendBlockChanges(blockStates), 1L);
@@ -828,26 +984,119 @@ public class PacketMine extends AbstractMine {
         return regionManager.getRegion(regionName);
     }
 
+    /**
+     * Checks if two regions cover the same blocks.
+     * @param oldRegion The {@link ProtectedRegion} the mine was created with or null if it was not found.
+     * @param newRegion The current {@link ProtectedRegion} or null if it is not found.
+     * @return true if both regions are null or have the same type and points, otherwise false.
+     */
+    private static boolean hasSameGeometry(@Nullable ProtectedRegion oldRegion, @Nullable ProtectedRegion newRegion) {
+        if(oldRegion == null || newRegion == null) return oldRegion == newRegion;
+
+        return oldRegion.getType() == newRegion.getType()
+                && oldRegion.getMinimumPoint().equals(newRegion.getMinimumPoint())
+                && oldRegion.getMaximumPoint().equals(newRegion.getMaximumPoint())
+                && oldRegion.getPoints().equals(newRegion.getPoints());
+    }
+
+    /**
+     * Get the {@link PacketBlock} for the {@link BlockType} at the {@link Location} from the compiled child regions.
+     * @param location The {@link Location} of the block.
+     * @param worldType The {@link BlockType} of the block in the world.
+     * @return The {@link PacketBlock} or null if the block cannot be mined at the location.
+     */
+    private @Nullable PacketBlock getPacketBlock(@NotNull Location location, @NotNull BlockType worldType) {
+        return packetRegionLookup.getPacketBlock(location.getBlockX(), location.getBlockY(), location.getBlockZ(), worldType);
+    }
+
+    /**
+     * Handles a player hitting a block that is on cooldown.
+     * Only the hit block is resent, unless the player's client may be out of sync with every block on cooldown, such as after entering the mine.
+     * The cooldown message is not resent until the configured number of ticks has passed since it was last sent.
+     * @param player The {@link Player} that hit the block.
+     * @param uuid The {@link UUID} of the player.
+     * @param location The {@link Location} of the block.
+     */
+    private void handleCooldownHit(@NotNull Player player, @NotNull UUID uuid, @NotNull Location location) {
+        if(pendingResyncs.remove(uuid)) {
+            sendBulkBlockUpdates(player, uuid);
+        } else {
+            sendBlockUpdate(player, uuid, location);
+        }
+
+        long currentTick = skyMines.getServer().getCurrentTick();
+        int windowTicks = mineConfig.cooldownHitWindowTicks() != null ? mineConfig.cooldownHitWindowTicks() : 20;
+        Long lastMessageTick = cooldownMessageTicks.get(uuid);
+        if(lastMessageTick != null && currentTick - lastMessageTick < windowTicks) return;
+
+        cooldownMessageTicks.put(uuid, currentTick);
+        player.sendMessage(localeManager.getMessage(LocaleMessage.COOLDOWN));
+    }
+
+    /**
+     * Removes the cooldown hit data for a player, such as when they leave the mine or the server.
+     * @param uuid The {@link UUID} of the player.
+     */
+    @Override
+    public void handlePlayerExit(@NotNull UUID uuid) {
+        cooldownMessageTicks.remove(uuid);
+        pendingResyncs.remove(uuid);
+    }
+
+    /**
+     * Sends the client-side block update for a single block on cooldown.
+     * @param player The {@link Player} to send the block change to.
+     * @param uuid The {@link UUID} of the player.
+     * @param location The {@link Location} of the block.
+     */
+    private void sendBlockUpdate(@NotNull Player player, @NotNull UUID uuid, @NotNull Location location) {
+        long packedCooldown = cooldownManager.getLocationCooldown(uuid, location, cooldownStore);
+        if(packedCooldown == BlockCooldownMap.NO_COOLDOWN) return;
+
+        long packedPosition = BlockCooldownMap.packPosition(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        blockChangeManager.queueBlockChange(player, location.getWorld(), packedPosition, BlockCooldownMap.getReplacementMaterial(packedCooldown).createBlockData(), 1L);
+    }
+
     /**
      * Sends client-side block updates for blocks already mined.
      * @param player The {@link Player} to send block changes to.
      * @param uuid The {@link UUID} of the player.
      */
     private void sendBulkBlockUpdates(@NotNull Player player, @NotNull UUID uuid) {
-        Map<Location, BlockData> blockDataMap = cooldownManager.getBlockDataOnCooldown(uuid);
+        if(mineWorld == null) return;
+
+        World world = mineWorld;
+        if(cooldownStore != null) {
+            cooldownStore.forEachCooldown(uuid, (packedPosition, packedCooldown) ->
+                    blockChangeManager.queueBlockChange(player, world, packedPosition, BlockCooldownMap.getReplacementMaterial(packedCooldown).createBlockData(), 1L));
+        }
 
-        List<BlockState> blockStates = new ArrayList<>();
-        blockDataMap.forEach((location, blockData) -> {
-            BlockState blockState = location.getBlock().getState(true);
-            BlockType blockType = blockData.getReplacementType();
-            Material material = blockType.asMaterial();
+        @Nullable Map<Long, BlockCooldownMap> blockCooldownsByChunk = cooldownManager.getBlockCooldownsByChunk(uuid, mineWorld);
+        if(blockCooldownsByChunk == null) return;
 
-            if(material != null) {
-                blockState.setType(material);
-                blockStates.add(blockState);
-            }
-        });
+        for(BlockCooldownMap blockCooldowns : blockCooldownsByChunk.values()) {
+            queueBlockUpdates(player, mineWorld, blockCooldowns);
+        }
+    }
 
-        skyMines.getServer().getScheduler().runTaskLater(skyMines, () -> player.sendBlockChanges(blockStates), 1L);
+    /**
+     * Queues client-side block updates for the blocks in a {@link BlockCooldownMap}.
+     * @param player The {@link Player} to send block changes to.
+     * @param world The {@link World} the blocks are in.
+     * @param blockCooldowns The {@link BlockCooldownMap} of blocks on cooldown.
+     */
+    private void queueBlockUpdates(@NotNull Player player, @NotNull World world, @NotNull BlockCooldownMap blockCooldowns) {
+        blockCooldowns.forEach((packedPosition, packedCooldown) ->
+                blockChangeManager.queueBlockChange(player, world, packedPosition, BlockCooldownMap.getReplacementMaterial(packedCooldown).createBlockData(), 1L));
+    }
+
+    /**
+     * Get a copy of the {@link BlockState} at a packed block position.
+     * @param world The {@link World} the block is in.
+     * @param packedPosition The block position packed with {@link BlockCooldownMap#packPosition(int, int, int)}.
+     * @return A {@link BlockState} snapshot.
+     */
+    private @NotNull BlockState getBlockState(@NotNull World world, long packedPosition) {
+        return world.getBlockAt(BlockCooldownMap.getX(packedPosition), BlockCooldownMap.getY(packedPosition), BlockCooldownMap.getZ(packedPosition)).getState(true);
     }
-}
\ No newline at end of file
+}
@@ -21,7 +21,8 @@ import com.github.lukesky19.skylib.api.adventure.AdventureUtil;
 import com.github.lukesky19.skylib.api.player.PlayerUtil;
 import com.github.lukesky19.skylib.api.registry.RegistryUtil;
 import com.github.lukesky19.skymines.SkyMines;
-import com.github.lukesky19.skymines.data.config.Locale;
+import com.github.lukesky19.skymines.data.config.LocaleMessage;
+import com.github.lukesky19.skymines.data.config.MineConfig;
 import com.github.lukesky19.skymines.data.config.world.WorldMineConfig;
 import com.github.lukesky19.skymines.manager.bossbar.BossBarManager;
 import com.github.lukesky19.skymines.manager.config.LocaleManager;
@@ -49,6 +50,7 @@ import org.bukkit.event.player.*;
 import org.bukkit.event.world.StructureGrowEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.ItemType;
+import org.bukkit.util.BoundingBox;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -145,6 +147,7 @@ public class WorldMine extends AbstractMine {
                 optionalBlockType.ifPresent(unlockableBlockTypes::add);
             }
         });
+        blocksManager.registerUnlockableBlocks(mineId, unlockableBlockTypes);
 
         mineConfig.freeBreakable().forEach(blockData -> {
             if(blockData.blockType() != null) {
@@ -159,6 +162,28 @@ public class WorldMine extends AbstractMine {
         });
     }
 
+    /**
+     * Get the {@link WorldMineConfig} the mine was created from.
+     * @return The {@link WorldMineConfig}.
+     */
+    @Override
+    public @NotNull WorldMineConfig getMineConfig() {
+        return mineConfig;
+    }
+
+    /**
+     * Checks if the config is equal to the config the mine was created from and if the world is still the same loaded world.
+     * @param mineConfig The reloaded {@link MineConfig}.
+     * @return true if the mine can be kept on reload, otherwise false.
+     */
+    @Override
+    public boolean isUnchanged(@NotNull MineConfig mineConfig) {
+        if(!this.mineConfig.equals(mineConfig)) return false;
+        if(mineWorld == null || this.mineConfig.worldName() == null) return false;
+
+        return skyMines.getServer().getWorld(this.mineConfig.worldName()) == mineWorld;
+    }
+
     /**
      * Get the id of the mine.
      * @return The id of the mine.
@@ -168,6 +193,24 @@ public class WorldMine extends AbstractMine {
         return mineId;
     }
 
+    /**
+     * Get the {@link World} the mine is in.
+     * @return The {@link World} or null if the mine failed to setup.
+     */
+    @Override
+    public @Nullable World getMineWorld() {
+        return mineWorld;
+    }
+
+    /**
+     * This mine treats the entire world as the mine so there are no bounds.
+     * @return Always null.
+     */
+    @Override
+    public @Nullable BoundingBox getMineBounds() {
+        return null;
+    }
+
     /**
      * Checks if the location's world and the mine's world are the same.
      * @param location The {@link Location} to check.
@@ -235,7 +278,6 @@ public class WorldMine extends AbstractMine {
     public void handleBlockBreak(@NotNull BlockBreakEvent blockBreakEvent) {
         if(mineId == null) return;
 
-        Locale locale = localeManager.getLocale();
         Player player = blockBreakEvent.getPlayer();
         UUID uuid = player.getUniqueId();
 
@@ -259,7 +301,7 @@ public class WorldMine extends AbstractMine {
 
                 // Check if the block has player-placed petals
                 if(playerPlacedPetals == 0) {
-                    player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().blockBreakNotAllowed()));
+                    player.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_BREAK_NOT_ALLOWED));
                     blockBreakEvent.setCancelled(true);
                     return;
                 }
@@ -287,21 +329,21 @@ public class WorldMine extends AbstractMine {
 
         // Check if the block is unlockable, but not unlocked.
         if(unlockableBlockTypes.contains(blockType) && !isBlockTypeUnlocked(uuid, blockType)) {
-            player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().blockBreakNotUnlocked()));
+            player.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_BREAK_NOT_UNLOCKED));
             blockBreakEvent.setCancelled(true);
             return;
         }
 
         // Check if the block is not unlockable and is not unlocked.
         if(!unlockableBlockTypes.contains(blockType) && !isBlockTypeUnlocked(uuid, blockType)) {
-            player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().blockBreakNotAllowed()));
+            player.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_BREAK_NOT_ALLOWED));
             blockBreakEvent.setCancelled(true);
             return;
         }
 
         // Check if the block type is not unlockable and is unlocked.
         if(!unlockableBlockTypes.contains(blockType) && isBlockTypeUnlocked(uuid, blockType)) {
-            player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().blockBreakNotAllowed()));
+            player.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_BREAK_NOT_ALLOWED));
             blockBreakEvent.setCancelled(true);
         }
     }
@@ -321,7 +363,6 @@ public class WorldMine extends AbstractMine {
      */
     @Override
     public void handleBlockDropItem(@NotNull BlockDropItemEvent blockDropItemEvent) {
-        Locale locale = localeManager.getLocale();
         Player player = blockDropItemEvent.getPlayer();
         UUID uuid = player.getUniqueId();
 
@@ -346,7 +387,7 @@ public class WorldMine extends AbstractMine {
 
                 // Check if the block has player-placed petals
                 if(playerPlacedPetals == 0) {
-                    player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().blockBreakNotAllowed()));
+                    player.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_BREAK_NOT_ALLOWED));
                     blockDropItemEvent.setCancelled(true);
 
                     // Revert the block state
@@ -387,7 +428,7 @@ public class WorldMine extends AbstractMine {
 
         // Check if the block is unlockable, but not unlocked.
         if(unlockableBlockTypes.contains(blockType) && !isBlockTypeUnlocked(uuid, blockType)) {
-            player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().blockBreakNotUnlocked()));
+            player.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_BREAK_NOT_UNLOCKED));
             blockDropItemEvent.setCancelled(true);
 
             // Revert the block state
@@ -401,7 +442,7 @@ public class WorldMine extends AbstractMine {
 
         // Check if the block is not unlockable and is not unlocked.
         if(!unlockableBlockTypes.contains(blockType) && !isBlockTypeUnlocked(uuid, blockType)) {
-            player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().blockBreakNotAllowed()));
+            player.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_BREAK_NOT_ALLOWED));
             blockDropItemEvent.setCancelled(true);
 
             // Revert the block state
@@ -415,7 +456,7 @@ public class WorldMine extends AbstractMine {
 
         // Check if the block type is not unlockable and is unlocked.
         if(!unlockableBlockTypes.contains(blockType) && isBlockTypeUnlocked(uuid, blockType)) {
-            player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().blockBreakNotAllowed()));
+            player.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_BREAK_NOT_ALLOWED));
             blockDropItemEvent.setCancelled(true);
 
             // Revert the block state
@@ -439,7 +480,6 @@ public class WorldMine extends AbstractMine {
      */
     @Override
     public void handleBucketFilled(@NotNull PlayerBucketFillEvent playerBucketFillEvent) {
-        Locale locale = localeManager.getLocale();
         Player player = playerBucketFillEvent.getPlayer();
         UUID uuid = player.getUniqueId();
 
@@ -463,28 +503,28 @@ public class WorldMine extends AbstractMine {
                 return;
             }
 
-            player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().blockBreakNotAllowed()));
+            player.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_BREAK_NOT_ALLOWED));
             playerBucketFillEvent.setCancelled(true);
             return;
         }
 
         // Check if the block is unlockable, but not unlocked.
         if(unlockableBlockTypes.contains(blockType) && !isBlockTypeUnlocked(uuid, blockType)) {
-            player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().blockBreakNotUnlocked()));
+            player.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_BREAK_NOT_UNLOCKED));
             playerBucketFillEvent.setCancelled(true);
             return;
         }
 
         // Check if the block is not unlockable and is not unlocked.
         if(!unlockableBlockTypes.contains(blockType) && !isBlockTypeUnlocked(uuid, blockType)) {
-            player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().blockBreakNotAllowed()));
+            player.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_BREAK_NOT_ALLOWED));
             playerBucketFillEvent.setCancelled(true);
             return;
         }
 
         // Check if the block type is not unlockable and is unlocked.
         if(!unlockableBlockTypes.contains(blockType) && isBlockTypeUnlocked(uuid, blockType)) {
-            player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().blockBreakNotAllowed()));
+            player.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_BREAK_NOT_ALLOWED));
             playerBucketFillEvent.setCancelled(true);
             return;
         }
@@ -507,9 +547,6 @@ public class WorldMine extends AbstractMine {
      */
     @Override
     public void handleBucketEmptied(@NotNull PlayerBucketEmptyEvent playerBucketEmptyEvent) {
-        // Locale
-        Locale locale = localeManager.getLocale();
-
         // Player
         Player player = playerBucketEmptyEvent.getPlayer();
         UUID uuid = player.getUniqueId();
@@ -532,14 +569,14 @@ public class WorldMine extends AbstractMine {
         // Check if the mine is configured to allow player placed blocks.
         if(mineConfig.canPlacePlayerBlocks() == null || !mineConfig.canPlacePlayerBlocks()) {
             playerBucketEmptyEvent.setCancelled(true);
-            player.sendMessage(locale.prefix() + locale.worldMineMessages().blockPlaceNotAllowed());
+            player.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_PLACE_NOT_ALLOWED));
             return;
         }
 
         // Check if the block type is a restricted block
         if(isBlockTypePlacementRestricted(blockType)) {
             playerBucketEmptyEvent.setCancelled(true);
-            player.sendMessage(locale.prefix() + locale.worldMineMessages().blockPlaceNotAllowed());
+            player.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_PLACE_NOT_ALLOWED));
             return;
         }
 
@@ -548,13 +585,13 @@ public class WorldMine extends AbstractMine {
             if(!isBlockTypeFree(blockType)) {
                 if(unlockableBlockTypes.contains(blockType) && !isBlockTypeUnlocked(uuid, blockType)) {
                     playerBucketEmptyEvent.setCancelled(true);
-                    player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().blockPlaceNotUnlocked()));
+                    player.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_PLACE_NOT_UNLOCKED));
                     return;
                 }
 
                 if(!unlockableBlockTypes.contains(blockType) && isBlockTypeUnlocked(uuid, blockType)) {
                     playerBucketEmptyEvent.setCancelled(true);
-                    player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().blockPlaceNotAllowed()));
+                    player.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_PLACE_NOT_ALLOWED));
                     return;
                 }
             }
@@ -579,7 +616,6 @@ public class WorldMine extends AbstractMine {
      */
     @Override
     public void handlePlayerInteract(@NotNull PlayerInteractEvent playerInteractEvent) {
-        Locale locale = localeManager.getLocale();
         Player player = playerInteractEvent.getPlayer();
         UUID uuid = player.getUniqueId();
 
@@ -619,21 +655,21 @@ public class WorldMine extends AbstractMine {
 
         // Check if the block is unlockable, but not unlocked.
         if(unlockableBlockTypes.contains(blockType) && !isBlockTypeUnlocked(uuid, blockType)) {
-            player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().blockInteractionNotUnlocked()));
+            player.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_INTERACTION_NOT_UNLOCKED));
             playerInteractEvent.setCancelled(true);
             return;
         }
 
         // Check if the block is not unlockable and is not unlocked.
         if(!unlockableBlockTypes.contains(blockType) && !isBlockTypeUnlocked(uuid, blockType)) {
-            player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().blockInteractionNotAllowed()));
+            player.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_INTERACTION_NOT_ALLOWED));
             playerInteractEvent.setCancelled(true);
             return;
         }
 
         // Check if the block type is not unlockable and is unlocked.
         if(!unlockableBlockTypes.contains(blockType) && isBlockTypeUnlocked(uuid, blockType)) {
-            player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().blockInteractionNotAllowed()));
+            player.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_INTERACTION_NOT_ALLOWED));
             playerInteractEvent.setCancelled(true);
         }
     }
@@ -649,7 +685,6 @@ public class WorldMine extends AbstractMine {
      */
     @Override
     public void handlePlayerHarvestBlockEvent(@NotNull PlayerHarvestBlockEvent playerHarvestBlockEvent) {
-        Locale locale = localeManager.getLocale();
         Player player = playerHarvestBlockEvent.getPlayer();
         UUID uuid = player.getUniqueId();
 
@@ -674,21 +709,21 @@ public class WorldMine extends AbstractMine {
 
         // Check if the block is unlockable, but not unlocked.
         if(unlockableBlockTypes.contains(blockType) && !isBlockTypeUnlocked(uuid, blockType)) {
-            player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().blockBreakNotUnlocked()));
+            player.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_BREAK_NOT_UNLOCKED));
             playerHarvestBlockEvent.setCancelled(true);
             return;
         }
 
         // Check if the block is not unlockable and is not unlocked.
         if(!unlockableBlockTypes.contains(blockType) && !isBlockTypeUnlocked(uuid, blockType)) {
-            player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().blockBreakNotAllowed()));
+            player.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_BREAK_NOT_ALLOWED));
             playerHarvestBlockEvent.setCancelled(true);
             return;
         }
 
         // Check if the block type is not unlockable and is unlocked.
         if(!unlockableBlockTypes.contains(blockType) && isBlockTypeUnlocked(uuid, blockType)) {
-            player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().blockBreakNotAllowed()));
+            player.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_BREAK_NOT_ALLOWED));
             playerHarvestBlockEvent.setCancelled(true);
         }
     }
@@ -854,7 +889,6 @@ public class WorldMine extends AbstractMine {
      */
     @Override
     public void handleEntityChangeBlockEvent(@NotNull EntityChangeBlockEvent entityChangeBlockEvent) {
-        Locale locale = localeManager.getLocale();
         Entity entity = entityChangeBlockEvent.getEntity();
         if(entity instanceof Player player) {
             if(player.getGameMode().equals(GameMode.CREATIVE)) return;
@@ -881,21 +915,21 @@ public class WorldMine extends AbstractMine {
 
             // Check if the block is unlockable, but not unlocked.
             if(unlockableBlockTypes.contains(blockType) && !isBlockTypeUnlocked(uuid, blockType)) {
-                player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().blockBreakNotUnlocked()));
+                player.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_BREAK_NOT_UNLOCKED));
                 entityChangeBlockEvent.setCancelled(true);
                 return;
             }
 
             // Check if the block is not unlockable and is not unlocked.
             if(!unlockableBlockTypes.contains(blockType) && !isBlockTypeUnlocked(uuid, blockType)) {
-                player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().blockBreakNotAllowed()));
+                player.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_BREAK_NOT_ALLOWED));
                 entityChangeBlockEvent.setCancelled(true);
                 return;
             }
 
             // Check if the block type is not unlockable and is unlocked.
             if(!unlockableBlockTypes.contains(blockType) && isBlockTypeUnlocked(uuid, blockType)) {
-                player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().blockBreakNotAllowed()));
+                player.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_BREAK_NOT_ALLOWED));
                 entityChangeBlockEvent.setCancelled(true);
             }
         }
@@ -1096,7 +1130,6 @@ public class WorldMine extends AbstractMine {
      */
     @Override
     public void handleBlockPlace(@NotNull BlockPlaceEvent blockPlaceEvent) {
-        Locale locale = localeManager.getLocale();
         Player player = blockPlaceEvent.getPlayer();
 
         if(player.getGameMode().equals(GameMode.CREATIVE)) return;
@@ -1110,14 +1143,14 @@ public class WorldMine extends AbstractMine {
         // Check if the mine is configured to allow player placed blocks.
         if(mineConfig.canPlacePlayerBlocks() == null || !mineConfig.canPlacePlayerBlocks()) {
             blockPlaceEvent.setCancelled(true);
-            player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().blockPlaceNotAllowed()));
+            player.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_PLACE_NOT_ALLOWED));
             return;
         }
 
         // Check if the block type is a restricted block
         if(isBlockTypePlacementRestricted(blockType)) {
             blockPlaceEvent.setCancelled(true);
-            player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().blockPlaceNotAllowed()));
+            player.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_PLACE_NOT_ALLOWED));
             return;
         }
 
@@ -1126,13 +1159,13 @@ public class WorldMine extends AbstractMine {
             if(!isBlockTypeFree(blockType)) {
                 if(unlockableBlockTypes.contains(blockType) && !isBlockTypeUnlocked(uuid, blockType)) {
                     blockPlaceEvent.setCancelled(true);
-                    player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().blockPlaceNotUnlocked()));
+                    player.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_PLACE_NOT_UNLOCKED));
                     return;
                 }
 
                 if(!unlockableBlockTypes.contains(blockType) && isBlockTypeUnlocked(uuid, blockType)) {
                     blockPlaceEvent.setCancelled(true);
-                    player.sendMessage(AdventureUtil.serialize(locale.prefix() + locale.worldMineMessages().blockPlaceNotAllowed()));
+                    player.sendMessage(localeManager.getMessage(LocaleMessage.BLOCK_PLACE_NOT_ALLOWED));
                     return;
                 }
             }
@@ -1255,6 +1288,13 @@ public class WorldMine extends AbstractMine {
         bossBar.name(AdventureUtil.serialize(mineConfig.bossBar().text()));
     }
 
+    /**
+     * World mines don't hold any state for players inside them, so nothing is cleared.
+     * @param uuid The {@link UUID} of the player.
+     */
+    @Override
+    public void handlePlayerExit(@NotNull UUID uuid) {}
+
     /**
      * Cleans up any data for this mine on unload.
      * Will remove any boss bars from players.
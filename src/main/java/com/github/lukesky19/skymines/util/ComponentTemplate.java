@@ -0,0 +1,169 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.util;
+
+import com.github.lukesky19.skylib.api.adventure.AdventureUtil;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A MiniMessage message that is parsed once and rendered to a {@link Component} many times with different placeholder values.
+ * Each placeholder is parsed as a marker character, which is replaced by the placeholder's value when rendered.
+ * Rendering only copies the parts of the {@link Component} tree that contain a placeholder and never parses MiniMessage.
+ */
+public class ComponentTemplate {
+    /**
+     * The first marker character. Characters from the private use area are used so they don't appear in normal text.
+     */
+    private static final char MARKER_BASE = '\uE000';
+
+    private final @NotNull Component component;
+    private final int placeholderCount;
+
+    /**
+     * Default Constructor.
+     * You should use {@link #ComponentTemplate(String, String...)} instead.
+     * @deprecated You should use {@link #ComponentTemplate(String, String...)} instead.
+     * @throws RuntimeException if used.
+     */
+    @Deprecated
+    public ComponentTemplate() {
+        throw new RuntimeException("The use of the default constructor is not allowed.");
+    }
+
+    /**
+     * Constructor
+     * @param message The MiniMessage message to parse.
+     * @param placeholderNames The names of the placeholders in the message. Values are passed to {@link #render(Component...)} in the same order.
+     */
+    public ComponentTemplate(@NotNull String message, @NotNull String... placeholderNames) {
+        List<TagResolver.Single> placeholders = new ArrayList<>();
+        for(int i = 0; i < placeholderNames.length; i++) {
+            placeholders.add(Placeholder.component(placeholderNames[i], Component.text(String.valueOf((char) (MARKER_BASE + i)))));
+        }
+
+        this.component = AdventureUtil.serialize(message, placeholders);
+        this.placeholderCount = placeholderNames.length;
+    }
+
+    /**
+     * Renders the message with the provided placeholder values.
+     * @param values The values of the placeholders, in the same order as the placeholder names the template was created with.
+     * @return The rendered {@link Component}.
+     */
+    public @NotNull Component render(@NotNull Component @NotNull ... values) {
+        if(values.length != placeholderCount) {
+            throw new IllegalArgumentException("Expected " + placeholderCount + " placeholder values but got " + values.length + ".");
+        }
+
+        return replaceMarkers(component, values);
+    }
+
+    /**
+     * Replaces the markers inside a {@link Component} and its children with the placeholder values.
+     * @param component The {@link Component} to replace markers in.
+     * @param values The placeholder values.
+     * @return The same {@link Component} if it contained no markers, otherwise a copy with the markers replaced.
+     */
+    private @NotNull Component replaceMarkers(@NotNull Component component, @NotNull Component @NotNull [] values) {
+        Component result = component;
+
+        // Replace the children that contain markers, only copying the list of children if one changed
+        List<Component> children = component.children();
+        @Nullable List<Component> replacedChildren = null;
+        for(int i = 0; i < children.size(); i++) {
+            Component child = children.get(i);
+            Component replacedChild = replaceMarkers(child, values);
+
+            if(replacedChildren == null && replacedChild != child) replacedChildren = new ArrayList<>(children.subList(0, i));
+            if(replacedChildren != null) replacedChildren.add(replacedChild);
+        }
+        if(replacedChildren != null) result = result.children(replacedChildren);
+
+        // Replace markers inside hover text
+        HoverEvent<?> hoverEvent = result.hoverEvent();
+        if(hoverEvent != null && hoverEvent.value() instanceof Component hoverText) {
+            Component replacedHoverText = replaceMarkers(hoverText, values);
+            if(replacedHoverText != hoverText) result = result.hoverEvent(HoverEvent.showText(replacedHoverText));
+        }
+
+        // Split the text at its markers, the text's children follow the split text
+        if(result instanceof TextComponent textComponent && containsMarker(textComponent.content())) {
+            List<Component> parts = splitContent(textComponent.content(), values);
+            parts.addAll(textComponent.children());
+
+            result = Component.text("", textComponent.style()).children(parts);
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks if the text contains any markers.
+     * @param content The text to check.
+     * @return true if the text contains a marker, otherwise false.
+     */
+    private boolean containsMarker(@NotNull String content) {
+        for(int i = 0; i < content.length(); i++) {
+            if(isMarker(content.charAt(i))) return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Splits the text at its markers into unstyled text {@link Component}s and placeholder values.
+     * @param content The text to split.
+     * @param values The placeholder values.
+     * @return A {@link List} of {@link Component}s.
+     */
+    private @NotNull List<Component> splitContent(@NotNull String content, @NotNull Component @NotNull [] values) {
+        List<Component> parts = new ArrayList<>();
+        int start = 0;
+
+        for(int i = 0; i < content.length(); i++) {
+            char character = content.charAt(i);
+            if(!isMarker(character)) continue;
+
+            if(i > start) parts.add(Component.text(content.substring(start, i)));
+            parts.add(values[character - MARKER_BASE]);
+            start = i + 1;
+        }
+
+        if(start < content.length()) parts.add(Component.text(content.substring(start)));
+
+        return parts;
+    }
+
+    /**
+     * Checks if a character is one of this template's markers.
+     * @param character The character to check.
+     * @return true if a marker, otherwise false.
+     */
+    private boolean isMarker(char character) {
+        return character >= MARKER_BASE && character < MARKER_BASE + placeholderCount;
+    }
+}
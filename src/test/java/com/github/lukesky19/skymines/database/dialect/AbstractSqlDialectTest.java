@@ -0,0 +1,280 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.database.dialect;
+
+import com.github.lukesky19.skymines.database.KeyCache;
+import com.github.lukesky19.skymines.database.QueueManager;
+import com.github.lukesky19.skymines.database.tables.*;
+import net.kyori.adventure.text.logger.slf4j.ComponentLogger;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs the statements of a {@link SqlDialect} against its database backend.
+ * The schema is created from the tables' own creation statements and the writes use the tables' own SQL,
+ * so the statements tested are the ones the plugin runs.
+ */
+public abstract class AbstractSqlDialectTest {
+    private static final @NotNull UUID PLAYER_ID = UUID.fromString("5f1b2c3d-4e5f-4a6b-8c7d-9e0f1a2b3c4d");
+    private static final @NotNull String SERVER_ID = "test";
+    private static final @NotNull String MINE_ID = "mine";
+    /**
+     * The tables in the order they are created, so the tables referenced by foreign keys exist first.
+     */
+    private static final @NotNull List<String> TABLE_NAMES = List.of(
+            "skymines_player_ids", "skymines_mine_ids", "skymines_sessions", "skymines_block_ordinals",
+            "skymines_times", "skymines_unlocked_blocks", "skymines_cooldowns");
+
+    private Connection connection;
+    private SqlDialect sqlDialect;
+    private List<String> creationStatements;
+    private TimesTable timesTable;
+    private UnlockedBlocksTable unlockedBlocksTable;
+    private CooldownsTable cooldownsTable;
+    private long playerKey;
+    private long mineKey;
+
+    /**
+     * Get the {@link SqlDialect} to test.
+     * @return A {@link SqlDialect}.
+     */
+    protected abstract @NotNull SqlDialect createSqlDialect();
+
+    /**
+     * Opens a connection to an empty database of the dialect's backend.
+     * @return A {@link Connection}.
+     * @throws SQLException if the connection could not be opened.
+     */
+    protected abstract @NotNull Connection openConnection() throws SQLException;
+
+    /**
+     * Creates the schema and saves a player, a mine and the player's session to write rows for.
+     * @throws SQLException if a statement failed.
+     */
+    @BeforeEach
+    public void setUp() throws SQLException {
+        connection = openConnection();
+        sqlDialect = createSqlDialect();
+
+        QueueManager queueManager = mock(QueueManager.class);
+        KeyCache keyCache = new KeyCache();
+        timesTable = new TimesTable(queueManager, sqlDialect, keyCache);
+        unlockedBlocksTable = new UnlockedBlocksTable(queueManager, sqlDialect, keyCache);
+        cooldownsTable = new CooldownsTable(mock(ComponentLogger.class), queueManager, sqlDialect, keyCache);
+
+        creationStatements = new ArrayList<>();
+        creationStatements.addAll(new PlayerIdsTable(queueManager, sqlDialect, keyCache).getCreationStatements());
+        creationStatements.addAll(new MineIdsTable(queueManager, sqlDialect, keyCache).getCreationStatements());
+        creationStatements.addAll(new SessionsTable(queueManager, sqlDialect).getCreationStatements());
+        creationStatements.addAll(new BlockOrdinalsTable(queueManager, sqlDialect).getCreationStatements());
+        creationStatements.addAll(timesTable.getCreationStatements());
+        creationStatements.addAll(unlockedBlocksTable.getCreationStatements());
+        creationStatements.addAll(cooldownsTable.getCreationStatements());
+        execute(creationStatements);
+
+        update(sqlDialect.insertIgnore("skymines_player_ids", List.of("player_id")), PLAYER_ID);
+        update(sqlDialect.insertIgnore("skymines_mine_ids", List.of("mine_id")), MINE_ID);
+        update(sqlDialect.insertIgnore("skymines_sessions", List.of("player_id", "server_id", "version", "lease_expires")), PLAYER_ID, SERVER_ID, 1L, Long.MAX_VALUE);
+
+        playerKey = queryLong("SELECT id FROM skymines_player_ids WHERE player_id = ?", PLAYER_ID);
+        mineKey = queryLong("SELECT id FROM skymines_mine_ids WHERE mine_id = ?", MINE_ID);
+    }
+
+    /**
+     * Drops the tables, for backends whose databases outlive the connection, and closes the connection.
+     * @throws SQLException if a statement failed.
+     */
+    @AfterEach
+    public void tearDown() throws SQLException {
+        try {
+            List<String> statements = new ArrayList<>();
+            TABLE_NAMES.reversed().forEach(tableName -> statements.add("DROP TABLE IF EXISTS " + tableName));
+            execute(statements);
+        } finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * The creation statements are run on every enable, so they must succeed when the tables and indexes already exist.
+     * @throws SQLException if a statement failed.
+     */
+    @Test
+    public void creationStatementsRunAgain() throws SQLException {
+        execute(creationStatements);
+    }
+
+    /**
+     * Inserting an id that is already saved keeps the saved row.
+     * @throws SQLException if a statement failed.
+     */
+    @Test
+    public void insertIgnoreKeepsExistingRow() throws SQLException {
+        update(sqlDialect.insertIgnore("skymines_mine_ids", List.of("mine_id")), MINE_ID);
+
+        assertEquals(1, queryLong("SELECT COUNT(*) FROM skymines_mine_ids WHERE mine_id = ?", MINE_ID));
+        assertEquals(mineKey, queryLong("SELECT id FROM skymines_mine_ids WHERE mine_id = ?", MINE_ID));
+    }
+
+    /**
+     * An upsert inserts a row, then updates the value columns of the row with the same key.
+     * @throws SQLException if a statement failed.
+     */
+    @Test
+    public void upsertUpdatesExistingRow() throws SQLException {
+        String upsertSql = sqlDialect.upsert("skymines_times", List.of("player_key", "mine_key"), List.of("time", "last_updated"));
+
+        assertTrue(update(upsertSql, playerKey, mineKey, 10L, 1L) > 0);
+        assertTrue(update(upsertSql, playerKey, mineKey, 20L, 2L) > 0);
+
+        assertEquals(1, queryLong("SELECT COUNT(*) FROM skymines_times WHERE player_key = ?", playerKey));
+        assertEquals(20, queryLong("SELECT time FROM skymines_times WHERE player_key = ?", playerKey));
+    }
+
+    /**
+     * The tables' fenced upserts insert and then update rows while the player's lease is held.
+     * @throws SQLException if a statement failed.
+     */
+    @Test
+    public void fencedUpsertWritesWhileLeaseHeld() throws SQLException {
+        assertTrue(update(timesTable.getUpsertSql(), playerKey, mineKey, 10L, 1L, PLAYER_ID, SERVER_ID, 1L) > 0);
+        assertTrue(update(timesTable.getUpsertSql(), playerKey, mineKey, 20L, 2L, PLAYER_ID, SERVER_ID, 1L) > 0);
+        assertTrue(update(unlockedBlocksTable.getUpsertSql(), playerKey, mineKey, "AQ==", 1L, PLAYER_ID, SERVER_ID, 1L) > 0);
+        assertTrue(update(unlockedBlocksTable.getUpsertSql(), playerKey, mineKey, "Aw==", 2L, PLAYER_ID, SERVER_ID, 1L) > 0);
+        assertTrue(update(cooldownsTable.getUpsertSql(), playerKey, mineKey, "AA==", 1L, PLAYER_ID, SERVER_ID, 1L) > 0);
+        assertTrue(update(cooldownsTable.getUpsertSql(), playerKey, mineKey, "AQ==", 2L, PLAYER_ID, SERVER_ID, 1L) > 0);
+
+        assertEquals(20, queryLong("SELECT time FROM skymines_times WHERE player_key = ?", playerKey));
+        assertEquals("Aw==", queryString("SELECT unlocked_blocks FROM skymines_unlocked_blocks WHERE player_key = ?", playerKey));
+        assertEquals("AQ==", queryString("SELECT cooldowns FROM skymines_cooldowns WHERE player_key = ?", playerKey));
+    }
+
+    /**
+     * The tables' fenced upserts write nothing once another version of the lease is held.
+     * @throws SQLException if a statement failed.
+     */
+    @Test
+    public void fencedUpsertSkipsWithoutLease() throws SQLException {
+        assertEquals(0, update(timesTable.getUpsertSql(), playerKey, mineKey, 10L, 1L, PLAYER_ID, SERVER_ID, 2L));
+        assertEquals(0, update(unlockedBlocksTable.getUpsertSql(), playerKey, mineKey, "AQ==", 1L, PLAYER_ID, "other", 1L));
+        assertEquals(0, update(cooldownsTable.getUpsertSql(), playerKey, mineKey, "AA==", 1L, PLAYER_ID, SERVER_ID, 2L));
+
+        assertEquals(0, queryLong("SELECT COUNT(*) FROM skymines_times"));
+        assertEquals(0, queryLong("SELECT COUNT(*) FROM skymines_unlocked_blocks"));
+        assertEquals(0, queryLong("SELECT COUNT(*) FROM skymines_cooldowns"));
+    }
+
+    /**
+     * Cooldown rows not written by a save are deleted, but only while the player's lease is held.
+     * @throws SQLException if a statement failed.
+     */
+    @Test
+    public void staleCooldownsDeletedWhileLeaseHeld() throws SQLException {
+        update(cooldownsTable.getUpsertSql(), playerKey, mineKey, "AA==", 1L, PLAYER_ID, SERVER_ID, 1L);
+
+        assertEquals(0, update(cooldownsTable.getDeleteStaleSql(), playerKey, 2L, PLAYER_ID, SERVER_ID, 2L));
+        assertEquals(1, update(cooldownsTable.getDeleteStaleSql(), playerKey, 2L, PLAYER_ID, SERVER_ID, 1L));
+        assertEquals(0, queryLong("SELECT COUNT(*) FROM skymines_cooldowns"));
+    }
+
+    /**
+     * Runs statements without parameters in order.
+     * @param statements The SQL statements.
+     * @throws SQLException if a statement failed.
+     */
+    private void execute(@NotNull List<String> statements) throws SQLException {
+        try(Statement statement = connection.createStatement()) {
+            for(String sql : statements) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    /**
+     * Runs a write with parameters, binding {@link UUID}s as text like the plugin does.
+     * @param sql The SQL statement.
+     * @param parameters The parameters.
+     * @return The number of rows changed.
+     * @throws SQLException if the statement failed.
+     */
+    private int update(@NotNull String sql, @NotNull Object... parameters) throws SQLException {
+        try(PreparedStatement preparedStatement = prepare(sql, parameters)) {
+            return preparedStatement.executeUpdate();
+        }
+    }
+
+    /**
+     * Runs a query and gets the number in the first column of the first row.
+     * @param sql The SQL statement.
+     * @param parameters The parameters.
+     * @return The number.
+     * @throws SQLException if the statement failed.
+     */
+    private long queryLong(@NotNull String sql, @NotNull Object... parameters) throws SQLException {
+        try(PreparedStatement preparedStatement = prepare(sql, parameters); ResultSet resultSet = preparedStatement.executeQuery()) {
+            assertTrue(resultSet.next());
+            return resultSet.getLong(1);
+        }
+    }
+
+    /**
+     * Runs a query and gets the text in the first column of the first row.
+     * @param sql The SQL statement.
+     * @param parameters The parameters.
+     * @return The text.
+     * @throws SQLException if the statement failed.
+     */
+    private @NotNull String queryString(@NotNull String sql, @NotNull Object... parameters) throws SQLException {
+        try(PreparedStatement preparedStatement = prepare(sql, parameters); ResultSet resultSet = preparedStatement.executeQuery()) {
+            assertTrue(resultSet.next());
+            return resultSet.getString(1);
+        }
+    }
+
+    /**
+     * Prepares a statement and binds its parameters.
+     * @param sql The SQL statement.
+     * @param parameters The parameters.
+     * @return A {@link PreparedStatement}.
+     * @throws SQLException if the statement could not be prepared.
+     */
+    private @NotNull PreparedStatement prepare(@NotNull String sql, @NotNull Object... parameters) throws SQLException {
+        PreparedStatement preparedStatement = connection.prepareStatement(sql);
+        for(int i = 0; i < parameters.length; i++) {
+            Object value = parameters[i];
+            preparedStatement.setObject(i + 1, value instanceof UUID uuid ? uuid.toString() : value);
+        }
+
+        return preparedStatement;
+    }
+}
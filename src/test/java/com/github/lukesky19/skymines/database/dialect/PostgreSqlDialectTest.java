@@ -0,0 +1,73 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.database.dialect;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Runs the statements of the {@link PostgreSqlDialect} against an embedded PostgreSQL server.
+ * H2's PostgreSQL mode only supports ON CONFLICT DO NOTHING, so it can't run the dialect's upserts.
+ */
+public class PostgreSqlDialectTest extends AbstractSqlDialectTest {
+    private static EmbeddedPostgres postgres;
+
+    /**
+     * Default Constructor
+     */
+    public PostgreSqlDialectTest() {}
+
+    /**
+     * Starts the PostgreSQL server shared by the tests.
+     * @throws IOException if the server could not be started.
+     */
+    @BeforeAll
+    public static void startServer() throws IOException {
+        postgres = EmbeddedPostgres.start();
+    }
+
+    /**
+     * Stops the PostgreSQL server.
+     * @throws IOException if the server could not be stopped.
+     */
+    @AfterAll
+    public static void stopServer() throws IOException {
+        if(postgres != null) postgres.close();
+    }
+
+    @Override
+    protected @NotNull SqlDialect createSqlDialect() {
+        return new PostgreSqlDialect();
+    }
+
+    /**
+     * Opens a connection to the server's database, whose tables are dropped after each test.
+     * @return A {@link Connection}.
+     * @throws SQLException if the connection could not be opened.
+     */
+    @Override
+    protected @NotNull Connection openConnection() throws SQLException {
+        return postgres.getPostgresDatabase().getConnection();
+    }
+}
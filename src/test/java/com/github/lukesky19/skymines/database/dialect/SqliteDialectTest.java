@@ -0,0 +1,49 @@
+/*
+    SkyMines offers different types mines to get resources from.
+    Copyright (C) 2023 lukeskywlker19
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.github.lukesky19.skymines.database.dialect;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * Runs the statements of the {@link SqliteDialect} against SQLite.
+ */
+public class SqliteDialectTest extends AbstractSqlDialectTest {
+    /**
+     * Default Constructor
+     */
+    public SqliteDialectTest() {}
+
+    @Override
+    protected @NotNull SqlDialect createSqlDialect() {
+        return new SqliteDialect();
+    }
+
+    /**
+     * Opens a new in-memory database, which is removed once its connection is closed.
+     * @return A {@link Connection}.
+     * @throws SQLException if the connection could not be opened.
+     */
+    @Override
+    protected @NotNull Connection openConnection() throws SQLException {
+        return DriverManager.getConnection("jdbc:sqlite::memory:");
+    }
+}